@@ -0,0 +1,325 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 动作元数据目录
+ * 以二进制文件持久化下载目录中每个.ebs文件的元数据（名称、帧数、采样率、时长、编译时间、大小、修改时间、哈希），
+ * 动作列表和名称查找直接读取目录，不再打开.ebs文件；
+ * 文件大小或修改时间变化时只重新读取96字节文件头
+ *
+ * 目录文件格式（大端，DataOutputStream）：
+ * 魔数"EBC1" | 版本(int) | 条目数(int) | 条目...
+ * 条目: 文件名(UTF) | 名称(UTF) | 帧数(int) | 采样率(float) | 时长(float) | 编译时间(int) | 大小(long) | 修改时间(long) | 哈希(UTF)
+ */
+public class ActionCatalog {
+
+    private static final String TAG = "ActionCatalog";
+
+    public static final String FILE_NAME = "action_catalog.bin";
+
+    private static final int MAGIC = 0x45424331;  // "EBC1"
+    private static final int VERSION = 1;
+
+    private final File catalogFile;
+    private final SequenceLoader loader;
+
+    // 文件名 -> 条目（保持下载顺序）
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // 名称索引：中文名和文件名（英文名）-> 条目
+    private final Map<String, Entry> nameIndex = new HashMap<>();
+    private boolean loaded = false;   // 已读取持久化目录
+    private boolean synced = false;   // 已与动作目录同步过
+
+    /**
+     * 构造函数
+     *
+     * @param catalogFile 目录文件
+     * @param loader      序列加载器（用于读取文件头）
+     */
+    public ActionCatalog(File catalogFile, SequenceLoader loader) {
+        if (catalogFile == null || loader == null) {
+            throw new IllegalArgumentException("catalogFile和loader不能为null");
+        }
+        this.catalogFile = catalogFile;
+        this.loader = loader;
+    }
+
+    /**
+     * 与动作目录同步
+     * 加载持久化目录，对新增或大小/修改时间变化的文件重新读取文件头，删除已不存在的条目，有变化时写回
+     *
+     * @param actionDir 动作文件目录
+     * @return 重新读取文件头的文件数
+     */
+    public synchronized int sync(File actionDir) {
+        if (!loaded) {
+            load();
+        }
+
+        Map<String, File> onDisk = new HashMap<>();
+        File[] files = actionDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile() && file.getName().endsWith(".ebs")) {
+                    onDisk.put(file.getName(), file);
+                }
+            }
+        }
+
+        boolean changed = false;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            if (!onDisk.containsKey(it.next().getKey())) {
+                it.remove();
+                changed = true;
+            }
+        }
+
+        int refreshed = 0;
+        for (File file : onDisk.values()) {
+            Entry entry = entries.get(file.getName());
+            if (entry != null && entry.fileSize == file.length() && entry.lastModified == file.lastModified()) {
+                continue;
+            }
+            try {
+                entries.put(file.getName(), readEntry(file, null));
+                refreshed++;
+            } catch (IOException e) {
+                Log.w(TAG, "读取文件头失败，跳过: " + file.getName(), e);
+                entries.remove(file.getName());
+            }
+            changed = true;
+        }
+
+        rebuildNameIndex();
+        if (changed) {
+            save();
+        }
+        synced = true;
+
+        Log.d(TAG, String.format("目录同步完成: %d 个条目，重新读取文件头 %d 个", entries.size(), refreshed));
+        return refreshed;
+    }
+
+    /**
+     * 记录新下载的文件
+     *
+     * @param file 已写入的.ebs文件
+     * @param data 文件内容，用于计算哈希；为null时哈希留空
+     * @return 新条目
+     * @throws IOException 文件头无效
+     */
+    public synchronized Entry put(File file, byte[] data) throws IOException {
+        if (!loaded) {
+            load();
+        }
+        Entry entry = readEntry(file, data != null ? md5Hex(data) : null);
+        entries.put(file.getName(), entry);
+        rebuildNameIndex();
+        save();
+        return entry;
+    }
+
+    /**
+     * 清空目录并删除目录文件
+     */
+    public synchronized void clear() {
+        entries.clear();
+        nameIndex.clear();
+        loaded = true;
+        synced = true;
+        if (catalogFile.exists() && !catalogFile.delete()) {
+            Log.w(TAG, "删除目录文件失败: " + catalogFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * 是否已与动作目录同步
+     */
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * 获取全部条目
+     *
+     * @return 条目列表副本
+     */
+    public synchronized List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * 获取条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 按动作名称查找条目
+     * 支持中文名称、英文名称（文件名去掉扩展名）以及通过ActionNameUtils映射的名称
+     *
+     * @param actionName 动作名称
+     * @return 条目，未找到返回null
+     */
+    public synchronized Entry findByName(String actionName) {
+        if (actionName == null || actionName.isEmpty()) {
+            return null;
+        }
+        Entry entry = nameIndex.get(actionName);
+        if (entry == null) {
+            entry = nameIndex.get(ActionNameUtils.chineseToEnglish(actionName));
+        }
+        if (entry == null) {
+            entry = nameIndex.get(ActionNameUtils.englishToChinese(actionName));
+        }
+        return entry;
+    }
+
+    private Entry readEntry(File file, String fileHash) throws IOException {
+        SequenceData header = loader.readHeader(file);
+        Entry entry = new Entry();
+        entry.fileName = file.getName();
+        entry.name = header.name;
+        entry.frameCount = header.totalFrames;
+        entry.sampleRate = header.sampleRate;
+        entry.duration = header.totalDuration;
+        entry.compiledAt = header.compiledAt;
+        entry.fileSize = file.length();
+        entry.lastModified = file.lastModified();
+        entry.fileHash = fileHash != null ? fileHash : "";
+        return entry;
+    }
+
+    private void rebuildNameIndex() {
+        nameIndex.clear();
+        for (Entry entry : entries.values()) {
+            nameIndex.put(ActionNameUtils.extractActionNameFromFileName(entry.fileName), entry);
+            if (entry.name != null && !entry.name.isEmpty()) {
+                nameIndex.put(entry.name, entry);
+            }
+        }
+    }
+
+    /**
+     * 加载持久化目录，文件不存在或损坏时从空目录开始
+     */
+    private void load() {
+        loaded = true;
+        entries.clear();
+        if (!catalogFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(catalogFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                Log.w(TAG, "目录文件格式不匹配，重新建立");
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry();
+                entry.fileName = in.readUTF();
+                entry.name = in.readUTF();
+                entry.frameCount = in.readInt();
+                entry.sampleRate = in.readFloat();
+                entry.duration = in.readFloat();
+                entry.compiledAt = in.readInt();
+                entry.fileSize = in.readLong();
+                entry.lastModified = in.readLong();
+                entry.fileHash = in.readUTF();
+                entries.put(entry.fileName, entry);
+            }
+            Log.d(TAG, "加载目录文件: " + count + " 个条目");
+        } catch (IOException e) {
+            Log.w(TAG, "读取目录文件失败，重新建立", e);
+            entries.clear();
+        }
+    }
+
+    /**
+     * 写回目录文件：先写临时文件再重命名，避免写入中断导致目录损坏
+     */
+    private void save() {
+        File tmpFile = new File(catalogFile.getParentFile(), catalogFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                out.writeUTF(entry.fileName);
+                out.writeUTF(entry.name != null ? entry.name : "");
+                out.writeInt(entry.frameCount);
+                out.writeFloat(entry.sampleRate);
+                out.writeFloat(entry.duration);
+                out.writeInt(entry.compiledAt);
+                out.writeLong(entry.fileSize);
+                out.writeLong(entry.lastModified);
+                out.writeUTF(entry.fileHash != null ? entry.fileHash : "");
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "写入目录文件失败", e);
+            tmpFile.delete();
+            return;
+        }
+        if (!tmpFile.renameTo(catalogFile)) {
+            Log.w(TAG, "替换目录文件失败: " + catalogFile.getAbsolutePath());
+            tmpFile.delete();
+        }
+    }
+
+    private static String md5Hex(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("MD5").digest(data);
+            StringBuilder result = new StringBuilder();
+            for (byte b : hash) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (Exception e) {
+            Log.w(TAG, "计算哈希失败", e);
+            return "";
+        }
+    }
+
+    /**
+     * 目录条目
+     */
+    public static class Entry {
+        public String fileName;       // 文件名
+        public String name;           // 序列名称（文件头中的中文名称）
+        public int frameCount;        // 帧数
+        public float sampleRate;      // 采样率 (Hz)
+        public float duration;        // 总时长 (秒)
+        public int compiledAt;        // 编译时间戳
+        public long fileSize;         // 文件大小
+        public long lastModified;     // 修改时间
+        public String fileHash;       // MD5哈希，仅下载时计算，未知时为空字符串
+
+        @Override
+        public String toString() {
+            return String.format("Entry{file=%s, name=%s, frames=%d, rate=%.1fHz}",
+                fileName, name, frameCount, sampleRate);
+        }
+    }
+}
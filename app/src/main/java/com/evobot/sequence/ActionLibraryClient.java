@@ -127,11 +127,57 @@ public class ActionLibraryClient {
      * 同步下载动作序列
      */
     public byte[] downloadSequence(int sequenceId) throws IOException {
+        String path = buildDownloadPath(sequenceId);
+        
+        return makeAuthenticatedBinaryRequest("GET", path, null);
+    }
+    
+    /**
+     * 流式下载动作序列
+     * 响应体不在内存中缓冲，边接收边交给reader处理，连接在reader返回后关闭
+     */
+    public SequenceData downloadSequenceStreaming(int sequenceId, SequenceStreamReader reader) throws IOException {
+        String path = buildDownloadPath(sequenceId);
+        
+        HttpURLConnection connection = null;
+        try {
+            URL url = new URL(config.getBaseUrl() + path);
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(ActionLibraryConfig.CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(ActionLibraryConfig.READ_TIMEOUT_MS);
+            
+            // 设置认证头
+            setAuthHeaders(connection, "GET", path);
+            
+            int responseCode = connection.getResponseCode();
+            if (responseCode >= 200 && responseCode < 300) {
+                try (InputStream inputStream = connection.getInputStream()) {
+                    return reader.read(inputStream);
+                }
+            } else {
+                String errorResponse = readStringFromStream(connection.getErrorStream());
+                throw new IOException("HTTP请求失败，响应码: " + responseCode + ", 响应: " + errorResponse);
+            }
+            
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+    
+    /**
+     * 构建下载路径，启用压缩格式时请求EBS2
+     */
+    private String buildDownloadPath(int sequenceId) {
         String path = String.format("/sequences/%d/download?robot_id=%s&compensation=%s&safety_check=%s",
             sequenceId, config.getRobotId(), 
             config.isEnableCompensation(), config.isEnableSafetyCheck());
-        
-        return makeAuthenticatedBinaryRequest("GET", path, null);
+        if (config.isEnableCompressedFormat()) {
+            path += "&format=ebs2";
+        }
+        return path;
     }
     
     /**
@@ -591,6 +637,10 @@ public class ActionLibraryClient {
         void onError(String error);
     }
     
+    public interface SequenceStreamReader {
+        SequenceData read(InputStream inputStream) throws IOException;
+    }
+    
     public interface SequenceListCallback {
         void onSuccess(String jsonResponse);
         void onError(String error);
@@ -29,6 +29,7 @@ public class ActionLibraryConfig {
     private final boolean enableCache;
     private final boolean enableCompensation;
     private final boolean enableSafetyCheck;
+    private final boolean enableCompressedFormat;
     
     /**
      * 构造函数
@@ -43,12 +44,24 @@ public class ActionLibraryConfig {
     public ActionLibraryConfig(String baseUrl, String robotId, String apiKey, 
                               boolean enableCache, boolean enableCompensation, 
                               boolean enableSafetyCheck) {
+        this(baseUrl, robotId, apiKey, enableCache, enableCompensation, enableSafetyCheck, false);
+    }
+    
+    /**
+     * 完整构造函数（含压缩格式选项）
+     * 
+     * @param enableCompressedFormat 请求服务器返回EBS2压缩格式，并以EBS2格式写入缓存
+     */
+    public ActionLibraryConfig(String baseUrl, String robotId, String apiKey, 
+                              boolean enableCache, boolean enableCompensation, 
+                              boolean enableSafetyCheck, boolean enableCompressedFormat) {
         this.baseUrl = baseUrl != null ? baseUrl : DEFAULT_BASE_URL;
         this.robotId = robotId != null ? robotId : DEFAULT_ROBOT_ID;
         this.apiKey = apiKey != null ? apiKey : DEFAULT_API_KEY;
         this.enableCache = enableCache;
         this.enableCompensation = enableCompensation;
         this.enableSafetyCheck = enableSafetyCheck;
+        this.enableCompressedFormat = enableCompressedFormat;
     }
     
     /**
@@ -65,11 +78,12 @@ public class ActionLibraryConfig {
     public boolean isEnableCache() { return enableCache; }
     public boolean isEnableCompensation() { return enableCompensation; }
     public boolean isEnableSafetyCheck() { return enableSafetyCheck; }
+    public boolean isEnableCompressedFormat() { return enableCompressedFormat; }
     
     @Override
     public String toString() {
-        return String.format("ActionLibraryConfig{baseUrl='%s', robotId='%s', cache=%s, compensation=%s, safety=%s}",
-            baseUrl, robotId, enableCache, enableCompensation, enableSafetyCheck);
+        return String.format("ActionLibraryConfig{baseUrl='%s', robotId='%s', cache=%s, compensation=%s, safety=%s, compressed=%s}",
+            baseUrl, robotId, enableCache, enableCompensation, enableSafetyCheck, enableCompressedFormat);
     }
     
     /**
@@ -82,6 +96,7 @@ public class ActionLibraryConfig {
         private boolean enableCache = true;
         private boolean enableCompensation = true;
         private boolean enableSafetyCheck = true;
+        private boolean enableCompressedFormat = false;
         
         public Builder setBaseUrl(String baseUrl) {
             this.baseUrl = baseUrl;
@@ -113,8 +128,14 @@ public class ActionLibraryConfig {
             return this;
         }
         
+        public Builder setEnableCompressedFormat(boolean enableCompressedFormat) {
+            this.enableCompressedFormat = enableCompressedFormat;
+            return this;
+        }
+        
         public ActionLibraryConfig build() {
-            return new ActionLibraryConfig(baseUrl, robotId, apiKey, enableCache, enableCompensation, enableSafetyCheck);
+            return new ActionLibraryConfig(baseUrl, robotId, apiKey, enableCache, enableCompensation, 
+                enableSafetyCheck, enableCompressedFormat);
         }
     }
 }
\ No newline at end of file
@@ -3,9 +3,11 @@ package com.evobot.sequence;
 import android.content.Context;
 import android.util.Log;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -83,9 +85,7 @@ public class ActionLibraryManager {
             Log.d(TAG, "从缓存加载动作: " + actionName);
             File cachedFile = cacheManager.getCachedFile(actionName);
             if (cachedFile != null && cachedFile.exists()) {
-                try (FileInputStream fis = new FileInputStream(cachedFile)) {
-                    return sequenceLoader.parseEbsFile(fis);
-                }
+                return sequenceLoader.loadFromFile(cachedFile);
             }
         }
         
@@ -94,6 +94,57 @@ public class ActionLibraryManager {
         return downloadAndCacheSequence(actionName);
     }
     
+    /**
+     * 同步流式加载动作序列
+     * 缓存命中时直接映射本地文件；缓存未命中时边下载边解析，
+     * 已解析帧数达到lookaheadFrames即回调callback，调用方可以在下载完成前开始播放。
+     * 下载完成后写入缓存
+     *
+     * @param actionName      动作名称
+     * @param lookaheadFrames 预读帧数
+     * @param callback        预读就绪回调（在当前线程调用）
+     * @return 全部帧加载完成后的序列数据
+     */
+    public SequenceData loadSequenceStreaming(String actionName, int lookaheadFrames,
+                                              SequenceLoader.StreamingCallback callback) throws IOException {
+        Log.d(TAG, "开始流式加载动作序列: " + actionName);
+        
+        // 1. 检查本地缓存
+        if (config.isEnableCache() && cacheManager.isCached(actionName)) {
+            File cachedFile = cacheManager.getCachedFile(actionName);
+            if (cachedFile != null && cachedFile.exists()) {
+                Log.d(TAG, "从缓存加载动作: " + actionName);
+                SequenceData data = sequenceLoader.loadFromFile(cachedFile);
+                if (callback != null) {
+                    callback.onLookaheadReady(data);
+                }
+                return data;
+            }
+        }
+        
+        // 2. 从网络流式下载
+        String sequenceListJson = client.getSequenceList(null, 100, 0);
+        buildMappingsFromSequenceList(sequenceListJson);
+        
+        int sequenceId = findSequenceIdByName(sequenceListJson, actionName);
+        if (sequenceId <= 0) {
+            throw new IOException("未找到动作序列: " + actionName);
+        }
+        
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        SequenceData data = client.downloadSequenceStreaming(sequenceId, inputStream ->
+            sequenceLoader.parseEbsFileStreaming(new CopyingInputStream(inputStream, received),
+                lookaheadFrames, callback));
+        
+        // 缓存到本地
+        if (config.isEnableCache()) {
+            boolean cached = cacheManager.cacheAction(actionName, toCacheBytes(received.toByteArray(), data), null);
+            Log.d(TAG, String.format("动作缓存结果: %s -> %s", actionName, cached));
+        }
+        
+        return data;
+    }
+    
     /**
      * 从网络下载并缓存动作序列
      */
@@ -113,14 +164,30 @@ public class ActionLibraryManager {
         // 下载动作文件
         byte[] sequenceData = client.downloadSequence(sequenceId);
         
+        // 解析
+        SequenceData data = sequenceLoader.parseEbsFile(new java.io.ByteArrayInputStream(sequenceData));
+        
         // 缓存到本地
         if (config.isEnableCache()) {
-            boolean cached = cacheManager.cacheAction(actionName, sequenceData, null);
+            boolean cached = cacheManager.cacheAction(actionName, toCacheBytes(sequenceData, data), null);
             Log.d(TAG, String.format("动作缓存结果: %s -> %s", actionName, cached));
         }
         
-        // 解析并返回
-        return sequenceLoader.parseEbsFile(new java.io.ByteArrayInputStream(sequenceData));
+        return data;
+    }
+    
+    /**
+     * 获取写入缓存的文件内容
+     * 启用压缩格式且服务器返回EBS1时，转码为EBS2以减少缓存占用
+     */
+    private byte[] toCacheBytes(byte[] received, SequenceData data) {
+        if (config.isEnableCompressedFormat() && received.length > 4
+                && received[3] == SequenceEncoder.MAGIC_EBS1.charAt(3)) {
+            byte[] compressed = SequenceEncoder.encodeEbs2(data);
+            Log.d(TAG, String.format("缓存转码为EBS2: %d -> %d bytes", received.length, compressed.length));
+            return compressed;
+        }
+        return received;
     }
     
     /**
@@ -326,6 +393,44 @@ public class ActionLibraryManager {
         }
     }
     
+    /**
+     * 读取时同时保存已读字节的输入流，用于边解析边留存缓存内容
+     */
+    private static class CopyingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream copy;
+        
+        CopyingInputStream(InputStream in, ByteArrayOutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                copy.write(b);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int bytesRead = super.read(b, off, len);
+            if (bytesRead > 0) {
+                copy.write(b, off, bytesRead);
+            }
+            return bytesRead;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过的字节也需要留存，按读取处理
+            byte[] skipped = new byte[(int) Math.min(n, 8192)];
+            int bytesRead = read(skipped, 0, skipped.length);
+            return Math.max(bytesRead, 0);
+        }
+    }
+    
     // 回调接口
     public interface LoadSequenceCallback {
         void onSuccess(SequenceData data);
@@ -51,6 +51,7 @@ public class ActionLibraryUpdater {
     private final ExecutorService executor;
     private final File localActionDir;
     private final StorageLocation storageLocation;
+    private final ActionCatalog catalog;
     
     /**
      * 构造函数（使用默认内部存储）
@@ -83,6 +84,8 @@ public class ActionLibraryUpdater {
             boolean created = localActionDir.mkdirs();
             Log.d(TAG, "创建本地动作目录: " + localActionDir.getAbsolutePath() + ", 结果: " + created);
         }
+        this.catalog = new ActionCatalog(new File(localActionDir, ActionCatalog.FILE_NAME),
+            new SequenceLoader(this.context));
         
         Log.d(TAG, String.format("动作库更新器初始化完成，存储位置: %s (%s)", 
             storageLocation, localActionDir.getAbsolutePath()));
@@ -437,8 +440,13 @@ public class ActionLibraryUpdater {
         
         Log.d(TAG, "保存动作文件: " + actionFile.getAbsolutePath());
         
-        // 下载完成后，解析文件并建立映射关系
-        buildMappingForDownloadedFile(actionFile);
+        // 下载完成后，记录到动作目录并建立映射关系
+        try {
+            ActionCatalog.Entry entry = catalog.put(actionFile, zipData);
+            ActionNameUtils.addMappingFromFile(entry.fileName, entry.name);
+        } catch (IOException e) {
+            Log.w(TAG, "记录动作目录失败: " + actionFile.getName(), e);
+        }
         
         // 更新本地动作索引
         updateLocalSequenceIndex(fileName, version);
@@ -478,22 +486,17 @@ public class ActionLibraryUpdater {
     private List<LocalSequenceInfo> getLocalSequences() {
         List<LocalSequenceInfo> sequences = new ArrayList<>();
         
-        // 扫描本地动作目录
-        File[] files = localActionDir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile() && file.getName().endsWith(".ebs")) {
-                    LocalSequenceInfo info = new LocalSequenceInfo();
-                    info.fileName = file.getName();
-                    info.filePath = file.getAbsolutePath();
-                    info.fileSize = file.length();
-                    info.lastModified = file.lastModified();
-                    // 这里应该解析文件获取更多信息，简化处理
-                    info.name = extractActionNameFromFileName(file.getName());
-                    info.version = "1.0.0"; // 简化处理
-                    sequences.add(info);
-                }
-            }
+        // 从动作目录读取，不再扫描和打开文件
+        for (ActionCatalog.Entry entry : getCatalogEntries()) {
+            LocalSequenceInfo info = new LocalSequenceInfo();
+            info.fileName = entry.fileName;
+            info.filePath = new File(localActionDir, entry.fileName).getAbsolutePath();
+            info.fileSize = entry.fileSize;
+            info.lastModified = entry.lastModified;
+            info.fileHash = entry.fileHash;
+            info.name = extractActionNameFromFileName(entry.fileName);
+            info.version = "1.0.0"; // 简化处理
+            sequences.add(info);
         }
         
         return sequences;
@@ -511,6 +514,13 @@ public class ActionLibraryUpdater {
      * 支持中文名称和英文名称查找，使用动态映射
      */
     public File getLocalActionFile(String actionName) {
+        if (catalog.isSynced()) {
+            // 目录已同步：按名称索引查找
+            ActionCatalog.Entry entry = catalog.findByName(actionName);
+            return entry != null ? new File(localActionDir, entry.fileName) : null;
+        }
+        
+        // 目录尚未同步（initializeMappings未完成），扫描目录
         File[] files = localActionDir.listFiles();
         if (files != null) {
             // 使用工具类进行智能文件匹配
@@ -524,17 +534,33 @@ public class ActionLibraryUpdater {
      */
     public List<File> getAllLocalActionFiles() {
         List<File> actionFiles = new ArrayList<>();
-        File[] files = localActionDir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile() && file.getName().endsWith(".ebs")) {
-                    actionFiles.add(file);
-                }
-            }
+        for (ActionCatalog.Entry entry : getCatalogEntries()) {
+            actionFiles.add(new File(localActionDir, entry.fileName));
         }
         return actionFiles;
     }
     
+    /**
+     * 获取动作目录中的全部条目
+     * 首次调用时与下载目录同步，之后直接返回内存中的目录
+     */
+    public List<ActionCatalog.Entry> getCatalogEntries() {
+        if (!catalog.isSynced()) {
+            catalog.sync(localActionDir);
+        }
+        return catalog.getEntries();
+    }
+    
+    /**
+     * 按名称在动作目录中查找条目（支持中英文名称）
+     */
+    public ActionCatalog.Entry findCatalogEntry(String actionName) {
+        if (!catalog.isSynced()) {
+            catalog.sync(localActionDir);
+        }
+        return catalog.findByName(actionName);
+    }
+    
     /**
      * 清理本地动作文件
      */
@@ -549,6 +575,9 @@ public class ActionLibraryUpdater {
             }
         }
         
+        // 清理动作目录
+        catalog.clear();
+        
         // 清理SharedPreferences
         prefs.edit()
             .remove(KEY_LOCAL_SEQUENCES)
@@ -603,44 +632,20 @@ public class ActionLibraryUpdater {
     }
     
     /**
-     * 为下载的文件建立中英文名称映射关系
-     */
-    private void buildMappingForDownloadedFile(File actionFile) {
-        try {
-            // 解析文件获取中文名称
-            SequenceLoader loader = new SequenceLoader(context);
-            try (java.io.FileInputStream fis = new java.io.FileInputStream(actionFile)) {
-                SequenceData sequenceData = loader.parseEbsFile(fis);
-                
-                // 建立映射关系
-                ActionNameUtils.addMappingFromFile(actionFile.getName(), sequenceData);
-                
-                Log.d(TAG, String.format("为文件建立映射: %s -> %s", 
-                    actionFile.getName(), sequenceData.name));
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "建立文件映射失败: " + actionFile.getName(), e);
-        }
-    }
-    
-    /**
-     * 初始化时扫描本地文件并建立映射关系
+     * 初始化时同步动作目录并建立映射关系
+     * 只对新增或变化的文件读取文件头，不解析帧数据
      */
     public void initializeMappings() {
         Log.d(TAG, "开始初始化动作名称映射...");
         
-        File[] files = localActionDir.listFiles();
-        if (files != null) {
-            int mappingCount = 0;
-            for (File file : files) {
-                if (file.getName().endsWith(".ebs")) {
-                    buildMappingForDownloadedFile(file);
-                    mappingCount++;
-                }
-            }
-            Log.d(TAG, String.format("映射初始化完成: 处理了 %d 个文件，当前映射数量: %d", 
-                mappingCount, ActionNameUtils.getMappingCount()));
+        int refreshed = catalog.sync(localActionDir);
+        List<ActionCatalog.Entry> entries = catalog.getEntries();
+        for (ActionCatalog.Entry entry : entries) {
+            ActionNameUtils.addMappingFromFile(entry.fileName, entry.name);
         }
+        
+        Log.d(TAG, String.format("映射初始化完成: 处理了 %d 个文件（读取文件头 %d 个），当前映射数量: %d", 
+            entries.size(), refreshed, ActionNameUtils.getMappingCount()));
     }
     
     // 回调接口
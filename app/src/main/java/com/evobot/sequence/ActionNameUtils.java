@@ -110,8 +110,21 @@ public class ActionNameUtils {
             return;
         }
         
+        addMappingFromFile(fileName, sequenceData.name); // SequenceData.name 字段包含中文名称
+    }
+    
+    /**
+     * 从文件名和文件头中的中文名称建立映射
+     * 
+     * @param fileName 动作文件名（如：arm_movement_left_arm_wave.ebs）
+     * @param chineseName 文件头中的中文名称
+     */
+    public static void addMappingFromFile(String fileName, String chineseName) {
+        if (fileName == null) {
+            return;
+        }
+        
         String englishName = extractActionNameFromFileName(fileName);
-        String chineseName = sequenceData.name; // SequenceData.name 字段包含中文名称
         
         if (chineseName != null && !chineseName.isEmpty()) {
             addMapping(chineseName, englishName);
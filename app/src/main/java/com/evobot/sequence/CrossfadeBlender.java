@@ -0,0 +1,166 @@
+package com.evobot.sequence;
+
+/**
+ * 序列切换的交叉淡化
+ * 记录最近一次输出的关节值；开始淡化后，在窗口内的每一帧把旧序列尾部与新序列当前帧按权重混合后再交付：
+ * 第k帧（从0开始，窗口N帧）新序列权重为 (k+1)/(N+1)，窗口结束后直接转发。
+ *
+ * 旧序列尾部逐帧推进（每个播放周期一帧源帧），-1沿用该关节上一帧的值，尾部读完后保持最后的位置；
+ * 只在每帧读取一行源数据并更新20个关节，不生成混合后的序列副本，稳态不分配内存。
+ * 任一侧关节为-1（此前从未有效）时不混合，取另一侧的值。
+ *
+ * 非线程安全，只在播放线程使用（开始淡化在切换序列时调用）
+ */
+final class CrossfadeBlender implements FrameBufferListener {
+
+    private static final int JOINTS = SequenceData.JOINTS_PER_ARM;
+
+    final FrameBufferListener delegate;
+
+    // 交付缓冲区：两组交替使用，见 FrameBufferListener 的所有权约定
+    private final int[][] leftBuffers = new int[2][JOINTS];
+    private final int[][] rightBuffers = new int[2][JOINTS];
+    private int bufferIndex = 0;
+
+    // 最近一次交付的关节值（淡化起点）
+    private final int[] lastLeft = new int[JOINTS];
+    private final int[] lastRight = new int[JOINTS];
+    private boolean hasOutput = false;
+
+    // 旧序列尾部：当前位置的关节值及下一帧
+    private final int[] tailLeft = new int[JOINTS];
+    private final int[] tailRight = new int[JOINTS];
+    private SequenceData tailData;
+    private int tailFrame;
+
+    private int fadeFrames = 0;     // 窗口帧数
+    private int fadeIndex = 0;      // 窗口内已输出帧数
+
+    CrossfadeBlender(FrameBufferListener delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 从本实例最近输出的位置开始淡化（队列切换）
+     *
+     * @param data      旧序列，尾部从nextFrame开始推进，可为null（保持最后输出的位置）
+     * @param nextFrame 旧序列尚未输出的第一帧
+     * @param frames    窗口帧数
+     */
+    void begin(SequenceData data, int nextFrame, int frames) {
+        begin(this, data, nextFrame, frames);
+    }
+
+    /**
+     * 从另一实例最近输出的位置开始淡化（打断正在播放的序列）
+     *
+     * @param previous  旧序列的淡化器，没有输出过帧时不淡化
+     * @param data      旧序列，尾部从nextFrame开始推进，可为null（保持最后输出的位置）
+     * @param nextFrame 旧序列尚未输出的第一帧
+     * @param frames    窗口帧数
+     */
+    void begin(CrossfadeBlender previous, SequenceData data, int nextFrame, int frames) {
+        if (frames <= 0 || previous == null || !previous.hasOutput) {
+            cancel();
+            return;
+        }
+        System.arraycopy(previous.lastLeft, 0, tailLeft, 0, JOINTS);
+        System.arraycopy(previous.lastRight, 0, tailRight, 0, JOINTS);
+        tailData = data;
+        tailFrame = nextFrame;
+        fadeFrames = frames;
+        fadeIndex = 0;
+    }
+
+    /**
+     * 结束淡化，之后的帧直接转发
+     */
+    void cancel() {
+        fadeFrames = 0;
+        fadeIndex = 0;
+        tailData = null;
+    }
+
+    boolean isFading() {
+        return fadeIndex < fadeFrames;
+    }
+
+    @Override
+    public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+        if (fadeIndex >= fadeFrames) {
+            System.arraycopy(leftArm, 0, lastLeft, 0, JOINTS);
+            System.arraycopy(rightArm, 0, lastRight, 0, JOINTS);
+            hasOutput = true;
+            delegate.onFrameBuffer(leftArm, rightArm, frameIndex);
+            return;
+        }
+
+        advanceTail();
+
+        int[] left = leftBuffers[bufferIndex];
+        int[] right = rightBuffers[bufferIndex];
+        bufferIndex ^= 1;
+
+        // 定点权重：新序列占 (k+1)/(N+1)
+        int weight = (int) (((long) (fadeIndex + 1) << 16) / (fadeFrames + 1));
+        for (int j = 0; j < JOINTS; j++) {
+            left[j] = blend(tailLeft[j], leftArm[j], weight);
+            right[j] = blend(tailRight[j], rightArm[j], weight);
+        }
+        fadeIndex++;
+        if (fadeIndex >= fadeFrames) {
+            tailData = null;
+        }
+
+        System.arraycopy(left, 0, lastLeft, 0, JOINTS);
+        System.arraycopy(right, 0, lastRight, 0, JOINTS);
+        delegate.onFrameBuffer(left, right, frameIndex);
+    }
+
+    /**
+     * 旧序列尾部前进一帧（-1沿用上一帧的值）
+     */
+    private void advanceTail() {
+        SequenceData data = tailData;
+        if (data == null || tailFrame >= data.loadedFrames) {
+            return;
+        }
+        for (int j = 0; j < JOINTS; j++) {
+            int value = data.getJoint(tailFrame, j);
+            if (value != -1) {
+                tailLeft[j] = value;
+            }
+            value = data.getJoint(tailFrame, JOINTS + j);
+            if (value != -1) {
+                tailRight[j] = value;
+            }
+        }
+        tailFrame++;
+    }
+
+    private static int blend(int from, int to, int weight) {
+        if (from == -1) {
+            return to;
+        }
+        if (to == -1) {
+            return from;
+        }
+        return from + (((to - from) * weight + 0x8000) >> 16);
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void onError(String errorMessage) {
+        delegate.onError(errorMessage);
+    }
+
+    @Override
+    public void onEmergencyStop() {
+        cancel();
+        delegate.onEmergencyStop();
+    }
+}
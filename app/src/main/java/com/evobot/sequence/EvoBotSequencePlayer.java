@@ -3,11 +3,15 @@ package com.evobot.sequence;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
-import android.os.SystemClock;
 import android.util.Log;
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * EvoBot序列播放器
@@ -23,6 +27,10 @@ public class EvoBotSequencePlayer {
     private static final String ASSETS_PATH = "sequences/";
     private static final String DEFAULT_SEQUENCE_FILE = "左臂挥手右臂掐腰抱胸_20260116_142711.ebs";
 
+    // 播放速度范围
+    public static final float MIN_PLAYBACK_SPEED = 0.1f;
+    public static final float MAX_PLAYBACK_SPEED = 4.0f;
+
     // 核心组件
     private final Context context;
     private final SequenceLoader loader;
@@ -31,29 +39,107 @@ public class EvoBotSequencePlayer {
     // 动作库更新器（可选）
     private ActionLibraryUpdater actionLibraryUpdater;
 
-    // 播放状态
-    private PlayerState state = PlayerState.IDLE;
-    private SequenceData currentSequence;
-    private SequenceListener listener;
+    // assets中的.ebs文件名（随APK打包不会变化，首次列出后缓存）
+    private String[] assetSequenceFiles;
+
+    // 播放状态：只通过CAS转换，任意线程可读
+    private final AtomicReference<PlayerState> state = new AtomicReference<>(PlayerState.IDLE);
+    private volatile SequenceData currentSequence;
+    private FrameBufferListener listener;
+
+    // 控制命令（单写者）：播放位置、调度器和监听器等播放字段只由持有执行权的线程修改。
+    // 任意线程的控制操作作为命令入队，没有持有者时在调用线程立即执行，否则由当前持有者
+    // （正在执行的帧任务或另一个控制调用）在释放执行权前依次执行。帧任务只在调度线程执行：
+    // 取不到执行权时计入待执行数，调度线程不等待；控制调用释放执行权后把待执行的帧任务交回调度线程
+    // （CATCH_UP的连续补发逐个执行），控制调用不执行帧任务、不回调监听器，帧也不丢失
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger commandWip = new AtomicInteger();
+    private final AtomicInteger pendingTicks = new AtomicInteger();
+    private volatile Thread commandOwner;
+    private final AtomicInteger playGeneration = new AtomicInteger();  // 每次播放/停止加一，丢弃过期的加载结果
+    private boolean schedulerRunning = false;
+    private boolean nativePaused = false;
 
     // 播放控制
-    private int currentFrame = 0;
+    private volatile int currentFrame = 0;
+    private long outputTick = 0;       // 重采样时的输出帧计数
     private int targetFrequency = DEFAULT_FREQUENCY;
     private long intervalMs;           // 实际间隔（毫秒）
-    private long lastFrameTime = 0;    // 上一帧的时间戳
-
-    // -1值填充缓存：存储每个关节的最后一个非-1值
-    private int[] lastValidLeftArm = new int[10];   // 左臂10个关节
-    private int[] lastValidRightArm = new int[10];  // 右臂10个关节
-
-    // 播放任务
+    private int lookaheadFrames = SequenceLoader.DEFAULT_LOOKAHEAD_FRAMES;  // 流式加载预读帧数
+
+    // 帧渲染：-1值填充状态和可复用的交付缓冲区
+    private final FrameRenderer frameRenderer = new FrameRenderer();
+
+    // 重采样：序列采样率与播放频率不一致时插值生成输出帧
+    private ResampleMode resampleMode = ResampleMode.OFF;
+    private FrameResampler resampler;
+
+    // 变速播放：输出频率不变，按速度推进Q32定点的源帧游标并在相邻源帧间插值（速度为1时不启用）
+    private volatile float playbackSpeed = 1.0f;
+    private float appliedSpeed = 1.0f;       // 播放线程当前使用的速度
+    private FrameResampler cursorResampler;  // 游标插值器（需要重采样时与resampler相同）
+    private long cursorQ32 = 0;
+    private long cursorStepQ32 = 0;
+
+    // 回调超时：处理策略及超时/丢帧/回调耗时统计
+    private volatile OverrunPolicy overrunPolicy = OverrunPolicy.STRETCH;
+    private final OverrunStats overrunStats = new OverrunStats();
+
+    // 急停延迟：请求时间，及最近一个帧任务的结束时间（只在持有执行权时写入）
+    private volatile long emergencyStopNanos = 0;
+    private long lastTickEndNanos = 0;
+    private final EmergencyStopStats emergencyStopStats = new EmergencyStopStats();
+
+    // 流式加载跟不上播放时连续等待的周期数，0表示没有等待（只在持有执行权时读写）
+    private int loadStallTicks = 0;
+
+    // 批量交付：每隔一批的周期数交付接下来一批帧（为null时逐帧交付）
+    private FrameBatcher batcher;
+    private int batchRemaining = 0;          // 上一批中尚未到时间的帧数
+    private int batchSize = 1;
+    private int batchWindowMs = 0;           // 大于0时按时间窗换算批量帧数
+
+    // 前瞻窗口：每帧回调前更新为当前帧及其后k帧（为null时不启用）
+    private int lookaheadWindowFrames = 0;
+    private LookaheadWindow lookaheadWindow;
+
+    // 帧环：设置后逐帧播放的帧写入环，由使用方在自己的线程读取（为null时回调监听器）
+    private volatile FrameRing frameRing;
+    private FrameRing activeFrameRing;       // 本次播放使用的帧环
+
+    // 分层混合播放（为null时播放单个序列）
+    private SequenceMixer mixer;
+
+    // 交叉淡化：切换序列时在窗口内混合旧序列尾部与新序列开头（为0时不启用）
+    private int crossfadeMs = 0;
+    private CrossfadeBlender crossfade;
+
+    // 队列播放：播放当前序列时预加载并预解析下一个序列，在帧边界切换
+    private final Object queueLock = new Object();
+    private final ArrayDeque<String> playQueue = new ArrayDeque<>();
+    private boolean queueMode = false;
+    private Thread preloaderThread;
+    private PreloadedSequence preloaded;
+    private long queueWaitStartNanos = 0;    // 当前序列播放完成、等待下一序列就绪的起始时间
+    private final QueueStats queueStats = new QueueStats();
+    private QueueListener queueListener;
+
+    // 播放任务和常用控制命令
     private Runnable playbackRunnable;
+    private Runnable drainTicksRunnable;  // 在调度线程上执行待执行的帧任务
+    private Runnable syncPlaybackCommand;
+    private Runnable stopCommand;
+    private Runnable emergencyStopCommand;
+
+    // Java播放定时后端
+    private volatile TimingBackend timingBackend = TimingBackend.HANDLER;
+    private FrameScheduler frameScheduler;
     
     // Native播放器实例ID
     private long nativePlayerId = -1;
     
     // 是否使用Native实现
-    private boolean useNativePlayback = true;
+    private volatile boolean useNativePlayback = true;
     
     // Native方法声明
     static {
@@ -68,7 +154,8 @@ public class EvoBotSequencePlayer {
     // Native方法声明
     private static native long nativeCreate();
     private static native void nativeDestroy(long playerId);
-    private static native boolean nativeRegisterListener(long playerId, SequenceListener listener);
+    private static native boolean nativeRegisterListener(long playerId, FrameBufferListener listener);
+    private static native boolean nativeRegisterBatchListener(long playerId, FrameBatchListener listener, int batchSize);
     private static native void nativeUnregisterListener(long playerId);
     private static native boolean nativeLoadSequenceFromBytes(long playerId, byte[] data);
     private static native boolean nativePlayAsync(long playerId, int frequency);
@@ -76,7 +163,13 @@ public class EvoBotSequencePlayer {
     private static native void nativeResume(long playerId);
     private static native void nativeStop(long playerId);
     private static native void nativeEmergencyStop(long playerId);
+    private static native long[] nativeGetEmergencyStopStats(long playerId);
+    private static native boolean nativeSetFrameRing(long playerId, ByteBuffer ring, long javaNanos);
     private static native boolean nativeSeek(long playerId, int frameIndex);
+    private static native boolean nativeSetPlaybackSpeed(long playerId, float speed);
+    private static native boolean nativeSetOverrunPolicy(long playerId, int policy);
+    private static native long[] nativeGetOverrunStats(long playerId);
+    private static native void nativeResetOverrunStats(long playerId);
     private static native int nativeGetCurrentFrame(long playerId);
     private static native int nativeGetTotalFrames(long playerId);
     private static native void nativeClearCache();
@@ -84,6 +177,7 @@ public class EvoBotSequencePlayer {
     // RK3399专用方法
     private static native boolean nativeSetRK3399BigCores(long playerId, boolean useBigCores);
     private static native String nativeGetRK3399Stats(long playerId);
+    private static native long[] nativeGetCallbackStats(long playerId);
     private static native String nativeGetPerformanceStats();
 
     /**
@@ -98,6 +192,7 @@ public class EvoBotSequencePlayer {
         this.context = context.getApplicationContext();
         this.loader = new SequenceLoader(this.context);
         this.handler = new Handler(Looper.getMainLooper());
+        this.frameScheduler = new HandlerFrameScheduler(handler);
         
         // 初始化Native播放器
         initializeNativePlayer();
@@ -180,6 +275,26 @@ public class EvoBotSequencePlayer {
         return "Native playback not available";
     }
     
+    /**
+     * 获取Native帧回调耗时统计（快照）
+     * 每次Native交付一帧（或一批）的耗时，含写入交付数组、JNI调用和监听器执行，每次注册监听器（播放）后从零开始
+     * 
+     * @return 统计快照，未使用Native播放时返回null
+     */
+    public NativeCallbackStats getNativeCallbackStats() {
+        if (useNativePlayback && nativePlayerId > 0) {
+            long[] values = nativeGetCallbackStats(nativePlayerId);
+            NativeCallbackStats stats = new NativeCallbackStats();
+            if (values != null && values.length >= 3) {
+                stats.callbacks = values[0];
+                stats.totalNanos = values[1];
+                stats.maxNanos = values[2];
+            }
+            return stats;
+        }
+        return null;
+    }
+    
     /**
      * 获取全局性能统计
      * 
@@ -214,6 +329,16 @@ public class EvoBotSequencePlayer {
         play(actionName, DEFAULT_FREQUENCY, listener);
     }
 
+    /**
+     * 播放序列（使用默认40Hz频率，帧数据写入可复用缓冲区）
+     *
+     * @param actionName 动作名称（优先使用英文名称，如 arm_movement_left_arm_wave）
+     * @param listener   帧缓冲监听器，缓冲区所有权约定见 {@link FrameBufferListener}
+     */
+    public void play(String actionName, FrameBufferListener listener) {
+        play(actionName, DEFAULT_FREQUENCY, listener);
+    }
+
     /**
      * 播放序列（指定频率）
      *
@@ -221,37 +346,270 @@ public class EvoBotSequencePlayer {
      * @param frequency  播放频率（Hz），推荐40Hz
      * @param listener   回调监听器
      */
-    public void play(final String actionName, final int frequency, final SequenceListener listener) {
+    public void play(String actionName, int frequency, SequenceListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener不能为null");
+        }
+        // 旧接口：每帧复制为新数组后回调
+        play(actionName, frequency, new SequenceListenerAdapter(listener));
+    }
+
+    /**
+     * 播放序列（指定频率，帧数据写入可复用缓冲区）
+     * 稳态播放时每帧不分配内存，缓冲区所有权约定见 {@link FrameBufferListener}
+     *
+     * @param actionName 动作名称（优先使用英文名称，如 arm_movement_left_arm_wave）
+     * @param frequency  播放频率（Hz），推荐40Hz
+     * @param listener   帧缓冲监听器
+     */
+    public void play(String actionName, int frequency, FrameBufferListener listener) {
+        startPlay(actionName, frequency, listener, null, null);
+    }
+
+    /**
+     * 队列播放
+     * 依次无缝播放多个序列：播放当前序列时在后台预加载并预解析下一个序列，当前序列最后一帧之后的下一个播放周期
+     * 直接输出下一序列的第一帧，不重新启动加载线程，也不空出播放周期。全部播放完成后回调一次onComplete。
+     * 队列播放使用Java播放路径；序列切换和间隔统计见 {@link #setQueueListener} 和 {@link #getQueueStats}
+     *
+     * @param actionNames 动作名称列表，至少一个
+     * @param frequency   播放频率（Hz），推荐40Hz
+     * @param listener    帧缓冲监听器
+     */
+    public void playQueue(List<String> actionNames, int frequency, FrameBufferListener listener) {
+        if (actionNames == null || actionNames.isEmpty()) {
+            throw new IllegalArgumentException("actionNames不能为空");
+        }
+        for (String name : actionNames) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("actionName不能为空");
+            }
+        }
+        startPlay(actionNames.get(0), frequency, listener, null, actionNames.subList(1, actionNames.size()));
+    }
+
+    /**
+     * 向播放队列末尾追加序列
+     * 仅在队列播放（{@link #playQueue}）进行中有效
+     *
+     * @param actionName 动作名称
+     */
+    public void enqueue(String actionName) {
         if (actionName == null || actionName.isEmpty()) {
             throw new IllegalArgumentException("actionName不能为空");
         }
+        synchronized (queueLock) {
+            if (!queueMode) {
+                throw new IllegalStateException("仅在队列播放时可以追加序列");
+            }
+            playQueue.addLast(actionName);
+            queueLock.notifyAll();
+        }
+    }
+
+    /**
+     * 获取队列中等待播放的序列数（不含正在播放的序列）
+     */
+    public int getQueueSize() {
+        synchronized (queueLock) {
+            return playQueue.size();
+        }
+    }
+
+    /**
+     * 设置队列播放的序列切换监听器
+     *
+     * @param listener 监听器，可为null
+     */
+    public void setQueueListener(QueueListener listener) {
+        this.queueListener = listener;
+    }
+
+    /**
+     * 获取队列播放的序列间隔统计（快照，从最近一次 {@link #playQueue} 开始统计）
+     */
+    public QueueStats getQueueStats() {
+        synchronized (queueStats) {
+            return queueStats.copy();
+        }
+    }
+
+    /**
+     * 批量播放序列（使用默认40Hz频率）
+     *
+     * @param actionName 动作名称（优先使用英文名称，如 arm_movement_left_arm_wave）
+     * @param listener   批量帧监听器
+     */
+    public void play(String actionName, FrameBatchListener listener) {
+        play(actionName, DEFAULT_FREQUENCY, listener);
+    }
+
+    /**
+     * 批量播放序列（指定频率）
+     * 每批帧数由 {@link #setBatchSize} 或 {@link #setBatchWindow} 设置，批次约定见 {@link FrameBatchListener}
+     *
+     * @param actionName 动作名称（优先使用英文名称，如 arm_movement_left_arm_wave）
+     * @param frequency  播放频率（Hz），推荐40Hz
+     * @param listener   批量帧监听器
+     */
+    public void play(String actionName, int frequency, FrameBatchListener listener) {
         if (listener == null) {
             throw new IllegalArgumentException("listener不能为null");
         }
         if (frequency <= 0 || frequency > 100) {
             throw new IllegalArgumentException("频率必须在1-100Hz之间，当前值: " + frequency);
         }
+        FrameBatcher frameBatcher = new FrameBatcher(listener, effectiveBatchSize(frequency));
+        startPlay(actionName, frequency, frameBatcher, frameBatcher, null);
+    }
 
-        // 如果正在播放，先停止
-        if (state == PlayerState.PLAYING) {
-            stop();
+    private void startPlay(final String actionName, int frequency, FrameBufferListener listener,
+                           FrameBatcher frameBatcher, List<String> queued) {
+        if (actionName == null || actionName.isEmpty()) {
+            throw new IllegalArgumentException("actionName不能为空");
         }
+        final int generation = preparePlay(frequency, listener, frameBatcher, queued);
 
-        // Log.d(TAG, String.format("准备播放: action=%s, frequency=%dHz, native=%s", 
-        //     actionName, frequency, useNativePlayback));
+        // 在后台线程加载序列
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loadSequenceAsync(actionName, generation);
+            }
+        }, "SequenceLoader").start();
+    }
 
-        this.listener = listener;
-        this.targetFrequency = frequency;
-        this.intervalMs = 1000L / frequency;
+    /**
+     * 分层混合播放
+     * 按 {@link SequenceMixer} 的层和关节掩码把多个已加载序列组合成一路输出，每个播放周期各层前进一帧。
+     * 使用Java播放路径，不进行重采样和变速；跳转时所有层移动到同一帧
+     *
+     * @param mixer     已添加至少一层的混合器，播放期间不要修改
+     * @param frequency 播放频率（Hz）
+     * @param listener  帧缓冲监听器，帧索引为混合输出的帧序号
+     */
+    public void playMixed(final SequenceMixer mixer, int frequency, FrameBufferListener listener) {
+        if (mixer == null || mixer.getLayerCount() == 0) {
+            throw new IllegalArgumentException("混合器至少需要一层");
+        }
+        int generation = preparePlay(frequency, listener, null, null);
+        onMixerReady(mixer, generation);
+    }
+
+    /**
+     * 左右臂分别播放不同动作
+     * 在后台加载两个序列后按 {@link SequenceMixer#LEFT_ARM_MASK} / {@link SequenceMixer#RIGHT_ARM_MASK} 混合播放，
+     * 两个动作都播放完时回调onComplete
+     *
+     * @param leftAction  左臂动作名称
+     * @param rightAction 右臂动作名称
+     * @param frequency   播放频率（Hz）
+     * @param listener    帧缓冲监听器
+     */
+    public void playPerArm(final String leftAction, final String rightAction, int frequency,
+                           FrameBufferListener listener) {
+        if (leftAction == null || leftAction.isEmpty() || rightAction == null || rightAction.isEmpty()) {
+            throw new IllegalArgumentException("actionName不能为空");
+        }
+        final int generation = preparePlay(frequency, listener, null, null);
 
-        // 在后台线程加载序列
         new Thread(new Runnable() {
             @Override
             public void run() {
-                loadSequenceAsync(actionName);
+                try {
+                    SequenceMixer perArm = new SequenceMixer();
+                    perArm.addLayer(loadSequenceData(leftAction), SequenceMixer.LEFT_ARM_MASK);
+                    perArm.addLayer(loadSequenceData(rightAction), SequenceMixer.RIGHT_ARM_MASK);
+                    onMixerReady(perArm, generation);
+                } catch (Exception e) {
+                    Log.e(TAG, "加载序列失败", e);
+                    handleLoadError(generation, "加载序列失败: " + e.getMessage());
+                }
             }
         }, "SequenceLoader").start();
     }
+
+    /**
+     * 校验参数，提交停止当前播放并设置本次播放的监听器和频率的命令
+     *
+     * @return 本次播放的代数，加载完成时用于判断是否已被新的播放或停止取代
+     */
+    private int preparePlay(final int frequency, final FrameBufferListener listener, final FrameBatcher frameBatcher,
+                            final List<String> queued) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener不能为null");
+        }
+        if (frequency <= 0 || frequency > 100) {
+            throw new IllegalArgumentException("频率必须在1-100Hz之间，当前值: " + frequency);
+        }
+
+        final int generation = playGeneration.incrementAndGet();
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation == playGeneration.get()) {
+                    applyPlay(frequency, listener, frameBatcher, queued);
+                }
+            }
+        });
+        return generation;
+    }
+
+    /**
+     * 停止当前播放并设置本次播放的监听器和频率（持有执行权时调用）
+     */
+    private void applyPlay(int frequency, FrameBufferListener listener, FrameBatcher frameBatcher,
+                           List<String> queued) {
+        // 如果正在播放，先停止；交叉淡化从旧序列的当前位置开始
+        CrossfadeBlender previousBlender = crossfade;
+        SequenceData outgoing = currentSequence;
+        int outgoingFrame = currentFrame;
+        boolean interrupting = state.get() == PlayerState.PLAYING;
+        if (interrupting) {
+            stopPlayback();
+        }
+
+        // Log.d(TAG, String.format("准备播放: action=%s, frequency=%dHz, native=%s", 
+        //     actionName, frequency, useNativePlayback));
+
+        // 帧环替代逐帧回调，使用方自行读取；前瞻窗口随逐帧回调更新；批量交付本身已包含后续帧
+        this.lookaheadWindow = null;
+        this.activeFrameRing = frameBatcher == null ? frameRing : null;
+        if (activeFrameRing != null) {
+            listener = new FrameRingListener(activeFrameRing, listener);
+        } else if (frameBatcher == null && lookaheadWindowFrames > 0) {
+            this.lookaheadWindow = new LookaheadWindow(lookaheadWindowFrames);
+            listener = new LookaheadListenerAdapter(lookaheadWindow, listener);
+        }
+        this.crossfade = null;
+        if (crossfadeMs > 0) {
+            this.crossfade = new CrossfadeBlender(listener);
+            listener = crossfade;
+            if (interrupting) {
+                crossfade.begin(previousBlender, outgoing, outgoingFrame, crossfadeFrames(frequency));
+            }
+        }
+
+        // 队列：在加载线程启动前设置，保证序列加载完成时已确定使用Java播放
+        synchronized (queueLock) {
+            endQueue();
+            if (queued != null) {
+                queueMode = true;
+                playQueue.addAll(queued);
+                synchronized (queueStats) {
+                    queueStats.reset();
+                }
+            }
+        }
+
+        this.listener = listener;
+        this.batcher = frameBatcher;
+        this.batchRemaining = 0;
+        this.mixer = null;
+        this.targetFrequency = frequency;
+        this.intervalMs = 1000L / frequency;
+        setState(PlayerState.LOADING);
+    }
     
     /**
      * 首次启动时检查动作库更新（异步，不阻塞启动）
@@ -367,55 +725,53 @@ public class EvoBotSequencePlayer {
      * 异步加载序列
      *
      * @param actionName 动作名称
+     * @param generation 本次播放的代数
      */
-    private void loadSequenceAsync(String actionName) {
-        setState(PlayerState.LOADING);
-
+    private void loadSequenceAsync(String actionName, int generation) {
         try {
             // 优先尝试从下载的动作库加载
             if (actionLibraryUpdater != null) {
                 Log.d(TAG, "尝试从下载的动作库加载: " + actionName);
-                loadFromDownloadedActions(actionName);
+                loadFromDownloadedActions(actionName, generation);
             } else {
                 // 回退到本地assets加载
                 Log.d(TAG, "从本地assets加载: " + actionName);
-                loadFromAssets(actionName);
+                loadFromAssets(actionName, generation);
             }
 
         } catch (Exception e) {
             Log.e(TAG, "加载序列失败", e);
-            handleError("加载序列失败: " + e.getMessage());
+            handleLoadError(generation, "加载序列失败: " + e.getMessage());
         }
     }
     
     /**
      * 从下载的动作库加载序列
      */
-    private void loadFromDownloadedActions(String actionName) {
+    private void loadFromDownloadedActions(String actionName, int generation) {
         try {
             // 查找本地下载的动作文件
             File actionFile = actionLibraryUpdater.getLocalActionFile(actionName);
             
             if (actionFile != null && actionFile.exists()) {
                 Log.d(TAG, "从下载的动作文件加载: " + actionFile.getAbsolutePath());
-                try (java.io.FileInputStream fis = new java.io.FileInputStream(actionFile)) {
-                    SequenceData data = loader.parseEbsFile(fis);
-                    onSequenceLoaded(data);
-                    return;
-                }
+                // 内存映射加载，多个播放器共享同一份映射
+                SequenceData data = loader.loadFromFile(actionFile);
+                onSequenceLoaded(data, generation);
+                return;
             }
             
             // 如果没有找到下载的动作，回退到assets
             Log.d(TAG, "未找到下载的动作，回退到assets: " + actionName);
-            loadFromAssets(actionName);
+            loadFromAssets(actionName, generation);
             
         } catch (Exception e) {
             Log.w(TAG, "从下载动作加载失败，回退到assets: " + e.getMessage());
             try {
-                loadFromAssets(actionName);
+                loadFromAssets(actionName, generation);
             } catch (Exception e2) {
                 Log.e(TAG, "assets加载也失败", e2);
-                handleError("加载序列失败: " + e2.getMessage());
+                handleLoadError(generation, "加载序列失败: " + e2.getMessage());
             }
         }
     }
@@ -423,44 +779,151 @@ public class EvoBotSequencePlayer {
     /**
      * 从本地assets加载序列
      */
-    private void loadFromAssets(String actionName) throws Exception {
+    private void loadFromAssets(String actionName, final int generation) throws Exception {
         // 构建文件路径
         String assetPath = ASSETS_PATH + DEFAULT_SEQUENCE_FILE;
 
         // 加载序列
         Log.d(TAG, "正在加载序列文件: " + assetPath);
-        SequenceData data = loader.loadFromAssets(assetPath);
-        
-        onSequenceLoaded(data);
+
+        if (useNativePlayback && nativePlayerId > 0) {
+            // Native层需要完整序列数据
+            SequenceData data = loader.loadFromAssets(assetPath);
+            onSequenceLoaded(data, generation);
+            return;
+        }
+
+        // Java播放：流式加载，预读帧就绪后即开始播放，剩余帧在本线程继续解码
+        final SequenceData[] started = new SequenceData[1];
+        try {
+            loader.loadFromAssetsStreaming(assetPath, lookaheadFrames, new SequenceLoader.StreamingCallback() {
+                @Override
+                public void onLookaheadReady(SequenceData data) {
+                    started[0] = data;
+                    onSequenceLoaded(data, generation);
+                }
+            });
+        } catch (Exception e) {
+            if (started[0] != null && generation != playGeneration.get()) {
+                // 播放已切换到其他序列，旧序列的加载错误不再上报
+                Log.w(TAG, "已替换序列的流式加载失败: " + e.getMessage());
+                return;
+            }
+            throw e;
+        }
     }
     
     /**
-     * 序列加载完成处理
+     * 混合器就绪，提交开始Java播放的命令
+     */
+    private void onMixerReady(final SequenceMixer mixer, final int generation) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation != playGeneration.get()) {
+                    Log.d(TAG, "播放已被取代，忽略混合器");
+                    return;
+                }
+                startMixer(mixer);
+            }
+        });
+    }
+
+    /**
+     * 开始混合播放（持有执行权时调用）
+     */
+    private void startMixer(SequenceMixer mixer) {
+        mixer.resetTick();
+        this.mixer = mixer;
+
+        // 进度、跳转范围按最长一层计算
+        SequenceData longest = null;
+        for (int i = 0; i < mixer.getLayerCount(); i++) {
+            SequenceData data = mixer.getLayerData(i);
+            if (longest == null || data.totalFrames > longest.totalFrames) {
+                longest = data;
+            }
+        }
+        currentSequence = longest;
+        currentFrame = 0;
+        outputTick = 0;
+        cursorQ32 = 0;
+        appliedSpeed = 1.0f;
+        resampler = null;
+        frameRenderer.reset();
+        if (lookaheadWindow != null) {
+            lookaheadWindow.attach(longest);
+        }
+
+        Log.d(TAG, String.format("混合播放: %d层, 最长%d帧", mixer.getLayerCount(), longest.totalFrames));
+        if (transition(PlayerState.LOADING, PlayerState.READY)) {
+            startPlayback();
+        }
+    }
+
+    /**
+     * 序列加载完成处理（加载线程调用），提交开始播放的命令
+     */
+    private void onSequenceLoaded(final SequenceData data, final int generation) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation != playGeneration.get()) {
+                    Log.d(TAG, "播放已被取代，忽略加载完成的序列: " + data.name);
+                    return;
+                }
+                startSequence(data);
+            }
+        });
+    }
+
+    /**
+     * 开始播放已加载的序列（持有执行权时调用）
      */
-    private void onSequenceLoaded(SequenceData data) {
+    private void startSequence(SequenceData data) {
         currentSequence = data;
         
         // 重置播放状态
         currentFrame = 0;
-        lastFrameTime = 0;
+        outputTick = 0;
         
         // 重置-1值填充缓存
-        resetLastValidValues();
+        frameRenderer.reset();
 
-        setState(PlayerState.READY);
+        // 采样率与播放频率不一致时按重采样模式插值（Native层不支持重采样，使用Java播放）
+        setupResampler(data);
+        cursorQ32 = 0;
+        appliedSpeed = 1.0f;
+
+        // 前瞻窗口直接读取预解析帧表，Java与Native播放共用
+        if (lookaheadWindow != null) {
+            data.buildResolvedFrames();
+            lookaheadWindow.attach(data);
+        }
+
+        if (!transition(PlayerState.LOADING, PlayerState.READY)) {
+            // 加载期间已被停止
+            return;
+        }
         
         // 如果使用Native播放，加载序列到Native层
-        if (useNativePlayback && nativePlayerId > 0) {
+        if (useNativePlayback && nativePlayerId > 0 && resampler == null && !isQueueMode()) {
             try {
                 // 将序列数据转换为字节数组（这里需要实现序列化）
                 byte[] sequenceBytes = serializeSequenceData(data);
                 boolean loaded = nativeLoadSequenceFromBytes(nativePlayerId, sequenceBytes);
                 
                 if (loaded) {
+                    nativeSetPlaybackSpeed(nativePlayerId, playbackSpeed);
+                    nativeSetOverrunPolicy(nativePlayerId, overrunPolicy.ordinal());
+
                     // 注册Native回调监听器
-                    boolean registered = nativeRegisterListener(nativePlayerId, listener);
+                    boolean registered = batcher != null
+                        ? nativeRegisterBatchListener(nativePlayerId, batcher.delegate, batcher.capacity())
+                        : nativeRegisterListener(nativePlayerId, listener);
                     if (registered) {
                         Log.d(TAG, "Native sequence loaded and listener registered");
+                        attachNativeFrameRing();
                         startNativePlayback();
                         return;
                     } else {
@@ -478,9 +941,35 @@ public class EvoBotSequencePlayer {
         }
         
         // 回退到Java实现
+        if (frameRenderer.isPreResolveHolds() || resampler != null || playbackSpeed != 1.0f) {
+            // 预解析帧表保存在序列数据中，共享同一映射的播放器只需建立一次
+            data.buildResolvedFrames();
+        }
         startPlayback();
+        startPreloader();
     }
     
+    /**
+     * 按序列采样率建立重采样器和变速游标插值器
+     */
+    private void setupResampler(SequenceData data) {
+        resampler = createResampler(data);
+        cursorResampler = createCursorResampler(resampler);
+    }
+
+    private FrameResampler createResampler(SequenceData data) {
+        if (resampleMode == ResampleMode.OFF || data.sampleRate == targetFrequency) {
+            return null;
+        }
+        Log.d(TAG, String.format("重采样: %.1fHz -> %dHz, 模式=%s", data.sampleRate, targetFrequency, resampleMode));
+        return new FrameResampler(data.sampleRate, targetFrequency, resampleMode);
+    }
+
+    private FrameResampler createCursorResampler(FrameResampler resampler) {
+        return resampler != null ? resampler : new FrameResampler(targetFrequency, targetFrequency,
+            resampleMode != ResampleMode.OFF ? resampleMode : ResampleMode.LINEAR);
+    }
+
     /**
      * 启动Native播放
      */
@@ -491,7 +980,10 @@ public class EvoBotSequencePlayer {
             return;
         }
         
-        setState(PlayerState.PLAYING);
+        if (!transition(PlayerState.READY, PlayerState.PLAYING)) {
+            return;
+        }
+        nativePaused = false;
         
         // RK3399优化：高频率播放使用大核心
         if (targetFrequency > 60) {
@@ -502,259 +994,1302 @@ public class EvoBotSequencePlayer {
         if (!started) {
             Log.w(TAG, "Failed to start native playback, falling back to Java");
             useNativePlayback = false;
-            startPlayback();
+            if (transition(PlayerState.PLAYING, PlayerState.READY)) {
+                startPlayback();
+            }
         } else {
             Log.d(TAG, "Native async playback started at " + targetFrequency + "Hz");
         }
     }
     
     /**
-     * 序列数据序列化（简化实现）
-     * 实际项目中应该使用更高效的序列化方式
+     * 序列数据序列化
+     * 按EBS1格式编码当前序列，交给Native层解析
      */
     private byte[] serializeSequenceData(SequenceData data) {
-        // 这里需要实现将SequenceData转换为字节数组的逻辑
-        // 为了简化，我们假设已经有了原始的.ebs文件数据
-        // 实际实现中应该从SequenceLoader获取原始字节数据
-        
-        try {
-            // 临时实现：重新读取原始文件
-            String assetPath = ASSETS_PATH + DEFAULT_SEQUENCE_FILE;
-            return loader.loadRawBytesFromAssets(assetPath);
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to serialize sequence data", e);
-            return new byte[0];
-        }
+        return SequenceEncoder.encodeEbs1(data);
     }
 
     /**
      * 开始播放
      */
     private void startPlayback() {
-        if (state != PlayerState.READY && state != PlayerState.PAUSED) {
-            Log.w(TAG, "无法在当前状态开始播放: " + state);
+        PlayerState current = state.get();
+        if ((current != PlayerState.READY && current != PlayerState.PAUSED)
+                || !transition(current, PlayerState.PLAYING)) {
+            Log.w(TAG, "无法在当前状态开始播放: " + state.get());
             return;
         }
 
-        setState(PlayerState.PLAYING);
-        lastFrameTime = SystemClock.elapsedRealtime();
+        Log.d(TAG, String.format("开始播放: 总帧数=%d, 频率=%dHz, 间隔=%dms, 定时=%s",
+            currentSequence.totalFrames, targetFrequency, intervalMs, timingBackend));
+
+        // 立即播放第一帧，之后由调度器按周期回调
+        startScheduler();
+    }
 
-        Log.d(TAG, String.format("开始播放: 总帧数=%d, 频率=%dHz, 间隔=%dms",
-            currentSequence.totalFrames, targetFrequency, intervalMs));
+    /**
+     * 开始按帧周期调度帧任务（持有执行权时调用）
+     */
+    private void startScheduler() {
+        schedulerRunning = true;
+        frameScheduler.start(framePeriodNanos(), playbackRunnable);
+    }
 
-        // 立即播放第一帧
-        playNextFrame();
+    /**
+     * 停止调度帧任务（持有执行权时调用）
+     */
+    private void stopScheduler() {
+        schedulerRunning = false;
+        frameScheduler.stop();
+        loadStallTicks = 0;
+        // 调度器返回后不再回调：丢弃停止前提交、尚未执行的帧任务
+        pendingTicks.set(0);
     }
 
     /**
-     * 播放下一帧（定时回调）
+     * 播放下一帧（调度器按周期回调）
      */
     private void playNextFrame() {
-        if (state != PlayerState.PLAYING) {
+        if (state.get() != PlayerState.PLAYING) {
             Log.d(TAG, "播放已停止，忽略帧回调");
+            stopScheduler();
             return;
         }
 
-        // 检查是否播放完成
-        if (currentFrame >= currentSequence.totalFrames) {
-            Log.d(TAG, "播放完成");
-            setState(PlayerState.STOPPED);
-            if (listener != null) {
-                listener.onComplete();
-            }
-            return;
+        // DROP策略：跳过上一次回调超时期间错过的帧
+        int skipped = frameScheduler.takeSkippedTicks();
+        if (skipped > 0) {
+            dropFrames(skipped);
         }
 
-        // 获取当前帧数据
-        int[] leftArm = currentSequence.leftArmSequence[currentFrame];
-        int[] rightArm = currentSequence.rightArmSequence[currentFrame];
-
-        // 处理-1值填充：用上一帧的非-1值替换当前帧的-1值
-        int[] processedLeftArm = fillMinusOneValues(leftArm, lastValidLeftArm);
-        int[] processedRightArm = fillMinusOneValues(rightArm, lastValidRightArm);
+        if (batcher != null) {
+            playNextBatchedFrame();
+            return;
+        }
 
-        // 回调监听器
-        if (listener != null) {
-            try {
-                listener.onFrameData(processedLeftArm, processedRightArm, currentFrame);
-            } catch (Exception e) {
-                Log.e(TAG, "监听器回调异常", e);
-                handleError("监听器回调异常: " + e.getMessage());
-                return;
-            }
+        if (mixer != null) {
+            playNextMixedFrame();
+            return;
         }
 
-        currentFrame++;
+        float speed = playbackSpeed;
+        if (speed != appliedSpeed) {
+            applyPlaybackSpeed(speed);
+        }
+        if (appliedSpeed != 1.0f) {
+            playNextCursorFrame();
+            return;
+        }
 
-        // 计算下一帧的间隔时间（带误差补偿）
-        long currentTime = SystemClock.elapsedRealtime();
-        if (lastFrameTime > 0) {
-            long actualInterval = currentTime - lastFrameTime;
-            long drift = actualInterval - intervalMs;
+        if (resampler != null) {
+            playNextResampledFrame();
+            return;
+        }
 
-            // 误差补偿：调整间隔，但限制在±50%范围内
-            long adjustedInterval = intervalMs - drift;
-            adjustedInterval = Math.max(intervalMs / 2, Math.min(intervalMs * 3 / 2, adjustedInterval));
+        // 检查是否播放完成
+        if (currentFrame >= currentSequence.totalFrames) {
+            completePlayback();
+            return;
+        }
 
-            if (Math.abs(drift) > 5) {
-                Log.v(TAG, String.format("时间补偿: 实际间隔=%dms, 期望=%dms, 补偿后=%dms",
-                    actualInterval, intervalMs, adjustedInterval));
-            }
+        // 流式加载尚未解码到当前帧：保持当前帧，下个周期重试
+        if (currentFrame >= currentSequence.loadedFrames) {
+            waitForLoad(currentFrame, currentSequence.loadedFrames);
+            return;
+        }
+        endLoadStall();
 
-            // 使用调整后的间隔
-            handler.postDelayed(playbackRunnable, adjustedInterval);
-        } else {
-            // 首次执行，使用标准间隔
-            handler.postDelayed(playbackRunnable, intervalMs);
+        // 处理-1值填充并写入交付缓冲区，回调监听器
+        try {
+            frameRenderer.render(currentSequence, currentFrame, listener);
+        } catch (Exception e) {
+            Log.e(TAG, "监听器回调异常", e);
+            handleError("监听器回调异常: " + e.getMessage());
+            return;
         }
 
-        lastFrameTime = currentTime;
+        currentFrame++;
     }
 
     /**
-     * 暂停播放
+     * 帧数据未就绪，本周期等待加载：只在开始等待时记录一次
      */
-    public void pause() {
-        if (!state.canPause()) {
-            Log.w(TAG, "当前状态无法暂停: " + state);
+    private void waitForLoad(int needed, int loaded) {
+        if (loadStallTicks == 0) {
+            Log.w(TAG, String.format("帧数据未就绪，等待加载: %d/%d", needed, loaded));
+        }
+        if (loadStallTicks < Integer.MAX_VALUE) {
+            loadStallTicks++;
+        }
+    }
+
+    /**
+     * 帧数据已就绪：结束等待时记录一次等待的周期数
+     */
+    private void endLoadStall() {
+        if (loadStallTicks > 0) {
+            Log.i(TAG, String.format("帧数据已加载，恢复播放（等待了%d个周期）", loadStallTicks));
+            loadStallTicks = 0;
+        }
+    }
+
+    /**
+     * 播放下一个混合帧
+     * currentFrame为已输出的帧数
+     */
+    private void playNextMixedFrame() {
+        SequenceMixer current = mixer;
+        if (current.isFinished()) {
+            completePlayback();
             return;
         }
 
-        setState(PlayerState.PAUSED);
-        
-        if (useNativePlayback && nativePlayerId > 0) {
-            nativePause(nativePlayerId);
+        try {
+            current.render(listener);
+        } catch (Exception e) {
+            Log.e(TAG, "监听器回调异常", e);
+            handleError("监听器回调异常: " + e.getMessage());
+            return;
+        }
+
+        currentFrame = current.getTick();
+    }
+
+    /**
+     * 播放下一个重采样输出帧
+     * currentFrame随输出位置更新为所在的源帧
+     */
+    private void playNextResampledFrame() {
+        SequenceData data = currentSequence;
+
+        // 检查是否播放完成
+        if (outputTick >= resampler.outputFrameCount(data.totalFrames)) {
+            completePlayback();
+            return;
+        }
+
+        // 流式加载尚未解码到插值所需的源帧：下个周期重试
+        int needed = resampler.lastSourceFrameNeeded(outputTick, data.totalFrames);
+        if (needed >= data.loadedFrames) {
+            waitForLoad(needed, data.loadedFrames);
+            return;
+        }
+        endLoadStall();
+
+        try {
+            frameRenderer.renderResampled(data, resampler, outputTick, resampler.sourceFrameAt(outputTick), listener);
+        } catch (Exception e) {
+            Log.e(TAG, "监听器回调异常", e);
+            handleError("监听器回调异常: " + e.getMessage());
+            return;
+        }
+
+        outputTick++;
+        currentFrame = Math.min(resampler.sourceFrameAt(outputTick), data.totalFrames);
+    }
+
+    /**
+     * 按源帧游标播放下一帧（变速播放）
+     * 游标每个输出周期推进 速度 × 采样率/播放频率 个源帧，currentFrame为游标所在的源帧
+     */
+    private void playNextCursorFrame() {
+        SequenceData data = currentSequence;
+
+        // 游标越过最后一帧即播放完成
+        if (cursorQ32 > lastCursorPosition(data)) {
+            completePlayback();
+            return;
+        }
+
+        // 流式加载尚未解码到插值所需的源帧：下个周期重试
+        int index = (int) (cursorQ32 >>> FrameResampler.POSITION_FRACTION_BITS);
+        int needed = cursorResampler.lastSourceFrameNeededAt(index, data.totalFrames);
+        if (needed >= data.loadedFrames) {
+            waitForLoad(needed, data.loadedFrames);
+            return;
+        }
+        endLoadStall();
+
+        try {
+            frameRenderer.renderAt(data, cursorResampler, cursorQ32, index, listener);
+        } catch (Exception e) {
+            Log.e(TAG, "监听器回调异常", e);
+            handleError("监听器回调异常: " + e.getMessage());
+            return;
+        }
+
+        cursorQ32 += cursorStepQ32;
+        currentFrame = (int) Math.min(cursorQ32 >>> FrameResampler.POSITION_FRACTION_BITS, data.totalFrames);
+    }
+
+    /**
+     * 批量交付模式下的播放周期回调
+     * 上一批的帧全部到时间后渲染并交付接下来一批，每个周期仍只推进一帧的播放进度
+     */
+    private void playNextBatchedFrame() {
+        if (batchRemaining == 0) {
+            // 速度修改在批次之间生效，已交付的帧保持原速度
+            float speed = playbackSpeed;
+            if (speed != appliedSpeed) {
+                applyPlaybackSpeed(speed);
+            }
+
+            if (isPlaybackFinished()) {
+                completePlayback();
+                return;
+            }
+
+            int count;
+            try {
+                count = renderBatch();
+            } catch (Exception e) {
+                Log.e(TAG, "监听器回调异常", e);
+                handleError("监听器回调异常: " + e.getMessage());
+                return;
+            }
+
+            // 流式加载尚未解码到当前帧：下个周期重试
+            if (count == 0) {
+                waitForLoad(currentFrame, currentSequence.loadedFrames);
+                return;
+            }
+            endLoadStall();
+            batchRemaining = count;
+        }
+
+        advanceOneFrame();
+        batchRemaining--;
+    }
+
+    /**
+     * 从当前位置起渲染至多一批帧并交付，不改变播放位置
+     *
+     * @return 交付的帧数，数据未就绪时为0
+     */
+    private int renderBatch() {
+        SequenceData data = currentSequence;
+        batcher.begin(System.nanoTime(), framePeriodNanos());
+        int count = 0;
+        while (count < batcher.capacity()) {
+            if (appliedSpeed != 1.0f) {
+                long position = cursorQ32 + count * cursorStepQ32;
+                int index = (int) (position >>> FrameResampler.POSITION_FRACTION_BITS);
+                if (position > lastCursorPosition(data)
+                        || cursorResampler.lastSourceFrameNeededAt(index, data.totalFrames) >= data.loadedFrames) {
+                    break;
+                }
+                frameRenderer.renderAt(data, cursorResampler, position, index, batcher);
+            } else if (resampler != null) {
+                long tick = outputTick + count;
+                if (tick >= resampler.outputFrameCount(data.totalFrames)
+                        || resampler.lastSourceFrameNeeded(tick, data.totalFrames) >= data.loadedFrames) {
+                    break;
+                }
+                frameRenderer.renderResampled(data, resampler, tick, resampler.sourceFrameAt(tick), batcher);
+            } else {
+                int frame = currentFrame + count;
+                if (frame >= data.totalFrames || frame >= data.loadedFrames) {
+                    break;
+                }
+                frameRenderer.render(data, frame, batcher);
+            }
+            count++;
+        }
+        if (count > 0) {
+            batcher.flush();
+        }
+        return count;
+    }
+
+    /**
+     * 播放位置是否已越过序列末尾
+     */
+    private boolean isPlaybackFinished() {
+        SequenceData data = currentSequence;
+        if (appliedSpeed != 1.0f) {
+            return cursorQ32 > lastCursorPosition(data);
+        }
+        if (resampler != null) {
+            return outputTick >= resampler.outputFrameCount(data.totalFrames);
+        }
+        return currentFrame >= data.totalFrames;
+    }
+
+    /**
+     * 播放位置前进一个播放周期（不渲染）
+     */
+    private void advanceOneFrame() {
+        SequenceData data = currentSequence;
+        if (appliedSpeed != 1.0f) {
+            cursorQ32 += cursorStepQ32;
+            currentFrame = (int) Math.min(cursorQ32 >>> FrameResampler.POSITION_FRACTION_BITS, data.totalFrames);
+        } else if (resampler != null) {
+            outputTick++;
+            currentFrame = Math.min(resampler.sourceFrameAt(outputTick), data.totalFrames);
         } else {
-            handler.removeCallbacks(playbackRunnable);
+            currentFrame++;
+        }
+    }
+
+    private static long lastCursorPosition(SequenceData data) {
+        return (long) (data.totalFrames - 1) << FrameResampler.POSITION_FRACTION_BITS;
+    }
+
+    /**
+     * 播放完成处理
+     */
+    private void completePlayback() {
+        if (isQueueMode()) {
+            long tickStart = System.nanoTime();
+            if (switchToNextSequence()) {
+                // 在同一个播放周期输出下一序列的第一帧
+                playNextFrame();
+                recordTransition(tickStart);
+                return;
+            }
+            if (getQueueSize() > 0) {
+                // 下一序列仍在加载：保持在当前序列末尾，下个周期重试
+                if (queueWaitStartNanos == 0) {
+                    queueWaitStartNanos = tickStart;
+                }
+                return;
+            }
         }
+        synchronized (queueLock) {
+            endQueue();
+        }
+
+        stopScheduler();
+        currentFrame = currentSequence.totalFrames;
+        if (!transition(PlayerState.PLAYING, PlayerState.STOPPED)) {
+            // 已被其他线程暂停或停止
+            return;
+        }
+        Log.d(TAG, "播放完成");
+        if (listener != null) {
+            listener.onComplete();
+        }
+    }
+
+    private boolean isQueueMode() {
+        synchronized (queueLock) {
+            return queueMode;
+        }
+    }
+
+    /**
+     * 结束队列播放：清空队列和预加载的序列，预加载线程随之退出（调用方持有queueLock）
+     */
+    private void endQueue() {
+        queueMode = false;
+        playQueue.clear();
+        preloaded = null;
+        preloaderThread = null;
+        queueWaitStartNanos = 0;
+        queueLock.notifyAll();
+    }
+
+    /**
+     * 启动预加载线程
+     * 线程在队列播放期间常驻：预加载槽为空且队列非空时加载并预解析队首序列，切换时由播放线程取走；
+     * 加载、建表、创建重采样器和日志格式化都在该线程完成，播放线程切换时只交换引用
+     */
+    private void startPreloader() {
+        synchronized (queueLock) {
+            if (!queueMode || preloaderThread != null) {
+                return;
+            }
+            preloaderThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runPreloader();
+                }
+            }, "SequencePreloader");
+            preloaderThread.start();
+        }
+    }
+
+    private void runPreloader() {
+        Thread self = Thread.currentThread();
+        while (true) {
+            String actionName;
+            synchronized (queueLock) {
+                while (preloaderThread == self && (preloaded != null || playQueue.isEmpty())) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (preloaderThread != self) {
+                    return;
+                }
+                actionName = playQueue.peekFirst();
+            }
+
+            PreloadedSequence next = null;
+            try {
+                long start = System.nanoTime();
+                SequenceData data = loadSequenceData(actionName);
+                FrameResampler nextResampler = createResampler(data);
+                if (frameRenderer.isPreResolveHolds() || nextResampler != null || playbackSpeed != 1.0f
+                        || lookaheadWindow != null) {
+                    data.buildResolvedFrames();
+                }
+                next = new PreloadedSequence(actionName, data, nextResampler, createCursorResampler(nextResampler));
+                Log.d(TAG, String.format("预加载完成: %s, %d帧, 耗时%.1fms",
+                    actionName, data.totalFrames, (System.nanoTime() - start) / 1e6));
+            } catch (Exception e) {
+                Log.e(TAG, "预加载序列失败，跳过: " + actionName, e);
+            }
+
+            synchronized (queueLock) {
+                if (preloaderThread != self) {
+                    return;
+                }
+                if (playQueue.peekFirst() != actionName) {
+                    // 预加载期间队列被修改
+                    continue;
+                }
+                if (next == null) {
+                    playQueue.pollFirst();
+                } else {
+                    preloaded = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * 完整加载序列数据（队列预加载使用，不走流式加载）
+     */
+    private SequenceData loadSequenceData(String actionName) throws Exception {
+        if (actionLibraryUpdater != null) {
+            File actionFile = actionLibraryUpdater.getLocalActionFile(actionName);
+            if (actionFile != null && actionFile.exists()) {
+                return loader.loadFromFile(actionFile);
+            }
+        }
+        return loader.loadFromAssets(ASSETS_PATH + DEFAULT_SEQUENCE_FILE);
+    }
+
+    /**
+     * 切换到已预加载的下一序列（播放线程调用）
+     *
+     * @return 下一序列未就绪或队列为空时返回false
+     */
+    private boolean switchToNextSequence() {
+        PreloadedSequence next;
+        int remaining;
+        synchronized (queueLock) {
+            next = preloaded;
+            if (next == null) {
+                return false;
+            }
+            preloaded = null;
+            playQueue.pollFirst();
+            remaining = playQueue.size();
+            // 唤醒预加载线程加载下一个
+            queueLock.notifyAll();
+        }
+
+        // 旧序列已播放完，从最后输出的位置淡入新序列
+        if (crossfade != null) {
+            crossfade.begin(null, 0, crossfadeFrames(targetFrequency));
+        }
+
+        currentSequence = next.data;
+        currentFrame = 0;
+        outputTick = 0;
+        cursorQ32 = 0;
+        batchRemaining = 0;
+        frameRenderer.reset();
+        resampler = next.resampler;
+        cursorResampler = next.cursorResampler;
+        if (appliedSpeed != 1.0f) {
+            cursorStepQ32 = Math.round(cursorResampler.sourceStep() * appliedSpeed
+                * (1L << FrameResampler.POSITION_FRACTION_BITS));
+        }
+        if ((resampler != null || appliedSpeed != 1.0f || lookaheadWindow != null) && !next.data.hasResolvedFrames()) {
+            next.data.buildResolvedFrames();
+        }
+        if (lookaheadWindow != null) {
+            lookaheadWindow.attach(next.data);
+        }
+
+        QueueListener callback = queueListener;
+        if (callback != null) {
+            try {
+                callback.onSequenceStarted(next.actionName, remaining);
+            } catch (Exception e) {
+                Log.e(TAG, "队列回调异常", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次序列切换
+     * 间隔从当前序列播放完成的周期开始（下一序列未就绪时为第一次等待的周期），到下一序列第一帧交付完成为止
+     *
+     * @param tickStart 本次切换所在周期的开始时间
+     */
+    private void recordTransition(long tickStart) {
+        boolean late = queueWaitStartNanos != 0;
+        long gapNanos = System.nanoTime() - (late ? queueWaitStartNanos : tickStart);
+        queueWaitStartNanos = 0;
+        synchronized (queueStats) {
+            queueStats.transitions++;
+            if (late) {
+                queueStats.lateTransitions++;
+            }
+            queueStats.lastGapNanos = gapNanos;
+            queueStats.maxGapNanos = Math.max(queueStats.maxGapNanos, gapNanos);
+            queueStats.totalGapNanos += gapNanos;
+        }
+    }
+
+    /**
+     * 取消上一批中尚未到时间的帧
+     * 逐帧填充的保持状态已随批次渲染超前，按当前帧从检查点恢复，之后从当前帧重新交付
+     */
+    private void cancelPendingBatch() {
+        if (batcher == null || batchRemaining == 0) {
+            return;
+        }
+        int remaining = batchRemaining;
+        batchRemaining = 0;
+        if (currentSequence != null) {
+            frameRenderer.seek(currentSequence, Math.min(currentFrame, currentSequence.loadedFrames));
+        }
+        try {
+            batcher.cancel(remaining);
+        } catch (Exception e) {
+            Log.e(TAG, "批次取消回调异常", e);
+        }
+        Log.d(TAG, String.format("取消未到时间的批量帧: %d，当前帧: %d", remaining, currentFrame));
+    }
+
+    /**
+     * 在播放线程中切换播放速度，保持当前播放位置不变
+     */
+    private void applyPlaybackSpeed(float speed) {
+        SequenceData data = currentSequence;
+        if (appliedSpeed == 1.0f) {
+            // 进入变速播放：由当前帧换算游标位置
+            cursorQ32 = resampler != null
+                ? resampler.positionForTick(outputTick)
+                : (long) currentFrame << FrameResampler.POSITION_FRACTION_BITS;
+            if (!data.hasResolvedFrames()) {
+                data.buildResolvedFrames();
+            }
+        }
+        if (speed == 1.0f) {
+            // 回到原速：从不早于游标的帧继续
+            if (resampler != null) {
+                outputTick = resampler.tickAtPosition(cursorQ32);
+            } else {
+                currentFrame = (int) Math.min((cursorQ32 + (1L << FrameResampler.POSITION_FRACTION_BITS) - 1)
+                    >>> FrameResampler.POSITION_FRACTION_BITS, data.totalFrames);
+                frameRenderer.seek(data, Math.min(currentFrame, data.loadedFrames));
+            }
+        } else {
+            cursorStepQ32 = Math.round(cursorResampler.sourceStep() * speed
+                * (1L << FrameResampler.POSITION_FRACTION_BITS));
+        }
+        appliedSpeed = speed;
+        Log.d(TAG, String.format("播放速度: %.2fx, 当前帧: %d", speed, currentFrame));
+    }
+
+    /**
+     * 帧周期（纳秒）
+     */
+    private long framePeriodNanos() {
+        return 1000000000L / targetFrequency;
+    }
+
+    /**
+     * 暂停播放
+     * 可在任意线程调用：状态立即转换为PAUSED，停止调度在持有执行权的线程完成
+     */
+    public void pause() {
+        if (!transition(PlayerState.PLAYING, PlayerState.PAUSED)) {
+            Log.w(TAG, "当前状态无法暂停: " + state.get());
+            return;
+        }
+        execute(syncPlaybackCommand);
 
         Log.d(TAG, String.format("播放已暂停，当前帧: %d/%d", getCurrentFrame(), getTotalFrames()));
     }
 
     /**
      * 恢复播放
+     * 可在任意线程调用：状态立即转换为PLAYING，重新开始调度在持有执行权的线程完成
      */
     public void resume() {
-        if (state != PlayerState.PAUSED) {
-            Log.w(TAG, "当前状态无法恢复: " + state);
+        if (!transition(PlayerState.PAUSED, PlayerState.PLAYING)) {
+            Log.w(TAG, "当前状态无法恢复: " + state.get());
             return;
         }
 
         Log.d(TAG, "恢复播放");
-        
+        execute(syncPlaybackCommand);
+    }
+
+    /**
+     * 按当前状态启停调度器或Native播放（持有执行权时调用）
+     * 暂停和恢复只做CAS状态转换后提交本命令，并发的暂停和恢复无论命令执行顺序如何都以最终状态为准
+     */
+    private void syncPlayback() {
+        PlayerState current = state.get();
         if (useNativePlayback && nativePlayerId > 0) {
-            nativeResume(nativePlayerId);
-            setState(PlayerState.PLAYING);
-        } else {
-            startPlayback();
+            if (current == PlayerState.PLAYING && nativePaused) {
+                nativeResume(nativePlayerId);
+                nativePaused = false;
+            } else if (current == PlayerState.PAUSED && !nativePaused) {
+                nativePause(nativePlayerId);
+                nativePaused = true;
+            }
+            return;
+        }
+        if (current == PlayerState.PLAYING) {
+            if (!schedulerRunning) {
+                startScheduler();
+            }
+        } else if (current == PlayerState.PAUSED) {
+            stopScheduler();
+            cancelPendingBatch();
         }
     }
 
     /**
      * 停止播放
+     * 可在任意线程调用：状态立即转换为STOPPED，之后不再开始新的帧任务，重置播放位置在持有执行权的线程完成
      */
     public void stop() {
-        if (state == PlayerState.IDLE || state == PlayerState.STOPPED) {
-            return;
-        }
+        PlayerState current;
+        do {
+            current = state.get();
+            if (current == PlayerState.IDLE || current == PlayerState.STOPPED) {
+                return;
+            }
+        } while (!transition(current, PlayerState.STOPPED));
+        playGeneration.incrementAndGet();
+        execute(stopCommand);
+    }
 
-        setState(PlayerState.STOPPED);
-        
+    /**
+     * 停止调度并重置播放位置（持有执行权时调用，状态已由调用方转换）
+     */
+    private void stopPlayback() {
         if (useNativePlayback && nativePlayerId > 0) {
             nativeStop(nativePlayerId);
+            nativePaused = false;
         } else {
-            handler.removeCallbacks(playbackRunnable);
+            stopScheduler();
+            cancelPendingBatch();
         }
         
         currentFrame = 0;
-        lastFrameTime = 0;
+        outputTick = 0;
+        cursorQ32 = 0;
+        synchronized (queueLock) {
+            endQueue();
+        }
         
         // 重置-1值填充缓存
-        resetLastValidValues();
+        frameRenderer.reset();
 
         Log.d(TAG, "播放已停止");
     }
 
     /**
-     * 急停方法
-     * 立即停止序列播放并通知监听器停止位置输出
+     * 急停方法
+     * 立即停止序列播放并通知监听器停止位置输出
+     */
+    public void emergencyStop() {
+        // 设置状态为停止：之后开始的帧任务在输出前检查状态，不再输出；
+        // 不等待正在执行的帧任务，最多再完成一次已开始的回调
+        long requested = System.nanoTime();
+        setState(PlayerState.STOPPED);
+        emergencyStopNanos = requested;
+
+        if (useNativePlayback && nativePlayerId > 0) {
+            nativeEmergencyStop(nativePlayerId);
+        }
+        Log.w(TAG, "执行急停操作");
+        playGeneration.incrementAndGet();
+        execute(emergencyStopCommand);
+    }
+
+    /**
+     * 急停后的停止调度、通知监听器和重置（持有执行权时调用）
+     */
+    private void emergencyStopPlayback() {
+        recordEmergencyStopLatency(emergencyStopNanos);
+        if (!(useNativePlayback && nativePlayerId > 0)) {
+            // 立即停止所有播放任务
+            stopScheduler();
+            
+            // 立即通知监听器执行急停
+            if (listener != null) {
+                try {
+                    listener.onEmergencyStop();
+                } catch (Exception e) {
+                    Log.e(TAG, "急停回调异常", e);
+                }
+            }
+        }
+        nativePaused = false;
+        
+        // 重置播放参数
+        currentFrame = 0;
+        outputTick = 0;
+        cursorQ32 = 0;
+        batchRemaining = 0;
+        synchronized (queueLock) {
+            endQueue();
+        }
+        
+        // 重置-1值填充缓存
+        frameRenderer.reset();
+        
+        Log.w(TAG, "急停操作完成");
+    }
+
+    /**
+     * 跳转到指定帧
+     * 可在任意线程调用，跳转在持有执行权的线程完成（播放中时在当前帧任务结束后生效）
+     *
+     * @param frameIndex 目标帧索引
+     */
+    public void seek(final int frameIndex) {
+        if (currentSequence == null) {
+            Log.w(TAG, "未加载序列，无法跳转");
+            return;
+        }
+
+        if (frameIndex < 0 || frameIndex >= getTotalFrames()) {
+            Log.w(TAG, String.format("无效的帧索引: %d，范围: 0-%d", frameIndex, getTotalFrames() - 1));
+            return;
+        }
+
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                seekTo(frameIndex);
+            }
+        });
+    }
+
+    /**
+     * 跳转到指定帧（持有执行权时调用）
+     */
+    private void seekTo(int frameIndex) {
+        SequenceData data = currentSequence;
+        if (data == null || frameIndex >= data.totalFrames) {
+            Log.w(TAG, "序列已切换，取消跳转: " + frameIndex);
+            return;
+        }
+
+        if (useNativePlayback && nativePlayerId > 0) {
+            boolean success = nativeSeek(nativePlayerId, frameIndex);
+            if (!success) {
+                Log.w(TAG, "Native seek failed, falling back to Java implementation");
+                useNativePlayback = false;
+            } else {
+                Log.d(TAG, String.format("Native seek to frame: %d/%d", frameIndex, getTotalFrames()));
+                return;
+            }
+        }
+
+        // Java实现的跳转逻辑
+        // 流式加载中只能跳转到已加载范围内
+        if (frameIndex > data.loadedFrames) {
+            Log.w(TAG, String.format("目标帧尚未加载: %d，已加载: %d", frameIndex, data.loadedFrames));
+            return;
+        }
+
+        // 停止当前播放
+        boolean wasPlaying = schedulerRunning;
+        if (wasPlaying) {
+            stopScheduler();
+        }
+        cancelPendingBatch();
+        if (crossfade != null) {
+            crossfade.cancel();
+        }
+
+        // 从检查点恢复目标帧之前的保持状态，保证跳转后的-1填充与顺序播放一致
+        frameRenderer.seek(data, frameIndex);
+        if (mixer != null) {
+            mixer.seek(frameIndex);
+        }
+        currentFrame = frameIndex;
+        if (resampler != null) {
+            outputTick = resampler.tickForSourceFrame(frameIndex);
+        }
+        cursorQ32 = (long) frameIndex << FrameResampler.POSITION_FRACTION_BITS;
+
+        Log.d(TAG, String.format("跳转到帧: %d/%d", frameIndex, getTotalFrames()));
+
+        // 如果之前在播放，立即播放跳转后的帧
+        if (wasPlaying) {
+            startScheduler();
+        }
+    }
+
+    /**
+     * 设置Java播放定时后端
+     * 播放中切换时从当前帧按新后端继续；PRECISION_THREAD 的帧回调在独立播放线程中执行，
+     * SHARED_THREAD 的帧回调在所有播放器共用的调度线程中执行
+     *
+     * @param backend 定时后端，默认HANDLER
+     */
+    public void setTimingBackend(final TimingBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("backend不能为null");
+        }
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (backend == timingBackend) {
+                    return;
+                }
+                boolean running = schedulerRunning;
+                stopScheduler();
+                frameScheduler = createFrameScheduler(backend);
+                timingBackend = backend;
+                if (running) {
+                    startScheduler();
+                }
+                Log.d(TAG, "定时后端: " + backend);
+            }
+        });
+    }
+
+    private FrameScheduler createFrameScheduler(TimingBackend backend) {
+        FrameScheduler scheduler;
+        switch (backend) {
+            case PRECISION_THREAD:
+                scheduler = new PrecisionFrameScheduler();
+                break;
+            case SHARED_THREAD:
+                scheduler = new SharedFrameScheduler();
+                break;
+            default:
+                scheduler = new HandlerFrameScheduler(handler);
+                break;
+        }
+        scheduler.setOverrunPolicy(overrunPolicy);
+        return scheduler;
+    }
+
+    /**
+     * 获取Java播放定时后端
+     */
+    public TimingBackend getTimingBackend() {
+        return timingBackend;
+    }
+
+    /**
+     * 设置重采样模式
+     * 开启后按序列采样率映射到播放频率：例如40Hz序列以100Hz播放时时长不变，输出帧由相邻源帧插值得到，
+     * -1（保持）不参与插值。序列需要重采样时使用Java播放。下次加载序列时生效
+     *
+     * @param mode 重采样模式，默认OFF（每个播放周期输出一个序列帧）
+     */
+    public void setResampleMode(ResampleMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("mode不能为null");
+        }
+        this.resampleMode = mode;
+    }
+
+    /**
+     * 获取重采样模式
+     */
+    public ResampleMode getResampleMode() {
+        return resampleMode;
+    }
+
+    /**
+     * 设置播放速度
+     * 输出频率不变，按速度推进序列位置并在相邻帧之间插值（插值方式取重采样模式，OFF时为线性），
+     * 例如2.0时每个播放周期前进两帧、时长减半。可在播放中修改，从下一帧起生效，每帧不分配内存
+     *
+     * @param speed 播放速度，范围0.1-4.0，默认1.0
+     */
+    public void setPlaybackSpeed(float speed) {
+        if (!(speed >= MIN_PLAYBACK_SPEED && speed <= MAX_PLAYBACK_SPEED)) {
+            throw new IllegalArgumentException(String.format("播放速度必须在%.1f-%.1f之间，当前值: %s",
+                MIN_PLAYBACK_SPEED, MAX_PLAYBACK_SPEED, speed));
+        }
+        this.playbackSpeed = speed;
+        if (useNativePlayback && nativePlayerId > 0) {
+            nativeSetPlaybackSpeed(nativePlayerId, speed);
+        }
+    }
+
+    /**
+     * 获取播放速度
+     */
+    public float getPlaybackSpeed() {
+        return playbackSpeed;
+    }
+
+    /**
+     * 设置回调超时处理策略
+     * 监听器回调耗时超过帧周期时：STRETCH（默认）不丢帧、序列被拉长；DROP 跳过错过的帧保持原时长；
+     * CATCH_UP 不丢帧、连续补发错过的帧直到回到原时间网格。播放中修改时从当前帧按新策略继续
+     *
+     * @param policy 超时策略
+     */
+    public void setOverrunPolicy(final OverrunPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy不能为null");
+        }
+        if (policy == overrunPolicy) {
+            return;
+        }
+        this.overrunPolicy = policy;
+        if (useNativePlayback && nativePlayerId > 0) {
+            nativeSetOverrunPolicy(nativePlayerId, policy.ordinal());
+            return;
+        }
+        // 调度器在start时读取策略：播放中重新开始调度，以当前时间为新的时间网格起点
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean running = schedulerRunning;
+                stopScheduler();
+                frameScheduler.setOverrunPolicy(policy);
+                if (running) {
+                    startScheduler();
+                }
+                Log.d(TAG, "超时策略: " + policy);
+            }
+        });
+    }
+
+    /**
+     * 获取回调超时处理策略
+     */
+    public OverrunPolicy getOverrunPolicy() {
+        return overrunPolicy;
+    }
+
+    /**
+     * 获取回调超时统计（快照）
+     * Native播放时为Native层的统计
+     */
+    public OverrunStats getOverrunStats() {
+        if (useNativePlayback && nativePlayerId > 0) {
+            long[] values = nativeGetOverrunStats(nativePlayerId);
+            OverrunStats stats = new OverrunStats();
+            if (values != null && values.length >= 4) {
+                stats.ticks = values[0];
+                stats.overruns = values[1];
+                stats.droppedFrames = values[2];
+                stats.maxCallbackNanos = values[3];
+            }
+            return stats;
+        }
+        synchronized (overrunStats) {
+            return overrunStats.copy();
+        }
+    }
+
+    /**
+     * 清零回调超时统计
+     */
+    public void resetOverrunStats() {
+        if (useNativePlayback && nativePlayerId > 0) {
+            nativeResetOverrunStats(nativePlayerId);
+        }
+        synchronized (overrunStats) {
+            overrunStats.reset();
+        }
+    }
+
+    /**
+     * 获取急停延迟统计（快照）
+     * 延迟为调用 emergencyStop() 到最后一次帧回调结束的时间，急停时没有正在执行的回调则为0；
+     * 响应为调用到播放停止并重置的时间。Native播放时为Native层的统计，响应包含同一调度线程上
+     * 其他播放器回调造成的等待
+     */
+    public EmergencyStopStats getEmergencyStopStats() {
+        if (useNativePlayback && nativePlayerId > 0) {
+            long[] values = nativeGetEmergencyStopStats(nativePlayerId);
+            EmergencyStopStats stats = new EmergencyStopStats();
+            if (values != null && values.length >= 5) {
+                stats.stops = values[0];
+                stats.lastLatencyNanos = values[1];
+                stats.maxLatencyNanos = values[2];
+                stats.lastResponseNanos = values[3];
+                stats.maxResponseNanos = values[4];
+            }
+            return stats;
+        }
+        synchronized (emergencyStopStats) {
+            return emergencyStopStats.copy();
+        }
+    }
+
+    /**
+     * 记录一次急停的延迟（持有执行权时调用）
+     * 急停命令在正在执行的帧任务结束后才执行，此时最近一个帧任务就是急停后最后可能输出的一次：
+     * 它在请求之后结束时，延迟为其结束时间减去请求时间（请求后开始的帧任务不输出，只会使结果偏大）
+     */
+    private void recordEmergencyStopLatency(long requested) {
+        long latency = lastTickEndNanos > requested ? lastTickEndNanos - requested : 0;
+        long response = System.nanoTime() - requested;
+        synchronized (emergencyStopStats) {
+            emergencyStopStats.stops++;
+            emergencyStopStats.lastLatencyNanos = latency;
+            if (latency > emergencyStopStats.maxLatencyNanos) {
+                emergencyStopStats.maxLatencyNanos = latency;
+            }
+            emergencyStopStats.lastResponseNanos = response;
+            if (response > emergencyStopStats.maxResponseNanos) {
+                emergencyStopStats.maxResponseNanos = response;
+            }
+        }
+    }
+
+    /**
+     * 记录一个播放周期的处理耗时（含监听器回调）
+     */
+    private void recordTickDuration(long nanos) {
+        synchronized (overrunStats) {
+            overrunStats.ticks++;
+            if (nanos > framePeriodNanos()) {
+                overrunStats.overruns++;
+            }
+            if (nanos > overrunStats.maxCallbackNanos) {
+                overrunStats.maxCallbackNanos = nanos;
+            }
+        }
+    }
+
+    /**
+     * 丢弃调度器跳过的周期对应的帧（DROP策略），播放位置前进到当前时间对应的帧
+     * 批量交付时，已交付批次中时间已过的帧不计为丢帧
+     *
+     * @param ticks 跳过的周期数
+     */
+    private void dropFrames(int ticks) {
+        SequenceData data = currentSequence;
+        if (data == null) {
+            return;
+        }
+        if (batcher != null && batchRemaining > 0) {
+            int consumed = Math.min(ticks, batchRemaining);
+            for (int i = 0; i < consumed; i++) {
+                advanceOneFrame();
+            }
+            batchRemaining -= consumed;
+            ticks -= consumed;
+        }
+
+        int dropped = 0;
+        if (mixer != null) {
+            mixer.skip(ticks);
+            currentFrame = mixer.getTick();
+            dropped = ticks;
+        } else {
+            boolean plain = appliedSpeed == 1.0f && resampler == null;
+            while (dropped < ticks && !isPlaybackFinished()) {
+                if (plain && currentFrame >= data.loadedFrames) {
+                    break;
+                }
+                advanceOneFrame();
+                dropped++;
+            }
+            if (plain && dropped > 0 && !(frameRenderer.isPreResolveHolds() && data.hasResolvedFrames())) {
+                // 逐帧填充：从检查点恢复跳过帧之后的保持状态
+                frameRenderer.seek(data, Math.min(currentFrame, data.loadedFrames));
+            }
+        }
+
+        if (dropped > 0) {
+            synchronized (overrunStats) {
+                overrunStats.droppedFrames += dropped;
+            }
+            Log.w(TAG, String.format("回调超时，丢弃%d帧", dropped));
+        }
+    }
+
+    /**
+     * 设置批量交付的每批帧数
+     * 使用 {@link FrameBatchListener} 播放时生效，下次调用play时应用
+     *
+     * @param frames 每批帧数，范围1-64，默认1
+     */
+    public void setBatchSize(int frames) {
+        if (frames < 1 || frames > FrameBatcher.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("批量帧数必须在1-" + FrameBatcher.MAX_BATCH_SIZE + "之间，当前值: " + frames);
+        }
+        this.batchSize = frames;
+        this.batchWindowMs = 0;
+    }
+
+    /**
+     * 按时间窗设置批量交付的每批帧数
+     * 每批帧数为时间窗内的播放周期数（按播放频率换算，至少1帧，至多64帧），覆盖 {@link #setBatchSize} 的设置
+     *
+     * @param millis 时间窗（毫秒），大于0
+     */
+    public void setBatchWindow(int millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("时间窗必须大于0，当前值: " + millis);
+        }
+        this.batchWindowMs = millis;
+    }
+
+    /**
+     * 获取指定播放频率下的每批帧数
+     */
+    public int getBatchSize(int frequency) {
+        return effectiveBatchSize(frequency);
+    }
+
+    private int effectiveBatchSize(int frequency) {
+        if (batchWindowMs > 0) {
+            long frames = (long) batchWindowMs * frequency / 1000;
+            return (int) Math.max(1, Math.min(FrameBatcher.MAX_BATCH_SIZE, frames));
+        }
+        return batchSize;
+    }
+
+    /**
+     * 设置前瞻窗口帧数
+     * 开启后 {@link #getLookaheadWindow()} 在每次逐帧回调前更新为当前帧及其后k帧（保持值已填充），
+     * 直接读取预解析帧表，不复制帧数据。下次调用play时生效，批量播放时不使用
+     *
+     * @param frames 当前帧之后的帧数k，范围0-256，0为关闭（默认）
+     */
+    public void setLookaheadWindow(int frames) {
+        if (frames < 0 || frames > LookaheadWindow.MAX_FRAMES) {
+            throw new IllegalArgumentException("前瞻帧数必须在0-" + LookaheadWindow.MAX_FRAMES + "之间，当前值: " + frames);
+        }
+        this.lookaheadWindowFrames = frames;
+    }
+
+    /**
+     * 获取前瞻窗口
+     * 应在 {@link FrameBufferListener#onFrameBuffer} 回调内读取
+     *
+     * @return 当前播放的前瞻窗口，未开启时为null
+     */
+    public LookaheadWindow getLookaheadWindow() {
+        return lookaheadWindow;
+    }
+
+    /**
+     * 设置帧环
+     * 设置后逐帧播放（FrameBufferListener / SequenceListener）的帧不再回调 onFrameBuffer / onFrameData，
+     * 而是写入帧环，由使用方在自己的线程上调用 {@link FrameRing#drain} 按自己的节奏读取；
+     * 完成、错误和急停仍回调监听器。Native播放时由Native播放线程直接写入，播放循环中没有JNI回调。
+     * 播放线程从不等待读取方，读取落后超过环的槽位数时最旧的帧被覆盖。
+     * 下次play时生效，批量播放时不使用；不使用前瞻窗口
+     *
+     * @param ring 帧环，null为关闭（默认）
+     */
+    public void setFrameRing(FrameRing ring) {
+        this.frameRing = ring;
+    }
+
+    /**
+     * 获取设置的帧环
+     */
+    public FrameRing getFrameRing() {
+        return frameRing;
+    }
+
+    /**
+     * 把本次播放的帧环注册到Native层（持有执行权时调用）
+     * 交叉淡化在Java适配器中完成，此时仍经由JNI回调写入帧环
      */
-    public void emergencyStop() {
-        Log.w(TAG, "执行急停操作");
-        
-        if (useNativePlayback && nativePlayerId > 0) {
-            nativeEmergencyStop(nativePlayerId);
-        } else {
-            // 立即停止所有播放任务
-            handler.removeCallbacks(playbackRunnable);
-            
-            // 立即通知监听器执行急停
-            if (listener != null) {
-                try {
-                    listener.onEmergencyStop();
-                } catch (Exception e) {
-                    Log.e(TAG, "急停回调异常", e);
-                }
-            }
+    private void attachNativeFrameRing() {
+        FrameRing ring = crossfade == null ? activeFrameRing : null;
+        boolean attached = nativeSetFrameRing(nativePlayerId, ring != null ? ring.buffer() : null, System.nanoTime());
+        if (ring != null && !attached) {
+            Log.w(TAG, "Native层无法写入帧环，经由JNI回调写入");
         }
-        
-        // 设置状态为停止
-        setState(PlayerState.STOPPED);
-        
-        // 重置播放参数
-        currentFrame = 0;
-        lastFrameTime = 0;
-        
-        // 重置-1值填充缓存
-        resetLastValidValues();
-        
-        Log.w(TAG, "急停操作完成");
     }
 
     /**
-     * 跳转到指定帧
+     * 设置切换序列时的交叉淡化时长
+     * 开启后，play()打断正在播放的序列或队列切换到下一序列时，在该时长内把旧序列尾部与新序列开头按线性权重混合
+     * （逐帧计算，-1保持值不参与混合）。打断时旧序列尾部从打断位置继续推进；队列切换时旧序列已播放完，
+     * 从其最后的位置淡入。跳转会结束正在进行的淡化。在下一次play()时生效
      *
-     * @param frameIndex 目标帧索引
+     * @param millis 淡化时长（毫秒），0表示关闭（默认）
      */
-    public void seek(int frameIndex) {
-        if (currentSequence == null) {
-            Log.w(TAG, "未加载序列，无法跳转");
-            return;
-        }
-
-        if (frameIndex < 0 || frameIndex >= getTotalFrames()) {
-            Log.w(TAG, String.format("无效的帧索引: %d，范围: 0-%d", frameIndex, getTotalFrames() - 1));
-            return;
+    public void setCrossfade(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("淡化时长不能为负数，当前值: " + millis);
         }
+        this.crossfadeMs = millis;
+    }
 
-        boolean wasPlaying = (state == PlayerState.PLAYING);
-        
-        if (useNativePlayback && nativePlayerId > 0) {
-            boolean success = nativeSeek(nativePlayerId, frameIndex);
-            if (!success) {
-                Log.w(TAG, "Native seek failed, falling back to Java implementation");
-                useNativePlayback = false;
-            } else {
-                Log.d(TAG, String.format("Native seek to frame: %d/%d", frameIndex, getTotalFrames()));
-                return;
-            }
-        }
+    /**
+     * 获取交叉淡化时长（毫秒）
+     */
+    public int getCrossfade() {
+        return crossfadeMs;
+    }
 
-        // Java实现的跳转逻辑
-        // 停止当前播放
-        if (wasPlaying) {
-            handler.removeCallbacks(playbackRunnable);
+    private int crossfadeFrames(int frequency) {
+        if (crossfadeMs <= 0) {
+            return 0;
         }
+        return (int) Math.max(1, Math.round((double) crossfadeMs * frequency / 1000));
+    }
 
-        currentFrame = frameIndex;
+    /**
+     * 设置是否使用预解析帧表
+     * 开启后Java播放在加载时一次性解析保持值（额外占用与帧数据相同的内存），
+     * 播放时不再逐帧填充-1；关闭后立即改用逐帧填充，开启在下次加载序列时生效
+     *
+     * @param enabled 是否开启，默认开启
+     */
+    public void setPreResolveHolds(final boolean enabled) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                frameRenderer.setPreResolveHolds(enabled, currentSequence, currentFrame);
+            }
+        });
+    }
 
-        Log.d(TAG, String.format("跳转到帧: %d/%d", frameIndex, getTotalFrames()));
+    /**
+     * 是否使用预解析帧表
+     */
+    public boolean isPreResolveHolds() {
+        return frameRenderer.isPreResolveHolds();
+    }
 
-        // 如果之前在播放，立即播放跳转后的帧
-        if (wasPlaying) {
-            lastFrameTime = SystemClock.elapsedRealtime();
-            playNextFrame();
+    /**
+     * 设置流式加载预读帧数
+     * Java播放时，加载到该帧数即开始播放，之后的帧在播放过程中继续加载
+     *
+     * @param frames 预读帧数，至少为1
+     */
+    public void setLookaheadFrames(int frames) {
+        if (frames < 1) {
+            throw new IllegalArgumentException("预读帧数必须大于0，当前值: " + frames);
         }
+        this.lookaheadFrames = frames;
+    }
+
+    /**
+     * 获取流式加载预读帧数
+     */
+    public int getLookaheadFrames() {
+        return lookaheadFrames;
     }
 
     /**
@@ -763,7 +2298,7 @@ public class EvoBotSequencePlayer {
      * @return 当前状态
      */
     public PlayerState getState() {
-        return state;
+        return state.get();
     }
 
     /**
@@ -787,7 +2322,8 @@ public class EvoBotSequencePlayer {
         if (useNativePlayback && nativePlayerId > 0) {
             return nativeGetTotalFrames(nativePlayerId);
         }
-        return currentSequence != null ? currentSequence.totalFrames : 0;
+        SequenceData data = currentSequence;
+        return data != null ? data.totalFrames : 0;
     }
 
     /**
@@ -796,10 +2332,11 @@ public class EvoBotSequencePlayer {
      * @return 进度值 0.0-1.0，如果未加载序列返回0
      */
     public float getProgress() {
-        if (currentSequence == null || currentSequence.totalFrames == 0) {
+        SequenceData data = currentSequence;
+        if (data == null || data.totalFrames == 0) {
             return 0;
         }
-        return (float) currentFrame / currentSequence.totalFrames;
+        return (float) currentFrame / data.totalFrames;
     }
 
     /**
@@ -808,30 +2345,141 @@ public class EvoBotSequencePlayer {
      * @return 序列信息字符串，如果未加载返回"未加载"
      */
     public String getSequenceInfo() {
-        return currentSequence != null ? currentSequence.getInfo() : "未加载";
+        SequenceData data = currentSequence;
+        return data != null ? data.getInfo() : "未加载";
     }
 
     /**
-     * 设置播放器状态
+     * 设置播放器状态（无条件）
      *
      * @param newState 新状态
      */
     private void setState(PlayerState newState) {
-        if (this.state != newState) {
-            PlayerState oldState = this.state;
-            this.state = newState;
+        PlayerState oldState = state.getAndSet(newState);
+        if (oldState != newState) {
             Log.d(TAG, "状态变化: " + oldState.getDescription() + " -> " + newState.getDescription());
         }
     }
 
     /**
-     * 处理错误
+     * 状态为expected时转换为newState（CAS）
+     *
+     * @return 是否转换成功；其他线程已先改变状态时返回false
+     */
+    private boolean transition(PlayerState expected, PlayerState newState) {
+        if (!state.compareAndSet(expected, newState)) {
+            return false;
+        }
+        Log.d(TAG, "状态变化: " + expected.getDescription() + " -> " + newState.getDescription());
+        return true;
+    }
+
+    /**
+     * 提交控制命令
+     * 没有线程持有执行权时在调用线程立即执行（返回时已执行），否则由持有者在释放执行权前执行，调用线程不等待
+     */
+    private void execute(Runnable command) {
+        commands.offer(command);
+        if (commandWip.getAndIncrement() == 0) {
+            runOwned(false);
+        }
+    }
+
+    /**
+     * 持有执行权期间执行排队的命令，释放前继续执行期间新提交的命令。
+     * 调度线程持有时同时执行待执行的帧任务；控制调用持有时只执行命令，释放后把待执行的帧任务交回调度线程
+     *
+     * @param onScheduler 是否在调度线程（帧任务）上持有执行权
+     */
+    private void runOwned(boolean onScheduler) {
+        Thread self = Thread.currentThread();
+        FrameScheduler scheduler = frameScheduler;
+        int missed = 1;
+        do {
+            commandOwner = self;
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "控制命令执行异常", e);
+                }
+                if (frameScheduler != scheduler) {
+                    // 命令切换了定时后端：当前线程不再是调度线程，帧任务交给新调度器
+                    onScheduler = false;
+                }
+                if (onScheduler) {
+                    // 其他线程持续提交命令时队列可能一直不空：每条命令之后执行到期的帧任务
+                    runPendingTicks();
+                }
+            }
+            if (onScheduler) {
+                runPendingTicks();
+            }
+            scheduler = frameScheduler;
+            commandOwner = null;
+            missed = commandWip.addAndGet(-missed);
+        } while (missed != 0);
+        // 释放后才交回：调度线程上的补发不会再被本次持有挡住。之后到达的帧任务会自己取得执行权并补发
+        if (!onScheduler && pendingTicks.get() > 0) {
+            scheduler.post(drainTicksRunnable);
+        }
+    }
+
+    /**
+     * 执行其他调度周期提交、取不到执行权的帧任务（在调度线程上持有执行权时调用）
+     */
+    private void runPendingTicks() {
+        // 帧任务中停止了调度（如播放完成）时不再执行其余的补发
+        for (int ticks = pendingTicks.getAndSet(0); ticks > 0 && schedulerRunning; ticks--) {
+            runTick();
+        }
+    }
+
+    /**
+     * 执行一次帧任务并记录耗时（持有执行权时调用）
+     */
+    private void runTick() {
+        long start = System.nanoTime();
+        try {
+            playNextFrame();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "帧任务异常", e);
+            handleError("帧任务异常: " + e.getMessage());
+        }
+        long end = System.nanoTime();
+        lastTickEndNanos = end;
+        recordTickDuration(end - start);
+    }
+
+    /**
+     * 加载线程的错误：播放未被取代时提交错误处理命令
+     */
+    private void handleLoadError(final int generation, final String errorMessage) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation == playGeneration.get()) {
+                    handleError(errorMessage);
+                } else {
+                    Log.w(TAG, "已取代的播放加载失败: " + errorMessage);
+                }
+            }
+        });
+    }
+
+    /**
+     * 处理错误（持有执行权时调用）
      *
      * @param errorMessage 错误信息
      */
     private void handleError(String errorMessage) {
         setState(PlayerState.ERROR);
-        handler.removeCallbacks(playbackRunnable);
+        stopScheduler();
+        batchRemaining = 0;
+        synchronized (queueLock) {
+            endQueue();
+        }
 
         if (listener != null) {
             listener.onError(errorMessage);
@@ -847,10 +2495,23 @@ public class EvoBotSequencePlayer {
     public void release() {
         Log.d(TAG, "释放资源");
         stop();
+        playGeneration.incrementAndGet();
+        setState(PlayerState.IDLE);
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                releasePlayback();
+            }
+        });
+    }
+
+    /**
+     * 释放播放资源（持有执行权时调用）
+     */
+    private void releasePlayback() {
         handler.removeCallbacksAndMessages(null);
         currentSequence = null;
         listener = null;
-        setState(PlayerState.IDLE);
         
         // 释放Native资源
         if (useNativePlayback && nativePlayerId > 0) {
@@ -870,61 +2531,45 @@ public class EvoBotSequencePlayer {
         }
     }
 
-    /**
-     * 重置-1值填充缓存
-     * 将所有关节的最后有效值重置为-1
-     */
-    private void resetLastValidValues() {
-        for (int i = 0; i < 10; i++) {
-            lastValidLeftArm[i] = -1;
-            lastValidRightArm[i] = -1;
-        }
-        Log.d(TAG, "已重置-1值填充缓存");
-    }
-
-    /**
-     * 填充-1值：将数组中的-1值替换为对应关节的最后一个非-1值
-     * 
-     * @param currentValues 当前帧的关节值数组
-     * @param lastValidValues 存储最后有效值的缓存数组
-     * @return 处理后的关节值数组
-     */
-    private int[] fillMinusOneValues(int[] currentValues, int[] lastValidValues) {
-        if (currentValues == null || currentValues.length != 10) {
-            Log.w(TAG, "无效的关节数据数组");
-            return currentValues;
-        }
-
-        // 创建新数组避免修改原始数据
-        int[] processedValues = new int[currentValues.length];
-        
-        for (int i = 0; i < currentValues.length; i++) {
-            if (currentValues[i] == -1) {
-                // 当前值为-1，使用缓存的最后有效值
-                if (lastValidValues[i] != -1) {
-                    processedValues[i] = lastValidValues[i];
-                    Log.v(TAG, String.format("关节%d: -1 -> %d (使用缓存值)", i, lastValidValues[i]));
-                } else {
-                    // 如果缓存中也没有有效值，保持-1
-                    processedValues[i] = -1;
-                    Log.v(TAG, String.format("关节%d: -1 -> -1 (无缓存值)", i));
-                }
-            } else {
-                // 当前值不为-1，更新缓存并使用当前值
-                lastValidValues[i] = currentValues[i];
-                processedValues[i] = currentValues[i];
-            }
-        }
-        
-        return processedValues;
-    }
-
-    // 初始化播放任务
+    // 初始化播放任务和控制命令
     {
         playbackRunnable = new Runnable() {
             @Override
             public void run() {
-                playNextFrame();
+                if (commandOwner == Thread.currentThread()) {
+                    // 在调度线程上执行的控制命令中开始调度时同步执行的第一帧
+                    runTick();
+                    return;
+                }
+                // 控制命令执行中时计入待执行数，由持有者释放执行权后交回调度线程执行，播放线程不等待
+                pendingTicks.incrementAndGet();
+                drainTicksRunnable.run();
+            }
+        };
+        drainTicksRunnable = new Runnable() {
+            @Override
+            public void run() {
+                if (commandWip.getAndIncrement() == 0) {
+                    runOwned(true);
+                }
+            }
+        };
+        syncPlaybackCommand = new Runnable() {
+            @Override
+            public void run() {
+                syncPlayback();
+            }
+        };
+        stopCommand = new Runnable() {
+            @Override
+            public void run() {
+                stopPlayback();
+            }
+        };
+        emergencyStopCommand = new Runnable() {
+            @Override
+            public void run() {
+                emergencyStopPlayback();
             }
         };
     }
@@ -959,38 +2604,14 @@ public class EvoBotSequencePlayer {
         List<ActionInfo> actionList = new ArrayList<>();
         
         // 1. 获取本地assets中的动作
-        try {
-            String[] assetFiles = context.getAssets().list(ASSETS_PATH);
-            if (assetFiles != null) {
-                for (String fileName : assetFiles) {
-                    if (fileName.endsWith(".ebs")) {
-                        ActionInfo info = new ActionInfo();
-                        info.fileName = fileName;
-                        info.name = ActionNameUtils.extractActionNameFromFileName(fileName);
-                        info.englishName = ActionNameUtils.getStandardName(info.name);
-                        info.category = "本地动作";
-                        info.status = "可用";
-                        actionList.add(info);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "获取本地assets动作失败", e);
+        for (String fileName : getAssetSequenceFiles()) {
+            actionList.add(createAssetActionInfo(fileName));
         }
         
-        // 2. 获取下载的动作库
+        // 2. 获取下载的动作库（来自动作目录，不打开文件）
         if (actionLibraryUpdater != null) {
-            List<File> downloadedFiles = actionLibraryUpdater.getAllLocalActionFiles();
-            for (File file : downloadedFiles) {
-                ActionInfo info = new ActionInfo();
-                info.fileName = file.getName();
-                info.name = ActionNameUtils.extractActionNameFromFileName(file.getName());
-                info.englishName = ActionNameUtils.getStandardName(info.name);
-                info.category = "下载动作";
-                info.status = "可用";
-                info.fileSize = file.length();
-                info.lastModified = file.lastModified();
-                actionList.add(info);
+            for (ActionCatalog.Entry entry : actionLibraryUpdater.getCatalogEntries()) {
+                actionList.add(createDownloadedActionInfo(entry));
             }
         }
         
@@ -998,6 +2619,54 @@ public class EvoBotSequencePlayer {
         return actionList;
     }
     
+    /**
+     * 获取assets中的.ebs文件名（首次调用时列出并缓存）
+     */
+    private synchronized String[] getAssetSequenceFiles() {
+        if (assetSequenceFiles == null) {
+            List<String> names = new ArrayList<>();
+            try {
+                String[] assetFiles = context.getAssets().list(ASSETS_PATH);
+                if (assetFiles != null) {
+                    for (String fileName : assetFiles) {
+                        if (fileName.endsWith(".ebs")) {
+                            names.add(fileName);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                // 列出失败时不缓存，下次调用重试
+                Log.w(TAG, "获取本地assets动作失败", e);
+                return new String[0];
+            }
+            assetSequenceFiles = names.toArray(new String[0]);
+        }
+        return assetSequenceFiles;
+    }
+    
+    private ActionInfo createAssetActionInfo(String fileName) {
+        ActionInfo info = new ActionInfo();
+        info.fileName = fileName;
+        info.name = ActionNameUtils.extractActionNameFromFileName(fileName);
+        info.englishName = ActionNameUtils.getStandardName(info.name);
+        info.category = "本地动作";
+        info.status = "可用";
+        return info;
+    }
+    
+    private ActionInfo createDownloadedActionInfo(ActionCatalog.Entry entry) {
+        ActionInfo info = new ActionInfo();
+        info.fileName = entry.fileName;
+        info.name = ActionNameUtils.extractActionNameFromFileName(entry.fileName);
+        info.englishName = ActionNameUtils.getStandardName(info.name);
+        info.category = "下载动作";
+        info.status = "可用";
+        info.fileSize = entry.fileSize;
+        info.lastModified = entry.lastModified;
+        info.fileHash = entry.fileHash;
+        return info;
+    }
+    
     /**
      * 异步获取所有可用的动作信息
      * 
@@ -1034,14 +2703,23 @@ public class EvoBotSequencePlayer {
             return null;
         }
         
-        List<ActionInfo> allActions = getAllAvailableActions();
-        for (ActionInfo action : allActions) {
+        // 本地assets（数量固定且很少）
+        for (String fileName : getAssetSequenceFiles()) {
+            ActionInfo action = createAssetActionInfo(fileName);
             if (ActionNameUtils.isNameMatch(actionName, action.name) || 
                 ActionNameUtils.isNameMatch(actionName, action.englishName)) {
                 return action;
             }
         }
         
+        // 下载的动作：按动作目录名称索引查找
+        if (actionLibraryUpdater != null) {
+            ActionCatalog.Entry entry = actionLibraryUpdater.findCatalogEntry(actionName);
+            if (entry != null) {
+                return createDownloadedActionInfo(entry);
+            }
+        }
+        
         return null;
     }
     
@@ -1075,17 +2753,14 @@ public class EvoBotSequencePlayer {
     public ActionLibraryStats getActionLibraryStats() {
         ActionLibraryStats stats = new ActionLibraryStats();
         
-        List<ActionInfo> allActions = getAllAvailableActions();
-        stats.totalActionCount = allActions.size();
-        
-        for (ActionInfo action : allActions) {
-            if ("本地动作".equals(action.category)) {
-                stats.localActionCount++;
-            } else if ("下载动作".equals(action.category)) {
+        stats.localActionCount = getAssetSequenceFiles().length;
+        if (actionLibraryUpdater != null) {
+            for (ActionCatalog.Entry entry : actionLibraryUpdater.getCatalogEntries()) {
                 stats.downloadedActionCount++;
-                stats.totalDownloadedSize += action.fileSize;
+                stats.totalDownloadedSize += entry.fileSize;
             }
         }
+        stats.totalActionCount = stats.localActionCount + stats.downloadedActionCount;
         
         stats.mappingCount = ActionNameUtils.getMappingCount();
         stats.currentVersion = getCurrentLibraryVersion();
@@ -1126,6 +2801,185 @@ public class EvoBotSequencePlayer {
         }
     }
     
+    /**
+     * 队列播放的序列间隔统计
+     * 间隔为当前序列播放完成的播放周期开始到下一序列第一帧交付完成的时间。下一序列预加载及时时，
+     * 第一帧在该周期内输出，间隔只包含切换本身的开销；未及时就绪时会空出播放周期，计入延迟切换
+     */
+    public static class QueueStats {
+        public int transitions = 0;        // 序列切换次数
+        public int lateTransitions = 0;    // 下一序列未及时就绪、空出播放周期的切换次数
+        public long lastGapNanos = 0;      // 最近一次切换间隔
+        public long maxGapNanos = 0;       // 最大切换间隔
+        public long totalGapNanos = 0;     // 切换间隔总和
+
+        void reset() {
+            transitions = 0;
+            lateTransitions = 0;
+            lastGapNanos = 0;
+            maxGapNanos = 0;
+            totalGapNanos = 0;
+        }
+
+        QueueStats copy() {
+            QueueStats copy = new QueueStats();
+            copy.transitions = transitions;
+            copy.lateTransitions = lateTransitions;
+            copy.lastGapNanos = lastGapNanos;
+            copy.maxGapNanos = maxGapNanos;
+            copy.totalGapNanos = totalGapNanos;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "队列统计:\n" +
+                "  切换次数: %d\n" +
+                "  延迟切换: %d\n" +
+                "  最近间隔: %.2fms\n" +
+                "  最大间隔: %.2fms\n" +
+                "  平均间隔: %.2fms",
+                transitions, lateTransitions, lastGapNanos / 1e6, maxGapNanos / 1e6,
+                transitions > 0 ? totalGapNanos / 1e6 / transitions : 0.0
+            );
+        }
+    }
+
+    /**
+     * 预加载完成的队列序列
+     */
+    private static final class PreloadedSequence {
+        final String actionName;
+        final SequenceData data;
+        final FrameResampler resampler;
+        final FrameResampler cursorResampler;
+
+        PreloadedSequence(String actionName, SequenceData data, FrameResampler resampler,
+                          FrameResampler cursorResampler) {
+            this.actionName = actionName;
+            this.data = data;
+            this.resampler = resampler;
+            this.cursorResampler = cursorResampler;
+        }
+    }
+
+    /**
+     * 回调超时统计
+     * 超时指一个播放周期的处理耗时（含监听器回调）超过帧周期
+     */
+    public static class OverrunStats {
+        public long ticks = 0;             // 播放周期数
+        public long overruns = 0;          // 超时次数
+        public long droppedFrames = 0;     // DROP策略丢弃的帧数
+        public long maxCallbackNanos = 0;  // 最大回调耗时
+
+        void reset() {
+            ticks = 0;
+            overruns = 0;
+            droppedFrames = 0;
+            maxCallbackNanos = 0;
+        }
+
+        OverrunStats copy() {
+            OverrunStats copy = new OverrunStats();
+            copy.ticks = ticks;
+            copy.overruns = overruns;
+            copy.droppedFrames = droppedFrames;
+            copy.maxCallbackNanos = maxCallbackNanos;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "超时统计:\n" +
+                "  播放周期: %d\n" +
+                "  超时次数: %d\n" +
+                "  丢弃帧数: %d\n" +
+                "  最大回调耗时: %.2fms",
+                ticks, overruns, droppedFrames, maxCallbackNanos / 1e6
+            );
+        }
+    }
+
+    /**
+     * Native帧回调耗时统计
+     */
+    public static class NativeCallbackStats {
+        public long callbacks = 0;    // 回调次数
+        public long totalNanos = 0;   // 总耗时
+        public long maxNanos = 0;     // 最大耗时
+
+        /**
+         * 平均每次回调的耗时
+         */
+        public long averageNanos() {
+            return callbacks > 0 ? totalNanos / callbacks : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Native回调统计:\n" +
+                "  回调次数: %d\n" +
+                "  平均耗时: %.1fus\n" +
+                "  最大耗时: %.1fus",
+                callbacks, averageNanos() / 1e3, maxNanos / 1e3
+            );
+        }
+    }
+
+    /**
+     * 急停延迟统计
+     * 延迟指调用 emergencyStop() 到最后一次帧回调结束的时间，最多为急停时正在执行的一次帧回调的剩余耗时；
+     * 响应指调用到播放停止并重置的时间，Native播放共享调度线程时还包含同线程其他播放器回调造成的等待
+     */
+    public static class EmergencyStopStats {
+        public long stops = 0;             // 急停次数
+        public long lastLatencyNanos = 0;  // 最近一次急停的延迟
+        public long maxLatencyNanos = 0;   // 最大延迟
+        public long lastResponseNanos = 0; // 最近一次急停的响应时间
+        public long maxResponseNanos = 0;  // 最大响应时间
+
+        EmergencyStopStats copy() {
+            EmergencyStopStats copy = new EmergencyStopStats();
+            copy.stops = stops;
+            copy.lastLatencyNanos = lastLatencyNanos;
+            copy.maxLatencyNanos = maxLatencyNanos;
+            copy.lastResponseNanos = lastResponseNanos;
+            copy.maxResponseNanos = maxResponseNanos;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "急停统计:\n" +
+                "  急停次数: %d\n" +
+                "  最近延迟: %.3fms\n" +
+                "  最大延迟: %.3fms\n" +
+                "  最近响应: %.3fms\n" +
+                "  最大响应: %.3fms",
+                stops, lastLatencyNanos / 1e6, maxLatencyNanos / 1e6,
+                lastResponseNanos / 1e6, maxResponseNanos / 1e6
+            );
+        }
+    }
+
+    /**
+     * 队列播放监听器
+     */
+    public interface QueueListener {
+        /**
+         * 切换到队列中的下一个序列，在该序列第一帧回调之前调用（播放线程）
+         *
+         * @param actionName 动作名称
+         * @param remaining  队列中剩余等待播放的序列数
+         */
+        void onSequenceStarted(String actionName, int remaining);
+    }
+
     /**
      * 动作列表回调接口
      */
@@ -0,0 +1,50 @@
+package com.evobot.sequence;
+
+/**
+ * 批量帧播放监听器
+ * 适用于串口/CAN等批量发送更高效的传输层：播放器每隔N个播放周期一次性交付接下来N帧及其计划输出时间，
+ * 监听器按时间戳自行下发。播放器仍按帧推进进度（{@link EvoBotSequencePlayer#getCurrentFrame()} 为已到时间的帧），
+ * 一批帧中途暂停/停止/跳转时通过 {@link #onBatchCancelled} 通知尚未到时间的帧数，恢复播放时从当前帧重新交付。
+ *
+ * 缓冲区所有权约定与 {@link FrameBufferListener} 相同：数组由播放器持有并交替使用两组，
+ * 本次回调收到的数组在下一次 {@link #onFrameBatch} 返回之前保持不变
+ */
+public interface FrameBatchListener {
+
+    /**
+     * 批量帧回调
+     *
+     * @param leftArms        左臂数据，第i帧位于 [i*10, i*10+10)，已完成-1填充
+     * @param rightArms       右臂数据，布局同左臂
+     * @param frameIndices    每帧对应的序列帧索引
+     * @param timestampsNanos 每帧的计划输出时间（{@link System#nanoTime()} 时间基准），第一帧为当前周期
+     * @param frameCount      本批帧数（数组长度可能大于帧数，只读取前frameCount帧）
+     */
+    void onFrameBatch(int[] leftArms, int[] rightArms, int[] frameIndices, long[] timestampsNanos, int frameCount);
+
+    /**
+     * 批次取消回调
+     * 暂停、停止或跳转时上一批中还有帧未到计划时间，传输层应丢弃已缓存的最后 remainingFrames 帧
+     *
+     * @param remainingFrames 上一批中未到时间的帧数
+     */
+    void onBatchCancelled(int remainingFrames);
+
+    /**
+     * 播放完成回调
+     */
+    void onComplete();
+
+    /**
+     * 错误回调
+     *
+     * @param errorMessage 错误信息描述
+     */
+    void onError(String errorMessage);
+
+    /**
+     * 急停回调
+     * 传输层应立即丢弃所有已缓存的帧
+     */
+    void onEmergencyStop();
+}
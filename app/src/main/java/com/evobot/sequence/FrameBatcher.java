@@ -0,0 +1,95 @@
+package com.evobot.sequence;
+
+/**
+ * 将逐帧渲染的输出收集为批次交付给 {@link FrameBatchListener}
+ * 播放器在批次开始时调用 {@link #begin}，渲染器逐帧写入后调用 {@link #flush} 一次性回调；
+ * 批次缓冲区预先分配并交替使用两组，稳态播放时不分配内存
+ */
+final class FrameBatcher implements FrameBufferListener {
+
+    static final int MAX_BATCH_SIZE = 64;
+
+    final FrameBatchListener delegate;
+    private final int capacity;
+
+    private final int[][] leftBatches = new int[2][];
+    private final int[][] rightBatches = new int[2][];
+    private final int[][] frameIndices = new int[2][];
+    private final long[][] timestamps = new long[2][];
+    private int bufferIndex = 0;
+
+    private int count = 0;
+    private long firstTimestampNanos;
+    private long periodNanos;
+
+    FrameBatcher(FrameBatchListener delegate, int capacity) {
+        if (capacity < 1 || capacity > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("批量帧数必须在1-" + MAX_BATCH_SIZE + "之间，当前值: " + capacity);
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        for (int i = 0; i < 2; i++) {
+            leftBatches[i] = new int[capacity * SequenceData.JOINTS_PER_ARM];
+            rightBatches[i] = new int[capacity * SequenceData.JOINTS_PER_ARM];
+            frameIndices[i] = new int[capacity];
+            timestamps[i] = new long[capacity];
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 开始一个新批次
+     *
+     * @param firstTimestampNanos 第一帧的计划输出时间
+     * @param periodNanos         帧周期
+     */
+    void begin(long firstTimestampNanos, long periodNanos) {
+        this.count = 0;
+        this.firstTimestampNanos = firstTimestampNanos;
+        this.periodNanos = periodNanos;
+    }
+
+    @Override
+    public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+        int offset = count * SequenceData.JOINTS_PER_ARM;
+        System.arraycopy(leftArm, 0, leftBatches[bufferIndex], offset, SequenceData.JOINTS_PER_ARM);
+        System.arraycopy(rightArm, 0, rightBatches[bufferIndex], offset, SequenceData.JOINTS_PER_ARM);
+        frameIndices[bufferIndex][count] = frameIndex;
+        timestamps[bufferIndex][count] = firstTimestampNanos + count * periodNanos;
+        count++;
+    }
+
+    /**
+     * 交付当前批次
+     */
+    void flush() {
+        int index = bufferIndex;
+        bufferIndex ^= 1;
+        delegate.onFrameBatch(leftBatches[index], rightBatches[index], frameIndices[index], timestamps[index], count);
+    }
+
+    /**
+     * 通知上一批中未到时间的帧已取消
+     */
+    void cancel(int remainingFrames) {
+        delegate.onBatchCancelled(remainingFrames);
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void onError(String errorMessage) {
+        delegate.onError(errorMessage);
+    }
+
+    @Override
+    public void onEmergencyStop() {
+        delegate.onEmergencyStop();
+    }
+}
@@ -0,0 +1,43 @@
+package com.evobot.sequence;
+
+/**
+ * 帧缓冲播放监听器
+ * 与 {@link SequenceListener} 相同的回调事件，但帧数据写入播放器持有的可复用缓冲区，稳态播放时每帧不分配内存
+ *
+ * 缓冲区所有权约定：
+ * - leftArm/rightArm 由播放器持有，监听器不得修改，也不得在回调之外长期引用
+ * - 播放器交替使用两组缓冲区：本次回调收到的数组在下一次 {@link #onFrameBuffer} 返回之前保持不变，
+ *   因此可以把它交给其他线程在一个帧周期内处理；需要更久保存时请自行复制
+ * - Native播放时缓冲区为每个播放器预分配的Java数组，约定相同
+ *
+ * 旧的 {@link SequenceListener} 通过适配器接入：每帧复制为新数组后回调 onFrameData
+ */
+public interface FrameBufferListener {
+
+    /**
+     * 帧数据回调
+     * 按照设定的频率（如40Hz）定时回调
+     *
+     * @param leftArm    左臂10个关节的位置数据（播放器持有），已完成-1填充，此前从未有效的关节仍为-1
+     * @param rightArm   右臂10个关节的位置数据（播放器持有）
+     * @param frameIndex 当前帧索引（从0开始）
+     */
+    void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex);
+
+    /**
+     * 播放完成回调
+     */
+    void onComplete();
+
+    /**
+     * 错误回调
+     *
+     * @param errorMessage 错误信息描述
+     */
+    void onError(String errorMessage);
+
+    /**
+     * 急停回调
+     */
+    void onEmergencyStop();
+}
@@ -0,0 +1,155 @@
+package com.evobot.sequence;
+
+import java.util.Arrays;
+
+/**
+ * 帧渲染器
+ * 把序列帧转换为输出关节值（完成-1填充）并写入可复用的双缓冲区交付给监听器，稳态播放时不分配内存
+ *
+ * 两种填充方式输出一致：
+ * - 预解析：序列已建立预解析帧表时直接复制
+ * - 逐帧填充：维护每个关节的最后有效值，用它替换当前帧的-1
+ * 开启重采样时由 {@link FrameResampler} 在预解析帧表上插值生成输出帧
+ *
+ * 非线程安全，只能在播放线程中使用
+ */
+final class FrameRenderer {
+
+    // 交付缓冲区：两组交替使用，见 FrameBufferListener 的所有权约定
+    private final int[][] leftBuffers = new int[2][SequenceData.JOINTS_PER_ARM];
+    private final int[][] rightBuffers = new int[2][SequenceData.JOINTS_PER_ARM];
+    private int bufferIndex = 0;
+
+    // -1值填充缓存：存储每个关节的最后一个非-1值
+    private final int[] lastValidLeftArm = new int[SequenceData.JOINTS_PER_ARM];
+    private final int[] lastValidRightArm = new int[SequenceData.JOINTS_PER_ARM];
+
+    // 当前帧读取缓冲：从紧凑帧存储复制原始关节值
+    private final int[] frameLeftArm = new int[SequenceData.JOINTS_PER_ARM];
+    private final int[] frameRightArm = new int[SequenceData.JOINTS_PER_ARM];
+
+    private boolean preResolveHolds = true;
+
+    FrameRenderer() {
+        reset();
+    }
+
+    /**
+     * 重置-1值填充缓存
+     */
+    void reset() {
+        Arrays.fill(lastValidLeftArm, -1);
+        Arrays.fill(lastValidRightArm, -1);
+    }
+
+    /**
+     * 跳转：从检查点恢复目标帧之前的保持状态
+     */
+    void seek(SequenceData data, int frameIndex) {
+        data.resolveHoldState(frameIndex, lastValidLeftArm, lastValidRightArm);
+    }
+
+    /**
+     * 设置是否使用预解析帧表
+     * 关闭时从检查点恢复逐帧填充所需的最后有效值（预解析播放期间不维护）
+     */
+    void setPreResolveHolds(boolean enabled, SequenceData data, int currentFrame) {
+        if (!enabled && preResolveHolds && data != null) {
+            seek(data, Math.min(currentFrame, data.loadedFrames));
+        }
+        preResolveHolds = enabled;
+    }
+
+    boolean isPreResolveHolds() {
+        return preResolveHolds;
+    }
+
+    /**
+     * 渲染一帧并回调监听器
+     *
+     * @param data       序列数据，frameIndex必须小于loadedFrames
+     * @param frameIndex 帧索引
+     * @param listener   监听器，为null时只更新填充状态
+     */
+    void render(SequenceData data, int frameIndex, FrameBufferListener listener) {
+        int[] left = leftBuffers[bufferIndex];
+        int[] right = rightBuffers[bufferIndex];
+        bufferIndex ^= 1;
+
+        if (preResolveHolds && data.hasResolvedFrames()) {
+            // 保持值已在加载时解析，直接复制
+            data.copyResolvedLeftArmFrame(frameIndex, left);
+            data.copyResolvedRightArmFrame(frameIndex, right);
+        } else {
+            // 处理-1值填充：用上一帧的非-1值替换当前帧的-1值
+            data.copyLeftArmFrame(frameIndex, frameLeftArm);
+            data.copyRightArmFrame(frameIndex, frameRightArm);
+            fillMinusOneValues(frameLeftArm, lastValidLeftArm, left);
+            fillMinusOneValues(frameRightArm, lastValidRightArm, right);
+        }
+
+        if (listener != null) {
+            listener.onFrameBuffer(left, right, frameIndex);
+        }
+    }
+
+    /**
+     * 渲染一个重采样输出帧并回调监听器
+     * 序列需已建立预解析帧表
+     *
+     * @param data       序列数据
+     * @param resampler  重采样器
+     * @param tick       输出帧索引
+     * @param frameIndex 回调给监听器的帧索引（输出帧所在的源帧）
+     * @param listener   监听器，为null时只生成数据
+     */
+    void renderResampled(SequenceData data, FrameResampler resampler, long tick, int frameIndex,
+                         FrameBufferListener listener) {
+        int[] left = leftBuffers[bufferIndex];
+        int[] right = rightBuffers[bufferIndex];
+        bufferIndex ^= 1;
+
+        resampler.render(data.getResolvedFrameArray(), data.totalFrames, tick, left, right);
+
+        if (listener != null) {
+            listener.onFrameBuffer(left, right, frameIndex);
+        }
+    }
+
+    /**
+     * 按源帧游标插值输出一帧（变速播放），需要预解析帧表
+     */
+    void renderAt(SequenceData data, FrameResampler resampler, long positionQ32, int frameIndex,
+                  FrameBufferListener listener) {
+        int[] left = leftBuffers[bufferIndex];
+        int[] right = rightBuffers[bufferIndex];
+        bufferIndex ^= 1;
+
+        resampler.renderAt(data.getResolvedFrameArray(), data.totalFrames, positionQ32, left, right);
+
+        if (listener != null) {
+            listener.onFrameBuffer(left, right, frameIndex);
+        }
+    }
+
+    /**
+     * 填充-1值：将数组中的-1值替换为对应关节的最后一个非-1值
+     *
+     * @param currentValues   当前帧的关节值数组
+     * @param lastValidValues 存储最后有效值的缓存数组
+     * @param dest            输出数组
+     */
+    private static void fillMinusOneValues(int[] currentValues, int[] lastValidValues, int[] dest) {
+        for (int i = 0; i < SequenceData.JOINTS_PER_ARM; i++) {
+            int value = currentValues[i];
+            if (value == -1) {
+                // 当前值为-1，使用缓存的最后有效值（缓存中也没有有效值时仍为-1）
+                dest[i] = lastValidValues[i];
+            } else {
+                // 当前值不为-1，更新缓存并使用当前值
+                lastValidValues[i] = value;
+                dest[i] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.evobot.sequence;
+
+/**
+ * 帧重采样器
+ * 把序列采样率映射到播放频率：第k个输出帧对应源帧位置 x = k * 采样率 / 播放频率，
+ * 在 floor(x) 附近的源帧之间插值（线性取2帧，三次取4帧）。
+ *
+ * 采样率与播放频率之比化为最简分数 p/q 后，输出帧的小数位置以q为周期重复，
+ * 因此预先计算q个相位的源帧偏移和插值权重，每帧只需查表和几次乘加；
+ * q超过 {@link #MAX_PHASES} 时（采样率不是整数比）改为每帧计算权重。
+ *
+ * 变速播放时由播放器维护Q32定点的源帧游标，{@link #renderAt} 按游标位置插值，与输出帧索引无关。
+ *
+ * 输入为预解析帧表（保持值已填充）。参与插值的任一源帧仍为-1（此前从未有效）时不插值：
+ * 三次插值退化为线性插值，线性插值退化为取 floor(x) 帧的值，-1不会与有效位置混合。
+ */
+final class FrameResampler {
+
+    static final int MAX_PHASES = 4096;
+    static final int POSITION_FRACTION_BITS = 32;  // 源帧游标的小数位数
+    private static final long POSITION_FRACTION_MASK = (1L << POSITION_FRACTION_BITS) - 1;
+    private static final float POSITION_SCALE = 1.0f / (1L << POSITION_FRACTION_BITS);
+    private static final int RATE_SCALE = 1000;  // 采样率按0.001Hz精度化为整数
+
+    private final ResampleMode mode;
+    private final long p;   // 源帧步长分子
+    private final long q;   // 源帧步长分母
+
+    // 相位表：第j个相位的源帧偏移、小数位置、四个抽头权重（对应 i-1, i, i+1, i+2）、是否恰好落在源帧上
+    private final int[] phaseOffset;
+    private final float[] phaseFraction;
+    private final float[] phaseWeights;
+    private final boolean[] phaseExact;
+
+    // 每帧计算权重时使用的临时数组（非线程安全，只在播放线程使用）
+    private final float[] weights = new float[4];
+
+    FrameResampler(float sourceRate, int outputRate, ResampleMode mode) {
+        this(sourceRate, outputRate, mode, MAX_PHASES);
+    }
+
+    FrameResampler(float sourceRate, int outputRate, ResampleMode mode, int maxPhases) {
+        if (mode == null || mode == ResampleMode.OFF) {
+            throw new IllegalArgumentException("重采样模式无效: " + mode);
+        }
+        if (sourceRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException(String.format("采样率无效: %.3f -> %d", sourceRate, outputRate));
+        }
+        this.mode = mode;
+
+        long num = Math.round((double) sourceRate * RATE_SCALE);
+        long den = (long) outputRate * RATE_SCALE;
+        long divisor = gcd(num, den);
+        this.p = num / divisor;
+        this.q = den / divisor;
+
+        if (q <= maxPhases) {
+            int phases = (int) q;
+            phaseOffset = new int[phases];
+            phaseFraction = new float[phases];
+            phaseWeights = new float[phases * 4];
+            phaseExact = new boolean[phases];
+            for (int j = 0; j < phases; j++) {
+                long position = j * p;
+                phaseOffset[j] = (int) (position / q);
+                long fraction = position % q;
+                phaseExact[j] = fraction == 0;
+                phaseFraction[j] = (float) ((double) fraction / q);
+                computeWeights(phaseFraction[j], phaseWeights, j * 4);
+            }
+        } else {
+            phaseOffset = null;
+            phaseFraction = null;
+            phaseWeights = null;
+            phaseExact = null;
+        }
+    }
+
+    ResampleMode getMode() {
+        return mode;
+    }
+
+    /**
+     * 是否使用预计算相位表
+     */
+    boolean hasPhaseTable() {
+        return phaseOffset != null;
+    }
+
+    /**
+     * 输出帧总数：最后一个输出帧的位置不超过最后一个源帧
+     */
+    long outputFrameCount(int sourceFrames) {
+        if (sourceFrames <= 0) {
+            return 0;
+        }
+        return (sourceFrames - 1) * q / p + 1;
+    }
+
+    /**
+     * 输出帧所在的源帧索引 floor(x)
+     */
+    int sourceFrameAt(long tick) {
+        return (int) (tick * p / q);
+    }
+
+    /**
+     * 第一个位置不早于指定源帧的输出帧
+     */
+    long tickForSourceFrame(int frame) {
+        return (frame * q + p - 1) / p;
+    }
+
+    /**
+     * 每个输出帧推进的源帧数（采样率 / 播放频率）
+     */
+    double sourceStep() {
+        return (double) p / q;
+    }
+
+    /**
+     * 输出帧对应的源帧位置（Q32定点）
+     */
+    long positionForTick(long tick) {
+        long position = tick * p;
+        return ((position / q) << POSITION_FRACTION_BITS) + ((position % q << POSITION_FRACTION_BITS) / q);
+    }
+
+    /**
+     * 第一个位置不早于源帧位置（Q32定点）的输出帧
+     */
+    long tickAtPosition(long positionQ32) {
+        return (long) Math.ceil(positionQ32 * (double) POSITION_SCALE * q / p);
+    }
+
+    /**
+     * 生成输出帧需要的最后一个源帧索引（流式加载时用于判断数据是否就绪）
+     */
+    int lastSourceFrameNeeded(long tick, int sourceFrames) {
+        return lastSourceFrameNeededAt(sourceFrameAt(tick), sourceFrames);
+    }
+
+    /**
+     * 在指定源帧处插值需要的最后一个源帧索引
+     */
+    int lastSourceFrameNeededAt(int sourceFrame, int sourceFrames) {
+        int needed = sourceFrame + (mode == ResampleMode.CUBIC ? 2 : 1);
+        return Math.min(needed, sourceFrames - 1);
+    }
+
+    /**
+     * 生成一个输出帧
+     *
+     * @param resolved     预解析帧表（帧主序）
+     * @param sourceFrames 源帧总数
+     * @param tick         输出帧索引
+     * @param leftArm      输出：左臂10个关节
+     * @param rightArm     输出：右臂10个关节
+     */
+    void render(char[] resolved, int sourceFrames, long tick, int[] leftArm, int[] rightArm) {
+        long index;
+        float t;
+        float[] w;
+        int wOffset;
+        boolean exact;
+        if (phaseOffset != null) {
+            int phase = (int) (tick % q);
+            index = (tick / q) * p + phaseOffset[phase];
+            t = phaseFraction[phase];
+            w = phaseWeights;
+            wOffset = phase * 4;
+            exact = phaseExact[phase];
+        } else {
+            long position = tick * p;
+            index = position / q;
+            long fraction = position % q;
+            t = (float) ((double) fraction / q);
+            w = weights;
+            wOffset = 0;
+            exact = fraction == 0;
+            if (!exact) {
+                computeWeights(t, weights, 0);
+            }
+        }
+        interpolate(resolved, sourceFrames, index, t, w, wOffset, exact, leftArm, rightArm);
+    }
+
+    /**
+     * 按源帧游标生成一个输出帧（变速播放）
+     *
+     * @param resolved     预解析帧表（帧主序）
+     * @param sourceFrames 源帧总数
+     * @param positionQ32  源帧位置，低32位为小数部分
+     * @param leftArm      输出：左臂10个关节
+     * @param rightArm     输出：右臂10个关节
+     */
+    void renderAt(char[] resolved, int sourceFrames, long positionQ32, int[] leftArm, int[] rightArm) {
+        long fraction = positionQ32 & POSITION_FRACTION_MASK;
+        float t = fraction * POSITION_SCALE;
+        boolean exact = fraction == 0;
+        if (!exact) {
+            computeWeights(t, weights, 0);
+        }
+        interpolate(resolved, sourceFrames, positionQ32 >>> POSITION_FRACTION_BITS, t, weights, 0, exact,
+            leftArm, rightArm);
+    }
+
+    private void interpolate(char[] resolved, int sourceFrames, long index, float t, float[] w, int wOffset,
+                             boolean exact, int[] leftArm, int[] rightArm) {
+        int last = sourceFrames - 1;
+        int i1 = (int) Math.min(index, last);
+        int row0 = Math.max(i1 - 1, 0) * SequenceData.JOINTS_PER_FRAME;
+        int row1 = i1 * SequenceData.JOINTS_PER_FRAME;
+        int row2 = Math.min(i1 + 1, last) * SequenceData.JOINTS_PER_FRAME;
+        int row3 = Math.min(i1 + 2, last) * SequenceData.JOINTS_PER_FRAME;
+
+        for (int j = 0; j < SequenceData.JOINTS_PER_FRAME; j++) {
+            int v1 = (short) resolved[row1 + j];
+            int value;
+            if (exact) {
+                value = v1;
+            } else {
+                int v2 = (short) resolved[row2 + j];
+                if (v1 == -1 || v2 == -1) {
+                    // 保持值不参与插值
+                    value = v1;
+                } else if (mode == ResampleMode.CUBIC) {
+                    // 序列首尾缺少的抽头按相邻两帧线性外推，避免端点处斜率减半
+                    int v0 = i1 > 0 ? (short) resolved[row0 + j] : 2 * v1 - v2;
+                    int v3 = i1 + 2 <= last ? (short) resolved[row3 + j] : 2 * v2 - v1;
+                    if (v0 == -1 || v3 == -1) {
+                        value = interpolateLinear(v1, v2, t);
+                    } else {
+                        float sum = w[wOffset] * v0 + w[wOffset + 1] * v1 + w[wOffset + 2] * v2 + w[wOffset + 3] * v3;
+                        value = clamp((int) (sum + 0.5f));
+                    }
+                } else {
+                    value = interpolateLinear(v1, v2, t);
+                }
+            }
+            if (j < SequenceData.JOINTS_PER_ARM) {
+                leftArm[j] = value;
+            } else {
+                rightArm[j - SequenceData.JOINTS_PER_ARM] = value;
+            }
+        }
+    }
+
+    private static int interpolateLinear(int v1, int v2, float t) {
+        return (int) (v1 + (v2 - v1) * t + 0.5f);
+    }
+
+    /**
+     * 计算小数位置t的四个抽头权重
+     */
+    private void computeWeights(float t, float[] dest, int offset) {
+        if (mode == ResampleMode.LINEAR) {
+            dest[offset] = 0;
+            dest[offset + 1] = 1 - t;
+            dest[offset + 2] = t;
+            dest[offset + 3] = 0;
+        } else {
+            // Catmull-Rom
+            float t2 = t * t;
+            float t3 = t2 * t;
+            dest[offset] = (-t3 + 2 * t2 - t) * 0.5f;
+            dest[offset + 1] = (3 * t3 - 5 * t2 + 2) * 0.5f;
+            dest[offset + 2] = (-3 * t3 + 4 * t2 + t) * 0.5f;
+            dest[offset + 3] = (t3 - t2) * 0.5f;
+        }
+    }
+
+    private static int clamp(int value) {
+        return Math.max(SequenceData.POSITION_MIN, Math.min(SequenceData.POSITION_MAX, value));
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,222 @@
+package com.evobot.sequence;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 帧环形缓冲区（单生产者/单消费者）
+ * 播放器把每帧的关节值、帧索引和输出时间写入直接内存（direct ByteBuffer）中的环，
+ * 消费者在自己的线程上按自己的节奏调用 {@link #drain} 批量读取。Native播放时由Native播放线程直接写入，
+ * 播放循环中没有JNI回调；Java播放时由播放线程写入，监听器的 onFrameBuffer 不再被调用。
+ *
+ * 生产者从不等待消费者：环满时覆盖最旧的帧，消费者读取时跳过被覆盖的帧并计入 {@link #getLostFrames()}。
+ * 每个槽位带序号戳（写入中为奇数，写完为偶数），消费者读取前后各检查一次，读取期间被覆盖的帧不会交付。
+ *
+ * 内存布局（本机字节序）：
+ * <pre>
+ * 头部 64字节: [0] long 已发布帧数, [8] int 槽位数, [12] int 槽位大小
+ * 槽位 64字节: [0] long 序号戳, [8] long 输出时间(System.nanoTime基准), [16] int 帧索引,
+ *             [24] short[20] 关节值（左臂0-9，右臂0-9，-1表示保持）
+ * </pre>
+ *
+ * 同一时间只能用于一个播放器；{@link #drain} 只能在一个线程上调用
+ */
+public final class FrameRing {
+
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 64;
+    static final int PUBLISHED_OFFSET = 0;
+    static final int CAPACITY_OFFSET = 8;
+    static final int SLOT_SIZE_OFFSET = 12;
+    static final int STAMP_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int FRAME_INDEX_OFFSET = 16;
+    static final int JOINTS_OFFSET = 24;
+
+    public static final int MIN_CAPACITY = 2;
+    public static final int MAX_CAPACITY = 65536;
+
+    private static final int JOINTS = SequenceData.JOINTS_PER_ARM;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+
+    // 消费者状态（只在消费者线程访问）
+    private long nextFrame = 0;
+    private final int[] leftArm = new int[JOINTS];
+    private final int[] rightArm = new int[JOINTS];
+    private volatile long lostFrames = 0;
+
+    // 内存屏障用的字段，生产者和消费者各用一个，避免互相争用
+    private volatile int producerFence;
+    private volatile int consumerFence;
+
+    /**
+     * 帧消费者
+     */
+    public interface Consumer {
+        /**
+         * 读取到一帧
+         * 数组由环持有并复用，回调返回后内容会被下一帧覆盖
+         *
+         * @param leftArm        左臂10个关节的位置
+         * @param rightArm       右臂10个关节的位置
+         * @param frameIndex     序列帧索引
+         * @param timestampNanos 输出时间（{@link System#nanoTime()} 时间基准）
+         */
+        void onFrame(int[] leftArm, int[] rightArm, int frameIndex, long timestampNanos);
+    }
+
+    /**
+     * @param capacity 槽位数（{@link #MIN_CAPACITY}-{@link #MAX_CAPACITY}），即消费者最多可以落后的帧数
+     */
+    public FrameRing(int capacity) {
+        if (capacity < MIN_CAPACITY || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(String.format("槽位数必须在%d-%d之间，当前值: %d",
+                MIN_CAPACITY, MAX_CAPACITY, capacity));
+        }
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(HEADER_SIZE + capacity * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(SLOT_SIZE_OFFSET, SLOT_SIZE);
+    }
+
+    /**
+     * 槽位数
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 生产者已发布的总帧数
+     */
+    public long getPublishedFrames() {
+        return buffer.getLong(PUBLISHED_OFFSET);
+    }
+
+    /**
+     * 消费者落后超过槽位数、被覆盖而未读取的总帧数
+     */
+    public long getLostFrames() {
+        return lostFrames;
+    }
+
+    /**
+     * 当前可读取的帧数（不超过槽位数）
+     */
+    public int available() {
+        long pending = getPublishedFrames() - nextFrame;
+        return (int) Math.max(0, Math.min(pending, capacity));
+    }
+
+    /**
+     * 读取已发布的帧（消费者线程调用）
+     *
+     * @param consumer  帧消费者
+     * @param maxFrames 本次最多读取的帧数
+     * @return 读取的帧数
+     */
+    public int drain(Consumer consumer, int maxFrames) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer不能为null");
+        }
+        int count = 0;
+        while (count < maxFrames) {
+            long published = getPublishedFrames();
+            fence(false);
+            if (nextFrame >= published) {
+                break;
+            }
+            if (published - nextFrame > capacity) {
+                // 落后超过一圈：最旧的帧已被覆盖
+                skip(published - capacity - nextFrame);
+            }
+
+            int slot = slotOffset(nextFrame);
+            long expected = stampFor(nextFrame);
+            if (buffer.getLong(slot + STAMP_OFFSET) != expected) {
+                // 读取前已被覆盖：重新读取已发布帧数后跳过
+                skip(1);
+                continue;
+            }
+            fence(false);
+            long timestamp = buffer.getLong(slot + TIMESTAMP_OFFSET);
+            int frameIndex = buffer.getInt(slot + FRAME_INDEX_OFFSET);
+            int joints = slot + JOINTS_OFFSET;
+            for (int j = 0; j < JOINTS; j++) {
+                leftArm[j] = buffer.getShort(joints + j * 2);
+                rightArm[j] = buffer.getShort(joints + (JOINTS + j) * 2);
+            }
+            fence(false);
+            if (buffer.getLong(slot + STAMP_OFFSET) != expected) {
+                // 读取期间被覆盖，内容可能不完整
+                skip(1);
+                continue;
+            }
+
+            nextFrame++;
+            count++;
+            consumer.onFrame(leftArm, rightArm, frameIndex, timestamp);
+        }
+        return count;
+    }
+
+    /**
+     * 发布一帧（Java播放线程调用；Native播放时由Native层按相同布局写入）
+     */
+    void publish(int[] left, int[] right, int frameIndex, long timestampNanos) {
+        long sequence = getPublishedFrames();
+        int slot = slotOffset(sequence);
+        buffer.putLong(slot + STAMP_OFFSET, stampFor(sequence) - 1);
+        fence(true);
+        buffer.putLong(slot + TIMESTAMP_OFFSET, timestampNanos);
+        buffer.putInt(slot + FRAME_INDEX_OFFSET, frameIndex);
+        int joints = slot + JOINTS_OFFSET;
+        for (int j = 0; j < JOINTS; j++) {
+            buffer.putShort(joints + j * 2, (short) left[j]);
+            buffer.putShort(joints + (JOINTS + j) * 2, (short) right[j]);
+        }
+        fence(true);
+        buffer.putLong(slot + STAMP_OFFSET, stampFor(sequence));
+        fence(true);
+        buffer.putLong(PUBLISHED_OFFSET, sequence + 1);
+    }
+
+    /**
+     * 直接内存缓冲区（注册到Native层）
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    private void skip(long frames) {
+        nextFrame += frames;
+        lostFrames += frames;
+    }
+
+    private int slotOffset(long sequence) {
+        return HEADER_SIZE + (int) (sequence % capacity) * SLOT_SIZE;
+    }
+
+    /**
+     * 写完第sequence帧后的序号戳（写入中为该值减1）
+     */
+    private static long stampFor(long sequence) {
+        return sequence * 2 + 2;
+    }
+
+    /**
+     * 内存屏障：volatile写后紧跟volatile读，之前的读写不会与之后的读写重排
+     * （环在直接内存中，Native层写入的内容不受Java内存模型约束，只能依靠屏障保证顺序）
+     */
+    private void fence(boolean producer) {
+        if (producer) {
+            producerFence = 0;
+            int ignored = producerFence;
+        } else {
+            consumerFence = 0;
+            int ignored = consumerFence;
+        }
+    }
+}
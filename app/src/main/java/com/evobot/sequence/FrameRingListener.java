@@ -0,0 +1,36 @@
+package com.evobot.sequence;
+
+/**
+ * 把帧写入帧环形缓冲区，其他事件转发给实际的监听器
+ * Java播放时使用；Native播放时帧由Native层直接写入环，只有Native层无法写入时才经由本适配器
+ */
+final class FrameRingListener implements FrameBufferListener {
+
+    final FrameRing ring;
+    final FrameBufferListener delegate;
+
+    FrameRingListener(FrameRing ring, FrameBufferListener delegate) {
+        this.ring = ring;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+        ring.publish(leftArm, rightArm, frameIndex, System.nanoTime());
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void onError(String errorMessage) {
+        delegate.onError(errorMessage);
+    }
+
+    @Override
+    public void onEmergencyStop() {
+        delegate.onEmergencyStop();
+    }
+}
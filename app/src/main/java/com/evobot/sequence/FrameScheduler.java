@@ -0,0 +1,44 @@
+package com.evobot.sequence;
+
+/**
+ * 帧调度器
+ * 按固定周期重复执行帧任务，由 {@link TimingBackend} 选择实现
+ */
+interface FrameScheduler {
+
+    /**
+     * 开始调度，第一次立即执行，之后每个周期执行一次
+     * 已在调度中时先停止原调度
+     *
+     * @param periodNanos 周期（纳秒）
+     * @param tick        帧任务
+     */
+    void start(long periodNanos, Runnable tick);
+
+    /**
+     * 停止调度
+     * 返回后不会再开始新的帧任务；可以在帧任务内部调用
+     */
+    void stop();
+
+    /**
+     * 在调度线程上尽快执行一次任务，不改变帧任务的时间网格；未在调度中时忽略
+     * 可以在任意线程调用，{@link #stop} 返回后不会再开始执行此前提交的任务
+     *
+     * @param task 任务
+     */
+    void post(Runnable task);
+
+    /**
+     * 设置帧任务超时（落后超过一个周期）时的处理策略，在下一次 {@link #start} 时生效
+     *
+     * @param policy 超时策略，默认 {@link OverrunPolicy#STRETCH}
+     */
+    void setOverrunPolicy(OverrunPolicy policy);
+
+    /**
+     * 取出自上次调用以来因超时跳过的周期数（仅 {@link OverrunPolicy#DROP} 时计数）
+     * 在帧任务中调用
+     */
+    int takeSkippedTicks();
+}
@@ -0,0 +1,157 @@
+package com.evobot.sequence;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于Handler的帧调度器
+ * STRETCH（默认）：postDelayed按毫秒调度，根据上一帧的实际间隔补偿误差（限制在±50%范围内）；
+ * DROP/CATCH_UP：按起点 + n * 周期的毫秒时间网格postAtTime，落后超过一个周期时跳过错过的截止时间
+ * 并记录跳过的周期数（DROP），或立即连续补发（CATCH_UP）
+ */
+final class HandlerFrameScheduler implements FrameScheduler {
+
+    private static final String TAG = "HandlerFrameScheduler";
+
+    private final Handler handler;
+    private volatile OverrunPolicy overrunPolicy = OverrunPolicy.STRETCH;
+    private volatile Runnable current;
+    // Handler线程累加，takeSkippedTicks可在任意线程取出并清零
+    private final AtomicInteger skippedTicks = new AtomicInteger();
+
+    HandlerFrameScheduler(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void start(long periodNanos, final Runnable tick) {
+        stop();
+        final long intervalMs = Math.max(1, periodNanos / 1000000L);
+        if (overrunPolicy != OverrunPolicy.STRETCH) {
+            startOnGrid(periodNanos, tick, overrunPolicy);
+            return;
+        }
+        Runnable runnable = new Runnable() {
+            private long lastFrameTime = SystemClock.elapsedRealtime();  // 上一帧的时间戳
+
+            @Override
+            public void run() {
+                if (current != this) {
+                    // 其他线程停止调度前已投递的任务
+                    return;
+                }
+                tick.run();
+                if (current != this) {
+                    // 帧任务中已停止或重新开始调度
+                    return;
+                }
+
+                // 计算下一帧的间隔时间（带误差补偿）
+                long currentTime = SystemClock.elapsedRealtime();
+                long actualInterval = currentTime - lastFrameTime;
+                long drift = actualInterval - intervalMs;
+
+                // 误差补偿：调整间隔，但限制在±50%范围内
+                long adjustedInterval = intervalMs - drift;
+                adjustedInterval = Math.max(intervalMs / 2, Math.min(intervalMs * 3 / 2, adjustedInterval));
+
+                if (Math.abs(drift) > 5) {
+                    Log.v(TAG, String.format("时间补偿: 实际间隔=%dms, 期望=%dms, 补偿后=%dms",
+                        actualInterval, intervalMs, adjustedInterval));
+                }
+
+                handler.postDelayed(this, adjustedInterval);
+                lastFrameTime = currentTime;
+            }
+        };
+        current = runnable;
+        runFirst(runnable);
+    }
+
+    /**
+     * 按毫秒时间网格调度（DROP/CATCH_UP）
+     */
+    private void startOnGrid(final long periodNanos, final Runnable tick, final OverrunPolicy policy) {
+        skippedTicks.set(0);
+        Runnable runnable = new Runnable() {
+            private final long origin = SystemClock.uptimeMillis();
+            private long tickIndex = 0;
+
+            @Override
+            public void run() {
+                if (current != this) {
+                    return;
+                }
+                tick.run();
+                if (current != this) {
+                    return;
+                }
+
+                tickIndex++;
+                long now = SystemClock.uptimeMillis();
+                long behindNanos = (now - origin) * 1000000L - tickIndex * periodNanos;
+                if (behindNanos > periodNanos && policy == OverrunPolicy.DROP) {
+                    long skipped = behindNanos / periodNanos;
+                    tickIndex += skipped;
+                    skippedTicks.addAndGet((int) Math.min(skipped, Integer.MAX_VALUE - skippedTicks.get()));
+                    Log.w(TAG, String.format("帧任务超时，跳过%d个截止时间", skipped));
+                }
+                handler.postAtTime(this, origin + tickIndex * periodNanos / 1000000L);
+            }
+        };
+        current = runnable;
+        runFirst(runnable);
+    }
+
+    /**
+     * 立即执行第一帧：在Handler线程上调用时直接执行，否则投递到Handler线程，帧任务只在Handler线程执行
+     */
+    private void runFirst(Runnable runnable) {
+        if (handler.getLooper().getThread() == Thread.currentThread()) {
+            runnable.run();
+        } else {
+            handler.post(runnable);
+        }
+    }
+
+    @Override
+    public void setOverrunPolicy(OverrunPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy不能为null");
+        }
+        this.overrunPolicy = policy;
+    }
+
+    @Override
+    public int takeSkippedTicks() {
+        return skippedTicks.getAndSet(0);
+    }
+
+    @Override
+    public void post(final Runnable task) {
+        final Runnable owner = current;
+        if (owner == null) {
+            return;
+        }
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                // 提交后已停止或重新开始调度
+                if (current == owner) {
+                    task.run();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        if (current != null) {
+            handler.removeCallbacks(current);
+            current = null;
+        }
+    }
+}
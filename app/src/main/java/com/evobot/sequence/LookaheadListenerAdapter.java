@@ -0,0 +1,37 @@
+package com.evobot.sequence;
+
+/**
+ * 在每帧回调前移动前瞻窗口，再转发给实际的监听器
+ * Native播放时注册该适配器，窗口同样随Native交付的帧索引更新
+ */
+final class LookaheadListenerAdapter implements FrameBufferListener {
+
+    final LookaheadWindow window;
+    final FrameBufferListener delegate;
+
+    LookaheadListenerAdapter(LookaheadWindow window, FrameBufferListener delegate) {
+        this.window = window;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+        window.moveTo(frameIndex);
+        delegate.onFrameBuffer(leftArm, rightArm, frameIndex);
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void onError(String errorMessage) {
+        delegate.onError(errorMessage);
+    }
+
+    @Override
+    public void onEmergencyStop() {
+        delegate.onEmergencyStop();
+    }
+}
@@ -0,0 +1,127 @@
+package com.evobot.sequence;
+
+/**
+ * 前瞻窗口
+ * 只读视图：当前帧及其后至多k帧的关节位置（保持值已填充），直接读取序列的预解析帧表，不复制帧数据。
+ * 播放器在每次回调 {@link FrameBufferListener#onFrameBuffer} 之前把窗口移动到本次交付的帧，
+ * 因此应在回调内读取；Java播放与Native播放都会更新。
+ *
+ * 偏移0为当前帧。重采样或变速播放时当前帧为输出位置所在的序列帧，窗口内为序列中存储的原始帧；
+ * 流式加载时窗口不超过已加载的帧。
+ */
+public final class LookaheadWindow {
+
+    public static final int MAX_FRAMES = 256;
+
+    private final int capacity;  // 当前帧之后的最大帧数k
+
+    private SequenceData data;
+    private char[] resolved;
+    private int frameIndex = -1;
+    private int size = 0;
+
+    LookaheadWindow(int capacity) {
+        if (capacity < 1 || capacity > MAX_FRAMES) {
+            throw new IllegalArgumentException("前瞻帧数必须在1-" + MAX_FRAMES + "之间，当前值: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * 绑定序列，序列需已建立预解析帧表
+     */
+    void attach(SequenceData data) {
+        this.data = data;
+        this.resolved = data.getResolvedFrameArray();
+        this.frameIndex = -1;
+        this.size = 0;
+    }
+
+    /**
+     * 移动到指定帧
+     */
+    void moveTo(int frameIndex) {
+        SequenceData current = data;
+        if (current == null || resolved == null || frameIndex < 0 || frameIndex >= current.loadedFrames) {
+            this.frameIndex = frameIndex;
+            this.size = 0;
+            return;
+        }
+        this.frameIndex = frameIndex;
+        this.size = Math.min(capacity + 1, current.loadedFrames - frameIndex);
+    }
+
+    /**
+     * 当前帧之后的最大帧数k
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 当前帧索引
+     */
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    /**
+     * 窗口内可用的帧数（包含当前帧），接近序列末尾或加载进度时小于 k + 1
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 读取一个关节的位置
+     *
+     * @param offset 相对当前帧的偏移，0为当前帧，必须小于 {@link #size()}
+     * @param joint  关节索引，0-9为左臂，10-19为右臂
+     * @return 关节位置，此前从未有效时为-1
+     */
+    public int getJoint(int offset, int joint) {
+        checkOffset(offset);
+        if (joint < 0 || joint >= SequenceData.JOINTS_PER_FRAME) {
+            throw new IndexOutOfBoundsException("关节索引越界: " + joint);
+        }
+        return toPosition(resolved[(frameIndex + offset) * SequenceData.JOINTS_PER_FRAME + joint]);
+    }
+
+    /**
+     * 复制左臂10个关节的位置
+     *
+     * @param offset 相对当前帧的偏移
+     * @param dest   长度至少为10的输出数组
+     */
+    public void copyLeftArm(int offset, int[] dest) {
+        copyArm(offset, 0, dest);
+    }
+
+    /**
+     * 复制右臂10个关节的位置
+     *
+     * @param offset 相对当前帧的偏移
+     * @param dest   长度至少为10的输出数组
+     */
+    public void copyRightArm(int offset, int[] dest) {
+        copyArm(offset, SequenceData.JOINTS_PER_ARM, dest);
+    }
+
+    private void copyArm(int offset, int jointOffset, int[] dest) {
+        checkOffset(offset);
+        int base = (frameIndex + offset) * SequenceData.JOINTS_PER_FRAME + jointOffset;
+        for (int i = 0; i < SequenceData.JOINTS_PER_ARM; i++) {
+            dest[i] = toPosition(resolved[base + i]);
+        }
+    }
+
+    private void checkOffset(int offset) {
+        if (offset < 0 || offset >= size) {
+            throw new IndexOutOfBoundsException(String.format("前瞻偏移越界: %d，可用帧数: %d", offset, size));
+        }
+    }
+
+    private static int toPosition(char value) {
+        return value == SequenceData.HOLD_SENTINEL ? -1 : value;
+    }
+}
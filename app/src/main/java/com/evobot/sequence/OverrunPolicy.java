@@ -0,0 +1,26 @@
+package com.evobot.sequence;
+
+/**
+ * 帧回调超时处理策略
+ * 监听器回调耗时超过帧周期（例如串口写入阻塞）导致播放落后于时间网格时的处理方式
+ */
+public enum OverrunPolicy {
+    /**
+     * 拉长（默认）
+     * 不丢帧：落后的帧在之后的截止时间依次输出，序列整体时长被拉长
+     */
+    STRETCH,
+
+    /**
+     * 丢帧
+     * 跳过已错过截止时间的帧，下一帧直接输出当前时间对应的位置，序列保持原时长；
+     * 适合多个手臂/播放器需要按时间同步的编排
+     */
+    DROP,
+
+    /**
+     * 追赶
+     * 不丢帧：错过截止时间的帧不再等待、连续补发，直到回到原时间网格
+     */
+    CATCH_UP
+}
@@ -0,0 +1,192 @@
+package com.evobot.sequence;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 高精度帧调度器
+ * 在独立线程中按 System.nanoTime 计算每帧的绝对截止时间（起点 + n * 周期），
+ * 先休眠到截止时间前 spinNanos，再自旋等待到截止时间，长期运行没有累积漂移。
+ * 帧任务超时落后超过一个周期时按 {@link OverrunPolicy} 处理：STRETCH/DROP 跳过已错过的截止时间
+ * （DROP 记录跳过的周期数供播放器丢帧），CATCH_UP 不跳过、连续执行直到追上时间网格。
+ */
+final class PrecisionFrameScheduler implements FrameScheduler {
+
+    private static final String TAG = "PrecisionFrameScheduler";
+
+    static final long DEFAULT_SPIN_NANOS = 200000L;  // 截止时间前最后200us自旋等待
+    static final String THREAD_NAME = "EvoBotPlayback";
+    private static final long STOP_JOIN_TIMEOUT_MS = 1000;
+
+    private final long spinNanos;
+    private volatile OverrunPolicy overrunPolicy = OverrunPolicy.STRETCH;
+    private Worker worker;
+
+    PrecisionFrameScheduler() {
+        this(DEFAULT_SPIN_NANOS);
+    }
+
+    /**
+     * @param spinNanos 截止时间前自旋等待的时长（纳秒），0表示只休眠
+     */
+    PrecisionFrameScheduler(long spinNanos) {
+        if (spinNanos < 0) {
+            throw new IllegalArgumentException("自旋时长不能为负: " + spinNanos);
+        }
+        this.spinNanos = spinNanos;
+    }
+
+    @Override
+    public void start(long periodNanos, Runnable tick) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + periodNanos);
+        }
+        stop();
+        Worker next = new Worker(periodNanos, tick, overrunPolicy);
+        synchronized (this) {
+            worker = next;
+        }
+        next.thread.start();
+    }
+
+    @Override
+    public void stop() {
+        Worker previous;
+        synchronized (this) {
+            previous = worker;
+            worker = null;
+        }
+        if (previous == null) {
+            return;
+        }
+        previous.running = false;
+        LockSupport.unpark(previous.thread);
+        if (previous.thread != Thread.currentThread()) {
+            // 等待正在执行的帧任务结束，保证返回后不再回调
+            try {
+                previous.thread.join(STOP_JOIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void post(Runnable task) {
+        Worker current;
+        synchronized (this) {
+            current = worker;
+        }
+        if (current == null) {
+            return;
+        }
+        current.posted.offer(task);
+        LockSupport.unpark(current.thread);
+    }
+
+    @Override
+    public void setOverrunPolicy(OverrunPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy不能为null");
+        }
+        this.overrunPolicy = policy;
+    }
+
+    @Override
+    public int takeSkippedTicks() {
+        Worker current;
+        synchronized (this) {
+            current = worker;
+        }
+        if (current == null) {
+            return 0;
+        }
+        return current.skippedTicks.getAndSet(0);
+    }
+
+    private final class Worker implements Runnable {
+        final long periodNanos;
+        final Runnable tick;
+        final OverrunPolicy policy;
+        final Thread thread;
+        // 其他线程提交的任务，等待截止时间期间在播放线程上执行
+        final ConcurrentLinkedQueue<Runnable> posted = new ConcurrentLinkedQueue<>();
+        volatile boolean running = true;
+        // 播放线程累加，takeSkippedTicks可在任意线程取出并清零
+        final AtomicInteger skippedTicks = new AtomicInteger();
+
+        Worker(long periodNanos, Runnable tick, OverrunPolicy policy) {
+            this.periodNanos = periodNanos;
+            this.tick = tick;
+            this.policy = policy;
+            this.thread = new Thread(this, THREAD_NAME);
+        }
+
+        @Override
+        public void run() {
+            try {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+            } catch (Exception e) {
+                Log.w(TAG, "设置播放线程优先级失败: " + e.getMessage());
+            }
+
+            long origin = System.nanoTime();
+            long tickIndex = 0;
+            while (running) {
+                long deadline = origin + tickIndex * periodNanos;
+                if (!waitUntil(deadline)) {
+                    break;
+                }
+                tick.run();
+
+                tickIndex++;
+                long behind = System.nanoTime() - (origin + tickIndex * periodNanos);
+                if (behind > periodNanos && policy != OverrunPolicy.CATCH_UP) {
+                    // 跳到下一个未错过的截止时间，保持原时间网格
+                    long skipped = behind / periodNanos;
+                    tickIndex += skipped;
+                    if (policy == OverrunPolicy.DROP) {
+                        skippedTicks.addAndGet((int) Math.min(skipped, Integer.MAX_VALUE - skippedTicks.get()));
+                    }
+                    Log.w(TAG, String.format("帧任务超时，跳过%d个截止时间", skipped));
+                }
+            }
+        }
+
+        /**
+         * 等待到截止时间，期间执行提交的任务
+         *
+         * @return 被停止返回false
+         */
+        private boolean waitUntil(long deadline) {
+            while (running) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return true;
+                }
+                if (remaining > spinNanos) {
+                    // 自旋阶段不执行，期间提交的任务在帧任务之后执行
+                    runPosted();
+                    LockSupport.parkNanos(deadline - System.nanoTime() - spinNanos);
+                }
+                // 剩余时间不超过spinNanos时自旋
+            }
+            return false;
+        }
+
+        private void runPosted() {
+            Runnable task;
+            while (running && (task = posted.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "提交的任务异常", e);
+                }
+            }
+        }
+    }
+}
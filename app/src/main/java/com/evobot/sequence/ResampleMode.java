@@ -0,0 +1,25 @@
+package com.evobot.sequence;
+
+/**
+ * 重采样模式
+ * 决定Java播放时序列采样率与播放频率不一致时如何生成输出帧
+ */
+public enum ResampleMode {
+    /**
+     * 不重采样
+     * 每个播放周期输出一个序列帧，播放频率高于采样率时动作加快
+     */
+    OFF,
+
+    /**
+     * 线性插值
+     * 按序列采样率映射到播放频率，相邻两帧之间线性插值
+     */
+    LINEAR,
+
+    /**
+     * 三次插值（Catmull-Rom）
+     * 使用相邻四帧，轨迹更平滑；结果限制在0-4095范围内
+     */
+    CUBIC
+}
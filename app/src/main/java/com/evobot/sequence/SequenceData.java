@@ -1,16 +1,24 @@
 package com.evobot.sequence;
 
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
 /**
  * 序列数据模型
  * 存储从.ebs二进制文件解析出来的完整序列数据
+ *
+ * 帧数据采用帧主序的紧凑存储：每帧20个uint16（左臂0-9，右臂10-19），
+ * 与.ebs文件数据区布局一致，整个序列只占用一块连续内存。
  */
 public class SequenceData {
 
     // 常量定义
     public static final int JOINTS_PER_ARM = 10;      // 每臂关节数
+    public static final int JOINTS_PER_FRAME = JOINTS_PER_ARM * 2;  // 每帧关节数（左右臂）
     public static final int HOLD_SENTINEL = 0xFFFF;   // 二进制文件中表示-1的值
     public static final int POSITION_MAX = 4095;      // 关节位置最大值
     public static final int POSITION_MIN = 0;         // 关节位置最小值
+    public static final int HOLD_CHECKPOINT_INTERVAL = 256;  // 保持值检查点间隔（帧）
 
     // 元数据
     public String name;                // 序列名称
@@ -19,9 +27,169 @@ public class SequenceData {
     public int totalFrames;            // 总帧数
     public int compiledAt;             // 编译时间戳 (Unix时间戳，秒)
 
-    // 序列数据
-    public int[][] leftArmSequence;    // 左臂序列 [帧号][关节号]，大小[totalFrames][10]
-    public int[][] rightArmSequence;   // 右臂序列 [帧号][关节号]，大小[totalFrames][10]
+    // 序列数据：帧主序紧凑存储，索引为 frame * JOINTS_PER_FRAME + joint
+    // 值为原始uint16，HOLD_SENTINEL表示-1（保持）；只允许使用绝对索引读写
+    public CharBuffer frames;
+
+    // 已加载帧数：流式加载时由加载线程逐步增大，完整加载后等于totalFrames
+    // 播放线程只能读取索引小于该值的帧
+    public volatile int loadedFrames;
+
+    // 保持值检查点：第k组为进入第 k * HOLD_CHECKPOINT_INTERVAL 帧之前每个关节的最后有效值（原始uint16，
+    // HOLD_SENTINEL表示此前没有有效值），用于seek时在O(HOLD_CHECKPOINT_INTERVAL)内恢复-1填充状态
+    private char[] holdCheckpoints;
+    private int checkpointedFrames;    // 检查点已覆盖的帧数
+    private final char[] checkpointState = new char[JOINTS_PER_FRAME];
+
+    // 预解析帧表（可选）：布局与frames相同，保持值已替换为该关节此前最后一个有效值
+    // （此前没有有效值时仍为HOLD_SENTINEL），播放时直接复制即可，无需逐帧填充-1
+    private volatile char[] resolvedFrames;
+
+    /**
+     * 分配帧存储
+     *
+     * @param frameCount 帧数
+     */
+    public void allocateFrames(int frameCount) {
+        if (frameCount < 0) {
+            throw new IllegalArgumentException("帧数不能为负: " + frameCount);
+        }
+        this.totalFrames = frameCount;
+        this.frames = CharBuffer.wrap(new char[frameCount * JOINTS_PER_FRAME]);
+        this.loadedFrames = frameCount;
+        this.resolvedFrames = null;
+        resetHoldCheckpoints();
+    }
+
+    /**
+     * 为全部已加载帧建立保持值检查点
+     * 加载完成后调用一次；帧数据被修改后需重新调用
+     */
+    public synchronized void buildHoldCheckpoints() {
+        resetHoldCheckpoints();
+        extendHoldCheckpoints(loadedFrames);
+    }
+
+    /**
+     * 建立预解析帧表
+     * 与检查点在同一次扫描中生成；流式加载时随后续帧继续扩展。重复调用直接返回
+     * 占用内存与帧存储相同（每帧40字节）
+     */
+    public synchronized void buildResolvedFrames() {
+        if (resolvedFrames != null) {
+            return;
+        }
+        resolvedFrames = new char[totalFrames * JOINTS_PER_FRAME];
+        buildHoldCheckpoints();
+    }
+
+    /**
+     * 是否已建立预解析帧表
+     */
+    public boolean hasResolvedFrames() {
+        return resolvedFrames != null;
+    }
+
+    /**
+     * 预解析帧表底层数组（帧主序，与frames布局相同），未建立时返回null
+     * 只读，仅供包内插值等需要随机访问的场景使用
+     */
+    char[] getResolvedFrameArray() {
+        return resolvedFrames;
+    }
+
+    /**
+     * 将保持值检查点扩展到指定帧数
+     * 流式加载时由加载线程在发布新帧之前调用
+     *
+     * @param frameCount 已写入的帧数
+     */
+    public synchronized void extendHoldCheckpoints(int frameCount) {
+        frameCount = Math.min(frameCount, totalFrames);
+        if (frameCount <= checkpointedFrames) {
+            return;
+        }
+        if (holdCheckpoints == null) {
+            int count = (totalFrames + HOLD_CHECKPOINT_INTERVAL - 1) / HOLD_CHECKPOINT_INTERVAL;
+            holdCheckpoints = new char[Math.max(count, 1) * JOINTS_PER_FRAME];
+            Arrays.fill(checkpointState, (char) HOLD_SENTINEL);
+        }
+        for (int frame = checkpointedFrames; frame < frameCount; frame++) {
+            if (frame % HOLD_CHECKPOINT_INTERVAL == 0) {
+                System.arraycopy(checkpointState, 0, holdCheckpoints,
+                    frame / HOLD_CHECKPOINT_INTERVAL * JOINTS_PER_FRAME, JOINTS_PER_FRAME);
+            }
+            applyFrame(frame, checkpointState);
+            if (resolvedFrames != null) {
+                System.arraycopy(checkpointState, 0, resolvedFrames, frame * JOINTS_PER_FRAME, JOINTS_PER_FRAME);
+            }
+        }
+        checkpointedFrames = frameCount;
+    }
+
+    /**
+     * 恢复播放到指定帧之前的保持状态（每个关节的最后有效值）
+     * 从最近的检查点开始最多扫描 HOLD_CHECKPOINT_INTERVAL - 1 帧，不需要从第0帧重放
+     *
+     * @param frameIndex     目标帧索引
+     * @param lastValidLeft  输出：左臂最后有效值，长度至少为10，-1表示没有有效值
+     * @param lastValidRight 输出：右臂最后有效值，长度至少为10，-1表示没有有效值
+     * @return 目标帧已加载返回true
+     */
+    public synchronized boolean resolveHoldState(int frameIndex, int[] lastValidLeft, int[] lastValidRight) {
+        if (frameIndex < 0 || frameIndex > loadedFrames) {
+            return false;
+        }
+        // 直接设置帧数据（未经加载器）时按需补建
+        extendHoldCheckpoints(frameIndex);
+
+        char[] state = new char[JOINTS_PER_FRAME];
+        int checkpoint = frameIndex / HOLD_CHECKPOINT_INTERVAL;
+        int start = checkpoint * HOLD_CHECKPOINT_INTERVAL;
+        if (start < checkpointedFrames) {
+            System.arraycopy(holdCheckpoints, checkpoint * JOINTS_PER_FRAME, state, 0, JOINTS_PER_FRAME);
+        } else if (checkpointedFrames > 0) {
+            // frameIndex恰好位于尚未建立的检查点边界（即已覆盖帧数），当前累积状态即为所求
+            System.arraycopy(checkpointState, 0, state, 0, JOINTS_PER_FRAME);
+            start = frameIndex;
+        } else {
+            Arrays.fill(state, (char) HOLD_SENTINEL);
+            start = frameIndex;
+        }
+        for (int frame = start; frame < frameIndex; frame++) {
+            applyFrame(frame, state);
+        }
+
+        for (int j = 0; j < JOINTS_PER_ARM; j++) {
+            lastValidLeft[j] = (short) state[j];
+            lastValidRight[j] = (short) state[JOINTS_PER_ARM + j];
+        }
+        return true;
+    }
+
+    private void resetHoldCheckpoints() {
+        holdCheckpoints = null;
+        checkpointedFrames = 0;
+    }
+
+    private void applyFrame(int frame, char[] state) {
+        int base = frame * JOINTS_PER_FRAME;
+        for (int j = 0; j < JOINTS_PER_FRAME; j++) {
+            char pos = frames.get(base + j);
+            if (pos != HOLD_SENTINEL) {
+                state[j] = pos;
+            }
+        }
+    }
+
+    /**
+     * 是否已加载全部帧
+     *
+     * @return 流式加载完成或完整加载返回true
+     */
+    public boolean isFullyLoaded() {
+        return loadedFrames >= totalFrames;
+    }
 
     /**
      * 验证序列数据完整性
@@ -38,34 +206,26 @@ public class SequenceData {
             return false;
         }
 
-        // 检查序列数组
-        if (leftArmSequence == null || rightArmSequence == null) {
+        // 检查帧存储
+        if (frames == null || frames.capacity() < totalFrames * JOINTS_PER_FRAME) {
             return false;
         }
 
-        if (leftArmSequence.length != totalFrames || rightArmSequence.length != totalFrames) {
-            return false;
-        }
-
-        // 检查每帧数据
-        for (int i = 0; i < totalFrames; i++) {
-            if (leftArmSequence[i] == null || leftArmSequence[i].length != JOINTS_PER_ARM) {
-                return false;
-            }
-            if (rightArmSequence[i] == null || rightArmSequence[i].length != JOINTS_PER_ARM) {
-                return false;
-            }
-
-            // 验证关节位置范围
-            for (int j = 0; j < JOINTS_PER_ARM; j++) {
-                int leftPos = leftArmSequence[i][j];
-                int rightPos = rightArmSequence[i][j];
-
-                // -1表示保持，其他值必须在0-4095范围内
-                if (leftPos != -1 && (leftPos < POSITION_MIN || leftPos > POSITION_MAX)) {
+        // 验证关节位置范围：HOLD_SENTINEL表示保持，其他值必须在0-4095范围内
+        int count = totalFrames * JOINTS_PER_FRAME;
+        if (frames.hasArray()) {
+            char[] array = frames.array();
+            int offset = frames.arrayOffset();
+            for (int i = 0; i < count; i++) {
+                int pos = array[offset + i];
+                if (pos != HOLD_SENTINEL && pos > POSITION_MAX) {
                     return false;
                 }
-                if (rightPos != -1 && (rightPos < POSITION_MIN || rightPos > POSITION_MAX)) {
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                int pos = frames.get(i);
+                if (pos != HOLD_SENTINEL && pos > POSITION_MAX) {
                     return false;
                 }
             }
@@ -74,30 +234,198 @@ public class SequenceData {
         return true;
     }
 
+    /**
+     * 获取指定关节的位置
+     *
+     * @param frameIndex 帧索引
+     * @param joint      关节索引（0-9左臂，10-19右臂）
+     * @return 关节位置，-1表示保持
+     */
+    public int getJoint(int frameIndex, int joint) {
+        int pos = frames.get(frameIndex * JOINTS_PER_FRAME + joint);
+        return pos == HOLD_SENTINEL ? -1 : pos;
+    }
+
+    /**
+     * 设置指定关节的位置
+     *
+     * @param frameIndex 帧索引
+     * @param joint      关节索引（0-9左臂，10-19右臂）
+     * @param position   关节位置，-1表示保持
+     */
+    public void setJoint(int frameIndex, int joint, int position) {
+        frames.put(frameIndex * JOINTS_PER_FRAME + joint,
+            (char) (position == -1 ? HOLD_SENTINEL : position));
+    }
+
+    /**
+     * 将指定帧的左臂位置复制到调用方提供的数组（不分配内存）
+     *
+     * @param frameIndex 帧索引
+     * @param dest       目标数组，长度至少为10
+     * @return 索引有效返回true
+     */
+    public boolean copyLeftArmFrame(int frameIndex, int[] dest) {
+        return copyArmFrame(frameIndex, 0, dest);
+    }
+
+    /**
+     * 将指定帧的右臂位置复制到调用方提供的数组（不分配内存）
+     *
+     * @param frameIndex 帧索引
+     * @param dest       目标数组，长度至少为10
+     * @return 索引有效返回true
+     */
+    public boolean copyRightArmFrame(int frameIndex, int[] dest) {
+        return copyArmFrame(frameIndex, JOINTS_PER_ARM, dest);
+    }
+
+    private boolean copyArmFrame(int frameIndex, int jointOffset, int[] dest) {
+        if (frameIndex < 0 || frameIndex >= totalFrames) {
+            return false;
+        }
+        // 合法位置不超过4095，按short符号扩展即可把HOLD_SENTINEL(0xFFFF)转换为-1，无需分支
+        int base = frameIndex * JOINTS_PER_FRAME + jointOffset;
+        if (frames.hasArray()) {
+            // 堆内存储：直接访问底层数组
+            char[] array = frames.array();
+            base += frames.arrayOffset();
+            for (int j = 0; j < JOINTS_PER_ARM; j++) {
+                dest[j] = (short) array[base + j];
+            }
+        } else {
+            for (int j = 0; j < JOINTS_PER_ARM; j++) {
+                dest[j] = (short) frames.get(base + j);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将指定帧已解析保持值的左臂位置复制到调用方提供的数组（不分配内存）
+     * 结果与从第0帧起逐帧填充-1一致，此前从未有效的关节仍为-1
+     *
+     * @param frameIndex 帧索引，必须小于loadedFrames
+     * @param dest       目标数组，长度至少为10
+     * @return 未建立预解析帧表或索引无效返回false
+     */
+    public boolean copyResolvedLeftArmFrame(int frameIndex, int[] dest) {
+        return copyResolvedArmFrame(frameIndex, 0, dest);
+    }
+
+    /**
+     * 将指定帧已解析保持值的右臂位置复制到调用方提供的数组（不分配内存）
+     *
+     * @param frameIndex 帧索引，必须小于loadedFrames
+     * @param dest       目标数组，长度至少为10
+     * @return 未建立预解析帧表或索引无效返回false
+     */
+    public boolean copyResolvedRightArmFrame(int frameIndex, int[] dest) {
+        return copyResolvedArmFrame(frameIndex, JOINTS_PER_ARM, dest);
+    }
+
+    private boolean copyResolvedArmFrame(int frameIndex, int jointOffset, int[] dest) {
+        char[] resolved = resolvedFrames;
+        if (resolved == null || frameIndex < 0 || frameIndex >= loadedFrames) {
+            return false;
+        }
+        int base = frameIndex * JOINTS_PER_FRAME + jointOffset;
+        for (int j = 0; j < JOINTS_PER_ARM; j++) {
+            dest[j] = (short) resolved[base + j];
+        }
+        return true;
+    }
+
     /**
      * 获取指定帧的左臂位置数据
+     * 兼容接口：每次调用返回新数组，播放热路径请使用 {@link #copyLeftArmFrame(int, int[])}
      *
      * @param frameIndex 帧索引
      * @return 左臂10个关节的位置数组，如果索引无效返回null
      */
     public int[] getLeftArmFrame(int frameIndex) {
-        if (frameIndex < 0 || frameIndex >= totalFrames) {
-            return null;
-        }
-        return leftArmSequence[frameIndex];
+        int[] frame = new int[JOINTS_PER_ARM];
+        return copyLeftArmFrame(frameIndex, frame) ? frame : null;
     }
 
     /**
      * 获取指定帧的右臂位置数据
+     * 兼容接口：每次调用返回新数组，播放热路径请使用 {@link #copyRightArmFrame(int, int[])}
      *
      * @param frameIndex 帧索引
      * @return 右臂10个关节的位置数组，如果索引无效返回null
      */
     public int[] getRightArmFrame(int frameIndex) {
-        if (frameIndex < 0 || frameIndex >= totalFrames) {
-            return null;
+        int[] frame = new int[JOINTS_PER_ARM];
+        return copyRightArmFrame(frameIndex, frame) ? frame : null;
+    }
+
+    /**
+     * 获取整个左臂序列 [帧号][关节号]，-1表示保持
+     * 按已加载帧生成副本，修改副本不会写回帧存储
+     *
+     * @return 大小为[loadedFrames][10]的新数组
+     * @deprecated 原 public 字段 leftArmSequence 已移除，帧数据改为紧凑存储；
+     *             读取请使用 {@link #copyLeftArmFrame(int, int[])} 或 {@link #getJoint(int, int)}
+     */
+    @Deprecated
+    public int[][] getLeftArmSequence() {
+        return copyArmSequence(0);
+    }
+
+    /**
+     * 获取整个右臂序列 [帧号][关节号]，-1表示保持
+     * 按已加载帧生成副本，修改副本不会写回帧存储
+     *
+     * @return 大小为[loadedFrames][10]的新数组
+     * @deprecated 原 public 字段 rightArmSequence 已移除，帧数据改为紧凑存储；
+     *             读取请使用 {@link #copyRightArmFrame(int, int[])} 或 {@link #getJoint(int, int)}
+     */
+    @Deprecated
+    public int[][] getRightArmSequence() {
+        return copyArmSequence(JOINTS_PER_ARM);
+    }
+
+    /**
+     * 按左右臂序列设置全部帧数据，重新分配帧存储，totalFrames随之更新
+     * 之后需重新调用 {@link #buildHoldCheckpoints()}
+     *
+     * @param leftArmSequence  左臂序列 [帧号][关节号]，-1表示保持
+     * @param rightArmSequence 右臂序列，帧数与左臂相同
+     * @deprecated 原 public 字段 leftArmSequence/rightArmSequence 已移除；
+     *             请使用 {@link #allocateFrames(int)} 和 {@link #setJoint(int, int, int)}
+     */
+    @Deprecated
+    public void setArmSequences(int[][] leftArmSequence, int[][] rightArmSequence) {
+        if (leftArmSequence == null || rightArmSequence == null
+                || leftArmSequence.length != rightArmSequence.length) {
+            throw new IllegalArgumentException("左右臂序列不能为null且帧数必须相同");
+        }
+        allocateFrames(leftArmSequence.length);
+        for (int frame = 0; frame < leftArmSequence.length; frame++) {
+            for (int j = 0; j < JOINTS_PER_ARM; j++) {
+                setJoint(frame, j, leftArmSequence[frame][j]);
+                setJoint(frame, JOINTS_PER_ARM + j, rightArmSequence[frame][j]);
+            }
         }
-        return rightArmSequence[frameIndex];
+    }
+
+    private int[][] copyArmSequence(int jointOffset) {
+        int loaded = loadedFrames;
+        int[][] sequence = new int[loaded][JOINTS_PER_ARM];
+        for (int frame = 0; frame < loaded; frame++) {
+            copyArmFrame(frame, jointOffset, sequence[frame]);
+        }
+        return sequence;
+    }
+
+    /**
+     * 获取帧数据占用的字节数
+     *
+     * @return 帧存储字节数
+     */
+    public long getFrameDataBytes() {
+        return (long) totalFrames * JOINTS_PER_FRAME * 2;
     }
 
     /**
@@ -0,0 +1,144 @@
+package com.evobot.sequence;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 序列编码器
+ * 将SequenceData编码为.ebs文件内容，支持EBS1（原始uint16）和EBS2（差分+varint压缩）两种格式
+ *
+ * EBS2格式：
+ * - 文件头与EBS1相同（96字节），魔数为"EBS2"，保留字段前4字节为数据区字节数（uint32）
+ * - 数据区按 {@link #EBS2_BLOCK_FRAMES} 帧分块，每块前缀varint块字节数，块内按关节主序存储
+ * - 每个值先转换为编码值：保持(-1)为0，位置p为p+1；每个关节记录上一个编码值（跨块延续，初始为0）
+ * - 块内每个关节依次写入令牌（无符号LEB128 varint）：
+ *   奇数令牌 t 表示连续 t>>>1 个差值为0（不跨关节），偶数令牌 t 表示一个差值 zigzag(d) = t>>>1
+ */
+public final class SequenceEncoder {
+
+    public static final String MAGIC_EBS1 = "EBS1";
+    public static final String MAGIC_EBS2 = "EBS2";
+    public static final int HEADER_SIZE = 96;
+    public static final int EBS2_BLOCK_FRAMES = 256;   // 每块帧数，流式解码的粒度
+    public static final int EBS2_MAX_CODE = SequenceData.POSITION_MAX + 1;
+
+    private static final int NAME_SIZE = 64;
+    private static final int PAYLOAD_LENGTH_OFFSET = 20;  // 保留字段起始位置
+
+    private SequenceEncoder() {
+    }
+
+    /**
+     * 编码为EBS1格式
+     *
+     * @param data 序列数据（需已完整加载）
+     * @return .ebs文件内容
+     */
+    public static byte[] encodeEbs1(SequenceData data) {
+        int frameValues = data.totalFrames * SequenceData.JOINTS_PER_FRAME;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + frameValues * 2);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        writeHeader(buffer, MAGIC_EBS1, data, 0);
+        for (int i = 0; i < frameValues; i++) {
+            buffer.putChar(data.frames.get(i));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 编码为EBS2压缩格式
+     *
+     * @param data 序列数据（需已完整加载）
+     * @return .ebs文件内容
+     */
+    public static byte[] encodeEbs2(SequenceData data) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(data.totalFrames * 8);
+        ByteArrayOutputStream block = new ByteArrayOutputStream(EBS2_BLOCK_FRAMES * SequenceData.JOINTS_PER_FRAME);
+        int[] prev = new int[SequenceData.JOINTS_PER_FRAME];
+
+        for (int first = 0; first < data.totalFrames; first += EBS2_BLOCK_FRAMES) {
+            int frames = Math.min(EBS2_BLOCK_FRAMES, data.totalFrames - first);
+            block.reset();
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                int last = prev[joint];
+                int zeroRun = 0;
+                for (int frame = first; frame < first + frames; frame++) {
+                    int code = toCode(data.frames.get(frame * SequenceData.JOINTS_PER_FRAME + joint));
+                    int delta = code - last;
+                    last = code;
+                    if (delta == 0) {
+                        zeroRun++;
+                        continue;
+                    }
+                    if (zeroRun > 0) {
+                        writeVarint(block, (zeroRun << 1) | 1);
+                        zeroRun = 0;
+                    }
+                    writeVarint(block, ((delta << 1) ^ (delta >> 31)) << 1);
+                }
+                if (zeroRun > 0) {
+                    writeVarint(block, (zeroRun << 1) | 1);
+                }
+                prev[joint] = last;
+            }
+            writeVarint(payload, block.size());
+            payload.write(block.toByteArray(), 0, block.size());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        writeHeader(buffer, MAGIC_EBS2, data, payload.size());
+        buffer.put(payload.toByteArray());
+        return buffer.array();
+    }
+
+    /**
+     * 原始uint16值转换为EBS2编码值
+     */
+    static int toCode(int raw) {
+        return raw == SequenceData.HOLD_SENTINEL ? 0 : raw + 1;
+    }
+
+    /**
+     * EBS2编码值转换为原始uint16值
+     */
+    static char fromCode(int code) {
+        return (char) (code == 0 ? SequenceData.HOLD_SENTINEL : code - 1);
+    }
+
+    /**
+     * 读取EBS2文件头中的数据区字节数
+     *
+     * @param header 小端字节序的文件头缓冲区
+     */
+    static long readPayloadLength(ByteBuffer header) {
+        return header.getInt(PAYLOAD_LENGTH_OFFSET) & 0xFFFFFFFFL;
+    }
+
+    private static void writeHeader(ByteBuffer buffer, String magic, SequenceData data, int payloadLength) {
+        buffer.put(magic.getBytes(StandardCharsets.US_ASCII));
+        buffer.putInt(data.totalFrames);
+        buffer.putFloat(data.sampleRate);
+        buffer.putFloat(data.totalDuration);
+        buffer.putInt(data.compiledAt);
+
+        // 保留字段 (12 bytes)：EBS2使用前4字节记录数据区字节数
+        buffer.putInt(payloadLength);
+        buffer.position(buffer.position() + 8);
+
+        byte[] nameBytes = new byte[NAME_SIZE];
+        byte[] encoded = data.name != null ? data.name.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        System.arraycopy(encoded, 0, nameBytes, 0, Math.min(encoded.length, NAME_SIZE));
+        buffer.put(nameBytes);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
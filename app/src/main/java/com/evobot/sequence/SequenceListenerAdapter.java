@@ -0,0 +1,34 @@
+package com.evobot.sequence;
+
+/**
+ * 将 {@link SequenceListener} 适配为 {@link FrameBufferListener}
+ * 每帧把播放器缓冲区复制为新数组后回调，保持旧接口"数组归监听器所有"的语义
+ */
+final class SequenceListenerAdapter implements FrameBufferListener {
+
+    final SequenceListener delegate;
+
+    SequenceListenerAdapter(SequenceListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+        delegate.onFrameData(leftArm.clone(), rightArm.clone(), frameIndex);
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void onError(String errorMessage) {
+        delegate.onError(errorMessage);
+    }
+
+    @Override
+    public void onEmergencyStop() {
+        delegate.onEmergencyStop();
+    }
+}
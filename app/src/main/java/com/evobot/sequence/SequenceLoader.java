@@ -4,26 +4,43 @@ import android.content.Context;
 import android.util.Log;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * 序列加载器
  * 负责从assets目录加载并解析.ebs二进制序列文件
+ * 支持EBS1（原始uint16）和EBS2（差分+varint压缩，格式见 {@link SequenceEncoder}）两种格式
  */
 public class SequenceLoader {
 
     private static final String TAG = "SequenceLoader";
 
     // 文件格式常量
-    private static final String MAGIC_NUMBER = "EBS1";
+    private static final String MAGIC_NUMBER = SequenceEncoder.MAGIC_EBS1;
+    private static final String MAGIC_NUMBER_EBS2 = SequenceEncoder.MAGIC_EBS2;
     private static final int HEADER_SIZE = 96;
     private static final int FRAME_SIZE = 40;  // 20关节 × 2字节
     private static final int NAME_SIZE = 64;
 
+    // 流式加载配置
+    public static final int DEFAULT_LOOKAHEAD_FRAMES = 40;   // 默认预读1秒（40Hz）后开始播放
+    private static final int STREAM_CHUNK_FRAMES = 256;       // 每次读取的帧数（10KB）
+
+    // 内存映射序列缓存：键为"路径:大小:修改时间"，播放器不再引用时随GC释放映射
+    private static final Map<String, WeakReference<SequenceData>> MAPPED_SEQUENCES = new HashMap<>();
+
     private final Context context;
 
     public SequenceLoader(Context context) {
@@ -99,24 +116,351 @@ public class SequenceLoader {
      * @throws IOException 解析失败
      */
     public SequenceData parseEbsFile(InputStream inputStream) throws IOException {
-        // 读取整个���件到内存
+        // 读取整个文件到内存
         byte[] fileData = readAllBytes(inputStream);
         ByteBuffer buffer = ByteBuffer.wrap(fileData);
         buffer.order(ByteOrder.LITTLE_ENDIAN);
 
-        // 验证文件大小
-        if (fileData.length < HEADER_SIZE) {
-            throw new IOException("文件过小，不是有效的.ebs文件");
+        // ========== 解析文件头 (96 bytes) ==========
+        SequenceData data = parseHeader(buffer);
+        int frameCount = data.totalFrames;
+
+        // ========== 验证数据区大小 ==========
+        long dataSize = expectedDataSize(buffer, frameCount);
+        checkDataSize(dataSize, fileData.length);
+
+        // ========== 解析数据区 ==========
+        data.allocateFrames(frameCount);
+        buffer.position(HEADER_SIZE);
+        if (isEbs2(buffer)) {
+            decodeEbs2Payload(buffer, HEADER_SIZE + (int) dataSize, data);
+        } else {
+            // 数据区与内存布局一致（帧主序uint16），直接批量复制到紧凑帧存储
+            buffer.asCharBuffer().get(data.frames.array(), 0, frameCount * SequenceData.JOINTS_PER_FRAME);
         }
 
+        // 验证数据完整性
+        if (!data.validate()) {
+            throw new IOException("序列数据验证失败");
+        }
+        data.buildHoldCheckpoints();
+
+        Log.d(TAG, "序列解析完成: " + data.getInfo());
+        return data;
+    }
+
+    /**
+     * 从assets流式加载序列数据
+     *
+     * @param assetPath      assets中的文件路径
+     * @param lookaheadFrames 预读帧数，达到后回调callback
+     * @param callback       预读就绪回调（在当前线程调用）
+     * @return 全部帧加载完成后的序列数据
+     * @throws IOException 文件读取或解析失败
+     * @see #parseEbsFileStreaming(InputStream, int, StreamingCallback)
+     */
+    public SequenceData loadFromAssetsStreaming(String assetPath, int lookaheadFrames,
+                                                StreamingCallback callback) throws IOException {
+        if (assetPath == null || assetPath.isEmpty()) {
+            throw new IllegalArgumentException("assetPath不能为空");
+        }
+
+        Log.d(TAG, "开始流式加载序列: " + assetPath);
+
+        InputStream inputStream = null;
+        try {
+            inputStream = context.getAssets().open(assetPath);
+            return parseEbsFileStreaming(inputStream, lookaheadFrames, callback);
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "关闭输入流失败", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 流式解析.ebs二进制文件
+     * 先解析96字节文件头并按帧数分配帧存储，再从输入流逐块解码帧数据；
+     * 已解码帧数达到lookaheadFrames（或全部帧加载完成）时回调一次callback，
+     * 调用方可在回调中开始播放，播放线程只读取 {@link SequenceData#loadedFrames} 之前的帧。
+     * 首帧延迟只取决于文件头和预读帧的读取时间，与序列长度无关。
+     *
+     * 预读就绪后若数据区出错（截断、越界值），本方法仍会抛出IOException，由调用方终止播放
+     *
+     * @param inputStream     输入流（可以是网络流）
+     * @param lookaheadFrames 预读帧数，小于1按1处理
+     * @param callback        预读就绪回调（在当前线程调用），可以为null
+     * @return 全部帧加载完成后的序列数据
+     * @throws IOException 读取或解析失败
+     */
+    public SequenceData parseEbsFileStreaming(InputStream inputStream, int lookaheadFrames,
+                                              StreamingCallback callback) throws IOException {
         // ========== 解析文件头 (96 bytes) ==========
+        byte[] header = new byte[HEADER_SIZE];
+        if (readFully(inputStream, header, 0, HEADER_SIZE) < HEADER_SIZE) {
+            throw new IOException("文件过小，不是有效的.ebs文件");
+        }
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        SequenceData data = parseHeader(headerBuffer);
+        if (data.name.isEmpty()) {
+            throw new IOException("序列名称为空");
+        }
+
+        int frameCount = data.totalFrames;
+        data.allocateFrames(frameCount);
+        data.loadedFrames = 0;
+        int readyThreshold = Math.max(1, Math.min(lookaheadFrames, frameCount));
+
+        // ========== 逐块解码数据区 ==========
+        if (isEbs2(headerBuffer)) {
+            streamEbs2Frames(inputStream, data, SequenceEncoder.readPayloadLength(headerBuffer),
+                readyThreshold, callback);
+        } else {
+            streamEbs1Frames(inputStream, data, readyThreshold, callback);
+        }
+
+        Log.d(TAG, "序列流式解析完成: " + data.getInfo());
+        return data;
+    }
+
+    /**
+     * 流式解码EBS1数据区：每次读取STREAM_CHUNK_FRAMES帧
+     */
+    private void streamEbs1Frames(InputStream inputStream, SequenceData data, int readyThreshold,
+                                  StreamingCallback callback) throws IOException {
+        int frameCount = data.totalFrames;
+        char[] frameArray = data.frames.array();
+        byte[] chunk = new byte[STREAM_CHUNK_FRAMES * FRAME_SIZE];
+        ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+        boolean notified = false;
+        int loaded = 0;
+        while (loaded < frameCount) {
+            int framesToRead = Math.min(STREAM_CHUNK_FRAMES, frameCount - loaded);
+            int bytesRead = readFully(inputStream, chunk, 0, framesToRead * FRAME_SIZE);
+            int framesRead = bytesRead / FRAME_SIZE;
+
+            int offset = loaded * SequenceData.JOINTS_PER_FRAME;
+            int count = framesRead * SequenceData.JOINTS_PER_FRAME;
+            chunkBuffer.clear();
+            chunkBuffer.asCharBuffer().get(frameArray, offset, count);
+            for (int i = offset; i < offset + count; i++) {
+                int pos = frameArray[i];
+                if (pos != SequenceData.HOLD_SENTINEL && pos > SequenceData.POSITION_MAX) {
+                    throw new IOException(String.format("帧%d关节位置越界: %d",
+                        i / SequenceData.JOINTS_PER_FRAME, pos));
+                }
+            }
+
+            loaded += framesRead;
+            notified = publishLoadedFrames(data, loaded, readyThreshold, notified, callback);
+
+            if (framesRead < framesToRead) {
+                throw new IOException(String.format(
+                    "文件数据区不完整，预期%d字节，实际%d字节",
+                    (long) frameCount * FRAME_SIZE, (long) loaded * FRAME_SIZE + bytesRead % FRAME_SIZE));
+            }
+        }
+    }
+
+    /**
+     * 流式解码EBS2数据区：每次读取并解码一个数据块（EBS2_BLOCK_FRAMES帧）
+     */
+    private void streamEbs2Frames(InputStream inputStream, SequenceData data, long payloadLength,
+                                  int readyThreshold, StreamingCallback callback) throws IOException {
+        int frameCount = data.totalFrames;
+        char[] frameArray = data.frames.array();
+        int[] prev = new int[SequenceData.JOINTS_PER_FRAME];
+        byte[] block = new byte[SequenceEncoder.EBS2_BLOCK_FRAMES * SequenceData.JOINTS_PER_FRAME * 2];
+        boolean notified = false;
+        long consumed = 0;
+        int loaded = 0;
+        while (loaded < frameCount) {
+            int frames = Math.min(SequenceEncoder.EBS2_BLOCK_FRAMES, frameCount - loaded);
+
+            // 块长度前缀（varint）
+            int blockLength = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = inputStream.read();
+                if (b == -1 || shift >= 32) {
+                    throw new IOException("EBS2数据不完整");
+                }
+                consumed++;
+                blockLength |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            if (blockLength <= 0 || consumed + blockLength > payloadLength) {
+                throw new IOException("EBS2数据块长度无效: " + blockLength);
+            }
+            if (blockLength > block.length) {
+                block = new byte[blockLength];
+            }
+            if (readFully(inputStream, block, 0, blockLength) < blockLength) {
+                throw new IOException(String.format("文件数据区不完整，预期%d字节", payloadLength));
+            }
+            consumed += blockLength;
+
+            decodeEbs2Block(ByteBuffer.wrap(block, 0, blockLength), blockLength, frameArray, loaded, frames, prev);
+
+            loaded += frames;
+            notified = publishLoadedFrames(data, loaded, readyThreshold, notified, callback);
+        }
+        if (consumed != payloadLength) {
+            throw new IOException("EBS2数据区长度不一致");
+        }
+    }
+
+    /**
+     * 发布已加载帧数，首次达到预读阈值时回调
+     *
+     * @return 是否已回调过
+     */
+    private boolean publishLoadedFrames(SequenceData data, int loaded, int readyThreshold,
+                                        boolean notified, StreamingCallback callback) {
+        // 先扩展保持值检查点，再以volatile写入发布，之前解码的帧对播放线程可见
+        data.extendHoldCheckpoints(loaded);
+        data.loadedFrames = loaded;
+        if (!notified && loaded >= readyThreshold) {
+            Log.d(TAG, String.format("预读就绪: %d/%d帧", loaded, data.totalFrames));
+            if (callback != null) {
+                callback.onLookaheadReady(data);
+            }
+            return true;
+        }
+        return notified;
+    }
+
+    /**
+     * 从输入流读取指定长度，直到读满或到达流末尾
+     *
+     * @return 实际读取的字节数
+     */
+    private int readFully(InputStream inputStream, byte[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int bytesRead = inputStream.read(buffer, offset + total, length - total);
+            if (bytesRead == -1) {
+                break;
+            }
+            total += bytesRead;
+        }
+        return total;
+    }
+
+    /**
+     * 以内存映射方式加载本地.ebs文件（零拷贝）
+     * 帧数据直接以小端视图引用映射区域，不在Java堆上复制；
+     * 同一文件（路径、大小、修改时间均相同）在多个播放器之间共享同一份映射
+     *
+     * 注意：映射期间文件不能被原地截断或改写，下载和缓存均写入新文件，删除文件不影响已有映射
+     *
+     * @param file 本地.ebs文件
+     * @return 解析后的序列数据，frames为只读的映射视图
+     * @throws IOException 文件读取或解析失败
+     */
+    public SequenceData loadFromFile(File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file不能为null");
+        }
+
+        String key = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+        // 查找和映射在同一个锁内完成：同时加载同一文件时只映射一次，其余调用复用结果
+        synchronized (MAPPED_SEQUENCES) {
+            WeakReference<SequenceData> ref = MAPPED_SEQUENCES.get(key);
+            SequenceData cached = ref != null ? ref.get() : null;
+            if (cached != null) {
+                Log.d(TAG, "复用已映射序列: " + file.getName());
+                return cached;
+            }
+
+            SequenceData data = mapFile(file);
+            pruneMappedSequences();
+            MAPPED_SEQUENCES.put(key, new WeakReference<>(data));
+            Log.d(TAG, "序列映射完成: " + data.getInfo());
+            return data;
+        }
+    }
+
+    /**
+     * 映射并解析.ebs文件（持有MAPPED_SEQUENCES锁时调用）
+     */
+    private SequenceData mapFile(File file) throws IOException {
+        Log.d(TAG, "映射序列文件: " + file.getAbsolutePath());
+
+        MappedByteBuffer mapped;
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("文件过大: " + size);
+            }
+            // 映射在通道关闭后依然有效
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        SequenceData data = parseHeader(mapped);
+        long dataSize = expectedDataSize(mapped, data.totalFrames);
+        checkDataSize(dataSize, mapped.capacity());
+
+        mapped.position(HEADER_SIZE);
+        if (isEbs2(mapped)) {
+            // 压缩格式无法直接引用，解码到堆内帧存储
+            data.allocateFrames(data.totalFrames);
+            decodeEbs2Payload(mapped, HEADER_SIZE + (int) dataSize, data);
+        } else {
+            // slice()后字节序会重置为大端，需要重新指定
+            ByteBuffer frameRegion = mapped.slice().order(ByteOrder.LITTLE_ENDIAN);
+            frameRegion.limit(data.totalFrames * FRAME_SIZE);
+            data.frames = frameRegion.asCharBuffer();
+            data.loadedFrames = data.totalFrames;
+        }
+
+        if (!data.validate()) {
+            throw new IOException("序列数据验证失败");
+        }
+        data.buildHoldCheckpoints();
+        return data;
+    }
+
+    /**
+     * 清理已被回收的映射缓存项
+     */
+    private static void pruneMappedSequences() {
+        Iterator<Map.Entry<String, WeakReference<SequenceData>>> it = MAPPED_SEQUENCES.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().get() == null) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 解析96字节文件头
+     *
+     * @param buffer 小端字节序缓冲区，文件头位于索引0处
+     * @return 仅包含元数据的序列数据（frames为null）
+     * @throws IOException 文件头无效
+     */
+    private SequenceData parseHeader(ByteBuffer buffer) throws IOException {
+        // 验证文件大小
+        if (buffer.capacity() < HEADER_SIZE) {
+            throw new IOException("文件过小，不是有效的.ebs文件");
+        }
+        buffer.position(0);
 
         // 魔数 (4 bytes)
         byte[] magicBytes = new byte[4];
         buffer.get(magicBytes);
         String magic = new String(magicBytes, StandardCharsets.US_ASCII);
-        if (!MAGIC_NUMBER.equals(magic)) {
-            throw new IOException("无效的.ebs文件格式，魔数应为: " + MAGIC_NUMBER + "，实际为: " + magic);
+        if (!MAGIC_NUMBER.equals(magic) && !MAGIC_NUMBER_EBS2.equals(magic)) {
+            throw new IOException("无效的.ebs文件格式，魔数应为: " + MAGIC_NUMBER + "/" + MAGIC_NUMBER_EBS2
+                + "，实际为: " + magic);
         }
 
         // 帧数 (4 bytes, uint32)
@@ -151,57 +495,136 @@ public class SequenceLoader {
         Log.d(TAG, String.format("文件头解析完成: name=%s, frames=%d, rate=%.1fHz, duration=%.3fs",
             name, frameCount, sampleRate, totalDuration));
 
-        // ========== 验证数据区大小 ==========
-        int expectedDataSize = frameCount * FRAME_SIZE;
-        int remainingBytes = fileData.length - HEADER_SIZE;
+        SequenceData data = new SequenceData();
+        data.name = name;
+        data.sampleRate = sampleRate;
+        data.totalDuration = totalDuration;
+        data.totalFrames = frameCount;
+        data.compiledAt = compiledAt;
+        return data;
+    }
+
+    /**
+     * 验证数据区大小
+     */
+    private void checkDataSize(long expectedDataSize, long fileSize) throws IOException {
+        long remainingBytes = fileSize - HEADER_SIZE;
         if (remainingBytes < expectedDataSize) {
             throw new IOException(String.format(
                 "文件数据区不完整，预期%d字节，实际%d字节",
                 expectedDataSize, remainingBytes));
         }
+    }
 
-        // ========== 解析数据区 ==========
-        int[][] leftArmSequence = new int[frameCount][SequenceData.JOINTS_PER_ARM];
-        int[][] rightArmSequence = new int[frameCount][SequenceData.JOINTS_PER_ARM];
+    /**
+     * 计算数据区字节数：EBS1为帧数×40，EBS2取文件头中记录的数据区长度
+     *
+     * @param header 已通过parseHeader校验的文件头缓冲区
+     */
+    private static long expectedDataSize(ByteBuffer header, int frameCount) {
+        if (isEbs2(header)) {
+            return SequenceEncoder.readPayloadLength(header);
+        }
+        return (long) frameCount * FRAME_SIZE;
+    }
 
-        for (int frame = 0; frame < frameCount; frame++) {
-            for (int joint = 0; joint < 20; joint++) {
-                // 读取2字节无符号整数
-                int pos = buffer.getShort() & 0xFFFF;
+    /**
+     * 是否为EBS2压缩格式（文件头魔数已校验过）
+     */
+    private static boolean isEbs2(ByteBuffer header) {
+        return header.get(3) == '2';
+    }
 
-                // 0xFFFF转换为-1（保持当前位置）
-                if (pos == SequenceData.HOLD_SENTINEL) {
-                    pos = -1;
-                }
+    /**
+     * 解码EBS2数据区
+     *
+     * @param src        数据区缓冲区，position位于数据区起始处
+     * @param payloadEnd 数据区结束位置
+     * @param data       已分配帧存储的序列数据
+     * @throws IOException 数据区无效
+     */
+    private static void decodeEbs2Payload(ByteBuffer src, int payloadEnd, SequenceData data) throws IOException {
+        char[] dest = data.frames.array();
+        int[] prev = new int[SequenceData.JOINTS_PER_FRAME];
+        for (int first = 0; first < data.totalFrames; first += SequenceEncoder.EBS2_BLOCK_FRAMES) {
+            int frames = Math.min(SequenceEncoder.EBS2_BLOCK_FRAMES, data.totalFrames - first);
+            int blockLength = readVarint(src, payloadEnd);
+            int blockEnd = src.position() + blockLength;
+            if (blockLength <= 0 || blockEnd > payloadEnd) {
+                throw new IOException("EBS2数据块长度无效: " + blockLength);
+            }
+            decodeEbs2Block(src, blockEnd, dest, first, frames, prev);
+        }
+        if (src.position() != payloadEnd) {
+            throw new IOException("EBS2数据区长度不一致");
+        }
+    }
 
-                // 分配到左右臂
-                if (joint < SequenceData.JOINTS_PER_ARM) {
-                    // 左臂关节 0-9
-                    leftArmSequence[frame][joint] = pos;
+    /**
+     * 解码一个EBS2数据块到帧存储
+     *
+     * @param src        块数据，position位于块起始处
+     * @param blockEnd   块结束位置
+     * @param dest       帧存储数组
+     * @param firstFrame 块的起始帧
+     * @param frames     块内帧数
+     * @param prev       每个关节的上一个编码值，解码后更新
+     * @throws IOException 数据块无效
+     */
+    private static void decodeEbs2Block(ByteBuffer src, int blockEnd, char[] dest,
+                                        int firstFrame, int frames, int[] prev) throws IOException {
+        for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+            int code = prev[joint];
+            int index = firstFrame * SequenceData.JOINTS_PER_FRAME + joint;
+            int remaining = frames;
+            while (remaining > 0) {
+                int token = readVarint(src, blockEnd);
+                if ((token & 1) != 0) {
+                    // 差值为0的游程：重复上一个值
+                    int run = token >>> 1;
+                    if (run == 0 || run > remaining) {
+                        throw new IOException("EBS2游程长度无效: " + run);
+                    }
+                    char raw = SequenceEncoder.fromCode(code);
+                    for (int i = 0; i < run; i++) {
+                        dest[index] = raw;
+                        index += SequenceData.JOINTS_PER_FRAME;
+                    }
+                    remaining -= run;
                 } else {
-                    // 右臂关节 0-9
-                    rightArmSequence[frame][joint - SequenceData.JOINTS_PER_ARM] = pos;
+                    int zigzag = token >>> 1;
+                    code += (zigzag >>> 1) ^ -(zigzag & 1);
+                    if (code < 0 || code > SequenceEncoder.EBS2_MAX_CODE) {
+                        throw new IOException("EBS2关节位置越界: " + (code - 1));
+                    }
+                    dest[index] = SequenceEncoder.fromCode(code);
+                    index += SequenceData.JOINTS_PER_FRAME;
+                    remaining--;
                 }
             }
+            prev[joint] = code;
         }
-
-        // ========== 构建SequenceData对象 ==========
-        SequenceData data = new SequenceData();
-        data.name = name;
-        data.sampleRate = sampleRate;
-        data.totalDuration = totalDuration;
-        data.totalFrames = frameCount;
-        data.compiledAt = compiledAt;
-        data.leftArmSequence = leftArmSequence;
-        data.rightArmSequence = rightArmSequence;
-
-        // 验证数据完整性
-        if (!data.validate()) {
-            throw new IOException("序列数据验证失败");
+        if (src.position() != blockEnd) {
+            throw new IOException("EBS2数据块长度不一致");
         }
+    }
 
-        Log.d(TAG, "序列解析完成: " + data.getInfo());
-        return data;
+    /**
+     * 读取无符号LEB128 varint
+     */
+    private static int readVarint(ByteBuffer src, int end) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (src.position() >= end) {
+                throw new IOException("EBS2数据不完整");
+            }
+            int b = src.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("EBS2 varint过长");
     }
 
     /**
@@ -221,6 +644,27 @@ public class SequenceLoader {
         return buffer.toByteArray();
     }
 
+    /**
+     * 读取本地.ebs文件头（不加载帧数据）
+     * 只读取96字节文件头，用于建立动作目录等只需元数据的场景
+     *
+     * @param file 本地.ebs文件
+     * @return 仅包含元数据的序列数据（frames为null）
+     * @throws IOException 读取失败或文件头无效
+     */
+    public SequenceData readHeader(File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            byte[] header = new byte[HEADER_SIZE];
+            if (readFully(fis, header, 0, HEADER_SIZE) < HEADER_SIZE) {
+                throw new IOException("文件头不完整");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+            SequenceData data = parseHeader(buffer);
+            checkDataSize(expectedDataSize(buffer, data.totalFrames), file.length());
+            return data;
+        }
+    }
+
     /**
      * 获取序列信息（不加载完整数据）
      * 只读取文件头，用于快速查询序列元数据
@@ -270,4 +714,17 @@ public class SequenceLoader {
             }
         }
     }
+
+    /**
+     * 流式加载预读就绪回调
+     */
+    public interface StreamingCallback {
+        /**
+         * 已加载帧数达到预读阈值
+         * 回调返回后加载线程继续解码剩余帧
+         *
+         * @param data 部分加载的序列数据，loadedFrames随加载推进增长
+         */
+        void onLookaheadReady(SequenceData data);
+    }
 }
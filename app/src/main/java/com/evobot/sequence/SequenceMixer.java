@@ -0,0 +1,350 @@
+package com.evobot.sequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分层序列混合器
+ * 把多个已加载序列按关节掩码组合成一路输出：每层有独立的帧游标，每个播放周期各层前进一帧，
+ * 每个关节取覆盖它的最上层（后添加的层在上）在其游标处的值，例如左臂播放挥手、右臂播放另一个动作，
+ * 无需编写合并后的.ebs文件。
+ *
+ * 直接读取各层序列的预解析帧表（添加时如未建立则建立一次），不复制帧数据；
+ * 关节按预先计算的分段（连续且来自同一层）读取，每个关节读取一次，整条手臂来自同一层时
+ * 与单序列播放相同的定长复制，每帧额外开销只有各层游标的推进，稳态不分配内存。
+ * 某层在该关节上仍为-1（此前从未有效）时取下一层的值，没有层覆盖的关节输出-1（保持）。
+ * 播放从各层当前游标开始（默认第0帧，可用 {@link #setLayerFrame} 错开各层的起点）。
+ * 非循环层播放到末尾后保持最后一帧；全部非循环层播放完时混合结束。
+ *
+ * 播放前在任意线程配置，播放期间只在播放线程访问（见 EvoBotSequencePlayer#playMixed）
+ */
+public final class SequenceMixer {
+
+    public static final int LEFT_ARM_MASK = (1 << SequenceData.JOINTS_PER_ARM) - 1;
+    public static final int RIGHT_ARM_MASK = LEFT_ARM_MASK << SequenceData.JOINTS_PER_ARM;
+    public static final int ALL_JOINTS_MASK = LEFT_ARM_MASK | RIGHT_ARM_MASK;
+
+    private static final int JOINTS = SequenceData.JOINTS_PER_FRAME;
+
+    private final List<Layer> layers = new ArrayList<>();
+
+    // 每个关节覆盖它的层（最上层在前），添加层时重建
+    private int[][] jointLayers = new int[JOINTS][0];
+
+    // 连续且最上层相同的关节合并为一段（不跨左右臂），每帧按段整段读取
+    private int[] segmentStart = new int[0];
+    private int[] segmentEnd = new int[0];
+    private int[] segmentLayer = new int[0];    // -1表示没有层覆盖
+    private int[] fallbackJoints = new int[0];  // 被多层覆盖、最上层为-1时需要取下层的关节
+
+    // 播放时的层数据（数组形式，避免每帧访问List）
+    private char[][] tables = new char[0][];
+    private int[] cursors = new int[0];
+    private int[] totals = new int[0];
+    private boolean[] loops = new boolean[0];
+    private int[] rowBase = new int[0];
+
+    // 交付缓冲区：两组交替使用，见 FrameBufferListener 的所有权约定
+    private final int[][] leftBuffers = new int[2][SequenceData.JOINTS_PER_ARM];
+    private final int[][] rightBuffers = new int[2][SequenceData.JOINTS_PER_ARM];
+    private int bufferIndex = 0;
+
+    private int tick = 0;
+
+    /**
+     * 添加一层（不循环）
+     *
+     * @param data      已完整加载的序列
+     * @param jointMask 关节掩码，第i位对应关节i（0-9左臂，10-19右臂）
+     * @return 层索引
+     */
+    public int addLayer(SequenceData data, int jointMask) {
+        return addLayer(data, jointMask, false);
+    }
+
+    /**
+     * 添加一层
+     *
+     * @param data      已完整加载的序列
+     * @param jointMask 关节掩码，第i位对应关节i（0-9左臂，10-19右臂）
+     * @param loop      播放到末尾后是否从头循环
+     * @return 层索引
+     */
+    public synchronized int addLayer(SequenceData data, int jointMask, boolean loop) {
+        if (data == null || data.totalFrames <= 0) {
+            throw new IllegalArgumentException("序列数据无效");
+        }
+        if (!data.isFullyLoaded()) {
+            throw new IllegalArgumentException("序列尚未加载完成: " + data.name);
+        }
+        if (jointMask == 0 || (jointMask & ~ALL_JOINTS_MASK) != 0) {
+            throw new IllegalArgumentException(String.format("关节掩码无效: 0x%X", jointMask));
+        }
+        data.buildResolvedFrames();
+        layers.add(new Layer(data, jointMask, loop));
+        rebuild();
+        return layers.size() - 1;
+    }
+
+    /**
+     * 层数
+     */
+    public synchronized int getLayerCount() {
+        return layers.size();
+    }
+
+    /**
+     * 层的序列数据
+     */
+    public synchronized SequenceData getLayerData(int layer) {
+        return getLayer(layer).data;
+    }
+
+    /**
+     * 设置层的帧游标
+     *
+     * @param layer 层索引
+     * @param frame 下一次输出的帧
+     */
+    public synchronized void setLayerFrame(int layer, int frame) {
+        Layer l = getLayer(layer);
+        if (frame < 0 || frame >= l.data.totalFrames) {
+            throw new IllegalArgumentException(String.format("帧索引超出范围: %d/%d", frame, l.data.totalFrames));
+        }
+        cursors[layer] = frame;
+    }
+
+    /**
+     * 获取层的帧游标（下一次输出的帧）
+     */
+    public synchronized int getLayerFrame(int layer) {
+        getLayer(layer);
+        return cursors[layer];
+    }
+
+    /**
+     * 已输出的帧数
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * 最长一层的帧数
+     */
+    public synchronized int getTotalFrames() {
+        int total = 0;
+        for (Layer layer : layers) {
+            total = Math.max(total, layer.data.totalFrames);
+        }
+        return total;
+    }
+
+    /**
+     * 全部非循环层是否都已播放完（只有循环层时不会结束）
+     */
+    public boolean isFinished() {
+        boolean hasFinite = false;
+        int[] layerCursors = cursors;
+        for (int i = 0; i < layerCursors.length; i++) {
+            if (!loops[i]) {
+                hasFinite = true;
+                if (layerCursors[i] < totals[i]) {
+                    return false;
+                }
+            }
+        }
+        return hasFinite;
+    }
+
+    /**
+     * 输出帧序号归零，各层游标不变（开始播放时调用）
+     */
+    void resetTick() {
+        tick = 0;
+    }
+
+    /**
+     * 所有层跳转到指定帧（超出某层帧数时该层保持最后一帧；循环层按帧数取模）
+     */
+    synchronized void seek(int frame) {
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = loops[i] ? frame % totals[i] : Math.min(frame, totals[i]);
+        }
+        tick = frame;
+    }
+
+    /**
+     * 各层游标前进指定帧数，不输出（丢帧）
+     */
+    void skip(int frames) {
+        for (int i = 0; i < cursors.length; i++) {
+            long next = (long) cursors[i] + frames;
+            cursors[i] = loops[i] ? (int) (next % totals[i]) : (int) Math.min(next, totals[i]);
+        }
+        tick += frames;
+    }
+
+    /**
+     * 混合一帧并回调监听器，各层游标前进一帧（播放线程调用）
+     */
+    void render(FrameBufferListener listener) {
+        // 取各层本帧的行并前进游标
+        int[] layerCursors = cursors;
+        int[] layerTotals = totals;
+        for (int i = 0; i < layerCursors.length; i++) {
+            int cursor = layerCursors[i];
+            int total = layerTotals[i];
+            if (cursor < total) {
+                rowBase[i] = cursor * JOINTS;
+                layerCursors[i] = cursor + 1 < total || !loops[i] ? cursor + 1 : 0;
+            } else {
+                rowBase[i] = (total - 1) * JOINTS;
+            }
+        }
+
+        int[] left = leftBuffers[bufferIndex];
+        int[] right = rightBuffers[bufferIndex];
+        bufferIndex ^= 1;
+
+        for (int segment = 0; segment < segmentLayer.length; segment++) {
+            int start = segmentStart[segment];
+            int end = segmentEnd[segment];
+            int[] dest = start < SequenceData.JOINTS_PER_ARM ? left : right;
+            int destOffset = start < SequenceData.JOINTS_PER_ARM ? 0 : SequenceData.JOINTS_PER_ARM;
+            int layer = segmentLayer[segment];
+            if (layer < 0) {
+                for (int j = start; j < end; j++) {
+                    dest[j - destOffset] = -1;
+                }
+                continue;
+            }
+            char[] table = tables[layer];
+            int row = rowBase[layer] + destOffset;
+            if (end - start == SequenceData.JOINTS_PER_ARM) {
+                // 整条手臂来自同一层：与单序列播放相同的定长复制
+                for (int j = 0; j < SequenceData.JOINTS_PER_ARM; j++) {
+                    dest[j] = (short) table[row + j];
+                }
+            } else {
+                for (int j = start - destOffset; j < end - destOffset; j++) {
+                    dest[j] = (short) table[row + j];
+                }
+            }
+        }
+
+        // 最上层为-1的关节取下层的值（不在上面的复制循环中判断，保持复制循环简单）
+        for (int i = 0; i < fallbackJoints.length; i++) {
+            int joint = fallbackJoints[i];
+            int[] dest = joint < SequenceData.JOINTS_PER_ARM ? left : right;
+            int index = joint < SequenceData.JOINTS_PER_ARM ? joint : joint - SequenceData.JOINTS_PER_ARM;
+            if (dest[index] == -1) {
+                dest[index] = fallback(joint);
+            }
+        }
+
+        int frameIndex = tick++;
+        if (listener != null) {
+            listener.onFrameBuffer(left, right, frameIndex);
+        }
+    }
+
+    /**
+     * 最上层为-1时依次取下层的值
+     */
+    private int fallback(int joint) {
+        int[] sources = jointLayers[joint];
+        for (int k = 1; k < sources.length; k++) {
+            int layer = sources[k];
+            int value = (short) tables[layer][rowBase[layer] + joint];
+            if (value != -1) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    private Layer getLayer(int layer) {
+        if (layer < 0 || layer >= layers.size()) {
+            throw new IllegalArgumentException("层索引超出范围: " + layer);
+        }
+        return layers.get(layer);
+    }
+
+    /**
+     * 重建关节到层的映射
+     */
+    private void rebuild() {
+        int count = layers.size();
+        int[][] map = new int[JOINTS][];
+        for (int j = 0; j < JOINTS; j++) {
+            int covering = 0;
+            for (Layer layer : layers) {
+                if ((layer.jointMask & (1 << j)) != 0) {
+                    covering++;
+                }
+            }
+            map[j] = new int[covering];
+            int k = 0;
+            for (int i = count - 1; i >= 0; i--) {
+                if ((layers.get(i).jointMask & (1 << j)) != 0) {
+                    map[j][k++] = i;
+                }
+            }
+        }
+        int segments = 0;
+        int[] starts = new int[JOINTS];
+        int[] ends = new int[JOINTS];
+        int[] owners = new int[JOINTS];
+        int[] fallbacks = new int[JOINTS];
+        int fallbackCount = 0;
+        for (int j = 0; j < JOINTS; j++) {
+            int owner = map[j].length > 0 ? map[j][0] : -1;
+            if (map[j].length > 1) {
+                fallbacks[fallbackCount++] = j;
+            }
+            if (segments > 0 && owners[segments - 1] == owner && j != SequenceData.JOINTS_PER_ARM) {
+                ends[segments - 1] = j + 1;
+            } else {
+                starts[segments] = j;
+                ends[segments] = j + 1;
+                owners[segments] = owner;
+                segments++;
+            }
+        }
+
+        char[][] newTables = new char[count][];
+        int[] newCursors = Arrays.copyOf(cursors, count);
+        int[] newTotals = new int[count];
+        boolean[] newLoops = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            Layer layer = layers.get(i);
+            newTables[i] = layer.data.getResolvedFrameArray();
+            newTotals[i] = layer.data.totalFrames;
+            newLoops[i] = layer.loop;
+        }
+        jointLayers = map;
+        segmentStart = Arrays.copyOf(starts, segments);
+        segmentEnd = Arrays.copyOf(ends, segments);
+        segmentLayer = Arrays.copyOf(owners, segments);
+        fallbackJoints = Arrays.copyOf(fallbacks, fallbackCount);
+        tables = newTables;
+        cursors = newCursors;
+        totals = newTotals;
+        loops = newLoops;
+        rowBase = new int[count];
+    }
+
+    private static final class Layer {
+        final SequenceData data;
+        final int jointMask;
+        final boolean loop;
+
+        Layer(SequenceData data, int jointMask, boolean loop) {
+            this.data = data;
+            this.jointMask = jointMask;
+            this.loop = loop;
+        }
+    }
+}
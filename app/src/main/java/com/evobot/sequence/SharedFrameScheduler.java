@@ -0,0 +1,286 @@
+package com.evobot.sequence;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 共享帧调度器
+ * 所有使用 {@link TimingBackend#SHARED_THREAD} 的播放器共用一个调度线程：按截止时间组织为小顶堆，
+ * 线程只在最早的截止时间醒来（休眠到截止时间前再自旋），并把截止时间落在同一时间槽（{@link #COALESCE_NANOS}）
+ * 内的帧任务合并到这一次唤醒中执行。每个播放器按自己的周期计算绝对截止时间（起点 + n * 周期），
+ * 频率互不影响，长期无累积漂移；落后超过一个周期时按 {@link OverrunPolicy} 跳过已错过的截止时间
+ * （DROP 记录跳过的周期数）或连续补发（CATCH_UP）。
+ *
+ * 帧任务在共享线程中依次执行，监听器回调应尽快返回，否则会推迟其他播放器的帧。
+ */
+final class SharedFrameScheduler implements FrameScheduler {
+
+    static final long COALESCE_NANOS = 500000L;  // 同一时间槽：500us内到期的帧任务合并执行
+    static final String THREAD_NAME = "EvoBotSharedPlayback";
+    private static final long SPIN_NANOS = PrecisionFrameScheduler.DEFAULT_SPIN_NANOS;
+
+    private static final TimerThread TIMER = new TimerThread();
+
+    private volatile OverrunPolicy overrunPolicy = OverrunPolicy.STRETCH;
+    private Entry current;
+
+    @Override
+    public void start(long periodNanos, Runnable tick) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + periodNanos);
+        }
+        stop();
+        Entry entry = new Entry(periodNanos, tick, overrunPolicy);
+        synchronized (this) {
+            current = entry;
+        }
+        TIMER.add(entry);
+    }
+
+    @Override
+    public void stop() {
+        Entry previous;
+        synchronized (this) {
+            previous = current;
+            current = null;
+        }
+        if (previous == null) {
+            return;
+        }
+        // 帧任务在持有条目锁时执行：在其他线程调用时等待正在执行的帧任务结束，保证返回后不再回调
+        synchronized (previous) {
+            previous.cancelled = true;
+        }
+        TIMER.remove(previous);
+    }
+
+    @Override
+    public void post(final Runnable task) {
+        final Entry entry;
+        synchronized (this) {
+            entry = current;
+        }
+        if (entry == null) {
+            return;
+        }
+        TIMER.post(new Runnable() {
+            @Override
+            public void run() {
+                // 与帧任务一样持有条目锁执行，停止返回后不再执行
+                synchronized (entry) {
+                    if (!entry.cancelled) {
+                        task.run();
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void setOverrunPolicy(OverrunPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy不能为null");
+        }
+        this.overrunPolicy = policy;
+    }
+
+    @Override
+    public int takeSkippedTicks() {
+        Entry entry;
+        synchronized (this) {
+            entry = current;
+        }
+        if (entry == null) {
+            return 0;
+        }
+        return entry.skippedTicks.getAndSet(0);
+    }
+
+    /**
+     * 调度线程累计唤醒次数
+     */
+    static long wakeupCount() {
+        return TIMER.wakeups;
+    }
+
+    /**
+     * 调度线程累计执行的帧任务数
+     */
+    static long tickCount() {
+        return TIMER.ticks;
+    }
+
+    /**
+     * 调度中的播放器数
+     */
+    static int activeCount() {
+        return TIMER.size();
+    }
+
+    private static final class Entry {
+        final long periodNanos;
+        final Runnable tick;
+        final OverrunPolicy policy;
+        final long origin;
+        long tickIndex = 0;
+        long deadline;
+        // 调度线程累加，takeSkippedTicks可在任意线程取出并清零
+        final AtomicInteger skippedTicks = new AtomicInteger();
+        volatile boolean cancelled = false;
+
+        Entry(long periodNanos, Runnable tick, OverrunPolicy policy) {
+            this.periodNanos = periodNanos;
+            this.tick = tick;
+            this.policy = policy;
+            this.origin = System.nanoTime();
+            this.deadline = origin;
+        }
+
+        /**
+         * 推进到下一个截止时间，已错过的截止时间按策略跳过或保留（追赶）
+         */
+        void advance() {
+            tickIndex++;
+            long behind = System.nanoTime() - (origin + tickIndex * periodNanos);
+            if (behind > periodNanos && policy != OverrunPolicy.CATCH_UP) {
+                long skipped = behind / periodNanos;
+                tickIndex += skipped;
+                if (policy == OverrunPolicy.DROP) {
+                    skippedTicks.addAndGet((int) Math.min(skipped, Integer.MAX_VALUE - skippedTicks.get()));
+                }
+            }
+            deadline = origin + tickIndex * periodNanos;
+        }
+    }
+
+    private static final class TimerThread implements Runnable {
+
+        private static final String TAG = "SharedFrameScheduler";
+
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>(16, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                return Long.compare(a.deadline, b.deadline);
+            }
+        });
+        private final Thread thread;
+        // 其他线程提交的任务，在下一次唤醒时执行
+        private final ConcurrentLinkedQueue<Runnable> posted = new ConcurrentLinkedQueue<>();
+
+        volatile long wakeups = 0;
+        volatile long ticks = 0;
+
+        TimerThread() {
+            thread = new Thread(this, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        synchronized void add(Entry entry) {
+            queue.offer(entry);
+            LockSupport.unpark(thread);
+        }
+
+        void post(Runnable task) {
+            posted.offer(task);
+            LockSupport.unpark(thread);
+        }
+
+        synchronized void remove(Entry entry) {
+            queue.remove(entry);
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        private synchronized Entry peek() {
+            return queue.peek();
+        }
+
+        /**
+         * 取出截止时间不晚于limit的条目
+         */
+        private synchronized Entry pollDue(long limit) {
+            Entry head = queue.peek();
+            if (head == null || head.deadline > limit) {
+                return null;
+            }
+            return queue.poll();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+            } catch (Exception e) {
+                Log.w(TAG, "设置调度线程优先级失败: " + e.getMessage());
+            }
+
+            while (true) {
+                runPosted();
+                Entry head = peek();
+                if (head == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                long remaining = head.deadline - System.nanoTime();
+                if (remaining > 0) {
+                    if (remaining > SPIN_NANOS) {
+                        // 休眠期间有新的更早截止时间加入时会被唤醒，重新检查堆顶
+                        LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+                    }
+                    continue;
+                }
+
+                // 本次唤醒执行同一时间槽内到期的全部帧任务
+                wakeups++;
+                long limit = System.nanoTime() + COALESCE_NANOS;
+                Entry entry;
+                while ((entry = pollDue(limit)) != null) {
+                    fire(entry);
+                }
+            }
+        }
+
+        private void runPosted() {
+            Runnable task;
+            while ((task = posted.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "提交的任务异常", e);
+                }
+            }
+        }
+
+        private void fire(Entry entry) {
+            synchronized (entry) {
+                if (entry.cancelled) {
+                    return;
+                }
+                try {
+                    entry.tick.run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "帧任务异常", e);
+                }
+                ticks++;
+                if (entry.cancelled) {
+                    return;
+                }
+                entry.advance();
+            }
+            synchronized (this) {
+                if (!entry.cancelled) {
+                    queue.offer(entry);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.evobot.sequence;
+
+/**
+ * Java播放定时后端
+ * 决定Java播放路径中帧回调的调度方式（Native播放不受影响）
+ */
+public enum TimingBackend {
+    /**
+     * 主线程Handler
+     * postDelayed按毫秒调度，按上一帧的实际间隔补偿误差；回调在主线程
+     */
+    HANDLER,
+
+    /**
+     * 独立高精度播放线程
+     * 按System.nanoTime计算每帧的绝对截止时间，休眠到截止时间前再自旋等待，长期无累积漂移；
+     * 回调在播放线程
+     */
+    PRECISION_THREAD,
+
+    /**
+     * 共享调度线程
+     * 所有使用该后端的播放器共用一个线程，按各自周期计算绝对截止时间，同一时间槽内到期的帧合并到一次唤醒；
+     * 适合同时运行大量播放器。回调在共享调度线程，应尽快返回
+     */
+    SHARED_THREAD
+}
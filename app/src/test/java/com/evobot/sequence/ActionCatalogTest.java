@@ -0,0 +1,133 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 动作目录测试
+ * 验证 ActionCatalog 的持久化、名称查找、过期刷新和删除同步，
+ * 并对比完整解析每个文件建立映射与目录同步（冷启动/热启动）的耗时
+ */
+public class ActionCatalogTest {
+
+    private static final String TAG = "ActionCatalogTest";
+
+    private static final int FILE_COUNT = 50;
+    private static final int FRAMES_PER_FILE = 10000;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws Exception {
+        StringBuilder report = new StringBuilder();
+        SequenceLoader loader = new SequenceLoader(context);
+
+        File dir = new File(context.getCacheDir(), "catalog_test");
+        deleteRecursively(dir);
+        dir.mkdirs();
+        File catalogFile = new File(dir, ActionCatalog.FILE_NAME);
+
+        try {
+            for (int i = 0; i < FILE_COUNT; i++) {
+                writeSequence(new File(dir, "action_" + i + ".ebs"), "动作" + i, FRAMES_PER_FILE, i);
+            }
+
+            // 1. 旧方式：完整解析每个文件读取名称
+            long start = System.nanoTime();
+            for (File file : dir.listFiles()) {
+                if (file.getName().endsWith(".ebs")) {
+                    try (FileInputStream fis = new FileInputStream(file)) {
+                        loader.parseEbsFile(fis);
+                    }
+                }
+            }
+            long fullParseNs = System.nanoTime() - start;
+
+            // 2. 冷启动：没有目录文件，读取全部文件头
+            ActionCatalog cold = new ActionCatalog(catalogFile, loader);
+            start = System.nanoTime();
+            int coldRefreshed = cold.sync(dir);
+            long coldNs = System.nanoTime() - start;
+            check(coldRefreshed == FILE_COUNT, "冷启动应读取全部文件头，实际" + coldRefreshed);
+            check(catalogFile.exists(), "目录文件未写入");
+
+            // 3. 热启动：从目录文件恢复，不读取任何文件头
+            ActionCatalog warm = new ActionCatalog(catalogFile, loader);
+            start = System.nanoTime();
+            int warmRefreshed = warm.sync(dir);
+            long warmNs = System.nanoTime() - start;
+            check(warmRefreshed == 0, "热启动不应读取文件头，实际" + warmRefreshed);
+            check(warm.size() == FILE_COUNT, "热启动条目数不一致: " + warm.size());
+            report.append("✅ 目录持久化后热启动不再打开.ebs文件\n");
+
+            // 4. 条目内容和名称查找
+            ActionCatalog.Entry entry = warm.findByName("动作7");
+            check(entry != null && "action_7.ebs".equals(entry.fileName), "按中文名查找失败");
+            check(entry.frameCount == FRAMES_PER_FILE && entry.sampleRate == 40.0f, "条目元数据错误: " + entry);
+            check(warm.findByName("action_7") == entry, "按文件名查找失败");
+            check(warm.findByName("不存在的动作") == null, "不存在的动作应返回null");
+            report.append("✅ 条目元数据正确，按中文名/文件名查找\n");
+
+            // 5. 过期刷新：文件被替换后只重新读取该文件头
+            File changed = new File(dir, "action_3.ebs");
+            writeSequence(changed, "动作3新版", 2000, 99);
+            changed.setLastModified(changed.lastModified() + 2000);
+            int refreshed = warm.sync(dir);
+            check(refreshed == 1, "应只刷新一个文件，实际" + refreshed);
+            check(warm.findByName("动作3新版").frameCount == 2000, "刷新后的条目错误");
+            check(warm.findByName("动作3") == null, "旧名称仍在索引中");
+
+            // 6. 下载记录哈希，删除后同步移除
+            File downloaded = new File(dir, "downloaded.ebs");
+            byte[] bytes = writeSequence(downloaded, "下载动作", 500, 7);
+            ActionCatalog.Entry added = warm.put(downloaded, bytes);
+            check(added.fileHash.length() == 32, "下载条目缺少哈希");
+            check(new File(dir, "action_0.ebs").delete(), "删除测试文件失败");
+            warm.sync(dir);
+            check(warm.findByName("动作0") == null, "已删除文件仍在目录中");
+            check(warm.size() == FILE_COUNT, "条目数错误: " + warm.size());
+            report.append("✅ 替换文件只刷新对应文件头，下载/删除同步\n");
+
+            report.append(String.format("%d个文件x%d帧: 完整解析=%.2fms, 目录冷启动=%.2fms, 目录热启动=%.2fms\n",
+                FILE_COUNT, FRAMES_PER_FILE, fullParseNs / 1e6, coldNs / 1e6, warmNs / 1e6));
+        } finally {
+            deleteRecursively(dir);
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static byte[] writeSequence(File file, String name, int frames, long seed) throws IOException {
+        byte[] bytes = SyntheticSequenceFactory.toEbs1Bytes(
+            SyntheticSequenceFactory.createSequence(name, frames, 40.0f, seed));
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(bytes);
+        }
+        return bytes;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
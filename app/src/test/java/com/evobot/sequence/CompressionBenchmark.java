@@ -0,0 +1,138 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * EBS2压缩格式基准测试
+ * 对比EBS1与EBS2的文件大小、编码耗时、解码吞吐量和本地文件冷加载耗时，
+ * 同时校验EBS2（完整解析/流式解析/文件加载）与原始数据逐帧一致
+ *
+ * 测试对象：assets中的三个内置序列 + 一个合成的100k帧序列
+ */
+public class CompressionBenchmark {
+
+    private static final String TAG = "CompressionBenchmark";
+
+    private static final String[] BUNDLED_ASSETS = {
+        "sequences/左臂挥手右臂掐腰抱胸_20260116_142711.ebs",
+        "sequences/左臂挥手_20260119_100526.ebs",
+        "sequences/左手握手动作_20260119_100444.ebs"
+    };
+    private static final int SYNTHETIC_FRAMES = 100000;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 20;
+
+    private final StringBuilder report = new StringBuilder();
+
+    /**
+     * 运行全部基准测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String runAll(Context context) throws Exception {
+        SequenceLoader loader = new SequenceLoader(context);
+
+        report.append("EBS2压缩基准测试\n");
+        report.append(String.format("%-24s %8s %10s %10s %7s %9s %10s %12s %10s %10s\n",
+            "序列", "帧数", "EBS1(B)", "EBS2(B)", "压缩比", "编码ms", "EBS2解码ms", "解码帧/ms", "EBS1冷加载", "EBS2冷加载"));
+
+        for (String assetPath : BUNDLED_ASSETS) {
+            SequenceData data = loader.loadFromAssets(assetPath);
+            String label = assetPath.substring(assetPath.lastIndexOf('/') + 1);
+            benchmark(context, loader, label, data);
+        }
+
+        SequenceData synthetic = SyntheticSequenceFactory.createSequence(
+            "synthetic_100k", SYNTHETIC_FRAMES, 40.0f, 42L);
+        benchmark(context, loader, "synthetic_100k", synthetic);
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private void benchmark(Context context, SequenceLoader loader, String label, SequenceData data) throws Exception {
+        byte[] ebs1 = SequenceEncoder.encodeEbs1(data);
+
+        // 编码耗时
+        byte[] ebs2 = null;
+        long encodeNs = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            ebs2 = SequenceEncoder.encodeEbs2(data);
+            if (i >= WARMUP_ROUNDS) {
+                encodeNs = Math.min(encodeNs, System.nanoTime() - start);
+            }
+        }
+
+        // 正确性：完整解析和流式解析
+        assertFramesEqual(data, loader.parseEbsFile(new ByteArrayInputStream(ebs2)));
+        assertFramesEqual(data, loader.parseEbsFileStreaming(new ByteArrayInputStream(ebs2),
+            SequenceLoader.DEFAULT_LOOKAHEAD_FRAMES, null));
+
+        // 解码耗时
+        long decodeNs = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            loader.parseEbsFile(new ByteArrayInputStream(ebs2));
+            if (i >= WARMUP_ROUNDS) {
+                decodeNs = Math.min(decodeNs, System.nanoTime() - start);
+            }
+        }
+
+        // 本地文件冷加载（写入新文件避免命中映射缓存）
+        long ebs1LoadNs = measureFileLoad(context, loader, ebs1, data);
+        long ebs2LoadNs = measureFileLoad(context, loader, ebs2, data);
+
+        report.append(String.format("%-24s %8d %10d %10d %6.2fx %9.3f %10.3f %12.1f %9.3fms %9.3fms\n",
+            truncate(label, 24), data.totalFrames, ebs1.length, ebs2.length, (double) ebs1.length / ebs2.length,
+            encodeNs / 1e6, decodeNs / 1e6, data.totalFrames / (decodeNs / 1e6),
+            ebs1LoadNs / 1e6, ebs2LoadNs / 1e6));
+    }
+
+    private static long measureFileLoad(Context context, SequenceLoader loader, byte[] bytes,
+                                        SequenceData expected) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            File file = new File(context.getCacheDir(), "compression_bench_" + i + ".ebs");
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                fos.write(bytes);
+            }
+            try {
+                long start = System.nanoTime();
+                SequenceData loaded = loader.loadFromFile(file);
+                best = Math.min(best, System.nanoTime() - start);
+                if (i == 0) {
+                    assertFramesEqual(expected, loaded);
+                }
+            } finally {
+                file.delete();
+            }
+        }
+        return best;
+    }
+
+    private static void assertFramesEqual(SequenceData expected, SequenceData actual) {
+        if (expected.totalFrames != actual.totalFrames) {
+            throw new AssertionError("帧数不一致: " + expected.totalFrames + " vs " + actual.totalFrames);
+        }
+        for (int frame = 0; frame < expected.totalFrames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                if (expected.getJoint(frame, joint) != actual.getJoint(frame, joint)) {
+                    throw new AssertionError(String.format("%s 帧%d关节%d不一致", expected.name, frame, joint));
+                }
+            }
+        }
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max);
+    }
+}
@@ -0,0 +1,183 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 控制调用延迟测试
+ * 以100Hz播放长序列，监听器每帧忙等6ms（占用大部分播放周期），在另一个线程上反复调用
+ * 暂停/恢复、跳转、getCurrentFrame 和 getTotalFrames，一半在帧回调执行期间调用，验证：
+ * - 每次控制调用都在一个播放周期内返回，不等待正在执行的帧回调或播放循环
+ * - 播放期间反复控制后播放仍在继续，跳转后的帧从目标位置开始
+ * Native库可用时经过Native播放路径，控制调用不再等待播放循环持有的引擎锁
+ */
+public class ControlLatencyTest {
+
+    private static final String TAG = "ControlLatencyTest";
+
+    private static final int FREQUENCY = 100;
+    private static final long PERIOD_NANOS = 1000000000L / FREQUENCY;
+    private static final long CALLBACK_NANOS = 6000000L;
+    private static final int ROUNDS = 200;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static final String[] OPERATIONS = {"pause/resume", "seek", "getCurrentFrame", "getTotalFrames"};
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        Random random = new Random(23);
+        long[] maxNanos = new long[OPERATIONS.length];
+        long[] totalNanos = new long[OPERATIONS.length];
+        int[] counts = new int[OPERATIONS.length];
+        int duringCallback = 0;
+        try {
+            player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+            // 慢速播放，保证测试期间序列不会播完
+            player.setPlaybackSpeed(0.5f);
+            BusyListener listener = new BusyListener();
+            player.play("control_latency", FREQUENCY, listener);
+            check(listener.awaitFrames(3), "播放未开始");
+            int total = player.getTotalFrames();
+            check(total > 0, "总帧数错误: " + total);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                if (round % 2 == 0) {
+                    // 等到帧回调执行中再调用
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+                    while (listener.inCallback == 0 && System.nanoTime() < deadline) {
+                        Thread.yield();
+                    }
+                    if (listener.inCallback != 0) {
+                        duringCallback++;
+                    }
+                } else {
+                    Thread.sleep(random.nextInt(10));
+                }
+
+                int op = round % OPERATIONS.length;
+                long start = System.nanoTime();
+                long elapsed;
+                switch (op) {
+                    case 0:
+                        player.pause();
+                        elapsed = System.nanoTime() - start;
+                        start = System.nanoTime();
+                        player.resume();
+                        elapsed = Math.max(elapsed, System.nanoTime() - start);
+                        break;
+                    case 1:
+                        player.seek(random.nextInt(total / 2));
+                        elapsed = System.nanoTime() - start;
+                        break;
+                    case 2:
+                        int frame = player.getCurrentFrame();
+                        elapsed = System.nanoTime() - start;
+                        check(frame >= 0 && frame <= total, "当前帧错误: " + frame);
+                        break;
+                    default:
+                        int frames = player.getTotalFrames();
+                        elapsed = System.nanoTime() - start;
+                        check(frames == total, "总帧数变化: " + frames);
+                        break;
+                }
+                check(elapsed < PERIOD_NANOS, String.format("第%d次 %s 耗时%.3fms，超过一个周期",
+                    round, OPERATIONS[op], elapsed / 1e6));
+                maxNanos[op] = Math.max(maxNanos[op], elapsed);
+                totalNanos[op] += elapsed;
+                counts[op]++;
+            }
+
+            // 反复控制后播放仍在继续
+            check(player.getState() == PlayerState.PLAYING, "控制后应仍在播放: " + player.getState());
+            int before = listener.frames.get();
+            check(listener.awaitFrames(before + 5), "控制后播放停止");
+
+            // 跳转后的帧从目标位置开始
+            int target = total / 4;
+            player.seek(target);
+            int seekFrames = listener.frames.get();
+            check(listener.awaitFrames(seekFrames + 3), "跳转后没有帧");
+            int index = listener.lastIndex;
+            check(index >= target && index < target + 10,
+                String.format("跳转到%d后的帧索引: %d", target, index));
+
+            player.stop();
+            check(listener.errors.get() == 0, "播放错误次数: " + listener.errors.get());
+        } finally {
+            player.release();
+        }
+
+        StringBuilder report = new StringBuilder(String.format(
+            "✅ 控制调用延迟: %d次（%d次在帧回调期间，周期%.0fms，回调%.0fms），均在一个周期内返回\n",
+            ROUNDS, duringCallback, PERIOD_NANOS / 1e6, CALLBACK_NANOS / 1e6));
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            report.append(String.format("   %-16s 平均%.3fms 最长%.3fms\n", OPERATIONS[op],
+                totalNanos[op] / 1e6 / Math.max(1, counts[op]), maxNanos[op] / 1e6));
+        }
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    /**
+     * 每帧忙等固定时间，记录帧数和最后一帧的索引
+     */
+    private static final class BusyListener implements FrameBufferListener {
+        final AtomicInteger frames = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        volatile int inCallback = 0;
+        volatile int lastIndex = -1;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            long start = System.nanoTime();
+            inCallback = 1;
+            while (System.nanoTime() - start < CALLBACK_NANOS) {
+                // 模拟串口写入
+            }
+            lastIndex = frameIndex;
+            frames.incrementAndGet();
+            inCallback = 0;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            errors.incrementAndGet();
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+
+        boolean awaitFrames(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (frames.get() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+            return true;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交叉淡化测试
+ * 验证 CrossfadeBlender 的权重、-1保持值处理、打断时旧序列尾部的推进，
+ * 以及队列切换时新序列开头按窗口淡入，并测量淡化期间每帧耗时
+ */
+public class CrossfadeTest {
+
+    private static final String TAG = "CrossfadeTest";
+
+    private static final int FREQUENCY = 100;
+    private static final int CROSSFADE_MS = 100;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+
+        // 1. 权重：从1000淡化到3000，窗口4帧
+        RecordingListener out = new RecordingListener();
+        CrossfadeBlender blender = new CrossfadeBlender(out);
+        Arrays.fill(left, 1000);
+        Arrays.fill(right, 1000);
+        blender.onFrameBuffer(left, right, 99);
+        blender.begin(null, 0, 4);
+        Arrays.fill(left, 3000);
+        Arrays.fill(right, 3000);
+        for (int i = 0; i < 6; i++) {
+            blender.onFrameBuffer(left, right, i);
+        }
+        int[] expected = {1000, 1400, 1800, 2200, 2600, 3000, 3000};
+        for (int i = 0; i < expected.length; i++) {
+            check(out.frames.get(i)[0] == expected[i] && out.frames.get(i)[19] == expected[i],
+                String.format("第%d帧淡化值错误: %d vs %d", i, out.frames.get(i)[0], expected[i]));
+        }
+        check(out.frameIndices.get(1) == 0, "淡化帧应保留新序列的帧索引");
+        check(!blender.isFading(), "窗口结束后应停止淡化");
+        report.append("✅ 线性权重 (k+1)/(N+1)，窗口结束后直接转发\n");
+
+        // 2. -1保持值：任一侧从未有效时取另一侧
+        out.clear();
+        blender = new CrossfadeBlender(out);
+        Arrays.fill(left, 1000);
+        left[1] = -1;
+        blender.onFrameBuffer(left, right, 0);
+        blender.begin(null, 0, 4);
+        Arrays.fill(left, 3000);
+        left[0] = -1;
+        blender.onFrameBuffer(left, right, 0);
+        check(out.frames.get(1)[0] == 1000, "新序列为-1时应保持旧位置: " + out.frames.get(1)[0]);
+        check(out.frames.get(1)[1] == 3000, "旧序列为-1时应取新位置: " + out.frames.get(1)[1]);
+        report.append("✅ -1（保持）不参与混合\n");
+
+        // 3. 打断：旧序列尾部从打断位置继续推进，-1沿用上一帧
+        SequenceData tail = createTail();
+        RecordingListener oldOut = new RecordingListener();
+        CrossfadeBlender previous = new CrossfadeBlender(oldOut);
+        Arrays.fill(left, 100);
+        Arrays.fill(right, 100);
+        previous.onFrameBuffer(left, right, 9);
+        out.clear();
+        blender = new CrossfadeBlender(out);
+        blender.begin(previous, tail, 10, 3);
+        Arrays.fill(left, 4000);
+        Arrays.fill(right, 4000);
+        for (int i = 0; i < 3; i++) {
+            blender.onFrameBuffer(left, right, i);
+        }
+        // 尾部第10帧=1000，第11帧=-1（沿用1000），第12帧=2000；新序列权重1/4、2/4、3/4
+        int[] expectedTail = {1750, 2500, 3500};
+        for (int i = 0; i < expectedTail.length; i++) {
+            check(out.frames.get(i)[0] == expectedTail[i],
+                String.format("打断淡化第%d帧错误: %d vs %d", i, out.frames.get(i)[0], expectedTail[i]));
+        }
+        report.append("✅ 打断时旧序列尾部逐帧推进\n");
+
+        // 4. 淡化期间每帧耗时
+        report.append(String.format("淡化期间每帧耗时: %.1fns\n", timePerFadedFrame()));
+
+        // 5. 队列切换：新序列开头从上一序列最后位置淡入
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+        try {
+            RecordingListener single = new RecordingListener();
+            player.play("crossfade_reference", FREQUENCY, single);
+            check(single.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "单序列播放超时");
+            int frames = single.frames.size();
+
+            player.setCrossfade(CROSSFADE_MS);
+            RecordingListener queued = new RecordingListener();
+            player.playQueue(Arrays.asList("crossfade_a", "crossfade_b"), FREQUENCY, queued);
+            check(queued.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "队列播放超时");
+            check(queued.frames.size() == frames * 2, "总帧数错误: " + queued.frames.size());
+
+            int window = CROSSFADE_MS * FREQUENCY / 1000;
+            int[] last = single.frames.get(frames - 1);
+            for (int k = 0; k < frames; k++) {
+                int[] actual = queued.frames.get(frames + k);
+                int[] target = single.frames.get(k);
+                for (int j = 0; j < SequenceData.JOINTS_PER_FRAME; j++) {
+                    int value = k < window ? blendReference(last[j], target[j], k, window) : target[j];
+                    check(Math.abs(actual[j] - value) <= 1,
+                        String.format("队列淡化第%d帧关节%d错误: %d vs %d", k, j, actual[j], value));
+                }
+            }
+            check(Arrays.equals(queued.frames.get(frames - 1), last), "淡化不应改变上一序列");
+            report.append(String.format("✅ 队列切换后%d帧（%dms）从上一序列末帧淡入，之后与单序列一致\n",
+                window, CROSSFADE_MS));
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static int blendReference(int from, int to, int k, int window) {
+        if (from == -1) {
+            return to;
+        }
+        if (to == -1) {
+            return from;
+        }
+        return (int) Math.round(from + (to - from) * (k + 1) / (double) (window + 1));
+    }
+
+    private static double timePerFadedFrame() {
+        final int rounds = 100000;
+        RecordingListener sink = new RecordingListener();
+        sink.record = false;
+        CrossfadeBlender previous = new CrossfadeBlender(sink);
+        CrossfadeBlender blender = new CrossfadeBlender(sink);
+        SequenceData tail = SyntheticSequenceFactory.createSequence("crossfade_tail", 1000, 40.0f, 11L);
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+        Arrays.fill(left, 2048);
+        Arrays.fill(right, 2048);
+        previous.onFrameBuffer(left, right, 0);
+
+        long best = Long.MAX_VALUE;
+        for (int pass = 0; pass < 5; pass++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i += 500) {
+                blender.begin(previous, tail, 0, 500);
+                for (int k = 0; k < 500; k++) {
+                    blender.onFrameBuffer(left, right, k);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / rounds;
+    }
+
+    private static SequenceData createTail() {
+        SequenceData data = new SequenceData();
+        data.name = "tail";
+        data.sampleRate = 40.0f;
+        data.totalDuration = 20 / 40.0f;
+        data.allocateFrames(20);
+        for (int frame = 0; frame < 20; frame++) {
+            int value = frame == 11 ? -1 : frame < 11 ? 1000 : 2000;
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, value);
+            }
+        }
+        return data;
+    }
+
+    private static final class RecordingListener implements FrameBufferListener {
+        final List<int[]> frames = new ArrayList<>();
+        final List<Integer> frameIndices = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        boolean record = true;
+
+        void clear() {
+            frames.clear();
+            frameIndices.clear();
+        }
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            if (!record) {
+                return;
+            }
+            int[] frame = new int[SequenceData.JOINTS_PER_FRAME];
+            System.arraycopy(leftArm, 0, frame, 0, SequenceData.JOINTS_PER_ARM);
+            System.arraycopy(rightArm, 0, frame, SequenceData.JOINTS_PER_ARM, SequenceData.JOINTS_PER_ARM);
+            frames.add(frame);
+            frameIndices.add(frameIndex);
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -327,18 +327,15 @@ public class DynamicMappingTest {
         data.name = name;
         data.sampleRate = 40.0f;
         data.totalDuration = 5.0f;
-        data.totalFrames = 200;
         data.compiledAt = (int) (System.currentTimeMillis() / 1000);
         
         // 创建简单的序列数据
-        data.leftArmSequence = new int[data.totalFrames][SequenceData.JOINTS_PER_ARM];
-        data.rightArmSequence = new int[data.totalFrames][SequenceData.JOINTS_PER_ARM];
+        data.allocateFrames(200);
         
         // 填充测试数据
         for (int frame = 0; frame < data.totalFrames; frame++) {
-            for (int joint = 0; joint < SequenceData.JOINTS_PER_ARM; joint++) {
-                data.leftArmSequence[frame][joint] = 2048;  // 中位值
-                data.rightArmSequence[frame][joint] = 2048;
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, 2048);  // 中位值
             }
         }
         
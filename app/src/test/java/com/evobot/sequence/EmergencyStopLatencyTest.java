@@ -0,0 +1,187 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 急停延迟测试
+ * 以100Hz播放，监听器每帧忙等2ms（模拟串口写入），在另一个线程上反复急停：
+ * 一半在帧回调执行期间急停，一半在帧间隔的随机时刻急停，验证：
+ * - 急停请求之后最多还有一次帧回调开始，最后一次帧回调在一个播放周期内结束
+ * - emergencyStop() 不等待正在执行的帧回调：帧回调执行期间急停时，调用返回时该回调仍未结束
+ * - onEmergencyStop 每次都被回调，之后不再有帧回调
+ * - getEmergencyStopStats() 的次数与延迟统计与实测一致
+ */
+public class EmergencyStopLatencyTest {
+
+    private static final String TAG = "EmergencyStopLatencyTest";
+
+    private static final int FREQUENCY = 100;
+    private static final long PERIOD_NANOS = 1000000000L / FREQUENCY;
+    private static final long CALLBACK_NANOS = 2000000L;
+    private static final int TRIALS = 40;
+    private static final long QUIET_MILLIS = 50;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        Random random = new Random(20);
+        long maxLatency = 0;
+        long totalLatency = 0;
+        long maxCallNanos = 0;
+        int inCallbackTrials = 0;
+        int returnedDuringCallback = 0;
+        try {
+            player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+            for (int trial = 0; trial < TRIALS; trial++) {
+                BusyListener listener = new BusyListener();
+                player.play("estop_" + trial, FREQUENCY, listener);
+                check(listener.awaitFrames(2 + random.nextInt(5)), "播放未开始: 第" + trial + "次");
+
+                boolean duringCallback = trial % 2 == 0;
+                if (duringCallback) {
+                    // 等到帧回调执行中再急停
+                    while (listener.inCallback == 0) {
+                        Thread.yield();
+                    }
+                    inCallbackTrials++;
+                } else {
+                    Thread.sleep(random.nextInt(10));
+                }
+
+                long requested = System.nanoTime();
+                player.emergencyStop();
+                long callNanos = System.nanoTime() - requested;
+                if (listener.inCallback != 0) {
+                    returnedDuringCallback++;
+                }
+                maxCallNanos = Math.max(maxCallNanos, callNanos);
+
+                Thread.sleep(QUIET_MILLIS);
+                int frames = listener.frames.get();
+                Thread.sleep(QUIET_MILLIS);
+                String label = "第" + trial + "次";
+                check(listener.frames.get() == frames, label + " 急停后仍有帧回调");
+                check(listener.emergencyStops.get() == 1, label + " onEmergencyStop回调次数: " + listener.emergencyStops.get());
+                check(listener.completes.get() == 0, label + " 急停后不应回调完成");
+                check(player.getState() == PlayerState.STOPPED, label + " 急停后应为STOPPED: " + player.getState());
+                check(listener.startsAfter(requested) <= 1, label + " 急停后开始的帧回调: " + listener.startsAfter(requested));
+
+                long latency = Math.max(0, listener.lastEndNanos - requested);
+                check(latency <= PERIOD_NANOS,
+                    String.format("%s 最后一次帧回调在急停后%.3fms结束，超过一个周期", label, latency / 1e6));
+
+                EvoBotSequencePlayer.EmergencyStopStats stats = player.getEmergencyStopStats();
+                check(stats.stops == trial + 1, label + " 急停次数统计错误: " + stats.stops);
+                check(stats.lastLatencyNanos <= PERIOD_NANOS, label + " 延迟统计超过一个周期: " + stats.lastLatencyNanos);
+                // 播放器的延迟从其内部请求时刻计到帧任务结束，应覆盖实测的回调结束时刻（允许计时误差）
+                check(stats.lastLatencyNanos + 1000000L >= latency,
+                    String.format("%s 延迟统计偏小: %.3fms < %.3fms", label, stats.lastLatencyNanos / 1e6, latency / 1e6));
+                // 重置在最后一次帧回调结束之后完成
+                check(stats.lastResponseNanos >= stats.lastLatencyNanos,
+                    String.format("%s 响应统计小于延迟: %.3fms < %.3fms", label, stats.lastResponseNanos / 1e6, stats.lastLatencyNanos / 1e6));
+                maxLatency = Math.max(maxLatency, latency);
+                totalLatency += latency;
+            }
+
+            // 急停后可以重新播放
+            BusyListener last = new BusyListener();
+            player.play("estop_final", FREQUENCY, last);
+            check(last.awaitFrames(5), "急停后无法重新播放");
+            player.stop();
+            // 在回调执行期间急停的试次中，应有调用在回调结束前就已返回（调度抖动可能使个别试次错过回调）
+            check(returnedDuringCallback > 0, "emergencyStop()总是等待正在执行的帧回调结束");
+        } finally {
+            player.release();
+        }
+
+        String report = String.format(
+            "✅ 急停延迟: %d次（%d次在帧回调期间，%d次调用返回时帧回调仍在执行），" +
+            "最后一次回调结束平均%.3fms/最长%.3fms（周期%.0fms，回调%.0fms），emergencyStop()最长耗时%.3fms，急停后无帧回调\n",
+            TRIALS, inCallbackTrials, returnedDuringCallback, totalLatency / 1e6 / TRIALS, maxLatency / 1e6,
+            PERIOD_NANOS / 1e6, CALLBACK_NANOS / 1e6, maxCallNanos / 1e6);
+        Log.d(TAG, report);
+        return report;
+    }
+
+    /**
+     * 每帧忙等固定时间，记录每次回调的开始时刻和最后一次回调的结束时刻
+     */
+    private static final class BusyListener implements FrameBufferListener {
+        final AtomicInteger frames = new AtomicInteger();
+        final AtomicInteger emergencyStops = new AtomicInteger();
+        final AtomicInteger completes = new AtomicInteger();
+        final long[] startNanos = new long[4096];
+        volatile int inCallback = 0;
+        volatile long lastEndNanos = 0;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            long start = System.nanoTime();
+            inCallback = 1;
+            int index = frames.get();
+            if (index < startNanos.length) {
+                startNanos[index] = start;
+            }
+            while (System.nanoTime() - start < CALLBACK_NANOS) {
+                // 模拟串口写入
+            }
+            lastEndNanos = System.nanoTime();
+            frames.incrementAndGet();
+            inCallback = 0;
+        }
+
+        @Override
+        public void onComplete() {
+            completes.incrementAndGet();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+            emergencyStops.incrementAndGet();
+        }
+
+        boolean awaitFrames(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (frames.get() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+            return true;
+        }
+
+        int startsAfter(long nanos) {
+            int count = 0;
+            int total = Math.min(frames.get(), startNanos.length);
+            for (int i = 0; i < total; i++) {
+                if (startNanos[i] > nanos) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
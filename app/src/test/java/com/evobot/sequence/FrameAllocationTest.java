@@ -0,0 +1,153 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * 帧交付内存分配测试
+ * 用线程分配计数器（HotSpot的 com.sun.management.ThreadMXBean）测量稳态播放每帧分配的字节数：
+ * - FrameBufferListener + 预解析帧表
+ * - FrameBufferListener + 逐帧填充
+ * - 旧 SequenceListener（经适配器，每帧复制两个新数组）作为对照
+ * 同时验证双缓冲约定：上一帧的缓冲区在下一次回调期间保持不变
+ */
+public class FrameAllocationTest {
+
+    private static final String TAG = "FrameAllocationTest";
+
+    private static final int FRAME_COUNT = 100000;
+    private static final int WARMUP_PASSES = 3;
+    private static final long ALLOWED_BYTES = 1024;  // 测量本身的误差
+
+    /**
+     * 运行测试
+     *
+     * @return 报告文本
+     */
+    public String run() {
+        StringBuilder report = new StringBuilder();
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            report.append("⚠️ 当前JVM不支持线程分配计数，跳过\n");
+            Log.d(TAG, report.toString());
+            return report.toString();
+        }
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+        allocation.setThreadAllocatedMemoryEnabled(true);
+
+        SequenceData data = SyntheticSequenceFactory.createSequence("alloc_100k", FRAME_COUNT, 40.0f, 5L);
+        data.buildHoldCheckpoints();
+        SequenceData resolved = SyntheticSequenceFactory.createSequence("alloc_100k", FRAME_COUNT, 40.0f, 5L);
+        resolved.buildResolvedFrames();
+
+        ContractCheckingListener checker = new ContractCheckingListener();
+
+        FrameRenderer fillRenderer = new FrameRenderer();
+        fillRenderer.setPreResolveHolds(false, null, 0);
+        long fillBytes = measure(allocation, fillRenderer, data, checker);
+
+        long resolvedBytes = measure(allocation, new FrameRenderer(), resolved, checker);
+
+        SequenceListenerAdapter adapter = new SequenceListenerAdapter(new CountingSequenceListener());
+        long legacyBytes = measure(allocation, new FrameRenderer(), resolved, adapter);
+
+        check(checker.violations == 0, "双缓冲约定被破坏: " + checker.violations + "次");
+        report.append("✅ 上一帧缓冲区在下一次回调期间保持不变\n");
+
+        report.append(String.format("%d帧每帧分配: 预解析=%.3fB, 逐帧填充=%.3fB, 旧接口(适配器)=%.1fB\n",
+            FRAME_COUNT, (double) resolvedBytes / FRAME_COUNT, (double) fillBytes / FRAME_COUNT,
+            (double) legacyBytes / FRAME_COUNT));
+        check(resolvedBytes <= ALLOWED_BYTES, "预解析路径存在每帧分配: " + resolvedBytes + " bytes");
+        check(fillBytes <= ALLOWED_BYTES, "逐帧填充路径存在每帧分配: " + fillBytes + " bytes");
+        report.append("✅ 稳态播放每帧零分配\n");
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    /**
+     * 预热后测量一次完整播放分配的字节数
+     */
+    private static long measure(com.sun.management.ThreadMXBean allocation, FrameRenderer renderer,
+                                SequenceData data, FrameBufferListener listener) {
+        long threadId = Thread.currentThread().getId();
+        long bytes = 0;
+        for (int pass = 0; pass <= WARMUP_PASSES; pass++) {
+            renderer.reset();
+            long before = allocation.getThreadAllocatedBytes(threadId);
+            for (int frame = 0; frame < data.totalFrames; frame++) {
+                renderer.render(data, frame, listener);
+            }
+            bytes = allocation.getThreadAllocatedBytes(threadId) - before;
+        }
+        return bytes;
+    }
+
+    /**
+     * 检查上一帧缓冲区内容在本次回调期间未被改写
+     */
+    private static final class ContractCheckingListener implements FrameBufferListener {
+        private final int[] previousLeftCopy = new int[SequenceData.JOINTS_PER_ARM];
+        private final int[] previousRightCopy = new int[SequenceData.JOINTS_PER_ARM];
+        private int[] previousLeft;
+        private int[] previousRight;
+        int violations;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            if (previousLeft != null && frameIndex > 0) {
+                if (previousLeft == leftArm || !Arrays.equals(previousLeft, previousLeftCopy)
+                        || !Arrays.equals(previousRight, previousRightCopy)) {
+                    violations++;
+                }
+            }
+            System.arraycopy(leftArm, 0, previousLeftCopy, 0, SequenceData.JOINTS_PER_ARM);
+            System.arraycopy(rightArm, 0, previousRightCopy, 0, SequenceData.JOINTS_PER_ARM);
+            previousLeft = leftArm;
+            previousRight = rightArm;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static final class CountingSequenceListener implements SequenceListener {
+        long checksum;
+
+        @Override
+        public void onFrameData(int[] leftArm, int[] rightArm, int frameIndex) {
+            checksum += leftArm[0] + rightArm[0];
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
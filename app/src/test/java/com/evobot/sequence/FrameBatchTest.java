@@ -0,0 +1,180 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量交付测试
+ * 以逐帧播放的输出为基准，验证批量交付的帧内容与顺序一致、批内时间戳按帧周期递增、
+ * 回调次数按批量帧数减少，以及批次中途暂停时的取消通知和恢复后的重新交付
+ */
+public class FrameBatchTest {
+
+    private static final String TAG = "FrameBatchTest";
+
+    private static final int FREQUENCY = 100;
+    private static final int BATCH_SIZE = 8;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+
+        try {
+            // 1. 逐帧播放作为基准
+            RecordingListener reference = new RecordingListener();
+            player.play("batch_reference", FREQUENCY, reference);
+            check(reference.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "逐帧播放超时");
+
+            // 2. 批量播放：帧内容、顺序与逐帧一致
+            player.setBatchSize(BATCH_SIZE);
+            RecordingBatchListener batched = new RecordingBatchListener(null);
+            player.play("batch_reference", FREQUENCY, batched);
+            check(batched.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "批量播放超时");
+
+            check(batched.frames.size() == reference.frames.size(),
+                String.format("帧数不一致: %d vs %d", batched.frames.size(), reference.frames.size()));
+            for (int i = 0; i < reference.frames.size(); i++) {
+                check(Arrays.equals(reference.frames.get(i), batched.frames.get(i)), "帧内容不一致: " + i);
+            }
+            int expectedBatches = (reference.frames.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+            check(batched.batches == expectedBatches,
+                String.format("批次数错误: %d vs %d", batched.batches, expectedBatches));
+            check(batched.timestampErrors == 0, "批内时间戳间隔错误: " + batched.timestampErrors + "次");
+            report.append(String.format("✅ %d帧: 逐帧回调%d次，批量(%d帧/批)回调%d次，内容一致\n",
+                reference.frames.size(), reference.frames.size(), BATCH_SIZE, batched.batches));
+
+            // 3. 时间窗换算
+            player.setBatchWindow(50);
+            check(player.getBatchSize(FREQUENCY) == 5, "50ms@100Hz应为5帧: " + player.getBatchSize(FREQUENCY));
+            check(player.getBatchSize(10) == 1, "50ms@10Hz应至少1帧: " + player.getBatchSize(10));
+            report.append("✅ 时间窗换算每批帧数\n");
+
+            // 4. 批次中途暂停：通知剩余帧数，恢复后从当前帧重新交付
+            player.setBatchSize(32);
+            final CountDownLatch firstBatch = new CountDownLatch(1);
+            RecordingBatchListener paused = new RecordingBatchListener(firstBatch);
+            player.play("batch_reference", FREQUENCY, paused);
+            check(firstBatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "未收到第一批");
+            Thread.sleep(50);
+            player.pause();
+            int pausedFrame = player.getCurrentFrame();
+            check(paused.cancelled > 0, "暂停时未通知取消");
+            check(pausedFrame + paused.cancelled == paused.lastBatchEnd,
+                String.format("取消帧数错误: 当前帧%d + 取消%d != 已交付%d", pausedFrame, paused.cancelled, paused.lastBatchEnd));
+            int deliveredBeforeResume = paused.frameIndices.size();
+            player.resume();
+            check(paused.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "恢复后播放超时");
+            check(paused.frameIndices.get(deliveredBeforeResume) == pausedFrame,
+                "恢复后应从暂停帧重新交付: " + paused.frameIndices.get(deliveredBeforeResume));
+            report.append(String.format("✅ 第%d帧暂停：取消%d帧，恢复后从第%d帧重新交付\n",
+                pausedFrame, paused.cancelled, pausedFrame));
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static int[] concat(int[] left, int leftOffset, int[] right, int rightOffset) {
+        int[] frame = new int[SequenceData.JOINTS_PER_FRAME];
+        System.arraycopy(left, leftOffset, frame, 0, SequenceData.JOINTS_PER_ARM);
+        System.arraycopy(right, rightOffset, frame, SequenceData.JOINTS_PER_ARM, SequenceData.JOINTS_PER_ARM);
+        return frame;
+    }
+
+    private static final class RecordingListener implements FrameBufferListener {
+        final List<int[]> frames = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            frames.add(concat(leftArm, 0, rightArm, 0));
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static final class RecordingBatchListener implements FrameBatchListener {
+        final List<int[]> frames = new ArrayList<>();
+        final List<Integer> frameIndices = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        private final CountDownLatch firstBatch;
+        int batches;
+        int timestampErrors;
+        int cancelled;
+        int lastBatchEnd;
+
+        RecordingBatchListener(CountDownLatch firstBatch) {
+            this.firstBatch = firstBatch;
+        }
+
+        @Override
+        public void onFrameBatch(int[] leftArms, int[] rightArms, int[] indices, long[] timestampsNanos,
+                                 int frameCount) {
+            long period = 1000000000L / FREQUENCY;
+            for (int i = 0; i < frameCount; i++) {
+                int offset = i * SequenceData.JOINTS_PER_ARM;
+                frames.add(concat(leftArms, offset, rightArms, offset));
+                frameIndices.add(indices[i]);
+                if (i > 0 && timestampsNanos[i] - timestampsNanos[i - 1] != period) {
+                    timestampErrors++;
+                }
+            }
+            lastBatchEnd = indices[frameCount - 1] + 1;
+            batches++;
+            if (firstBatch != null) {
+                firstBatch.countDown();
+            }
+        }
+
+        @Override
+        public void onBatchCancelled(int remainingFrames) {
+            cancelled = remainingFrames;
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
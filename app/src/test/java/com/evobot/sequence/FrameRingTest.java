@@ -0,0 +1,395 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 帧环形缓冲区测试
+ * - 并发写入/读取：读取方间歇停顿使环被反复覆盖，读到的帧内容完整、顺序递增，读取帧数 + 丢失帧数 = 发布帧数
+ * - 播放到帧环：内容与逐帧回调播放一致，监听器不再收到帧回调，读取方按自己的节奏（每25ms）批量读取
+ * - 读取方很慢时播放线程不被阻塞：帧按周期发布、不产生回调超时，被覆盖的帧计入丢失
+ * - Native写入端的布局：读取 Native 层测试（frame_ring.rs）断言写入端逐字节产生的帧环内容，帧与写入时一致
+ * - 每帧发布/读取耗时
+ */
+public class FrameRingTest {
+
+    private static final String TAG = "FrameRingTest";
+
+    private static final int FREQUENCY = 100;
+    private static final int STRESS_FRAMES = 200000;
+    private static final int STRESS_CAPACITY = 64;
+    private static final long DRAIN_INTERVAL_MILLIS = 25;
+    private static final long SLOW_DRAIN_INTERVAL_MILLIS = 200;
+    private static final int SLOW_CAPACITY = 16;
+    private static final int BENCH_FRAMES = 1000000;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    // FrameRing(2) 依次发布3帧后的缓冲区（小端）；Native层 frame_ring.rs 的测试断言其写入端产生完全相同的字节。
+    // 第i帧帧索引为100+i，输出时间为1000000000+i*10000000，左臂第j个关节为i*100+j，右臂j%3==0时为-1，否则为2000+i*100+j
+    private static final String NATIVE_RING_AFTER_3_FRAMES =
+        "03000000000000000200000040000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000" +
+        "060000000000000000f7cb3c000000006600000000000000c800c900ca00cb00cc00cd00ce00cf00d000d100ffff99089a08ffff9c089d08ffff9f08a008ffff" +
+        "04000000000000008060333c0000000065000000000000006400650066006700680069006a006b006c006d00ffff35083608ffff38083908ffff3b083c08ffff";
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        report.append(nativeLayout());
+        report.append(concurrentStress());
+
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        try {
+            player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+            player.setPlaybackSpeed(2.0f);
+            report.append(playToRing(player));
+            report.append(slowConsumer(player));
+        } finally {
+            player.release();
+        }
+        report.append(benchmark());
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    /**
+     * 读取Native写入端产生的帧环内容：第0帧已被覆盖计入丢失，第1、2帧按写入时的内容交付
+     */
+    private static String nativeLayout() {
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            return "⚠️ 非小端平台，跳过Native帧环布局对比\n";
+        }
+        FrameRing ring = new FrameRing(2);
+        ByteBuffer buffer = ring.buffer();
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) Integer.parseInt(NATIVE_RING_AFTER_3_FRAMES.substring(i * 2, i * 2 + 2), 16));
+        }
+
+        final List<int[]> frames = new ArrayList<>();
+        int drained = ring.drain(new FrameRing.Consumer() {
+            @Override
+            public void onFrame(int[] leftArm, int[] rightArm, int frameIndex, long timestampNanos) {
+                int[] frame = new int[2 + 2 * SequenceData.JOINTS_PER_ARM];
+                frame[0] = frameIndex;
+                frame[1] = (int) (timestampNanos - 1000000000L);
+                System.arraycopy(leftArm, 0, frame, 2, SequenceData.JOINTS_PER_ARM);
+                System.arraycopy(rightArm, 0, frame, 2 + SequenceData.JOINTS_PER_ARM, SequenceData.JOINTS_PER_ARM);
+                frames.add(frame);
+            }
+        }, Integer.MAX_VALUE);
+
+        check(ring.getPublishedFrames() == 3, "Native帧环已发布帧数: " + ring.getPublishedFrames());
+        check(drained == 2 && ring.getLostFrames() == 1,
+            String.format("Native帧环读取%d帧/丢失%d帧，应为2/1", drained, ring.getLostFrames()));
+        for (int n = 0; n < drained; n++) {
+            int i = n + 1;
+            int[] expected = new int[2 + 2 * SequenceData.JOINTS_PER_ARM];
+            expected[0] = 100 + i;
+            expected[1] = i * 10000000;
+            for (int j = 0; j < SequenceData.JOINTS_PER_ARM; j++) {
+                expected[2 + j] = i * 100 + j;
+                expected[2 + SequenceData.JOINTS_PER_ARM + j] = j % 3 == 0 ? -1 : 2000 + i * 100 + j;
+            }
+            check(Arrays.equals(expected, frames.get(n)), "Native帧环第" + i + "帧内容不一致: " + Arrays.toString(frames.get(n)));
+        }
+        return "✅ Native写入端布局: 读取2帧（1帧被覆盖），帧索引/输出时间/关节值与写入一致\n";
+    }
+
+    /**
+     * 写入方全速发布，读取方间歇停顿，验证不会读到不完整的帧
+     */
+    private static String concurrentStress() throws InterruptedException {
+        final FrameRing ring = new FrameRing(STRESS_CAPACITY);
+        final int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        final int[] right = new int[SequenceData.JOINTS_PER_ARM];
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < STRESS_FRAMES; i++) {
+                    fill(i, left, right);
+                    ring.publish(left, right, i, i);
+                }
+            }
+        }, "RingProducer");
+
+        final CheckingConsumer consumer = new CheckingConsumer();
+        producer.start();
+        int pass = 0;
+        while (producer.isAlive()) {
+            ring.drain(consumer, 1 + (pass++ % 50));
+            if (pass % 7 == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        ring.drain(consumer, Integer.MAX_VALUE);
+
+        check(consumer.torn == 0, "读到不完整的帧: " + consumer.torn);
+        check(consumer.outOfOrder == 0, "帧顺序错误: " + consumer.outOfOrder);
+        check(ring.getPublishedFrames() == STRESS_FRAMES, "发布帧数错误: " + ring.getPublishedFrames());
+        check(consumer.frames + ring.getLostFrames() == STRESS_FRAMES,
+            String.format("读取%d + 丢失%d != 发布%d", consumer.frames, ring.getLostFrames(), STRESS_FRAMES));
+        check(consumer.lastIndex == STRESS_FRAMES - 1, "未读到最后一帧: " + consumer.lastIndex);
+        return String.format("✅ 并发读写: 发布%d帧（%d槽位），读取%d帧，覆盖丢失%d帧，无不完整帧\n",
+            STRESS_FRAMES, STRESS_CAPACITY, consumer.frames, ring.getLostFrames());
+    }
+
+    /**
+     * 播放到帧环，读取方每25ms读取一次，内容与逐帧回调一致
+     */
+    private static String playToRing(EvoBotSequencePlayer player) throws InterruptedException {
+        // 逐帧回调作为基准
+        RecordingListener reference = new RecordingListener();
+        player.setFrameRing(null);
+        player.play("ring_playback", FREQUENCY, reference);
+        check(reference.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "逐帧播放超时");
+
+        FrameRing ring = new FrameRing(1024);
+        RecordingListener events = new RecordingListener();
+        RecordingConsumer consumer = new RecordingConsumer();
+        player.setFrameRing(ring);
+        player.play("ring_playback", FREQUENCY, events);
+        Drainer drainer = new Drainer(ring, consumer, DRAIN_INTERVAL_MILLIS, events.done);
+        drainer.start();
+        drainer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        check(!drainer.isAlive() && events.done.getCount() == 0, "帧环播放超时");
+        check(drainer.failure.get() == null, "读取线程异常: " + drainer.failure.get());
+        player.setFrameRing(null);
+
+        check(events.frames.size() == 0, "设置帧环后监听器仍收到帧回调: " + events.frames.size());
+        check(ring.getLostFrames() == 0, "读取及时时不应丢帧: " + ring.getLostFrames());
+        check(consumer.frames.size() == reference.frames.size(),
+            String.format("帧数不一致: %d/%d", consumer.frames.size(), reference.frames.size()));
+        for (int i = 0; i < reference.frames.size(); i++) {
+            check(Arrays.equals(consumer.frames.get(i), reference.frames.get(i)), "第" + i + "帧内容不一致");
+        }
+        check(consumer.timestampsIncreasing, "输出时间未递增");
+        return String.format("✅ 播放到帧环: %d帧与逐帧回调一致，监听器无帧回调，读取%d次（每%dms），平均每次%.1f帧\n",
+            consumer.frames.size(), drainer.drains, DRAIN_INTERVAL_MILLIS,
+            (double) consumer.frames.size() / Math.max(1, drainer.drains));
+    }
+
+    /**
+     * 读取方每200ms才读取一次，播放线程不被阻塞
+     */
+    private static String slowConsumer(EvoBotSequencePlayer player) throws InterruptedException {
+        FrameRing ring = new FrameRing(SLOW_CAPACITY);
+        RecordingListener events = new RecordingListener();
+        RecordingConsumer consumer = new RecordingConsumer();
+        // 原速播放，相邻输出帧的帧索引相差1
+        player.setPlaybackSpeed(1.0f);
+        player.resetOverrunStats();
+        player.setFrameRing(ring);
+        player.play("ring_slow", FREQUENCY, events);
+        Drainer drainer = new Drainer(ring, consumer, SLOW_DRAIN_INTERVAL_MILLIS, events.done);
+        drainer.start();
+        drainer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        check(!drainer.isAlive() && events.done.getCount() == 0, "慢速读取时播放超时");
+        player.setFrameRing(null);
+
+        long published = ring.getPublishedFrames();
+        int total = player.getTotalFrames();
+        EvoBotSequencePlayer.OverrunStats stats = player.getOverrunStats();
+        check(ring.getLostFrames() > 0, "慢速读取时应有帧被覆盖");
+        check(consumer.frames.size() + ring.getLostFrames() == published,
+            String.format("读取%d + 丢失%d != 发布%d", consumer.frames.size(), ring.getLostFrames(), published));
+        check(stats.overruns == 0, "播放线程被读取方阻塞，回调超时: " + stats.overruns);
+        // 发布间隔按周期：最后一帧相对第一帧的时间与帧序号之比接近帧周期
+        long periodNanos = 1000000000L / FREQUENCY;
+        double interval = (double) (consumer.lastTimestamp - consumer.firstTimestamp) / (consumer.lastSequence - consumer.firstSequence);
+        check(Math.abs(interval - periodNanos) < periodNanos * 0.1,
+            String.format("发布间隔偏离周期: %.2fms", interval / 1e6));
+        return String.format("✅ 慢速读取: 每%dms读取（%d槽位），发布%d帧/共%d帧，读取%d帧，覆盖丢失%d帧，平均发布间隔%.2fms，回调超时0次\n",
+            SLOW_DRAIN_INTERVAL_MILLIS, SLOW_CAPACITY, published, total, consumer.frames.size(), ring.getLostFrames(),
+            interval / 1e6);
+    }
+
+    /**
+     * 每帧发布/读取耗时
+     */
+    private static String benchmark() {
+        FrameRing ring = new FrameRing(1024);
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+        fill(1, left, right);
+        final long[] sum = new long[1];
+        FrameRing.Consumer consumer = new FrameRing.Consumer() {
+            @Override
+            public void onFrame(int[] leftArm, int[] rightArm, int frameIndex, long timestampNanos) {
+                sum[0] += leftArm[0] + rightArm[9] + frameIndex;
+            }
+        };
+        long publishNanos = 0;
+        long drainNanos = 0;
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            publishNanos = 0;
+            drainNanos = 0;
+            for (int i = 0; i < BENCH_FRAMES; i += 512) {
+                long start = System.nanoTime();
+                for (int k = 0; k < 512; k++) {
+                    ring.publish(left, right, i + k, i + k);
+                }
+                long published = System.nanoTime();
+                ring.drain(consumer, 512);
+                publishNanos += published - start;
+                drainNanos += System.nanoTime() - published;
+            }
+        }
+        check(ring.getLostFrames() == 0, "基准测试不应丢帧");
+        return String.format("每帧耗时: 发布%.1fns, 读取%.1fns (校验和%d)\n",
+            (double) publishNanos / BENCH_FRAMES, (double) drainNanos / BENCH_FRAMES, sum[0] & 0xFF);
+    }
+
+    private static void fill(int index, int[] left, int[] right) {
+        for (int j = 0; j < left.length; j++) {
+            left[j] = (index * 7 + j) & 0xFFF;
+            right[j] = (index * 13 + j) & 0xFFF;
+        }
+    }
+
+    /**
+     * 按固定间隔读取帧环，播放完成后再读取一次剩余的帧
+     */
+    private static final class Drainer extends Thread {
+        final FrameRing ring;
+        final FrameRing.Consumer consumer;
+        final long intervalMillis;
+        final CountDownLatch done;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        int drains = 0;
+
+        Drainer(FrameRing ring, FrameRing.Consumer consumer, long intervalMillis, CountDownLatch done) {
+            super("RingDrainer");
+            this.ring = ring;
+            this.consumer = consumer;
+            this.intervalMillis = intervalMillis;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                boolean finished;
+                do {
+                    finished = done.await(intervalMillis, TimeUnit.MILLISECONDS);
+                    if (ring.drain(consumer, Integer.MAX_VALUE) > 0) {
+                        drains++;
+                    }
+                } while (!finished);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }
+    }
+
+    /**
+     * 检查帧内容与帧索引对应、帧索引递增
+     */
+    private static final class CheckingConsumer implements FrameRing.Consumer {
+        int frames = 0;
+        int torn = 0;
+        int outOfOrder = 0;
+        int lastIndex = -1;
+        final int[] expectedLeft = new int[SequenceData.JOINTS_PER_ARM];
+        final int[] expectedRight = new int[SequenceData.JOINTS_PER_ARM];
+
+        @Override
+        public void onFrame(int[] leftArm, int[] rightArm, int frameIndex, long timestampNanos) {
+            fill(frameIndex, expectedLeft, expectedRight);
+            if (!Arrays.equals(leftArm, expectedLeft) || !Arrays.equals(rightArm, expectedRight)
+                    || timestampNanos != frameIndex) {
+                torn++;
+            }
+            if (frameIndex <= lastIndex) {
+                outOfOrder++;
+            }
+            lastIndex = frameIndex;
+            frames++;
+        }
+    }
+
+    /**
+     * 记录读取到的帧（左右臂合并复制）和输出时间
+     */
+    private static final class RecordingConsumer implements FrameRing.Consumer {
+        final List<int[]> frames = new ArrayList<>();
+        boolean timestampsIncreasing = true;
+        long firstTimestamp = -1;
+        long lastTimestamp = -1;
+        int firstSequence = -1;
+        int lastSequence = -1;
+
+        @Override
+        public void onFrame(int[] leftArm, int[] rightArm, int frameIndex, long timestampNanos) {
+            frames.add(copyFrame(leftArm, rightArm, frameIndex));
+            if (lastTimestamp >= 0 && timestampNanos <= lastTimestamp) {
+                timestampsIncreasing = false;
+            }
+            if (firstTimestamp < 0) {
+                firstTimestamp = timestampNanos;
+                firstSequence = frameIndex;
+            }
+            lastTimestamp = timestampNanos;
+            lastSequence = frameIndex;
+        }
+    }
+
+    /**
+     * 记录逐帧回调的帧和完成事件
+     */
+    private static final class RecordingListener implements FrameBufferListener {
+        final List<int[]> frames = new ArrayList<>();
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            frames.add(copyFrame(leftArm, rightArm, frameIndex));
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static int[] copyFrame(int[] leftArm, int[] rightArm, int frameIndex) {
+        int[] frame = new int[SequenceData.JOINTS_PER_FRAME + 1];
+        System.arraycopy(leftArm, 0, frame, 0, SequenceData.JOINTS_PER_ARM);
+        System.arraycopy(rightArm, 0, frame, SequenceData.JOINTS_PER_ARM, SequenceData.JOINTS_PER_ARM);
+        frame[SequenceData.JOINTS_PER_FRAME] = frameIndex;
+        return frame;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
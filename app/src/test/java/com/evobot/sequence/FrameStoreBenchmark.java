@@ -0,0 +1,234 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 帧存储基准测试
+ * 对比旧的 int[帧][10] 交错数组布局与 SequenceData 紧凑帧存储的内存占用和吞吐量
+ *
+ * 测试对象：assets中的三个内置序列 + 一个合成的100k帧序列
+ * 建议在RK3399目标板上运行，结果通过Log输出并返回报告文本
+ */
+public class FrameStoreBenchmark {
+
+    private static final String TAG = "FrameStoreBenchmark";
+
+    private static final String[] BUNDLED_ASSETS = {
+        "sequences/左臂挥手右臂掐腰抱胸_20260116_142711.ebs",
+        "sequences/左臂挥手_20260119_100526.ebs",
+        "sequences/左手握手动作_20260119_100444.ebs"
+    };
+    private static final int SYNTHETIC_FRAMES = 100000;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 20;
+    private static final int RETAINED_COPIES = 20;   // 测量堆占用时保留的副本数
+
+    // 对象布局估算（ART/HotSpot压缩指针下的典型值）
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int BUFFER_OBJECT_BYTES = 48;
+
+    private final StringBuilder report = new StringBuilder();
+    private long blackhole;
+
+    /**
+     * 运行全部基准测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String runAll(Context context) throws Exception {
+        SequenceLoader loader = new SequenceLoader(context);
+
+        report.append("帧存储基准测试: int[][] 交错数组 vs 紧凑帧存储\n");
+        report.append(String.format("%-24s %8s %12s %12s %10s %10s %12s %12s\n",
+            "序列", "帧数", "旧布局(B)", "新布局(B)", "旧解析ms", "新解析ms", "旧扫描帧/ms", "新扫描帧/ms"));
+
+        for (String assetPath : BUNDLED_ASSETS) {
+            byte[] bytes = loader.loadRawBytesFromAssets(assetPath);
+            String label = assetPath.substring(assetPath.lastIndexOf('/') + 1);
+            benchmark(loader, label, bytes);
+        }
+
+        SequenceData synthetic = SyntheticSequenceFactory.createSequence(
+            "synthetic_100k", SYNTHETIC_FRAMES, 40.0f, 42L);
+        benchmark(loader, "synthetic_100k", SyntheticSequenceFactory.toEbs1Bytes(synthetic));
+
+        measureRetainedHeap(loader, SyntheticSequenceFactory.toEbs1Bytes(synthetic));
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    /**
+     * 单个序列的对比测试
+     */
+    private void benchmark(SequenceLoader loader, String label, byte[] bytes) throws Exception {
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+
+        // 预热
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            int[][][] warmLegacy = parseLegacy(bytes);
+            SequenceData warmPacked = loader.parseEbsFile(new ByteArrayInputStream(bytes));
+            blackhole += scanLegacy(warmLegacy[0], warmLegacy[1], left, right);
+            blackhole += scanPacked(warmPacked, left, right);
+        }
+
+        // 解析耗时
+        long legacyParseNs = Long.MAX_VALUE;
+        long packedParseNs = Long.MAX_VALUE;
+        int[][][] legacy = null;
+        SequenceData packed = null;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            legacy = parseLegacy(bytes);
+            legacyParseNs = Math.min(legacyParseNs, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            packed = loader.parseEbsFile(new ByteArrayInputStream(bytes));
+            packedParseNs = Math.min(packedParseNs, System.nanoTime() - start);
+        }
+
+        // 顺序扫描全部帧（模拟播放读取）
+        long legacyScanNs = Long.MAX_VALUE;
+        long packedScanNs = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            blackhole += scanLegacy(legacy[0], legacy[1], left, right);
+            legacyScanNs = Math.min(legacyScanNs, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            blackhole += scanPacked(packed, left, right);
+            packedScanNs = Math.min(packedScanNs, System.nanoTime() - start);
+        }
+
+        int frames = packed.totalFrames;
+        report.append(String.format("%-24s %8d %12d %12d %10.3f %10.3f %12.1f %12.1f\n",
+            truncate(label, 24), frames, estimateLegacyBytes(frames), estimatePackedBytes(frames),
+            legacyParseNs / 1e6, packedParseNs / 1e6,
+            frames / (legacyScanNs / 1e6), frames / (packedScanNs / 1e6)));
+    }
+
+    /**
+     * 实测堆占用：分别保留多个副本并统计堆增量
+     */
+    private void measureRetainedHeap(SequenceLoader loader, byte[] bytes) throws Exception {
+        Object[] retained = new Object[RETAINED_COPIES];
+
+        long before = usedHeap();
+        for (int i = 0; i < RETAINED_COPIES; i++) {
+            retained[i] = parseLegacy(bytes);
+        }
+        long legacyBytes = (usedHeap() - before) / RETAINED_COPIES;
+        java.util.Arrays.fill(retained, null);
+
+        before = usedHeap();
+        for (int i = 0; i < RETAINED_COPIES; i++) {
+            retained[i] = loader.parseEbsFile(new ByteArrayInputStream(bytes));
+        }
+        long packedBytes = (usedHeap() - before) / RETAINED_COPIES;
+        blackhole += retained.length;
+
+        report.append(String.format("实测堆占用(100k帧, 每份): 旧布局=%d bytes (%d个对象), 新布局=%d bytes (1个数组)\n",
+            legacyBytes, 2 + 2 * SYNTHETIC_FRAMES, packedBytes));
+    }
+
+    /**
+     * 旧布局解析：与改造前 SequenceLoader.parseEbsFile 的读取和数据区解析逻辑一致
+     */
+    private static int[][][] parseLegacy(byte[] bytes) throws java.io.IOException {
+        byte[] fileData = readAllBytes(new ByteArrayInputStream(bytes));
+        ByteBuffer buffer = ByteBuffer.wrap(fileData);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int frameCount = buffer.getInt(4);
+        buffer.position(96);
+
+        int[][] leftArmSequence = new int[frameCount][SequenceData.JOINTS_PER_ARM];
+        int[][] rightArmSequence = new int[frameCount][SequenceData.JOINTS_PER_ARM];
+        for (int frame = 0; frame < frameCount; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                int pos = buffer.getShort() & 0xFFFF;
+                if (pos == SequenceData.HOLD_SENTINEL) {
+                    pos = -1;
+                }
+                if (joint < SequenceData.JOINTS_PER_ARM) {
+                    leftArmSequence[frame][joint] = pos;
+                } else {
+                    rightArmSequence[frame][joint - SequenceData.JOINTS_PER_ARM] = pos;
+                }
+            }
+        }
+        return new int[][][]{leftArmSequence, rightArmSequence};
+    }
+
+    private static byte[] readAllBytes(java.io.InputStream inputStream) throws java.io.IOException {
+        java.io.ByteArrayOutputStream buffer = new java.io.ByteArrayOutputStream();
+        byte[] data = new byte[8192];
+        int bytesRead;
+        while ((bytesRead = inputStream.read(data, 0, data.length)) != -1) {
+            buffer.write(data, 0, bytesRead);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 两种布局的扫描都把每帧读入工作缓冲再求和，与播放时逐帧取数据的方式一致
+     */
+    private static long scanLegacy(int[][] leftArmSequence, int[][] rightArmSequence, int[] left, int[] right) {
+        long sum = 0;
+        for (int frame = 0; frame < leftArmSequence.length; frame++) {
+            System.arraycopy(leftArmSequence[frame], 0, left, 0, SequenceData.JOINTS_PER_ARM);
+            System.arraycopy(rightArmSequence[frame], 0, right, 0, SequenceData.JOINTS_PER_ARM);
+            for (int j = 0; j < SequenceData.JOINTS_PER_ARM; j++) {
+                sum += left[j] + right[j];
+            }
+        }
+        return sum;
+    }
+
+    private static long scanPacked(SequenceData data, int[] left, int[] right) {
+        long sum = 0;
+        for (int frame = 0; frame < data.totalFrames; frame++) {
+            data.copyLeftArmFrame(frame, left);
+            data.copyRightArmFrame(frame, right);
+            for (int j = 0; j < SequenceData.JOINTS_PER_ARM; j++) {
+                sum += left[j] + right[j];
+            }
+        }
+        return sum;
+    }
+
+    private static long estimateLegacyBytes(int frames) {
+        long outer = ARRAY_HEADER_BYTES + (long) frames * REFERENCE_BYTES;
+        long inner = align8(ARRAY_HEADER_BYTES + SequenceData.JOINTS_PER_ARM * 4);
+        return 2 * (align8(outer) + frames * inner);
+    }
+
+    private static long estimatePackedBytes(int frames) {
+        return BUFFER_OBJECT_BYTES + align8(ARRAY_HEADER_BYTES + (long) frames * SequenceData.JOINTS_PER_FRAME * 2);
+    }
+
+    private static long align8(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max);
+    }
+}
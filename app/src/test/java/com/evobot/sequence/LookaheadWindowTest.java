@@ -0,0 +1,189 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * 前瞻窗口测试
+ * 逐帧播放时在回调内读取窗口，验证窗口内容与预解析帧表一致、当前帧与交付缓冲区一致、
+ * 序列末尾和流式加载进度处窗口大小正确，并测量每帧更新与读取窗口的耗时和分配
+ */
+public class LookaheadWindowTest {
+
+    private static final String TAG = "LookaheadWindowTest";
+
+    private static final int SYNTHETIC_FRAMES = 100000;
+    private static final int WINDOW = 16;
+    private static final long ALLOWED_BYTES = 1024;  // 测量本身的误差
+
+    /**
+     * 运行测试
+     *
+     * @return 报告文本
+     */
+    public String run() {
+        StringBuilder report = new StringBuilder();
+
+        SequenceData data = SyntheticSequenceFactory.createSequence("lookahead_100k", SYNTHETIC_FRAMES, 40.0f, 13L);
+        data.buildResolvedFrames();
+
+        // 1. 窗口内容与预解析帧表一致，偏移0与交付的当前帧一致
+        LookaheadWindow window = new LookaheadWindow(WINDOW);
+        window.attach(data);
+        CheckingListener checker = new CheckingListener(window, data);
+        FrameRenderer renderer = new FrameRenderer();
+        FrameBufferListener adapter = new LookaheadListenerAdapter(window, checker);
+        for (int frame = 0; frame < data.totalFrames; frame++) {
+            renderer.render(data, frame, adapter);
+        }
+        check(checker.errors == 0, "窗口内容不一致: " + checker.errors + "次");
+        report.append(String.format("✅ %d帧 k=%d 窗口内容与预解析帧表一致，末尾窗口正确收缩\n", SYNTHETIC_FRAMES, WINDOW));
+
+        // 2. 流式加载：窗口不超过已加载帧
+        SequenceData partial = SyntheticSequenceFactory.createSequence("lookahead_partial", 1000, 40.0f, 17L);
+        partial.buildResolvedFrames();
+        partial.loadedFrames = 500;
+        LookaheadWindow partialWindow = new LookaheadWindow(WINDOW);
+        partialWindow.attach(partial);
+        partialWindow.moveTo(490);
+        check(partialWindow.size() == 10, "窗口应收缩到已加载帧: " + partialWindow.size());
+        partialWindow.moveTo(500);
+        check(partialWindow.size() == 0, "未加载的帧不应可读: " + partialWindow.size());
+        boolean thrown = false;
+        try {
+            partialWindow.getJoint(0, 0);
+        } catch (IndexOutOfBoundsException e) {
+            thrown = true;
+        }
+        check(thrown, "越界读取应抛出异常");
+        report.append("✅ 流式加载时窗口不超过已加载帧\n");
+
+        // 3. 每帧更新并读取整个窗口的耗时与分配
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        boolean allocationSupported = bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported();
+        ReadingListener reader = new ReadingListener(window);
+        FrameBufferListener readingAdapter = new LookaheadListenerAdapter(window, reader);
+        long bestNs = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int pass = 0; pass < 4; pass++) {
+            renderer.reset();
+            long before = allocationSupported ? threadAllocatedBytes((com.sun.management.ThreadMXBean) bean) : 0;
+            long start = System.nanoTime();
+            for (int frame = 0; frame < data.totalFrames; frame++) {
+                renderer.render(data, frame, readingAdapter);
+            }
+            bestNs = Math.min(bestNs, System.nanoTime() - start);
+            if (allocationSupported) {
+                bytes = threadAllocatedBytes((com.sun.management.ThreadMXBean) bean) - before;
+            }
+        }
+        check(reader.checksum != Long.MIN_VALUE, "");
+        if (allocationSupported) {
+            check(bytes <= ALLOWED_BYTES, "前瞻窗口存在每帧分配: " + bytes + " bytes");
+        }
+        report.append(String.format("✅ 每帧渲染+读取%d帧窗口: %.1fns, 分配=%.3fB（100Hz周期为10ms）\n",
+            WINDOW + 1, (double) bestNs / SYNTHETIC_FRAMES, (double) bytes / SYNTHETIC_FRAMES));
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static long threadAllocatedBytes(com.sun.management.ThreadMXBean bean) {
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static final class CheckingListener implements FrameBufferListener {
+        private final LookaheadWindow window;
+        private final SequenceData data;
+        private final int[] actual = new int[SequenceData.JOINTS_PER_ARM];
+        private final int[] expected = new int[SequenceData.JOINTS_PER_ARM];
+        int errors;
+
+        CheckingListener(LookaheadWindow window, SequenceData data) {
+            this.window = window;
+            this.data = data;
+        }
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            int expectedSize = Math.min(WINDOW + 1, data.totalFrames - frameIndex);
+            if (window.getFrameIndex() != frameIndex || window.size() != expectedSize) {
+                errors++;
+                return;
+            }
+            window.copyLeftArm(0, actual);
+            if (!Arrays.equals(actual, leftArm)) {
+                errors++;
+            }
+            window.copyRightArm(0, actual);
+            if (!Arrays.equals(actual, rightArm)) {
+                errors++;
+            }
+            for (int offset = 0; offset < window.size(); offset++) {
+                data.copyResolvedLeftArmFrame(frameIndex + offset, expected);
+                window.copyLeftArm(offset, actual);
+                if (!Arrays.equals(actual, expected)) {
+                    errors++;
+                }
+                data.copyResolvedRightArmFrame(frameIndex + offset, expected);
+                if (window.getJoint(offset, SequenceData.JOINTS_PER_ARM + 9) != expected[9]) {
+                    errors++;
+                }
+            }
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static final class ReadingListener implements FrameBufferListener {
+        private final LookaheadWindow window;
+        private final int[] scratch = new int[SequenceData.JOINTS_PER_ARM];
+        long checksum;
+
+        ReadingListener(LookaheadWindow window) {
+            this.window = window;
+        }
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            for (int offset = 0; offset < window.size(); offset++) {
+                window.copyLeftArm(offset, scratch);
+                checksum += scratch[0];
+                window.copyRightArm(offset, scratch);
+                checksum += scratch[9];
+            }
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
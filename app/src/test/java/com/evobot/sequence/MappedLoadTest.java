@@ -0,0 +1,157 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 内存映射加载测试
+ * 验证 SequenceLoader.loadFromFile 与流式解析结果一致、同一文件共享映射，
+ * 并对比两种加载方式的耗时和堆分配
+ */
+public class MappedLoadTest {
+
+    private static final String TAG = "MappedLoadTest";
+
+    private static final int FRAME_COUNT = 100000;
+    private static final int ROUNDS = 10;
+    private static final int CONCURRENT_LOADERS = 8;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws Exception {
+        StringBuilder report = new StringBuilder();
+        SequenceLoader loader = new SequenceLoader(context);
+
+        SequenceData source = SyntheticSequenceFactory.createSequence("mapped_test", FRAME_COUNT, 40.0f, 7L);
+        File file = new File(context.getCacheDir(), "mapped_load_test.ebs");
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(SyntheticSequenceFactory.toEbs1Bytes(source));
+        }
+
+        try {
+            // 1. 正确性：映射视图与堆解析逐帧一致
+            SequenceData mapped = loader.loadFromFile(file);
+            SequenceData parsed;
+            try (FileInputStream fis = new FileInputStream(file)) {
+                parsed = loader.parseEbsFile(fis);
+            }
+            assertFramesEqual(parsed, mapped);
+            report.append("✅ 映射视图与流式解析逐帧一致\n");
+
+            // 2. 共享：同一文件再次加载返回同一份映射
+            SequenceData again = loader.loadFromFile(file);
+            if (again != mapped) {
+                throw new AssertionError("同一文件未共享映射");
+            }
+            report.append("✅ 同一文件多次加载共享同一份映射\n");
+
+            // 3. 并发：缓存未命中时多个线程同时加载同一文件，只映射一次
+            file.setLastModified(file.lastModified() - 60000L);
+            SequenceData[] results = loadConcurrently(loader, file);
+            for (SequenceData result : results) {
+                if (result != results[0]) {
+                    throw new AssertionError("并发加载同一文件得到了不同的映射");
+                }
+            }
+            report.append(String.format("✅ %d个线程并发加载同一文件共享同一份映射\n", CONCURRENT_LOADERS));
+
+            // 4. 耗时和堆分配对比（流式解析 vs 首次映射）
+            long streamNs = Long.MAX_VALUE;
+            long streamHeap = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                parsed = null;
+                long heapBefore = usedHeap();
+                long start = System.nanoTime();
+                try (FileInputStream fis = new FileInputStream(file)) {
+                    parsed = loader.parseEbsFile(fis);
+                }
+                streamNs = Math.min(streamNs, System.nanoTime() - start);
+                streamHeap = usedHeap() - heapBefore;
+            }
+
+            long mapNs = Long.MAX_VALUE;
+            long mapHeap = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                // 修改时间变化使缓存失效，每轮都重新映射
+                file.setLastModified(System.currentTimeMillis() - i * 1000L);
+                mapped = null;
+                again = null;
+                long heapBefore = usedHeap();
+                long start = System.nanoTime();
+                mapped = loader.loadFromFile(file);
+                mapNs = Math.min(mapNs, System.nanoTime() - start);
+                mapHeap = usedHeap() - heapBefore;
+            }
+
+            report.append(String.format("流式解析: %.3f ms, 保留堆 %d bytes\n", streamNs / 1e6, streamHeap));
+            report.append(String.format("内存映射: %.3f ms, 保留堆 %d bytes\n", mapNs / 1e6, mapHeap));
+            report.append(String.format("帧数据 %d bytes 保留在映射区域（%s）\n",
+                mapped.getFrameDataBytes(), mapped.frames.isDirect() ? "堆外" : "堆内"));
+        } finally {
+            file.delete();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static SequenceData[] loadConcurrently(final SequenceLoader loader, final File file)
+            throws Exception {
+        final SequenceData[] results = new SequenceData[CONCURRENT_LOADERS];
+        final Exception[] errors = new Exception[CONCURRENT_LOADERS];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[CONCURRENT_LOADERS];
+        for (int i = 0; i < CONCURRENT_LOADERS; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        results[index] = loader.loadFromFile(file);
+                    } catch (Exception e) {
+                        errors[index] = e;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (int i = 0; i < CONCURRENT_LOADERS; i++) {
+            threads[i].join();
+            if (errors[i] != null) {
+                throw errors[i];
+            }
+        }
+        return results;
+    }
+
+    private static void assertFramesEqual(SequenceData expected, SequenceData actual) {
+        if (expected.totalFrames != actual.totalFrames) {
+            throw new AssertionError("帧数不一致: " + expected.totalFrames + " vs " + actual.totalFrames);
+        }
+        for (int frame = 0; frame < expected.totalFrames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                if (expected.getJoint(frame, joint) != actual.getJoint(frame, joint)) {
+                    throw new AssertionError(String.format("帧%d关节%d不一致", frame, joint));
+                }
+            }
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        Thread.sleep(20);
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
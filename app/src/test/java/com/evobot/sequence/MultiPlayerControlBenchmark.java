@@ -0,0 +1,241 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多播放器并发控制测试
+ * 同时以100Hz播放1/4/16个播放器，每个播放器一个线程不停轮询 getCurrentFrame()，
+ * 每5ms穿插一次跳转或暂停/恢复，统计每秒调用次数和每次调用的平均/最大耗时：
+ * 不同播放器上的调用互不等待时，在核数不少于轮询线程数的设备上，单个线程的吞吐量和耗时不随播放器数明显变差
+ * （核数较少时轮询线程互相抢占，每线程吞吐按核数分摊）。
+ * Native库可用时经过Native播放器表（按句柄分片），否则测量Java播放路径；报告首行注明实际测量的路径。
+ * Native播放器表本身的多线程竞争见 evobot-native 中 registry.rs 的测试
+ */
+public class MultiPlayerControlBenchmark {
+
+    private static final String TAG = "MultiPlayerControlBenchmark";
+
+    private static final int[] PLAYER_COUNTS = {1, 4, 16};
+    private static final int FREQUENCY = 100;
+    private static final long PERIOD_NANOS = 1000000000L / FREQUENCY;
+    private static final long RUN_MILLIS = 1000;
+    private static final long CONTROL_INTERVAL_NANOS = 5000000L;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder(String.format("CPU核数: %d, 播放路径: %s\n",
+            Runtime.getRuntime().availableProcessors(), nativePath(context) ? "Native播放器表" : "Java（Native库不可用）"));
+        report.append(String.format("%-8s %14s %12s %12s %12s %12s\n",
+            "播放器数", "每线程调用/秒", "轮询平均us", "轮询最大us", "控制平均us", "控制最大us"));
+        for (int players : PLAYER_COUNTS) {
+            report.append(measure(context, players));
+        }
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static boolean nativePath(Context context) {
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        try {
+            return player.getNativeCallbackStats() != null;
+        } finally {
+            player.release();
+        }
+    }
+
+    private static String measure(Context context, int count) throws InterruptedException {
+        List<EvoBotSequencePlayer> players = new ArrayList<>();
+        List<CountingListener> listeners = new ArrayList<>();
+        final List<Poller> pollers = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+                player.setTimingBackend(TimingBackend.SHARED_THREAD);
+                // 慢速播放，保证测试期间序列不会播完
+                player.setPlaybackSpeed(0.5f);
+                CountingListener listener = new CountingListener();
+                player.play("multi_player_" + i, FREQUENCY, listener);
+                players.add(player);
+                listeners.add(listener);
+            }
+            for (int i = 0; i < count; i++) {
+                check(listeners.get(i).awaitFrames(3), "播放器" + i + " 播放未开始");
+            }
+
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                final Poller poller = new Poller(players.get(i), i);
+                pollers.add(poller);
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            poller.run();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }, "Poller-" + i);
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+                check(!thread.isAlive(), thread.getName() + " 未结束");
+            }
+
+            for (int i = 0; i < count; i++) {
+                Poller poller = pollers.get(i);
+                check(poller.failure == null, "播放器" + i + " " + poller.failure);
+                check(players.get(i).getState() == PlayerState.PLAYING,
+                    "播放器" + i + " 控制后应仍在播放: " + players.get(i).getState());
+                // 轮询线程忙等，核数少于线程数时单次调用会被抢占，只检查平均耗时
+                long averageControl = poller.controlNanos / Math.max(1, poller.controls);
+                check(averageControl < PERIOD_NANOS, String.format("播放器%d 控制调用平均%.3fms，超过一个周期",
+                    i, averageControl / 1e6));
+                int frames = listeners.get(i).frames.get();
+                check(listeners.get(i).awaitFrames(frames + 3), "播放器" + i + " 控制后播放停止");
+                check(listeners.get(i).errors.get() == 0, "播放器" + i + " 播放错误");
+            }
+        } finally {
+            for (EvoBotSequencePlayer player : players) {
+                player.release();
+            }
+        }
+
+        long polls = 0;
+        long pollNanos = 0;
+        long maxPoll = 0;
+        long controls = 0;
+        long controlNanos = 0;
+        long maxControl = 0;
+        for (Poller poller : pollers) {
+            polls += poller.polls;
+            pollNanos += poller.pollNanos;
+            maxPoll = Math.max(maxPoll, poller.maxPollNanos);
+            controls += poller.controls;
+            controlNanos += poller.controlNanos;
+            maxControl = Math.max(maxControl, poller.maxControlNanos);
+        }
+        return String.format("%-8d %14.0f %12.3f %12.1f %12.1f %12.1f\n",
+            count, (polls + controls) * 1000.0 / RUN_MILLIS / count,
+            pollNanos / 1e3 / Math.max(1, polls), maxPoll / 1e3,
+            controlNanos / 1e3 / Math.max(1, controls), maxControl / 1e3);
+    }
+
+    /**
+     * 一个播放器的轮询线程：不停读取当前帧，每5ms穿插一次跳转或暂停/恢复
+     */
+    private static final class Poller {
+        private final EvoBotSequencePlayer player;
+        private final Random random;
+        long polls = 0;
+        long pollNanos = 0;
+        long maxPollNanos = 0;
+        long controls = 0;
+        long controlNanos = 0;
+        long maxControlNanos = 0;
+        String failure = null;
+
+        Poller(EvoBotSequencePlayer player, int seed) {
+            this.player = player;
+            this.random = new Random(seed);
+        }
+
+        void run() {
+            int total = player.getTotalFrames();
+            long now = System.nanoTime();
+            long end = now + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+            long nextControl = now + CONTROL_INTERVAL_NANOS;
+            while (now < end) {
+                if (now >= nextControl) {
+                    nextControl += CONTROL_INTERVAL_NANOS;
+                    long start = System.nanoTime();
+                    if (controls % 2 == 0) {
+                        player.seek(random.nextInt(Math.max(1, total / 2)));
+                    } else {
+                        player.pause();
+                        player.resume();
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    controls++;
+                    controlNanos += elapsed;
+                    maxControlNanos = Math.max(maxControlNanos, elapsed);
+                } else {
+                    long start = System.nanoTime();
+                    int frame = player.getCurrentFrame();
+                    long elapsed = System.nanoTime() - start;
+                    if (frame < 0 || frame > total) {
+                        failure = "当前帧错误: " + frame;
+                        return;
+                    }
+                    polls++;
+                    pollNanos += elapsed;
+                    maxPollNanos = Math.max(maxPollNanos, elapsed);
+                }
+                now = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * 只统计帧数和错误次数的监听器
+     */
+    private static final class CountingListener implements FrameBufferListener {
+        final AtomicInteger frames = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            frames.incrementAndGet();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            errors.incrementAndGet();
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+
+        boolean awaitFrames(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (frames.get() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+            return true;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Native帧回调耗时测试
+ * 使用Native播放路径以100Hz播放，监听器不做任何处理，统计每次交付的耗时（写入交付数组、JNI调用和监听器执行），
+ * 即Native路径每帧的回调开销；逐帧交付与每批8帧的批量交付分别测量。
+ * 需要在加载了Native库的设备上运行，Native库不可用时失败（不跳过）；回调路径的正确性见 NativeCallbackSmokeTest
+ */
+public class NativeCallbackBenchmark {
+
+    private static final String TAG = "NativeCallbackBenchmark";
+
+    private static final int FREQUENCY = 100;
+    private static final int BATCH_SIZE = 8;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        try {
+            check(player.getNativeCallbackStats() != null, "Native库不可用：该测试需要在加载了Native库的设备上运行");
+            player.setPlaybackSpeed(4.0f);
+            report.append(String.format("%-8s %8s %10s %12s %12s %14s\n",
+                "交付", "帧数", "回调次数", "平均耗时us", "最大耗时us", "每帧平均耗时us"));
+            report.append(measure(player, "逐帧", 1));
+            report.append(measure(player, "批量", BATCH_SIZE));
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static String measure(EvoBotSequencePlayer player, String label, int batchSize)
+            throws InterruptedException {
+        player.setBatchSize(batchSize);
+        NoOpListener listener = new NoOpListener();
+        if (batchSize > 1) {
+            player.play("native_callback_batch", FREQUENCY, listener.asBatchListener());
+        } else {
+            player.play("native_callback", FREQUENCY, listener);
+        }
+        check(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), label + " 播放超时");
+
+        EvoBotSequencePlayer.NativeCallbackStats stats = player.getNativeCallbackStats();
+        check(stats != null && stats.callbacks > 0, label + " 没有Native回调统计");
+        return String.format("%-8s %8d %10d %12.1f %12.1f %14.2f\n",
+            label, listener.frames, stats.callbacks, stats.averageNanos() / 1e3, stats.maxNanos / 1e3,
+            stats.totalNanos / 1e3 / Math.max(1, listener.frames));
+    }
+
+    /**
+     * 不做任何处理的监听器，只统计帧数
+     */
+    private static final class NoOpListener implements FrameBufferListener {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile int frames = 0;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            frames++;
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+
+        FrameBatchListener asBatchListener() {
+            return new FrameBatchListener() {
+                @Override
+                public void onFrameBatch(int[] leftArms, int[] rightArms, int[] frameIndices,
+                                         long[] timestampsNanos, int frameCount) {
+                    frames += frameCount;
+                }
+
+                @Override
+                public void onBatchCancelled(int remainingFrames) {
+                    frames -= remainingFrames;
+                }
+
+                @Override
+                public void onComplete() {
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    Log.e(TAG, "播放错误: " + errorMessage);
+                }
+
+                @Override
+                public void onEmergencyStop() {
+                }
+            };
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Native回调冒烟测试
+ * 经Native播放路径逐帧、批量播放同一序列，覆盖Native层回调Java的每条路径：注册时缓存的方法ID、
+ * 以 call_method_unchecked 调用 onFrameBuffer/onFrameBatch/onComplete/onEmergencyStop、
+ * 监听器抛出异常后的清除，以及播放线程以守护线程附加并保持附加。验证：
+ * - 逐帧与批量交付的帧内容、顺序一致，帧索引按速度递增，完成回调恰好一次
+ * - 所有帧回调在同一个守护线程上执行，两次播放之间该线程没有重新附加（同一个Thread对象）
+ * - 监听器抛出的异常被清除，播放继续并正常完成
+ * - 急停回调恰好一次，急停后不回调完成
+ * 需要在加载了Native库的设备上运行，Native库不可用时失败（不跳过）
+ */
+public class NativeCallbackSmokeTest {
+
+    private static final String TAG = "NativeCallbackSmokeTest";
+
+    private static final int FREQUENCY = 100;
+    private static final float SPEED = 4.0f;
+    private static final int BATCH_SIZE = 8;
+    private static final int THROW_AT_FRAME = 8;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        try {
+            check(player.getNativeCallbackStats() != null, "Native库不可用：该测试需要在加载了Native库的设备上运行");
+            player.setPlaybackSpeed(SPEED);
+
+            // 1. 逐帧交付
+            RecordingListener frames = new RecordingListener(-1);
+            player.play("native_smoke", FREQUENCY, frames);
+            check(frames.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "逐帧播放超时");
+            frames.assertDelivered("逐帧");
+            check(player.getNativeCallbackStats().callbacks == frames.frames.size(),
+                "Native回调统计次数与交付帧数不一致: " + player.getNativeCallbackStats().callbacks);
+            Thread playbackThread = frames.singleThread("逐帧");
+            check(playbackThread.isDaemon(), "播放线程应以守护线程附加: " + playbackThread.getName());
+            report.append(String.format("✅ 逐帧: %d帧, 完成回调1次, 回调线程 %s（守护线程）\n",
+                frames.frames.size(), playbackThread.getName()));
+
+            // 2. 批量交付：内容与逐帧一致，仍在同一个已附加的线程上
+            player.setBatchSize(BATCH_SIZE);
+            RecordingListener batched = new RecordingListener(-1);
+            player.play("native_smoke", FREQUENCY, batched.asBatchListener());
+            check(batched.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "批量播放超时");
+            batched.assertDelivered("批量");
+            check(batched.frames.size() == frames.frames.size(),
+                String.format("批量帧数不一致: %d vs %d", batched.frames.size(), frames.frames.size()));
+            for (int i = 0; i < frames.frames.size(); i++) {
+                check(Arrays.equals(frames.frames.get(i), batched.frames.get(i)), "批量帧内容不一致: " + i);
+            }
+            check(batched.singleThread("批量") == playbackThread, "两次播放之间播放线程重新附加了");
+            player.setBatchSize(1);
+            report.append(String.format("✅ 批量(%d帧/批): 内容与逐帧一致, 同一附加线程\n", BATCH_SIZE));
+
+            // 3. 监听器抛出异常：Native层清除异常后继续播放
+            RecordingListener throwing = new RecordingListener(THROW_AT_FRAME);
+            player.play("native_smoke", FREQUENCY, throwing);
+            check(throwing.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "监听器抛出异常后播放未完成");
+            throwing.assertDelivered("异常");
+            check(throwing.frames.size() == frames.frames.size(),
+                String.format("监听器抛出异常后帧数不一致: %d vs %d", throwing.frames.size(), frames.frames.size()));
+            report.append("✅ 监听器异常被清除，播放继续完成\n");
+
+            // 4. 急停回调
+            RecordingListener stopped = new RecordingListener(-1);
+            player.setPlaybackSpeed(1.0f);
+            player.play("native_smoke", FREQUENCY, stopped);
+            check(stopped.awaitFrames(5), "急停前播放未开始");
+            player.emergencyStop();
+            Thread.sleep(5 * 1000 / FREQUENCY);
+            check(stopped.emergencyStops.get() == 1, "急停回调次数: " + stopped.emergencyStops.get());
+            check(stopped.completes.get() == 0, "急停后不应回调完成");
+            check(player.getState() == PlayerState.STOPPED, "急停后应为STOPPED: " + player.getState());
+            check(stopped.errors.get() == 0, "急停产生了播放错误: " + stopped.errors.get());
+            report.append("✅ 急停回调1次，之后无完成回调\n");
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static int[] concat(int[] left, int leftOffset, int[] right, int rightOffset) {
+        int[] frame = new int[SequenceData.JOINTS_PER_FRAME];
+        System.arraycopy(left, leftOffset, frame, 0, SequenceData.JOINTS_PER_ARM);
+        System.arraycopy(right, rightOffset, frame, SequenceData.JOINTS_PER_ARM, SequenceData.JOINTS_PER_ARM);
+        return frame;
+    }
+
+    /**
+     * 记录帧内容、帧索引和回调线程；throwAtFrame 不小于0时在该帧回调中抛出异常
+     */
+    private static final class RecordingListener implements FrameBufferListener {
+        final List<int[]> frames = new ArrayList<>();
+        final List<Integer> frameIndices = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        final AtomicInteger completes = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger emergencyStops = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        final int throwAtFrame;
+
+        RecordingListener(int throwAtFrame) {
+            this.throwAtFrame = throwAtFrame;
+        }
+
+        @Override
+        public synchronized void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            record(concat(leftArm, 0, rightArm, 0), frameIndex);
+            if (frameIndex == throwAtFrame) {
+                throw new IllegalStateException("监听器在第" + frameIndex + "帧抛出的测试异常");
+            }
+        }
+
+        private void record(int[] frame, int frameIndex) {
+            frames.add(frame);
+            frameIndices.add(frameIndex);
+            Thread current = Thread.currentThread();
+            if (!threads.contains(current)) {
+                threads.add(current);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            completes.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void onEmergencyStop() {
+            emergencyStops.incrementAndGet();
+        }
+
+        boolean awaitFrames(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (frameCount() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+            return true;
+        }
+
+        synchronized int frameCount() {
+            return frames.size();
+        }
+
+        synchronized void assertDelivered(String label) {
+            check(!frames.isEmpty(), label + " 没有帧回调");
+            check(completes.get() == 1, label + " 完成回调次数: " + completes.get());
+            check(errors.get() == 0, label + " 播放错误: " + errors.get());
+            for (int i = 1; i < frameIndices.size(); i++) {
+                check(frameIndices.get(i) > frameIndices.get(i - 1), label + " 帧索引应递增: " + frameIndices.get(i));
+            }
+        }
+
+        synchronized Thread singleThread(String label) {
+            check(threads.size() == 1, label + " 帧回调分布在" + threads.size() + "个线程上");
+            return threads.get(0);
+        }
+
+        FrameBatchListener asBatchListener() {
+            return new FrameBatchListener() {
+                @Override
+                public void onFrameBatch(int[] leftArms, int[] rightArms, int[] frameIndices,
+                                         long[] timestampsNanos, int frameCount) {
+                    synchronized (RecordingListener.this) {
+                        for (int i = 0; i < frameCount; i++) {
+                            int offset = i * SequenceData.JOINTS_PER_ARM;
+                            record(concat(leftArms, offset, rightArms, offset), frameIndices[i]);
+                        }
+                    }
+                }
+
+                @Override
+                public void onBatchCancelled(int remainingFrames) {
+                }
+
+                @Override
+                public void onComplete() {
+                    RecordingListener.this.onComplete();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    RecordingListener.this.onError(errorMessage);
+                }
+
+                @Override
+                public void onEmergencyStop() {
+                    RecordingListener.this.onEmergencyStop();
+                }
+            };
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
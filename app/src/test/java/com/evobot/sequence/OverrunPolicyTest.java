@@ -0,0 +1,144 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回调超时策略测试
+ * 监听器在两帧上各阻塞35ms（模拟串口写入卡顿），分别以三种策略播放，验证：
+ * - STRETCH：不丢帧，序列被拉长
+ * - DROP：跳过错过的帧，交付帧数 + 丢弃帧数 = 总帧数，时长保持不变
+ * - CATCH_UP：不丢帧，连续补发后时长保持不变
+ * 以及超时次数和最大回调耗时统计
+ */
+public class OverrunPolicyTest {
+
+    private static final String TAG = "OverrunPolicyTest";
+
+    private static final int FREQUENCY = 100;
+    private static final long STALL_MILLIS = 35;
+    private static final int[] STALL_FRAMES = {100, 200};
+    private static final long TOLERANCE_NANOS = 15000000L;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-18s %-9s %8s %8s %8s %12s %12s\n",
+            "后端", "策略", "交付帧", "丢弃帧", "超时", "时长偏差ms", "最大回调ms"));
+
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        try {
+            for (TimingBackend backend : new TimingBackend[] {TimingBackend.PRECISION_THREAD, TimingBackend.HANDLER}) {
+                player.setTimingBackend(backend);
+                for (OverrunPolicy policy : OverrunPolicy.values()) {
+                    report.append(measure(player, backend, policy));
+                }
+            }
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static String measure(EvoBotSequencePlayer player, TimingBackend backend, OverrunPolicy policy)
+            throws InterruptedException {
+        player.setOverrunPolicy(policy);
+        player.resetOverrunStats();
+        StallingListener listener = new StallingListener();
+        player.play("overrun_" + policy, FREQUENCY, listener);
+        check(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), backend + " " + policy + " 播放超时");
+
+        EvoBotSequencePlayer.OverrunStats stats = player.getOverrunStats();
+        int total = player.getTotalFrames();
+        int delivered = listener.frameIndices.size();
+        long periodNanos = 1000000000L / FREQUENCY;
+        long nominal = (total - 1) * periodNanos;
+        long duration = listener.lastNanos - listener.firstNanos;
+        long deviation = duration - nominal;
+        String label = backend + " " + policy;
+
+        check(stats.overruns >= STALL_FRAMES.length, label + " 超时次数应至少为" + STALL_FRAMES.length + ": " + stats.overruns);
+        check(stats.maxCallbackNanos >= STALL_MILLIS * 1000000L, label + " 最大回调耗时统计错误: " + stats.maxCallbackNanos);
+        switch (policy) {
+            case STRETCH:
+                check(delivered == total && stats.droppedFrames == 0, label + " 不应丢帧: " + delivered + "/" + total);
+                check(deviation > TOLERANCE_NANOS,
+                    String.format("%s 序列应被拉长: %.1fms", label, deviation / 1e6));
+                break;
+            case DROP:
+                check(stats.droppedFrames > 0 && delivered + stats.droppedFrames == total,
+                    String.format("%s 交付%d + 丢弃%d != %d", label, delivered, stats.droppedFrames, total));
+                check(Math.abs(deviation) <= TOLERANCE_NANOS, String.format("%s 时长偏差过大: %.1fms", label, deviation / 1e6));
+                break;
+            default:
+                check(delivered == total && stats.droppedFrames == 0, label + " 不应丢帧: " + delivered + "/" + total);
+                check(Math.abs(deviation) <= TOLERANCE_NANOS, String.format("%s 时长偏差过大: %.1fms", label, deviation / 1e6));
+                break;
+        }
+        for (int i = 1; i < delivered; i++) {
+            check(listener.frameIndices.get(i) > listener.frameIndices.get(i - 1), label + " 帧索引应递增");
+        }
+
+        return String.format("%-18s %-9s %8d %8d %8d %12.1f %12.1f\n", backend, policy, delivered,
+            stats.droppedFrames, stats.overruns, deviation / 1e6, stats.maxCallbackNanos / 1e6);
+    }
+
+    private static final class StallingListener implements FrameBufferListener {
+        final List<Integer> frameIndices = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        long firstNanos;
+        long lastNanos;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            long now = System.nanoTime();
+            if (frameIndices.isEmpty()) {
+                firstNanos = now;
+            }
+            lastNanos = now;
+            frameIndices.add(frameIndex);
+            for (int stall : STALL_FRAMES) {
+                if (frameIndex == stall) {
+                    try {
+                        Thread.sleep(STALL_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
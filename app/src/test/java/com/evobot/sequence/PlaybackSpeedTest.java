@@ -0,0 +1,172 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * 变速播放测试
+ * 按播放器的方式推进Q32定点源帧游标，验证不同速度下的输出帧数与插值结果、
+ * 速度1时与逐帧输出一致、重采样位置与游标位置的换算、播放中改变速度时位置连续，
+ * 并测量稳态每帧分配的字节数
+ */
+public class PlaybackSpeedTest {
+
+    private static final String TAG = "PlaybackSpeedTest";
+
+    private static final int RAMP_FRAMES = 401;
+    private static final int SYNTHETIC_FRAMES = 100000;
+    private static final long ONE = 1L << FrameResampler.POSITION_FRACTION_BITS;
+    private static final long ALLOWED_BYTES = 1024;  // 测量本身的误差
+
+    /**
+     * 运行测试
+     *
+     * @return 报告文本
+     */
+    public String run() {
+        StringBuilder report = new StringBuilder();
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+
+        // 1. 输出帧数：速度s时约为 (帧数-1)/s + 1，斜坡上输出与解析值一致
+        SequenceData ramp = createRamp(RAMP_FRAMES);
+        ramp.buildResolvedFrames();
+        FrameResampler linear = new FrameResampler(40.0f, 40, ResampleMode.LINEAR);
+        for (float speed : new float[] {0.1f, 0.5f, 1.3f, 2.0f, 4.0f}) {
+            long step = stepFor(linear, speed);
+            long position = 0;
+            int ticks = 0;
+            while (position <= (long) (RAMP_FRAMES - 1) * ONE) {
+                linear.renderAt(ramp.getResolvedFrameArray(), ramp.totalFrames, position, left, right);
+                double expected = (double) position / ONE * 10;
+                check(Math.abs(left[0] - expected) <= 1 && Math.abs(right[9] - expected) <= 1,
+                    String.format("%.1fx 插值错误: 位置=%.3f, %d vs %.1f", speed, (double) position / ONE, left[0], expected));
+                position += step;
+                ticks++;
+            }
+            int expectedTicks = (int) ((RAMP_FRAMES - 1) / (double) speed) + 1;
+            check(Math.abs(ticks - expectedTicks) <= 1,
+                String.format("%.1fx 输出帧数错误: %d vs %d", speed, ticks, expectedTicks));
+            report.append(String.format("✅ %.1fx: %d帧序列输出%d帧\n", speed, RAMP_FRAMES, ticks));
+        }
+
+        // 2. 速度1时游标逐帧前进，输出与预解析帧表完全一致
+        SequenceData synthetic = SyntheticSequenceFactory.createSequence(
+            "speed_100k", SYNTHETIC_FRAMES, 40.0f, 7L);
+        synthetic.buildResolvedFrames();
+        int[] expectedLeft = new int[SequenceData.JOINTS_PER_ARM];
+        int[] expectedRight = new int[SequenceData.JOINTS_PER_ARM];
+        for (ResampleMode mode : new ResampleMode[] {ResampleMode.LINEAR, ResampleMode.CUBIC}) {
+            FrameResampler resampler = new FrameResampler(40.0f, 40, mode);
+            long step = stepFor(resampler, 1.0f);
+            for (int frame = 0; frame < SYNTHETIC_FRAMES; frame++) {
+                resampler.renderAt(synthetic.getResolvedFrameArray(), synthetic.totalFrames, frame * step, left, right);
+                synthetic.copyResolvedLeftArmFrame(frame, expectedLeft);
+                synthetic.copyResolvedRightArmFrame(frame, expectedRight);
+                check(Arrays.equals(expectedLeft, left) && Arrays.equals(expectedRight, right),
+                    mode + " 速度1输出与原帧不一致: 帧" + frame);
+            }
+        }
+        report.append("✅ 速度1时输出与原帧一致\n");
+
+        // 3. 重采样时输出帧与游标位置互相换算，且按位置插值与按输出帧插值结果一致
+        FrameResampler up = new FrameResampler(40.0f, 100, ResampleMode.CUBIC);
+        int[] tickLeft = new int[SequenceData.JOINTS_PER_ARM];
+        int[] tickRight = new int[SequenceData.JOINTS_PER_ARM];
+        for (long tick = 0; tick < 20000; tick++) {
+            long position = up.positionForTick(tick);
+            check(up.tickAtPosition(position) == tick, "位置换算错误: tick=" + tick);
+            up.render(synthetic.getResolvedFrameArray(), synthetic.totalFrames, tick, tickLeft, tickRight);
+            up.renderAt(synthetic.getResolvedFrameArray(), synthetic.totalFrames, position, left, right);
+            check(Arrays.equals(tickLeft, left) && Arrays.equals(tickRight, right), "按位置插值结果不一致: tick=" + tick);
+        }
+        report.append("✅ 重采样输出帧与游标位置换算一致\n");
+
+        // 4. 播放中改变速度：位置连续，总输出帧数为各段之和
+        long position = 0;
+        int ticks = 0;
+        int previous = -1;
+        float[] speeds = {1.0f, 2.5f, 0.5f, 1.3f};
+        for (int segment = 0; position <= (long) (RAMP_FRAMES - 1) * ONE; segment++) {
+            long step = stepFor(linear, speeds[segment % speeds.length]);
+            for (int i = 0; i < 50 && position <= (long) (RAMP_FRAMES - 1) * ONE; i++) {
+                linear.renderAt(ramp.getResolvedFrameArray(), ramp.totalFrames, position, left, right);
+                check(left[0] >= previous, String.format("变速后位置回退: %d -> %d", previous, left[0]));
+                check(previous < 0 || left[0] - previous <= 26, String.format("变速后位置跳变: %d -> %d", previous, left[0]));
+                previous = left[0];
+                position += step;
+                ticks++;
+            }
+        }
+        check(previous >= (RAMP_FRAMES - 4) * 10, "未播放到序列末尾: " + previous);
+        report.append(String.format("✅ 播放中变速位置连续（%d帧）\n", ticks));
+
+        // 5. 稳态每帧零分配
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+            allocation.setThreadAllocatedMemoryEnabled(true);
+            FrameRenderer renderer = new FrameRenderer();
+            FrameResampler cubic = new FrameResampler(40.0f, 40, ResampleMode.CUBIC);
+            long bytes = 0;
+            long elapsed = 0;
+            int frames = 0;
+            for (int pass = 0; pass < 4; pass++) {
+                long threadId = Thread.currentThread().getId();
+                long before = allocation.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                frames = playAt(renderer, cubic, synthetic, stepFor(cubic, 1.3f));
+                elapsed = System.nanoTime() - start;
+                bytes = allocation.getThreadAllocatedBytes(threadId) - before;
+            }
+            check(bytes <= ALLOWED_BYTES, "变速播放存在每帧分配: " + bytes + " bytes");
+            report.append(String.format("✅ 1.3x三次插值 %d帧: 每帧分配=%.3fB, 每帧耗时=%.1fns\n",
+                frames, (double) bytes / frames, (double) elapsed / frames));
+        } else {
+            report.append("⚠️ 当前JVM不支持线程分配计数，跳过分配测试\n");
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    /**
+     * 与播放器相同的游标步长计算
+     */
+    private static long stepFor(FrameResampler resampler, float speed) {
+        return Math.round(resampler.sourceStep() * speed * ONE);
+    }
+
+    private static int playAt(FrameRenderer renderer, FrameResampler resampler, SequenceData data, long step) {
+        int frames = 0;
+        long last = (long) (data.totalFrames - 1) * ONE;
+        for (long position = 0; position <= last; position += step) {
+            renderer.renderAt(data, resampler, position, (int) (position >>> FrameResampler.POSITION_FRACTION_BITS), null);
+            frames++;
+        }
+        return frames;
+    }
+
+    private static SequenceData createRamp(int frames) {
+        SequenceData data = new SequenceData();
+        data.name = "ramp";
+        data.sampleRate = 40.0f;
+        data.totalDuration = frames / 40.0f;
+        data.allocateFrames(frames);
+        for (int frame = 0; frame < frames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, frame * 10);
+            }
+        }
+        return data;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 播放器状态机并发压力测试
+ * 播放期间多个线程同时调用暂停/恢复/跳转/变速和读取状态，之后再并发调用播放/停止/急停，验证：
+ * - 帧回调从不重叠，帧索引始终在序列范围内，控制调用不抛出异常、不产生播放错误
+ * - 并发暂停/恢复之后调度与最终状态一致：PAUSED时不再回调，PLAYING时持续回调
+ * - 其他线程持续提交控制命令时帧任务不丢失：CATCH_UP 下整段播放按原时长完成
+ * - 每次帧回调都在调度线程上执行，控制调用不代为执行帧任务：帧回调较慢时跳转不等待回调
+ * - 停止返回后不再开始新的帧回调，播放器仍可重新播放到完成
+ */
+public class PlayerStateStressTest {
+
+    private static final String TAG = "PlayerStateStressTest";
+
+    private static final int FREQUENCY = 100;
+    private static final int CONTROL_THREADS = 8;
+    private static final int CONTROL_ITERATIONS = 2000;
+    private static final int COMMAND_THREADS = 4;
+    private static final long TIMING_TOLERANCE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int PLAY_STOP_THREADS = 4;
+    private static final int PLAY_STOP_ITERATIONS = 100;
+    private static final long QUIET_MILLIS = 100;
+    private static final long SLOW_CALLBACK_MILLIS = 10;
+    private static final int SLOW_SEEKS = 40;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        try {
+            player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+            report.append(hammerControls(player));
+            report.append(hammerCommandsDuringPlayback(player));
+            report.append(hammerPlayStop(player));
+            for (TimingBackend backend : TimingBackend.values()) {
+                report.append(seekDuringSlowCallbacks(player, backend));
+            }
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    /**
+     * 播放中并发暂停/恢复/跳转/变速
+     */
+    private static String hammerControls(final EvoBotSequencePlayer player) throws InterruptedException {
+        final CheckingListener listener = new CheckingListener();
+        player.setPlaybackSpeed(0.5f);
+        player.play("stress_controls", FREQUENCY, listener);
+        check(listener.awaitFrames(1), "播放未开始");
+        final int total = player.getTotalFrames();
+        listener.totalFrames = total;
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicLong maxControlNanos = new AtomicLong();
+        final AtomicLong totalControlNanos = new AtomicLong();
+        long start = System.nanoTime();
+        runThreads(CONTROL_THREADS, new Worker() {
+            @Override
+            public void run(int thread, Random random) {
+                for (int i = 0; i < CONTROL_ITERATIONS; i++) {
+                    long begin = System.nanoTime();
+                    switch (random.nextInt(6)) {
+                        case 0:
+                            player.pause();
+                            break;
+                        case 1:
+                            player.resume();
+                            break;
+                        case 2:
+                            // 只在前半段跳转，避免播放完成
+                            player.seek(random.nextInt(total / 2));
+                            break;
+                        case 3:
+                            player.setPlaybackSpeed(0.1f + random.nextInt(10) * 0.1f);
+                            break;
+                        default:
+                            PlayerState state = player.getState();
+                            check(state != null && state != PlayerState.ERROR, "状态异常: " + state);
+                            int frame = player.getCurrentFrame();
+                            check(frame >= 0 && frame <= total, "当前帧越界: " + frame);
+                            break;
+                    }
+                    long spent = System.nanoTime() - begin;
+                    totalControlNanos.addAndGet(spent);
+                    updateMax(maxControlNanos, spent);
+                }
+            }
+        }, failure);
+        long elapsed = System.nanoTime() - start;
+        check(failure.get() == null, "控制线程异常: " + failure.get());
+
+        // 并发暂停/恢复后，调度应与最终状态一致
+        player.resume();
+        check(player.getState() == PlayerState.PLAYING, "恢复后应为PLAYING: " + player.getState());
+        // 持有者可能仍在执行并发期间积压的命令（跳转会重启调度线程），等待帧回调而不是只看固定窗口
+        check(listener.awaitFrames(listener.frames.get() + 1), "PLAYING状态下没有帧回调");
+        player.pause();
+        check(player.getState() == PlayerState.PAUSED, "暂停后应为PAUSED: " + player.getState());
+        Thread.sleep(2 * 1000 / FREQUENCY);
+        check(listener.framesDuring(QUIET_MILLIS) == 0, "PAUSED状态下仍有帧回调");
+        player.resume();
+        check(listener.awaitFrames(listener.frames.get() + 1), "再次恢复后没有帧回调");
+        player.stop();
+        check(player.getState() == PlayerState.STOPPED, "停止后应为STOPPED: " + player.getState());
+        Thread.sleep(2 * 1000 / FREQUENCY);
+        check(listener.framesDuring(QUIET_MILLIS) == 0, "停止后仍有帧回调");
+
+        listener.assertClean("并发控制");
+        // 持有执行权的调用线程会代为执行其他线程同时提交的命令，单次调用的最长耗时包含这部分
+        return String.format("✅ 并发控制: %d线程 × %d次, 耗时%.0fms, 交付%d帧, 控制调用平均%.1fus/最长%.2fms, 回调无重叠\n",
+            CONTROL_THREADS, CONTROL_ITERATIONS, elapsed / 1e6, listener.frames.get(),
+            totalControlNanos.get() / 1e3 / (CONTROL_THREADS * CONTROL_ITERATIONS), maxControlNanos.get() / 1e6);
+    }
+
+    /**
+     * 播放中其他线程持续提交控制命令（切换预解析帧表，不改变播放位置和输出）
+     * 帧任务取不到执行权时由命令持有者在释放后交回调度线程执行：每帧都交付，CATCH_UP 下总时长不被拉长
+     */
+    private static String hammerCommandsDuringPlayback(final EvoBotSequencePlayer player) throws InterruptedException {
+        final CheckingListener listener = new CheckingListener();
+        player.setPlaybackSpeed(1.0f);
+        player.setOverrunPolicy(OverrunPolicy.CATCH_UP);
+        player.play("stress_commands", FREQUENCY, listener);
+        check(listener.awaitFrames(1), "播放未开始");
+        long start = System.nanoTime();
+        final int total = player.getTotalFrames();
+        listener.totalFrames = total;
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicLong commands = new AtomicLong();
+        runThreads(COMMAND_THREADS, new Worker() {
+            @Override
+            public void run(int thread, Random random) {
+                while (listener.done.getCount() > 0) {
+                    player.setPreResolveHolds(random.nextBoolean());
+                    commands.incrementAndGet();
+                    // 让出CPU：核数少时忙等的命令线程会饿死调度线程，测的就不再是执行权的交接
+                    Thread.yield();
+                }
+            }
+        }, failure);
+        long elapsed = System.nanoTime() - start;
+        player.setOverrunPolicy(OverrunPolicy.STRETCH);
+        check(failure.get() == null, "命令线程异常: " + failure.get());
+
+        listener.assertClean("并发命令");
+        check(listener.frames.get() == total, "交付帧数 " + listener.frames.get() + " != 总帧数 " + total);
+        long expected = (total - 1) * (1000000000L / FREQUENCY);
+        check(elapsed < expected + TIMING_TOLERANCE_NANOS, String.format(
+            "播放被控制命令拉长: 耗时%.0fms, 预期%.0fms", elapsed / 1e6, expected / 1e6));
+
+        return String.format("✅ 播放中并发命令: %d线程共%d次, 交付%d/%d帧, 耗时%.0fms（预期%.0fms）\n",
+            COMMAND_THREADS, commands.get(), listener.frames.get(), total, elapsed / 1e6, expected / 1e6);
+    }
+
+    /**
+     * 并发播放/停止/急停，之后播放器仍可正常播放到完成
+     */
+    private static String hammerPlayStop(final EvoBotSequencePlayer player) throws InterruptedException {
+        final CheckingListener listener = new CheckingListener();
+        listener.totalFrames = Integer.MAX_VALUE;
+        player.setPlaybackSpeed(1.0f);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        runThreads(PLAY_STOP_THREADS, new Worker() {
+            @Override
+            public void run(int thread, Random random) throws InterruptedException {
+                for (int i = 0; i < PLAY_STOP_ITERATIONS; i++) {
+                    switch (random.nextInt(5)) {
+                        case 0:
+                        case 1:
+                            player.play("stress_play_" + thread, FREQUENCY, listener);
+                            break;
+                        case 2:
+                            player.stop();
+                            break;
+                        case 3:
+                            player.emergencyStop();
+                            break;
+                        default:
+                            player.pause();
+                            player.resume();
+                            break;
+                    }
+                    Thread.sleep(random.nextInt(3));
+                }
+            }
+        }, failure);
+        check(failure.get() == null, "播放/停止线程异常: " + failure.get());
+
+        player.stop();
+        check(player.getState() == PlayerState.STOPPED, "停止后应为STOPPED: " + player.getState());
+        // 已在途的加载完成后不应重新开始播放
+        Thread.sleep(QUIET_MILLIS);
+        check(listener.framesDuring(QUIET_MILLIS) == 0, "停止后过期的加载重新开始了播放");
+        listener.assertClean("并发播放/停止");
+        int stormFrames = listener.frames.get();
+
+        // 播放器仍可正常播放到完成
+        CheckingListener last = new CheckingListener();
+        player.setPlaybackSpeed(4.0f);
+        player.play("stress_final", FREQUENCY, last);
+        check(last.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "最终播放未完成");
+        last.totalFrames = player.getTotalFrames();
+        last.assertClean("最终播放");
+        check(player.getState() == PlayerState.STOPPED, "播放完成后应为STOPPED: " + player.getState());
+
+        return String.format("✅ 并发播放/停止/急停: %d线程 × %d次, 期间交付%d帧；停止后无回调，之后完整播放%d帧\n",
+            PLAY_STOP_THREADS, PLAY_STOP_ITERATIONS, stormFrames, last.frames.get());
+    }
+
+    /**
+     * 帧回调较慢时另一个线程连续跳转：帧任务取不到执行权时交回调度线程，监听器不在控制线程上回调，
+     * 跳转不等待帧回调
+     */
+    private static String seekDuringSlowCallbacks(final EvoBotSequencePlayer player, TimingBackend backend)
+            throws InterruptedException {
+        final CheckingListener listener = new CheckingListener();
+        listener.callbackMillis = SLOW_CALLBACK_MILLIS;
+        listener.backend = backend;
+        listener.looperThread = mainLooperThread();
+        player.setTimingBackend(backend);
+        player.setPlaybackSpeed(0.25f);
+        player.play("stress_slow_" + backend, FREQUENCY, listener);
+        check(listener.awaitFrames(1), backend + " 播放未开始");
+        final int total = player.getTotalFrames();
+        listener.totalFrames = total;
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicLong maxSeekNanos = new AtomicLong();
+        final AtomicLong totalSeekNanos = new AtomicLong();
+        runThreads(1, new Worker() {
+            @Override
+            public void run(int thread, Random random) throws InterruptedException {
+                for (int i = 0; i < SLOW_SEEKS; i++) {
+                    long begin = System.nanoTime();
+                    player.seek(random.nextInt(total / 2));
+                    long spent = System.nanoTime() - begin;
+                    totalSeekNanos.addAndGet(spent);
+                    updateMax(maxSeekNanos, spent);
+                    Thread.sleep(1 + random.nextInt(5));
+                }
+            }
+        }, failure);
+        check(failure.get() == null, "跳转线程异常: " + failure.get());
+        check(listener.awaitFrames(listener.frames.get() + 1), backend + " 跳转后没有帧回调");
+        player.stop();
+        player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+        player.setPlaybackSpeed(1.0f);
+
+        listener.assertClean(backend + " 慢回调跳转");
+        // 单次调用可能被调度抢占，平均耗时应远小于一次帧回调
+        long averageSeek = totalSeekNanos.get() / SLOW_SEEKS;
+        check(averageSeek < TimeUnit.MILLISECONDS.toNanos(SLOW_CALLBACK_MILLIS) / 2, String.format(
+            "%s 跳转等待了帧回调: 平均%.2fms，帧回调%dms", backend, averageSeek / 1e6, SLOW_CALLBACK_MILLIS));
+        return String.format("✅ %s 慢回调(%dms)中跳转%d次: 平均%.3fms/最长%.2fms, 交付%d帧均在调度线程\n",
+            backend, SLOW_CALLBACK_MILLIS, SLOW_SEEKS, averageSeek / 1e6, maxSeekNanos.get() / 1e6,
+            listener.frames.get());
+    }
+
+    /**
+     * 主线程Looper所在的线程（HANDLER后端的调度线程）
+     */
+    private static Thread mainLooperThread() throws InterruptedException {
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final CountDownLatch ran = new CountDownLatch(1);
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                thread.set(Thread.currentThread());
+                ran.countDown();
+            }
+        });
+        check(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "主线程Looper未执行任务");
+        return thread.get();
+    }
+
+    private interface Worker {
+        void run(int thread, Random random) throws Exception;
+    }
+
+    private static void runThreads(int count, final Worker worker, final AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        final CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < count; t++) {
+            final int index = t;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ready.await();
+                        worker.run(index, new Random(index));
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }, "StressControl-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        ready.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            check(!thread.isAlive(), "控制线程未结束（死锁？）: " + thread.getName());
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // 重试
+        }
+    }
+
+    /**
+     * 检查回调不重叠、帧索引在范围内、只在调度线程上回调，并统计帧数和错误；callbackMillis 模拟耗时的监听器
+     */
+    private static final class CheckingListener implements FrameBufferListener {
+        final AtomicInteger frames = new AtomicInteger();
+        final AtomicInteger inCallback = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final AtomicInteger outOfRange = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicInteger offScheduler = new AtomicInteger();
+        volatile int totalFrames = Integer.MAX_VALUE;
+        volatile TimingBackend backend = TimingBackend.PRECISION_THREAD;
+        volatile Thread looperThread;
+        volatile String offSchedulerThread;
+        volatile long callbackMillis = 0;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            if (inCallback.getAndIncrement() != 0) {
+                overlaps.incrementAndGet();
+            }
+            if (frameIndex < 0 || frameIndex >= totalFrames) {
+                outOfRange.incrementAndGet();
+            }
+            if (!onSchedulerThread()) {
+                offSchedulerThread = Thread.currentThread().getName();
+                offScheduler.incrementAndGet();
+            }
+            if (callbackMillis > 0) {
+                try {
+                    Thread.sleep(callbackMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            frames.incrementAndGet();
+            inCallback.decrementAndGet();
+        }
+
+        private boolean onSchedulerThread() {
+            Thread current = Thread.currentThread();
+            switch (backend) {
+                case HANDLER:
+                    return current == looperThread;
+                case SHARED_THREAD:
+                    return current.getName().equals(SharedFrameScheduler.THREAD_NAME);
+                default:
+                    return current.getName().equals(PrecisionFrameScheduler.THREAD_NAME);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+
+        boolean awaitFrames(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (frames.get() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+            return true;
+        }
+
+        int framesDuring(long millis) throws InterruptedException {
+            int before = frames.get();
+            Thread.sleep(millis);
+            return frames.get() - before;
+        }
+
+        void assertClean(String label) {
+            check(overlaps.get() == 0, label + " 帧回调重叠: " + overlaps.get());
+            check(outOfRange.get() == 0, label + " 帧索引越界: " + outOfRange.get());
+            check(errors.get() == 0, label + " 播放错误: " + errors.get());
+            check(offScheduler.get() == 0, String.format("%s 有%d次帧回调不在%s的调度线程上（如 %s）",
+                label, offScheduler.get(), backend, offSchedulerThread));
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 队列无缝播放测试
+ * 连续播放3个序列，验证每个序列的帧索引从0开始完整输出、序列之间没有空出的播放周期
+ * （相邻帧回调间隔不超过帧周期加调度误差）、切换统计与回调次数正确，且onComplete只回调一次
+ */
+public class QueueGaplessTest {
+
+    private static final String TAG = "QueueGaplessTest";
+
+    private static final int FREQUENCY = 100;
+    private static final int QUEUE_LENGTH = 3;
+    private static final long TIMEOUT_SECONDS = 60;
+    private static final long ALLOWED_LATENESS_NANOS = 3000000L;  // 调度误差
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+
+        try {
+            // 1. 单序列播放作为基准
+            RecordingListener single = new RecordingListener();
+            player.play("queue_reference", FREQUENCY, single);
+            check(single.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "单序列播放超时");
+            int framesPerSequence = single.frameIndices.size();
+
+            // 2. 队列播放
+            final List<String> startedNames = new ArrayList<>();
+        final List<Integer> startedRemaining = new ArrayList<>();
+            player.setQueueListener(new EvoBotSequencePlayer.QueueListener() {
+                @Override
+                public void onSequenceStarted(String actionName, int remaining) {
+                    // 在播放线程回调，只记录原始值
+                    startedNames.add(actionName);
+                    startedRemaining.add(remaining);
+                }
+            });
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < QUEUE_LENGTH; i++) {
+                names.add("queue_" + i);
+            }
+            RecordingListener queued = new RecordingListener();
+            player.playQueue(names, FREQUENCY, queued);
+            check(queued.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "队列播放超时");
+            Thread.sleep(50);
+
+            check(queued.completions == 1, "onComplete应只回调一次: " + queued.completions);
+            check(queued.frameIndices.size() == framesPerSequence * QUEUE_LENGTH,
+                String.format("总帧数错误: %d vs %d", queued.frameIndices.size(), framesPerSequence * QUEUE_LENGTH));
+            for (int i = 0; i < queued.frameIndices.size(); i++) {
+                int expected = i % framesPerSequence;
+                check(queued.frameIndices.get(i) == expected,
+                    String.format("第%d帧索引错误: %d vs %d", i, queued.frameIndices.get(i), expected));
+                check(Arrays.equals(queued.frames.get(i), single.frames.get(expected)), "第" + i + "帧内容不一致");
+            }
+            report.append(String.format("✅ %d个序列 x %d帧，帧索引在序列边界归零，内容与单序列一致\n",
+                QUEUE_LENGTH, framesPerSequence));
+
+            // 3. 序列边界没有空出播放周期
+            long periodNanos = 1000000000L / FREQUENCY;
+            long maxBoundaryInterval = 0;
+            for (int sequence = 1; sequence < QUEUE_LENGTH; sequence++) {
+                int first = sequence * framesPerSequence;
+                maxBoundaryInterval = Math.max(maxBoundaryInterval,
+                    queued.timestamps.get(first) - queued.timestamps.get(first - 1));
+            }
+            check(maxBoundaryInterval <= periodNanos + ALLOWED_LATENESS_NANOS,
+                String.format("序列边界间隔过大: %.2fms", maxBoundaryInterval / 1e6));
+
+            EvoBotSequencePlayer.QueueStats stats = player.getQueueStats();
+            check(stats.transitions == QUEUE_LENGTH - 1, "切换次数错误: " + stats.transitions);
+            check(stats.lateTransitions == 0, "存在未及时预加载的切换: " + stats.lateTransitions);
+            check(startedNames.equals(names.subList(1, QUEUE_LENGTH))
+                && startedRemaining.equals(Arrays.asList(1, 0)), "切换回调错误: " + startedNames + startedRemaining);
+            report.append(String.format("✅ 序列边界最大帧间隔 %.2fms（周期 %.2fms），%s\n",
+                maxBoundaryInterval / 1e6, periodNanos / 1e6, stats.toString().replace('\n', ' ')));
+
+            // 4. 非队列播放时不能追加
+            try {
+                player.enqueue("queue_extra");
+                throw new AssertionError("非队列播放时enqueue应抛出异常");
+            } catch (IllegalStateException expected) {
+                report.append("✅ 非队列播放时enqueue被拒绝\n");
+            }
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static final class RecordingListener implements FrameBufferListener {
+        final List<int[]> frames = new ArrayList<>();
+        final List<Integer> frameIndices = new ArrayList<>();
+        final List<Long> timestamps = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile int completions;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            timestamps.add(System.nanoTime());
+            int[] frame = new int[SequenceData.JOINTS_PER_FRAME];
+            System.arraycopy(leftArm, 0, frame, 0, SequenceData.JOINTS_PER_ARM);
+            System.arraycopy(rightArm, 0, frame, SequenceData.JOINTS_PER_ARM, SequenceData.JOINTS_PER_ARM);
+            frames.add(frame);
+            frameIndices.add(frameIndex);
+        }
+
+        @Override
+        public void onComplete() {
+            completions++;
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+/**
+ * 重采样测试
+ * 验证 FrameResampler 的时长映射、线性/三次插值精度、保持值（-1）不参与插值、
+ * 相位表与逐帧计算结果一致，并测量每个输出帧的耗时
+ */
+public class ResamplerTest {
+
+    private static final String TAG = "ResamplerTest";
+
+    private static final int SYNTHETIC_FRAMES = 100000;
+
+    /**
+     * 运行测试
+     *
+     * @return 报告文本
+     */
+    public String run() {
+        StringBuilder report = new StringBuilder();
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+
+        // 1. 时长映射：40Hz序列以100Hz播放，时长不变
+        FrameResampler up = new FrameResampler(40.0f, 100, ResampleMode.LINEAR);
+        check(up.hasPhaseTable(), "40->100Hz应使用相位表");
+        check(up.outputFrameCount(401) == 1001, "输出帧数错误: " + up.outputFrameCount(401));
+        check(up.sourceFrameAt(5) == 2 && up.tickForSourceFrame(2) == 5, "位置映射错误");
+        check(up.tickForSourceFrame(3) == 8, "跳转位置应取不早于源帧的输出帧: " + up.tickForSourceFrame(3));
+        report.append("✅ 40Hz->100Hz 时长与位置映射\n");
+
+        // 2. 线性插值：线性斜坡上输出与解析值一致
+        SequenceData ramp = createRamp(401);
+        ramp.buildResolvedFrames();
+        for (long tick = 0; tick < up.outputFrameCount(ramp.totalFrames); tick++) {
+            up.render(ramp.getResolvedFrameArray(), ramp.totalFrames, tick, left, right);
+            int expected = Math.round(tick * 0.4f * 10);
+            check(Math.abs(left[0] - expected) <= 1, String.format("线性插值误差过大: tick=%d, %d vs %d", tick, left[0], expected));
+        }
+        report.append("✅ 线性插值在斜坡上与解析值一致\n");
+
+        // 3. 三次插值：正弦轨迹的误差明显小于线性插值，且结果不越界
+        SequenceData sine = createSine(400);
+        sine.buildResolvedFrames();
+        FrameResampler cubic = new FrameResampler(40.0f, 100, ResampleMode.CUBIC);
+        double linearError = 0;
+        double cubicError = 0;
+        for (long tick = 0; tick < up.outputFrameCount(sine.totalFrames); tick++) {
+            double expected = sineValue(tick * 0.4);
+            up.render(sine.getResolvedFrameArray(), sine.totalFrames, tick, left, right);
+            linearError = Math.max(linearError, Math.abs(left[0] - expected));
+            cubic.render(sine.getResolvedFrameArray(), sine.totalFrames, tick, left, right);
+            cubicError = Math.max(cubicError, Math.abs(left[0] - expected));
+            check(left[1] >= 0 && left[1] <= SequenceData.POSITION_MAX, "三次插值越界: " + left[1]);
+        }
+        check(cubicError < linearError, String.format("三次插值误差(%.2f)应小于线性(%.2f)", cubicError, linearError));
+        report.append(String.format("✅ 正弦轨迹最大误差: 线性=%.2f, 三次=%.2f，三次插值结果不越界\n", linearError, cubicError));
+
+        // 4. 保持值：此前从未有效的关节不与有效位置混合
+        SequenceData holds = createLeadingHold(200, 100);
+        holds.buildResolvedFrames();
+        for (ResampleMode mode : new ResampleMode[] {ResampleMode.LINEAR, ResampleMode.CUBIC}) {
+            FrameResampler resampler = new FrameResampler(40.0f, 100, mode);
+            for (long tick = 0; tick < resampler.outputFrameCount(holds.totalFrames); tick++) {
+                resampler.render(holds.getResolvedFrameArray(), holds.totalFrames, tick, left, right);
+                int source = resampler.sourceFrameAt(tick);
+                if (source < 100) {
+                    check(left[0] == -1, String.format("%s tick=%d 应保持-1，实际%d", mode, tick, left[0]));
+                } else {
+                    check(left[0] >= 3000, String.format("%s tick=%d 混入了-1: %d", mode, tick, left[0]));
+                }
+            }
+        }
+        report.append("✅ -1（保持）不参与插值\n");
+
+        // 5. 非整数比采样率：逐帧计算权重，结果与相位表一致
+        SequenceData synthetic = SyntheticSequenceFactory.createSequence(
+            "resample_100k", SYNTHETIC_FRAMES, 40.0f, 3L);
+        synthetic.buildResolvedFrames();
+        int[] tableLeft = new int[SequenceData.JOINTS_PER_ARM];
+        int[] tableRight = new int[SequenceData.JOINTS_PER_ARM];
+        for (ResampleMode mode : new ResampleMode[] {ResampleMode.LINEAR, ResampleMode.CUBIC}) {
+            FrameResampler table = new FrameResampler(40.0f, 100, mode);
+            FrameResampler direct = new FrameResampler(40.0f, 100, mode, 1);
+            check(!direct.hasPhaseTable(), "maxPhases=1时不应使用相位表");
+            for (long tick = 0; tick < 20000; tick++) {
+                table.render(synthetic.getResolvedFrameArray(), synthetic.totalFrames, tick, tableLeft, tableRight);
+                direct.render(synthetic.getResolvedFrameArray(), synthetic.totalFrames, tick, left, right);
+                check(java.util.Arrays.equals(tableLeft, left) && java.util.Arrays.equals(tableRight, right),
+                    mode + " 相位表与逐帧计算不一致: tick=" + tick);
+            }
+        }
+        FrameResampler odd = new FrameResampler(29.97f, 100, ResampleMode.CUBIC);
+        check(!odd.hasPhaseTable(), "29.97->100Hz相位数超出上限，应逐帧计算");
+        report.append("✅ 相位表与逐帧计算结果一致\n");
+
+        // 6. 单帧耗时
+        report.append(String.format("每输出帧耗时: 线性=%.1fns, 三次=%.1fns, 三次(逐帧计算权重)=%.1fns\n",
+            timePerTick(new FrameResampler(40.0f, 100, ResampleMode.LINEAR), synthetic),
+            timePerTick(new FrameResampler(40.0f, 100, ResampleMode.CUBIC), synthetic),
+            timePerTick(odd, synthetic)));
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static double timePerTick(FrameResampler resampler, SequenceData data) {
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+        long ticks = resampler.outputFrameCount(data.totalFrames);
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (long tick = 0; tick < ticks; tick++) {
+                resampler.render(data.getResolvedFrameArray(), data.totalFrames, tick, left, right);
+                checksum += left[0];
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        check(checksum != Long.MIN_VALUE, "");
+        return (double) best / ticks;
+    }
+
+    private static SequenceData createRamp(int frames) {
+        SequenceData data = createEmpty("ramp", frames);
+        for (int frame = 0; frame < frames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, frame * 10);
+            }
+        }
+        return data;
+    }
+
+    private static SequenceData createSine(int frames) {
+        SequenceData data = createEmpty("sine", frames);
+        for (int frame = 0; frame < frames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                // 关节1贴近上限，用于检查三次插值的过冲限制
+                int value = joint == 1 ? (frame % 8 < 4 ? SequenceData.POSITION_MAX : 3900)
+                    : (int) Math.round(sineValue(frame));
+                data.setJoint(frame, joint, value);
+            }
+        }
+        return data;
+    }
+
+    private static double sineValue(double frame) {
+        return 2048 + 1500 * Math.sin(frame * 2 * Math.PI / 40);
+    }
+
+    private static SequenceData createLeadingHold(int frames, int firstValid) {
+        SequenceData data = createEmpty("leading_hold", frames);
+        for (int frame = 0; frame < frames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, frame < firstValid ? -1 : 3000 + frame);
+            }
+        }
+        return data;
+    }
+
+    private static SequenceData createEmpty(String name, int frames) {
+        SequenceData data = new SequenceData();
+        data.name = name;
+        data.sampleRate = 40.0f;
+        data.totalDuration = frames / 40.0f;
+        data.allocateFrames(frames);
+        return data;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+
+/**
+ * 预解析帧表黄金对比测试
+ * 以播放器原有的逐帧-1填充算法为基准，逐帧比较预解析帧表的输出，
+ * 覆盖完整加载、流式加载（预读就绪时才建表）和内存映射加载三种路径，并对比两种方式的单帧耗时
+ */
+public class ResolvedFramesGoldenTest {
+
+    private static final String TAG = "ResolvedFramesGoldenTest";
+
+    private static final String[] BUNDLED_ASSETS = {
+        "sequences/左臂挥手右臂掐腰抱胸_20260116_142711.ebs",
+        "sequences/左臂挥手_20260119_100526.ebs",
+        "sequences/左手握手动作_20260119_100444.ebs"
+    };
+    private static final int SYNTHETIC_FRAMES = 100000;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws Exception {
+        StringBuilder report = new StringBuilder();
+        SequenceLoader loader = new SequenceLoader(context);
+
+        for (String assetPath : BUNDLED_ASSETS) {
+            SequenceData data = loader.loadFromAssets(assetPath);
+            data.buildResolvedFrames();
+            compareWithGolden(data);
+        }
+        report.append("✅ 内置序列预解析输出与逐帧填充一致\n");
+
+        SequenceData synthetic = SyntheticSequenceFactory.createSequence(
+            "golden_100k", SYNTHETIC_FRAMES, 40.0f, 11L);
+        long start = System.nanoTime();
+        synthetic.buildResolvedFrames();
+        long buildNs = System.nanoTime() - start;
+        compareWithGolden(synthetic);
+        report.append("✅ 合成序列预解析输出与逐帧填充一致\n");
+
+        // 流式加载：预读就绪时建表，剩余帧由加载线程继续扩展
+        byte[] bytes = SyntheticSequenceFactory.toEbs1Bytes(synthetic);
+        SequenceData streamed = loader.parseEbsFileStreaming(new ByteArrayInputStream(bytes),
+            SequenceLoader.DEFAULT_LOOKAHEAD_FRAMES, new SequenceLoader.StreamingCallback() {
+                @Override
+                public void onLookaheadReady(SequenceData data) {
+                    data.buildResolvedFrames();
+                }
+            });
+        check(streamed.hasResolvedFrames(), "流式加载未建立预解析帧表");
+        compareWithGolden(streamed);
+
+        // 内存映射加载
+        File file = new File(context.getCacheDir(), "golden_mapped.ebs");
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(bytes);
+        }
+        try {
+            SequenceData mapped = loader.loadFromFile(file);
+            mapped.buildResolvedFrames();
+            compareWithGolden(mapped);
+        } finally {
+            file.delete();
+        }
+        report.append("✅ 流式加载/内存映射加载预解析输出一致\n");
+
+        // 单帧耗时对比
+        long legacyNs = Long.MAX_VALUE;
+        long resolvedNs = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            legacyNs = Math.min(legacyNs, timeLegacy(synthetic));
+            resolvedNs = Math.min(resolvedNs, timeResolved(synthetic));
+        }
+        report.append(String.format("%d帧: 建表=%.2fms, 逐帧填充=%.1fns/帧, 预解析复制=%.1fns/帧\n",
+            SYNTHETIC_FRAMES, buildNs / 1e6,
+            (double) legacyNs / SYNTHETIC_FRAMES, (double) resolvedNs / SYNTHETIC_FRAMES));
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static void compareWithGolden(SequenceData data) {
+        int[] lastValidLeft = new int[SequenceData.JOINTS_PER_ARM];
+        int[] lastValidRight = new int[SequenceData.JOINTS_PER_ARM];
+        Arrays.fill(lastValidLeft, -1);
+        Arrays.fill(lastValidRight, -1);
+        int[] raw = new int[SequenceData.JOINTS_PER_ARM];
+        int[] resolved = new int[SequenceData.JOINTS_PER_ARM];
+
+        for (int frame = 0; frame < data.totalFrames; frame++) {
+            data.copyLeftArmFrame(frame, raw);
+            int[] expectedLeft = fillMinusOneValues(raw, lastValidLeft);
+            check(data.copyResolvedLeftArmFrame(frame, resolved), "读取预解析左臂失败: 帧" + frame);
+            check(Arrays.equals(expectedLeft, resolved), String.format("%s 帧%d左臂不一致", data.name, frame));
+
+            data.copyRightArmFrame(frame, raw);
+            int[] expectedRight = fillMinusOneValues(raw, lastValidRight);
+            check(data.copyResolvedRightArmFrame(frame, resolved), "读取预解析右臂失败: 帧" + frame);
+            check(Arrays.equals(expectedRight, resolved), String.format("%s 帧%d右臂不一致", data.name, frame));
+        }
+    }
+
+    /**
+     * 黄金基准：与 EvoBotSequencePlayer 的逐帧-1填充算法相同（去掉日志）
+     */
+    private static int[] fillMinusOneValues(int[] currentValues, int[] lastValidValues) {
+        int[] processedValues = new int[currentValues.length];
+        for (int i = 0; i < currentValues.length; i++) {
+            if (currentValues[i] == -1) {
+                processedValues[i] = lastValidValues[i] != -1 ? lastValidValues[i] : -1;
+            } else {
+                lastValidValues[i] = currentValues[i];
+                processedValues[i] = currentValues[i];
+            }
+        }
+        return processedValues;
+    }
+
+    private static long timeLegacy(SequenceData data) {
+        int[] lastValidLeft = new int[SequenceData.JOINTS_PER_ARM];
+        int[] lastValidRight = new int[SequenceData.JOINTS_PER_ARM];
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int frame = 0; frame < data.totalFrames; frame++) {
+            data.copyLeftArmFrame(frame, left);
+            data.copyRightArmFrame(frame, right);
+            checksum += fillMinusOneValues(left, lastValidLeft)[0] + fillMinusOneValues(right, lastValidRight)[0];
+        }
+        long elapsed = System.nanoTime() - start;
+        check(checksum != Long.MIN_VALUE, "");
+        return elapsed;
+    }
+
+    private static long timeResolved(SequenceData data) {
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int frame = 0; frame < data.totalFrames; frame++) {
+            data.copyResolvedLeftArmFrame(frame, left);
+            data.copyResolvedRightArmFrame(frame, right);
+            checksum += left[0] + right[0];
+        }
+        long elapsed = System.nanoTime() - start;
+        check(checksum != Long.MIN_VALUE, "");
+        return elapsed;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 跳转（seek）基准测试
+ * 验证保持值检查点恢复的-1填充状态与从第0帧顺序播放一致，
+ * 并对比检查点恢复与从头重放的跳转延迟
+ *
+ * 测试对象：10k / 100k 帧合成序列（含大量保持区间）
+ */
+public class SeekBenchmark {
+
+    private static final String TAG = "SeekBenchmark";
+
+    private static final int[] FRAME_COUNTS = {10000, 100000};
+    private static final int SEEK_COUNT = 2000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * 运行全部测试
+     *
+     * @return 报告文本
+     */
+    public String runAll() {
+        StringBuilder report = new StringBuilder();
+
+        verifyLeadingHolds();
+        report.append("✅ 序列开头的保持帧恢复为-1\n");
+
+        report.append(String.format("%-10s %10s %10s %12s %12s %12s %12s\n",
+            "帧数", "建表ms", "检查点KB", "检查点avg us", "检查点max us", "重放avg us", "重放max us"));
+
+        for (int frameCount : FRAME_COUNTS) {
+            SequenceData data = SyntheticSequenceFactory.createSequence(
+                "seek_" + frameCount, frameCount, 40.0f, frameCount);
+
+            long start = System.nanoTime();
+            data.buildHoldCheckpoints();
+            long buildNs = System.nanoTime() - start;
+
+            verifyAgainstSequentialPlayback(data);
+
+            int[] targets = new int[SEEK_COUNT];
+            Random random = new Random(7);
+            for (int i = 0; i < SEEK_COUNT; i++) {
+                targets[i] = random.nextInt(frameCount);
+            }
+
+            long[] checkpoint = null;
+            long[] replay = null;
+            for (int round = 0; round < WARMUP_ROUNDS + 1; round++) {
+                checkpoint = measureCheckpointSeek(data, targets);
+                replay = measureReplaySeek(data, targets);
+            }
+
+            int checkpointCount = (frameCount + SequenceData.HOLD_CHECKPOINT_INTERVAL - 1)
+                / SequenceData.HOLD_CHECKPOINT_INTERVAL;
+            report.append(String.format("%-10d %10.3f %10.1f %12.2f %12.2f %12.2f %12.2f\n",
+                frameCount, buildNs / 1e6, checkpointCount * SequenceData.JOINTS_PER_FRAME * 2 / 1024.0,
+                checkpoint[0] / 1e3 / SEEK_COUNT, checkpoint[1] / 1e3,
+                replay[0] / 1e3 / SEEK_COUNT, replay[1] / 1e3));
+        }
+        report.append("✅ 检查点恢复的保持状态与顺序播放一致\n");
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    /**
+     * 逐帧顺序播放，每隔若干帧与检查点恢复结果比较
+     */
+    private static void verifyAgainstSequentialPlayback(SequenceData data) {
+        int[] expected = new int[SequenceData.JOINTS_PER_FRAME];
+        Arrays.fill(expected, -1);
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+
+        for (int frame = 0; frame < data.totalFrames; frame++) {
+            // 检查点边界两侧和随机位置都要覆盖
+            int offset = frame % SequenceData.HOLD_CHECKPOINT_INTERVAL;
+            if (offset == 0 || offset == 1 || offset == SequenceData.HOLD_CHECKPOINT_INTERVAL - 1 || frame % 97 == 0) {
+                check(data.resolveHoldState(frame, left, right), "恢复保持状态失败: 帧" + frame);
+                for (int j = 0; j < SequenceData.JOINTS_PER_ARM; j++) {
+                    check(left[j] == expected[j] && right[j] == expected[SequenceData.JOINTS_PER_ARM + j],
+                        String.format("%s 帧%d关节%d保持状态不一致", data.name, frame, j));
+                }
+            }
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                int pos = data.getJoint(frame, joint);
+                if (pos != -1) {
+                    expected[joint] = pos;
+                }
+            }
+        }
+    }
+
+    /**
+     * 开头带保持帧且直接设置帧数据（未显式建表）的序列
+     */
+    private static void verifyLeadingHolds() {
+        SequenceData data = new SequenceData();
+        data.name = "leading_holds";
+        data.allocateFrames(600);
+        for (int frame = 0; frame < 600; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, joint == 0 && frame >= 300 ? frame : -1);
+            }
+        }
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+
+        check(data.resolveHoldState(0, left, right) && left[0] == -1 && right[0] == -1, "第0帧应全部为-1");
+        check(data.resolveHoldState(300, left, right) && left[0] == -1, "第300帧之前尚无有效值");
+        check(data.resolveHoldState(512, left, right) && left[0] == 511 && left[1] == -1, "检查点边界恢复错误");
+        check(data.resolveHoldState(600, left, right) && left[0] == 599, "序列末尾恢复错误");
+        check(!data.resolveHoldState(601, left, right), "越界帧应返回false");
+    }
+
+    /**
+     * @return {总耗时ns, 单次最大耗时ns}
+     */
+    private static long[] measureCheckpointSeek(SequenceData data, int[] targets) {
+        int[] left = new int[SequenceData.JOINTS_PER_ARM];
+        int[] right = new int[SequenceData.JOINTS_PER_ARM];
+        long total = 0;
+        long max = 0;
+        for (int target : targets) {
+            long start = System.nanoTime();
+            data.resolveHoldState(target, left, right);
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            max = Math.max(max, elapsed);
+        }
+        return new long[] {total, max};
+    }
+
+    /**
+     * 对照组：从第0帧重放到目标帧
+     */
+    private static long[] measureReplaySeek(SequenceData data, int[] targets) {
+        int[] state = new int[SequenceData.JOINTS_PER_FRAME];
+        long total = 0;
+        long max = 0;
+        for (int target : targets) {
+            long start = System.nanoTime();
+            Arrays.fill(state, -1);
+            for (int frame = 0; frame < target; frame++) {
+                for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                    int pos = data.getJoint(frame, joint);
+                    if (pos != -1) {
+                        state[joint] = pos;
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            max = Math.max(max, elapsed);
+        }
+        return new long[] {total, max};
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
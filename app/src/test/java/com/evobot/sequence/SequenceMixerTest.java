@@ -0,0 +1,241 @@
+package com.evobot.sequence;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分层混合测试
+ * 验证左右臂分别取自不同序列、各层独立游标与循环、上层-1时取下层的值，
+ * 比较混合与单序列播放的每帧耗时，并通过播放器的 playPerArm 完整播放一次
+ */
+public class SequenceMixerTest {
+
+    private static final String TAG = "SequenceMixerTest";
+
+    private static final int FREQUENCY = 100;
+    private static final int TIMING_FRAMES = 100000;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * 运行测试
+     *
+     * @param context Android上下文
+     * @return 报告文本
+     */
+    public String run(Context context) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+
+        // 1. 左右臂分别取自不同长度的序列，短的一层播放完后保持最后一帧
+        SequenceData a = createRamp("a", 100, 1000);
+        SequenceData b = createRamp("b", 60, 2000);
+        SequenceMixer perArm = new SequenceMixer();
+        perArm.addLayer(a, SequenceMixer.LEFT_ARM_MASK);
+        perArm.addLayer(b, SequenceMixer.RIGHT_ARM_MASK);
+        RecordingListener out = new RecordingListener();
+        while (!perArm.isFinished()) {
+            perArm.render(out);
+        }
+        check(out.frames.size() == 100, "应输出最长一层的帧数: " + out.frames.size());
+        for (int frame = 0; frame < 100; frame++) {
+            int[] values = out.frames.get(frame);
+            check(values[0] == 1000 + frame && values[9] == 1000 + frame, "左臂应取自a: " + frame);
+            int expectedRight = 2000 + Math.min(frame, 59);
+            check(values[10] == expectedRight && values[19] == expectedRight,
+                String.format("右臂应取自b: 第%d帧 %d vs %d", frame, values[10], expectedRight));
+        }
+        report.append("✅ 左右臂分别取自不同序列，短序列结束后保持最后一帧\n");
+
+        // 2. 独立游标与循环层
+        SequenceMixer looping = new SequenceMixer();
+        looping.addLayer(a, SequenceMixer.LEFT_ARM_MASK);
+        int loopLayer = looping.addLayer(b, SequenceMixer.RIGHT_ARM_MASK, true);
+        looping.setLayerFrame(loopLayer, 50);
+        out.clear();
+        while (!looping.isFinished()) {
+            looping.render(out);
+        }
+        check(out.frames.size() == 100, "循环层不应延长混合: " + out.frames.size());
+        for (int frame = 0; frame < 100; frame++) {
+            int expectedRight = 2000 + (50 + frame) % 60;
+            check(out.frames.get(frame)[10] == expectedRight,
+                String.format("循环层第%d帧错误: %d vs %d", frame, out.frames.get(frame)[10], expectedRight));
+        }
+        report.append("✅ 各层独立游标，循环层从起点回绕\n");
+
+        // 3. 上层在关节上仍为-1时取下层的值，未覆盖的关节输出-1
+        SequenceData overlay = createLeadingHold("overlay", 100, 10, 3500);
+        SequenceMixer layered = new SequenceMixer();
+        layered.addLayer(a, SequenceMixer.LEFT_ARM_MASK);
+        layered.addLayer(overlay, 0x3);
+        out.clear();
+        for (int frame = 0; frame < 20; frame++) {
+            layered.render(out);
+            int[] values = out.frames.get(frame);
+            int expected = frame < 10 ? 1000 + frame : 3500;
+            check(values[0] == expected && values[1] == expected,
+                String.format("覆盖层第%d帧错误: %d vs %d", frame, values[0], expected));
+            check(values[2] == 1000 + frame, "未覆盖的关节应取自底层");
+            check(values[10] == -1, "没有层覆盖的关节应为-1");
+        }
+        report.append("✅ 上层-1时取下层的值，未覆盖的关节保持\n");
+
+        // 4. 每帧耗时：两层混合与单序列预解析播放对比
+        SequenceData left = SyntheticSequenceFactory.createSequence("mix_left", TIMING_FRAMES, 40.0f, 21L);
+        SequenceData right = SyntheticSequenceFactory.createSequence("mix_right", TIMING_FRAMES, 40.0f, 22L);
+        left.buildResolvedFrames();
+        double singleNanos = timeSingle(left);
+        double mixedNanos = timeMixed(left, right);
+        report.append(String.format("每帧耗时: 单序列=%.1fns, 两层混合=%.1fns\n", singleNanos, mixedNanos));
+
+        // 5. 播放器：左右臂播放同一动作，输出与单序列播放一致
+        EvoBotSequencePlayer player = new EvoBotSequencePlayer(context);
+        player.setTimingBackend(TimingBackend.PRECISION_THREAD);
+        try {
+            RecordingListener single = new RecordingListener();
+            player.play("mixer_reference", FREQUENCY, single);
+            check(single.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "单序列播放超时");
+
+            RecordingListener mixed = new RecordingListener();
+            player.playPerArm("mixer_left", "mixer_right", FREQUENCY, mixed);
+            check(mixed.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "混合播放超时");
+            check(mixed.frames.size() == single.frames.size(),
+                String.format("帧数不一致: %d vs %d", mixed.frames.size(), single.frames.size()));
+            for (int i = 0; i < single.frames.size(); i++) {
+                check(Arrays.equals(single.frames.get(i), mixed.frames.get(i)), "第" + i + "帧内容不一致");
+            }
+            report.append(String.format("✅ playPerArm 播放%d帧，与单序列播放一致\n", mixed.frames.size()));
+        } finally {
+            player.release();
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static double timeSingle(SequenceData data) {
+        FrameRenderer renderer = new FrameRenderer();
+        ChecksumListener sink = new ChecksumListener();
+        long best = Long.MAX_VALUE;
+        for (int pass = 0; pass < 5; pass++) {
+            renderer.reset();
+            long start = System.nanoTime();
+            for (int frame = 0; frame < data.totalFrames; frame++) {
+                renderer.render(data, frame, sink);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        check(sink.checksum != Long.MIN_VALUE, "");
+        return (double) best / data.totalFrames;
+    }
+
+    private static double timeMixed(SequenceData left, SequenceData right) {
+        SequenceMixer mixer = new SequenceMixer();
+        mixer.addLayer(left, SequenceMixer.LEFT_ARM_MASK);
+        mixer.addLayer(right, SequenceMixer.RIGHT_ARM_MASK);
+        ChecksumListener sink = new ChecksumListener();
+        long best = Long.MAX_VALUE;
+        for (int pass = 0; pass < 5; pass++) {
+            mixer.seek(0);
+            long start = System.nanoTime();
+            for (int frame = 0; frame < TIMING_FRAMES; frame++) {
+                mixer.render(sink);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        check(sink.checksum != Long.MIN_VALUE, "");
+        return (double) best / TIMING_FRAMES;
+    }
+
+    private static SequenceData createRamp(String name, int frames, int base) {
+        SequenceData data = createEmpty(name, frames);
+        for (int frame = 0; frame < frames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, base + frame);
+            }
+        }
+        return data;
+    }
+
+    private static SequenceData createLeadingHold(String name, int frames, int firstValid, int value) {
+        SequenceData data = createEmpty(name, frames);
+        for (int frame = 0; frame < frames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                data.setJoint(frame, joint, frame < firstValid ? -1 : value);
+            }
+        }
+        return data;
+    }
+
+    private static SequenceData createEmpty(String name, int frames) {
+        SequenceData data = new SequenceData();
+        data.name = name;
+        data.sampleRate = 40.0f;
+        data.totalDuration = frames / 40.0f;
+        data.allocateFrames(frames);
+        return data;
+    }
+
+    private static final class ChecksumListener implements FrameBufferListener {
+        long checksum;
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            checksum += leftArm[0] + rightArm[9];
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static final class RecordingListener implements FrameBufferListener {
+        final List<int[]> frames = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        void clear() {
+            frames.clear();
+        }
+
+        @Override
+        public void onFrameBuffer(int[] leftArm, int[] rightArm, int frameIndex) {
+            int[] frame = new int[SequenceData.JOINTS_PER_FRAME];
+            System.arraycopy(leftArm, 0, frame, 0, SequenceData.JOINTS_PER_ARM);
+            System.arraycopy(rightArm, 0, frame, SequenceData.JOINTS_PER_ARM, SequenceData.JOINTS_PER_ARM);
+            frames.add(frame);
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            Log.e(TAG, "播放错误: " + errorMessage);
+        }
+
+        @Override
+        public void onEmergencyStop() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
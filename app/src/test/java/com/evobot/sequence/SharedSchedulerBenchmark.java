@@ -0,0 +1,115 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 共享调度器测试
+ * 同时运行多个不同频率的调度器，对比每个调度器一个线程（PRECISION_THREAD）与共享调度线程（SHARED_THREAD）：
+ * 各自的帧数是否符合频率、相对理想时间点的平均/最大偏差、执行帧任务的线程数，以及共享线程每次唤醒合并执行的帧数
+ */
+public class SharedSchedulerBenchmark {
+
+    private static final String TAG = "SharedSchedulerBenchmark";
+
+    private static final int[] FREQUENCIES = {30, 40, 50, 60, 100};
+    private static final int SCHEDULERS = 25;
+    private static final double RUN_SECONDS = 3.0;
+
+    /**
+     * 运行全部测试
+     *
+     * @return 报告文本
+     */
+    public String runAll() throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-18s %8s %8s %12s %12s %10s\n",
+            "后端", "调度器数", "线程数", "平均偏差us", "最大偏差us", "帧数误差"));
+
+        report.append(measure("PRECISION_THREAD", false));
+        long wakeupsBefore = SharedFrameScheduler.wakeupCount();
+        long ticksBefore = SharedFrameScheduler.tickCount();
+        report.append(measure("SHARED_THREAD", true));
+        long wakeups = SharedFrameScheduler.wakeupCount() - wakeupsBefore;
+        long ticks = SharedFrameScheduler.tickCount() - ticksBefore;
+        check(SharedFrameScheduler.activeCount() == 0, "停止后仍有调度中的条目: " + SharedFrameScheduler.activeCount());
+        report.append(String.format("共享线程: 唤醒%d次, 执行%d帧, 每次唤醒%.2f帧\n",
+            wakeups, ticks, (double) ticks / Math.max(1, wakeups)));
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static String measure(String label, boolean shared) throws InterruptedException {
+        Set<Thread> tickThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        List<FrameScheduler> schedulers = new ArrayList<>();
+        List<Recorder> recorders = new ArrayList<>();
+        for (int i = 0; i < SCHEDULERS; i++) {
+            int frequency = FREQUENCIES[i % FREQUENCIES.length];
+            FrameScheduler scheduler = shared ? new SharedFrameScheduler() : new PrecisionFrameScheduler();
+            Recorder recorder = new Recorder(1000000000L / frequency, (int) (frequency * RUN_SECONDS * 2), tickThreads);
+            schedulers.add(scheduler);
+            recorders.add(recorder);
+            scheduler.start(recorder.periodNanos, recorder);
+        }
+        Thread.sleep((long) (RUN_SECONDS * 1000));
+        for (FrameScheduler scheduler : schedulers) {
+            scheduler.stop();
+        }
+
+        double deviationSum = 0;
+        long deviationMax = 0;
+        long samples = 0;
+        int countErrors = 0;
+        for (Recorder recorder : recorders) {
+            long first = recorder.timestamps[0];
+            for (int i = 0; i < recorder.count; i++) {
+                long deviation = Math.abs(recorder.timestamps[i] - (first + i * recorder.periodNanos));
+                deviationSum += deviation;
+                deviationMax = Math.max(deviationMax, deviation);
+                samples++;
+            }
+            // 帧数应与运行时长对应的周期数一致（起止时刻各允许1帧误差）
+            long expected = (recorder.timestamps[recorder.count - 1] - first) / recorder.periodNanos + 1;
+            countErrors += Math.abs(recorder.count - expected) > 1 ? 1 : 0;
+        }
+        check(countErrors == 0, label + " 有调度器帧数与频率不符: " + countErrors);
+
+        return String.format("%-18s %8d %8d %12.1f %12.1f %10d\n",
+            label, SCHEDULERS, tickThreads.size(), deviationSum / samples / 1e3, deviationMax / 1e3, countErrors);
+    }
+
+    private static final class Recorder implements Runnable {
+        final long periodNanos;
+        final long[] timestamps;
+        private final Set<Thread> tickThreads;
+        int count;
+
+        Recorder(long periodNanos, int capacity, Set<Thread> tickThreads) {
+            this.periodNanos = periodNanos;
+            this.timestamps = new long[capacity];
+            this.tickThreads = tickThreads;
+        }
+
+        @Override
+        public void run() {
+            if (count == 0) {
+                tickThreads.add(Thread.currentThread());
+            }
+            if (count < timestamps.length) {
+                timestamps[count++] = System.nanoTime();
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
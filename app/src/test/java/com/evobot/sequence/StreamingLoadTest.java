@@ -0,0 +1,138 @@
+package com.evobot.sequence;
+
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 流式加载测试
+ * 验证 SequenceLoader.parseEbsFileStreaming 的解析结果、预读回调和截断处理，
+ * 并在限速输入流（模拟HTTP下载）上对比首帧延迟与完整加载耗时
+ */
+public class StreamingLoadTest {
+
+    private static final String TAG = "StreamingLoadTest";
+
+    private static final int[] FRAME_COUNTS = {1000, 10000, 100000};
+    private static final int LOOKAHEAD = SequenceLoader.DEFAULT_LOOKAHEAD_FRAMES;
+
+    // 限速参数：每次读取最多16KB，每次读取前等待2ms（约8MB/s）
+    private static final int THROTTLE_READ_BYTES = 16 * 1024;
+    private static final long THROTTLE_DELAY_MS = 2;
+
+    /**
+     * 运行测试
+     *
+     * @param loader 序列加载器
+     * @return 报告文本
+     */
+    public String run(SequenceLoader loader) throws Exception {
+        StringBuilder report = new StringBuilder();
+
+        // 1. 正确性：流式解析与完整解析逐帧一致，预读回调只触发一次
+        SequenceData source = SyntheticSequenceFactory.createSequence("streaming_test", 5000, 40.0f, 11L);
+        byte[] bytes = SyntheticSequenceFactory.toEbs1Bytes(source);
+        final int[] readyCount = new int[1];
+        final int[] readyLoaded = new int[1];
+        SequenceData streamed = loader.parseEbsFileStreaming(new ThrottledInputStream(bytes, 0), LOOKAHEAD,
+            new SequenceLoader.StreamingCallback() {
+                @Override
+                public void onLookaheadReady(SequenceData data) {
+                    readyCount[0]++;
+                    readyLoaded[0] = data.loadedFrames;
+                }
+            });
+        SequenceData parsed = loader.parseEbsFile(new ByteArrayInputStream(bytes));
+        assertFramesEqual(parsed, streamed);
+        check(readyCount[0] == 1, "预读回调次数应为1，实际为" + readyCount[0]);
+        check(readyLoaded[0] >= LOOKAHEAD && readyLoaded[0] < streamed.totalFrames, "预读回调时已加载帧数异常: " + readyLoaded[0]);
+        check(streamed.isFullyLoaded(), "加载完成后应为完整状态");
+        report.append("✅ 流式解析与完整解析逐帧一致，预读回调触发一次\n");
+
+        // 2. 截断：预读已就绪后数据区不完整，仍需抛出IOException
+        byte[] truncated = new byte[bytes.length - 100];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        readyCount[0] = 0;
+        try {
+            loader.parseEbsFileStreaming(new ByteArrayInputStream(truncated), LOOKAHEAD,
+                new SequenceLoader.StreamingCallback() {
+                    @Override
+                    public void onLookaheadReady(SequenceData data) {
+                        readyCount[0]++;
+                    }
+                });
+            throw new AssertionError("截断文件未抛出异常");
+        } catch (IOException e) {
+            check(readyCount[0] == 1, "截断文件应先触发预读回调");
+            report.append("✅ 截断文件在预读后报错: ").append(e.getMessage()).append('\n');
+        }
+
+        // 3. 限速流上的首帧延迟 vs 完整加载
+        report.append(String.format("%10s %14s %14s\n", "帧数", "预读就绪ms", "完整加载ms"));
+        for (int frameCount : FRAME_COUNTS) {
+            byte[] data = SyntheticSequenceFactory.toEbs1Bytes(
+                SyntheticSequenceFactory.createSequence("streaming_" + frameCount, frameCount, 40.0f, frameCount));
+            final long[] readyAt = new long[1];
+            long start = System.nanoTime();
+            loader.parseEbsFileStreaming(new ThrottledInputStream(data, THROTTLE_DELAY_MS), LOOKAHEAD,
+                new SequenceLoader.StreamingCallback() {
+                    @Override
+                    public void onLookaheadReady(SequenceData sequence) {
+                        readyAt[0] = System.nanoTime();
+                    }
+                });
+            long end = System.nanoTime();
+            report.append(String.format("%10d %14.2f %14.2f\n",
+                frameCount, (readyAt[0] - start) / 1e6, (end - start) / 1e6));
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static void assertFramesEqual(SequenceData expected, SequenceData actual) {
+        check(expected.totalFrames == actual.totalFrames,
+            "帧数不一致: " + expected.totalFrames + " vs " + actual.totalFrames);
+        for (int frame = 0; frame < expected.totalFrames; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                if (expected.getJoint(frame, joint) != actual.getJoint(frame, joint)) {
+                    throw new AssertionError(String.format("帧%d关节%d不一致", frame, joint));
+                }
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 限速输入流：每次读取返回有限字节并等待固定时间，模拟网络下载
+     */
+    private static class ThrottledInputStream extends FilterInputStream {
+        private final long delayMs;
+
+        ThrottledInputStream(byte[] data, long delayMs) {
+            super(new ByteArrayInputStream(data));
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("读取被中断", e);
+                }
+            }
+            return super.read(b, off, Math.min(len, THROTTLE_READ_BYTES));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.evobot.sequence;
+
+import java.util.Random;
+
+/**
+ * 合成序列工厂
+ * 为基准测试生成与真实动作数据特征相近的.ebs序列：
+ * 关节轨迹平滑变化，并夹杂较长的保持（-1）区间
+ */
+public final class SyntheticSequenceFactory {
+
+    private SyntheticSequenceFactory() {
+    }
+
+    /**
+     * 生成合成序列数据
+     *
+     * @param name       序列名称
+     * @param frameCount 帧数
+     * @param sampleRate 采样率
+     * @param seed       随机种子（相同种子生成相同数据）
+     * @return 序列数据
+     */
+    public static SequenceData createSequence(String name, int frameCount, float sampleRate, long seed) {
+        SequenceData data = new SequenceData();
+        data.name = name;
+        data.sampleRate = sampleRate;
+        data.totalDuration = frameCount / sampleRate;
+        data.compiledAt = (int) (System.currentTimeMillis() / 1000);
+        data.allocateFrames(frameCount);
+
+        Random random = new Random(seed);
+        int[] position = new int[SequenceData.JOINTS_PER_FRAME];
+        int[] holdRemaining = new int[SequenceData.JOINTS_PER_FRAME];
+        for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+            position[joint] = 1024 + random.nextInt(2048);
+        }
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            for (int joint = 0; joint < SequenceData.JOINTS_PER_FRAME; joint++) {
+                if (holdRemaining[joint] > 0) {
+                    holdRemaining[joint]--;
+                    data.setJoint(frame, joint, -1);
+                    continue;
+                }
+                if (frame > 0 && random.nextInt(100) < 3) {
+                    // 开始一段保持区间
+                    holdRemaining[joint] = 10 + random.nextInt(80);
+                    data.setJoint(frame, joint, -1);
+                    continue;
+                }
+                int step = random.nextInt(9) - 4;
+                position[joint] = Math.max(SequenceData.POSITION_MIN,
+                    Math.min(SequenceData.POSITION_MAX, position[joint] + step));
+                data.setJoint(frame, joint, position[joint]);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 将序列数据编码为EBS1格式字节
+     *
+     * @param data 序列数据
+     * @return .ebs文件内容
+     */
+    public static byte[] toEbs1Bytes(SequenceData data) {
+        return SequenceEncoder.encodeEbs1(data);
+    }
+}
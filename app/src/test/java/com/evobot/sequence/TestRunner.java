@@ -289,12 +289,10 @@ public class TestRunner {
         data.name = name;
         data.sampleRate = 40.0f;
         data.totalDuration = 3.0f;
-        data.totalFrames = 120;
         data.compiledAt = (int) (System.currentTimeMillis() / 1000);
         
         // 创建简单的序列数据
-        data.leftArmSequence = new int[data.totalFrames][SequenceData.JOINTS_PER_ARM];
-        data.rightArmSequence = new int[data.totalFrames][SequenceData.JOINTS_PER_ARM];
+        data.allocateFrames(120);
         
         return data;
     }
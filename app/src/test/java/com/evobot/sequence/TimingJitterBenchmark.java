@@ -0,0 +1,85 @@
+package com.evobot.sequence;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时后端抖动测试
+ * 分别用 Handler 后端和高精度线程后端在30/60/100Hz下调度固定数量的帧，
+ * 以第一帧为起点统计每帧相对理想时间点（起点 + n * 周期）的偏差和末帧累积漂移
+ */
+public class TimingJitterBenchmark {
+
+    private static final String TAG = "TimingJitterBenchmark";
+
+    private static final int[] FREQUENCIES = {30, 60, 100};
+    private static final double RUN_SECONDS = 3.0;
+
+    /**
+     * 运行全部测试
+     *
+     * @return 报告文本
+     */
+    public String runAll() throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-18s %6s %8s %12s %12s %12s %12s\n",
+            "后端", "频率", "帧数", "平均偏差us", "P99偏差us", "最大偏差us", "末帧漂移us"));
+
+        Handler handler = new Handler(Looper.getMainLooper());
+        for (int frequency : FREQUENCIES) {
+            report.append(measure("HANDLER", new HandlerFrameScheduler(handler), frequency));
+            report.append(measure("PRECISION_THREAD", new PrecisionFrameScheduler(), frequency));
+        }
+
+        Log.d(TAG, report.toString());
+        return report.toString();
+    }
+
+    private static String measure(String label, final FrameScheduler scheduler, int frequency)
+            throws InterruptedException {
+        final long periodNanos = 1000000000L / frequency;
+        final int ticks = (int) (RUN_SECONDS * frequency);
+        final long[] timestamps = new long[ticks];
+        final CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.start(periodNanos, new Runnable() {
+            private int count = 0;
+
+            @Override
+            public void run() {
+                if (count >= ticks) {
+                    return;
+                }
+                timestamps[count++] = System.nanoTime();
+                if (count == ticks) {
+                    scheduler.stop();
+                    done.countDown();
+                }
+            }
+        });
+
+        if (!done.await((long) (RUN_SECONDS * 3 * 1000), TimeUnit.MILLISECONDS)) {
+            scheduler.stop();
+            throw new AssertionError(label + " " + frequency + "Hz 调度超时");
+        }
+
+        long[] deviations = new long[ticks];
+        long sum = 0;
+        for (int i = 0; i < ticks; i++) {
+            deviations[i] = Math.abs(timestamps[i] - (timestamps[0] + i * periodNanos));
+            sum += deviations[i];
+        }
+        long drift = timestamps[ticks - 1] - (timestamps[0] + (ticks - 1) * periodNanos);
+        long[] sorted = deviations.clone();
+        Arrays.sort(sorted);
+
+        return String.format("%-18s %5dHz %8d %12.1f %12.1f %12.1f %12.1f\n",
+            label, frequency, ticks, sum / 1e3 / ticks, sorted[(int) (ticks * 0.99)] / 1e3,
+            sorted[ticks - 1] / 1e3, drift / 1e3);
+    }
+}
@@ -0,0 +1,188 @@
+//! 序列解析、逐帧渲染与缓存耗时
+//!
+//! 对比连续u16帧缓冲区（当前实现）与按帧 Vec<Vec<i32>> 存放的旧实现：
+//! - parse: 解析EBS1字节（当前实现还包含建立保持值检查点）
+//! - per_frame: 逐帧取出帧数据并填充-1，旧实现每帧复制两个Vec并为输出再分配两个Vec
+//! - cache_put: 解析后放入序列缓存，旧做法深复制整个序列，当前缓存与播放器共用同一个 Arc
+//!
+//! 只用标准库计时：每项预热后取若干次采样的中位数。
+//! 运行: cargo bench --bench sequence_bench
+
+use evobot_sequence_native::{CacheManager, SequenceData, SequenceParser};
+use std::hint::black_box;
+use std::io::{Cursor, Read};
+use std::sync::Arc;
+use std::time::{Duration, Instant};
+
+const FRAME_COUNTS: [usize; 2] = [1_000, 10_000];
+const HEADER_SIZE: usize = 96;
+const JOINTS_PER_ARM: usize = SequenceData::JOINTS_PER_ARM;
+const JOINTS_PER_FRAME: usize = SequenceData::JOINTS_PER_FRAME;
+
+/// 生成EBS1字节：每个关节按不同周期变化，约四分之一为保持值
+fn ebs1_bytes(frame_count: usize) -> Vec<u8> {
+    let mut bytes = Vec::with_capacity(HEADER_SIZE + frame_count * JOINTS_PER_FRAME * 2);
+    bytes.extend_from_slice(b"EBS1");
+    bytes.extend_from_slice(&(frame_count as u32).to_le_bytes());
+    bytes.extend_from_slice(&40.0f32.to_le_bytes());
+    bytes.extend_from_slice(&(frame_count as f32 / 40.0).to_le_bytes());
+    bytes.extend_from_slice(&0u32.to_le_bytes());
+    bytes.extend_from_slice(&[0u8; 12]);
+    let mut name = [0u8; 64];
+    name[..5].copy_from_slice(b"bench");
+    bytes.extend_from_slice(&name);
+
+    for frame in 0..frame_count {
+        for joint in 0..JOINTS_PER_FRAME {
+            let value = if (frame + joint) % 4 == 0 {
+                SequenceData::HOLD_SENTINEL
+            } else {
+                ((frame * (joint + 1) * 7) % 4096) as u16
+            };
+            bytes.extend_from_slice(&value.to_le_bytes());
+        }
+    }
+    bytes
+}
+
+/// 旧实现：每帧每臂一个 Vec<i32>
+struct NestedSequence {
+    left_arm_sequence: Vec<Vec<i32>>,
+    right_arm_sequence: Vec<Vec<i32>>,
+}
+
+impl NestedSequence {
+    fn parse(data: &[u8]) -> NestedSequence {
+        let frame_count = u32::from_le_bytes([data[4], data[5], data[6], data[7]]) as usize;
+        let mut cursor = Cursor::new(&data[HEADER_SIZE..]);
+        let mut left_arm_sequence = Vec::with_capacity(frame_count);
+        let mut right_arm_sequence = Vec::with_capacity(frame_count);
+        let mut raw = [0u8; 2];
+        for _ in 0..frame_count {
+            let mut left_arm = Vec::with_capacity(JOINTS_PER_ARM);
+            let mut right_arm = Vec::with_capacity(JOINTS_PER_ARM);
+            for joint in 0..JOINTS_PER_FRAME {
+                cursor.read_exact(&mut raw).unwrap();
+                let value = SequenceData::position(u16::from_le_bytes(raw));
+                if joint < JOINTS_PER_ARM {
+                    left_arm.push(value);
+                } else {
+                    right_arm.push(value);
+                }
+            }
+            left_arm_sequence.push(left_arm);
+            right_arm_sequence.push(right_arm);
+        }
+        NestedSequence { left_arm_sequence, right_arm_sequence }
+    }
+
+    fn get_frame_data(&self, frame_index: usize) -> Option<(Vec<i32>, Vec<i32>)> {
+        if frame_index >= self.left_arm_sequence.len() {
+            return None;
+        }
+        Some((
+            self.left_arm_sequence[frame_index].clone(),
+            self.right_arm_sequence[frame_index].clone(),
+        ))
+    }
+
+    fn fill(values: &[i32], last_valid: &mut [i32]) -> Vec<i32> {
+        let mut result = Vec::with_capacity(values.len());
+        for (i, &value) in values.iter().enumerate() {
+            if value == -1 {
+                result.push(last_valid[i]);
+            } else {
+                last_valid[i] = value;
+                result.push(value);
+            }
+        }
+        result
+    }
+}
+
+const WARMUP: Duration = Duration::from_millis(200);
+const SAMPLES: usize = 15;
+const SAMPLE_TIME: Duration = Duration::from_millis(100);
+
+/// 预热后按固定时长采样，输出每次迭代与每帧耗时的中位数
+fn bench<R>(group: &str, name: &str, frames: usize, mut routine: impl FnMut() -> R) {
+    let warmup_start = Instant::now();
+    let mut warmup_iterations = 0u64;
+    while warmup_start.elapsed() < WARMUP {
+        black_box(routine());
+        warmup_iterations += 1;
+    }
+    // 每次采样的迭代数按预热速度估算，约 SAMPLE_TIME
+    let per_iteration = warmup_start.elapsed().as_nanos() as f64 / warmup_iterations as f64;
+    let iterations = ((SAMPLE_TIME.as_nanos() as f64 / per_iteration) as u64).max(1);
+
+    let mut samples: Vec<f64> = (0..SAMPLES)
+        .map(|_| {
+            let start = Instant::now();
+            for _ in 0..iterations {
+                black_box(routine());
+            }
+            start.elapsed().as_nanos() as f64 / iterations as f64
+        })
+        .collect();
+    samples.sort_by(|a, b| a.partial_cmp(b).unwrap());
+    let median = samples[SAMPLES / 2];
+    println!("{:<10} {:<16} {:>6} frames {:>12.2} us/iter {:>10.2} ns/frame",
+        group, name, frames, median / 1e3, median / frames as f64);
+}
+
+fn bench_parse() {
+    for &frames in FRAME_COUNTS.iter() {
+        let bytes = ebs1_bytes(frames);
+        bench("parse", "contiguous_u16", frames, || {
+            SequenceParser::parse_from_bytes(black_box(&bytes)).unwrap()
+        });
+        bench("parse", "nested_vec", frames, || NestedSequence::parse(black_box(&bytes)));
+    }
+}
+
+fn bench_per_frame() {
+    for &frames in FRAME_COUNTS.iter() {
+        let bytes = ebs1_bytes(frames);
+        let sequence = SequenceParser::parse_from_bytes(&bytes).unwrap();
+        let nested = NestedSequence::parse(&bytes);
+
+        let mut last_valid = [-1i32; 20];
+        let mut out = [-1i32; 20];
+        bench("per_frame", "contiguous_u16", frames, || {
+            for frame in 0..frames {
+                sequence.render_frame(frame, &mut last_valid, &mut out);
+                black_box(&out);
+            }
+        });
+        let mut last_left = vec![-1i32; JOINTS_PER_ARM];
+        let mut last_right = vec![-1i32; JOINTS_PER_ARM];
+        bench("per_frame", "nested_vec", frames, || {
+            for frame in 0..frames {
+                let (left, right) = nested.get_frame_data(frame).unwrap();
+                let left = NestedSequence::fill(&left, &mut last_left);
+                let right = NestedSequence::fill(&right, &mut last_right);
+                black_box((&left, &right));
+            }
+        });
+    }
+}
+
+fn bench_cache_put() {
+    for &frames in FRAME_COUNTS.iter() {
+        let sequence = Arc::new(SequenceParser::parse_from_bytes(&ebs1_bytes(frames)).unwrap());
+        let cache = CacheManager::new(1);
+        bench("cache_put", "deep_clone", frames, || {
+            cache.put("bench".to_string(), Arc::new(SequenceData::clone(black_box(&sequence))))
+        });
+        bench("cache_put", "shared_arc", frames, || {
+            cache.put("bench".to_string(), Arc::clone(black_box(&sequence)))
+        });
+    }
+}
+
+fn main() {
+    bench_parse();
+    bench_per_frame();
+    bench_cache_put();
+}
@@ -3,6 +3,7 @@ use evobot_sequence_native::sequence::{SequenceParser, SequenceData};
 use evobot_sequence_native::playback::PlaybackEngine;
 use evobot_sequence_native::cache::CacheManager;
 use std::error::Error;
+use std::sync::Arc;
 
 fn main() -> Result<(), Box<dyn Error>> {
     // 初始化日志
@@ -59,7 +60,7 @@ fn test_sequence_parser() -> Result<(), Box<dyn Error>> {
 }
 
 fn test_playback_engine() -> Result<(), Box<dyn Error>> {
-    let mut engine = PlaybackEngine::new();
+    let engine = PlaybackEngine::new();
     
     // 创建测试序列
     let mock_ebs_data = create_mock_ebs_data();
@@ -67,7 +68,7 @@ fn test_playback_engine() -> Result<(), Box<dyn Error>> {
         .map_err(|e| format!("Failed to parse sequence: {}", e))?;
     
     // 加载序列
-    engine.load_sequence(sequence)
+    engine.load_sequence(Arc::new(sequence))
         .map_err(|e| format!("Failed to load sequence: {}", e))?;
     println!("✓ Sequence loaded into playback engine");
     
@@ -113,7 +114,8 @@ fn test_cache_manager() -> Result<(), Box<dyn Error>> {
     let mock_ebs_data = create_mock_ebs_data();
     let sequence1 = SequenceParser::parse_from_bytes(&mock_ebs_data)
         .map_err(|e| format!("Failed to parse sequence: {}", e))?;
-    let sequence2 = sequence1.clone();
+    let sequence1 = Arc::new(sequence1);
+    let sequence2 = Arc::clone(&sequence1);
     
     // 测试缓存操作
     cache.put("test_sequence_1".to_string(), sequence1);
@@ -140,7 +142,7 @@ fn test_cache_manager() -> Result<(), Box<dyn Error>> {
 }
 
 fn test_rk3399_optimizations() -> Result<(), Box<dyn Error>> {
-    let mut engine = PlaybackEngine::new();
+    let engine = PlaybackEngine::new();
     
     // 测试大核心设置
     engine.set_use_big_cores(true);
@@ -157,7 +159,7 @@ fn test_rk3399_optimizations() -> Result<(), Box<dyn Error>> {
     let mock_ebs_data = create_mock_ebs_data();
     let sequence = SequenceParser::parse_from_bytes(&mock_ebs_data)
         .map_err(|e| format!("Failed to parse sequence: {}", e))?;
-    engine.load_sequence(sequence)
+    engine.load_sequence(Arc::new(sequence))
         .map_err(|e| format!("Failed to load sequence: {}", e))?;
     
     println!("✓ RK3399 optimizations tested successfully");
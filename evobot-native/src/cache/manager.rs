@@ -22,7 +22,8 @@ impl CacheStats {
 }
 
 pub struct CacheManager {
-    cache: Arc<Mutex<LRUCache<String, SequenceData>>>,
+    // 缓存持有序列的共享引用，取出和放入都不复制帧数据
+    cache: Arc<Mutex<LRUCache<String, Arc<SequenceData>>>>,
     stats: Arc<Mutex<CacheStats>>,
 }
 
@@ -40,7 +41,7 @@ impl CacheManager {
         }
     }
     
-    pub fn get(&self, key: &str) -> Option<SequenceData> {
+    pub fn get(&self, key: &str) -> Option<Arc<SequenceData>> {
         let mut cache = self.cache.lock().unwrap();
         let mut stats = self.stats.lock().unwrap();
         
@@ -49,7 +50,7 @@ impl CacheManager {
         if let Some(sequence) = cache.get(&key.to_string()) {
             stats.cache_hits += 1;
             log::debug!("Cache hit for key: {}", key);
-            Some(sequence.clone())
+            Some(Arc::clone(sequence))
         } else {
             stats.cache_misses += 1;
             log::debug!("Cache miss for key: {}", key);
@@ -57,7 +58,7 @@ impl CacheManager {
         }
     }
     
-    pub fn put(&self, key: String, sequence: SequenceData) {
+    pub fn put(&self, key: String, sequence: Arc<SequenceData>) {
         let mut cache = self.cache.lock().unwrap();
         let mut stats = self.stats.lock().unwrap();
         
@@ -1,24 +1,39 @@
 use jni::JNIEnv;
-use jni::objects::{JClass, JObject, JByteArray};
-use jni::sys::{jlong, jint, jboolean, jstring};
+use jni::objects::{JClass, JObject, JByteArray, JByteBuffer};
+use jni::sys::{jlong, jint, jfloat, jboolean, jstring, jlongArray};
 use std::sync::{Arc, Mutex};
-use std::collections::HashMap;
-use crate::playback::PlaybackEngine;
+use crate::playback::{OverrunPolicy, PlaybackEnd, PlaybackEngine, SharedPlaybackScheduler, PLAYBACK_THREADS};
 use crate::sequence::SequenceParser;
 use crate::cache::CacheManager;
+use crate::jni_bridge::frame_ring::FrameRingWriter;
+use crate::jni_bridge::registry::PlayerRegistry;
 use crate::jni_bridge::callbacks::{
-    register_player_listener, unregister_player_listener,
-    call_java_frame_callback, call_java_complete_callback, call_java_error_callback,
-    call_java_emergency_stop_callback
+    register_player_listener, register_player_batch_listener, unregister_player_listener,
+    is_player_batch_listener, player_callback_stats,
+    call_java_frame_callback, call_java_batch_callback, call_java_batch_cancelled_callback,
+    call_java_complete_callback, call_java_error_callback, call_java_emergency_stop_callback
 };
 
 // 全局播放器实例管理
 lazy_static::lazy_static! {
-    static ref PLAYERS: Arc<Mutex<HashMap<jlong, Arc<Mutex<PlaybackEngine>>>>> = 
-        Arc::new(Mutex::new(HashMap::new()));
+    // 按句柄分片的播放器表：不同播放器上的调用互不等待，引擎本身不加锁，播放期间控制调用不等待播放循环
+    static ref PLAYERS: PlayerRegistry<NativePlayer> = PlayerRegistry::new();
     static ref CACHE_MANAGER: Arc<CacheManager> = Arc::new(CacheManager::new(10));
-    static ref NEXT_ID: Arc<Mutex<jlong>> = Arc::new(Mutex::new(1));
     static ref JAVA_VM_INITIALIZED: Arc<Mutex<bool>> = Arc::new(Mutex::new(false));
+    // 所有播放器共用的播放调度线程
+    static ref PLAYBACK_SCHEDULER: SharedPlaybackScheduler = SharedPlaybackScheduler::new(PLAYBACK_THREADS);
+}
+
+/// 播放器表中的一项：引擎及其附加的帧环
+struct NativePlayer {
+    engine: PlaybackEngine,
+    // 帧环：注册后逐帧播放的帧直接写入环，不回调Java
+    frame_ring: Mutex<Option<Arc<FrameRingWriter>>>,
+}
+
+/// 取出播放器引用，只在查找期间持有所在分片的读锁
+fn get_player(player_id: jlong) -> Option<Arc<NativePlayer>> {
+    PLAYERS.get(player_id)
 }
 
 #[no_mangle]
@@ -26,15 +41,10 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeCreate(
     _env: JNIEnv,
     _class: JClass,
 ) -> jlong {
-    let player = Arc::new(Mutex::new(PlaybackEngine::new()));
-    let id = {
-        let mut next_id = NEXT_ID.lock().unwrap();
-        let id = *next_id;
-        *next_id += 1;
-        id
-    };
-    
-    PLAYERS.lock().unwrap().insert(id, player);
+    let id = PLAYERS.insert(NativePlayer {
+        engine: PlaybackEngine::new(),
+        frame_ring: Mutex::new(None),
+    });
     log::info!("Created native player with ID: {}", id);
     id
 }
@@ -49,7 +59,7 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeDestroy(
     unregister_player_listener(player_id);
     
     // 移除播放器实例
-    PLAYERS.lock().unwrap().remove(&player_id);
+    PLAYERS.remove(player_id);
     log::info!("Destroyed native player with ID: {}", player_id);
 }
 
@@ -72,6 +82,39 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeRegisterLi
     }
 }
 
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeRegisterBatchListener(
+    mut env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+    listener: JObject,
+    batch_size: jint,
+) -> jboolean {
+    let player = match get_player(player_id) {
+        Some(p) => p,
+        None => {
+            log::error!("Player not found: {}", player_id);
+            return false as jboolean;
+        }
+    };
+    
+    if let Err(e) = player.engine.set_batch_size(batch_size.max(0) as usize) {
+        log::error!("Failed to register batch listener for player {}: {}", player_id, e);
+        return false as jboolean;
+    }
+    
+    match register_player_batch_listener(player_id, &mut env, &listener, batch_size as usize) {
+        Ok(_) => {
+            log::info!("Registered batch listener for player {}", player_id);
+            true as jboolean
+        }
+        Err(e) => {
+            log::error!("Failed to register batch listener for player {}: {}", player_id, e);
+            false as jboolean
+        }
+    }
+}
+
 #[no_mangle]
 pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeUnregisterListener(
     _env: JNIEnv,
@@ -89,31 +132,32 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeLoadSequen
     player_id: jlong,
     data: JByteArray,
 ) -> jboolean {
-    let players = PLAYERS.lock().unwrap();
-    let player = match players.get(&player_id) {
-        Some(p) => p.clone(),
+    let player = match get_player(player_id) {
+        Some(p) => p,
         None => {
             log::error!("Player not found: {}", player_id);
             return false as jboolean;
         }
     };
     
-    // 转换Java字节数组到Rust
-    let data_len = env.get_array_length(&data).unwrap() as usize;
-    let mut buffer = vec![0i8; data_len];
-    env.get_byte_array_region(data, 0, &mut buffer).unwrap();
-    
-    // 转换为u8
-    let byte_data: Vec<u8> = buffer.iter().map(|&x| x as u8).collect();
+    // 转换Java字节数组到Rust（一次复制，解析时直接转换为连续的帧数据）
+    let byte_data = match env.convert_byte_array(data) {
+        Ok(bytes) => bytes,
+        Err(e) => {
+            log::error!("Failed to read sequence bytes: {}", e);
+            return false as jboolean;
+        }
+    };
     
     // 解析序列
     match SequenceParser::parse_from_bytes(&byte_data) {
         Ok(sequence) => {
-            // 缓存序列
+            // 缓存序列：缓存与播放器共用同一份帧数据，不复制
             let cache_key = format!("sequence_{}", sequence.name);
-            CACHE_MANAGER.put(cache_key, sequence.clone());
+            let sequence = Arc::new(sequence);
+            CACHE_MANAGER.put(cache_key, Arc::clone(&sequence));
             
-            match player.lock().unwrap().load_sequence(sequence) {
+            match player.engine.load_sequence(sequence) {
                 Ok(_) => {
                     log::info!("Sequence loaded successfully");
                     true as jboolean
@@ -140,47 +184,69 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativePlayAsync(
     player_id: jlong,
     frequency: jint,
 ) -> jboolean {
-    let players = PLAYERS.lock().unwrap();
-    let player = match players.get(&player_id) {
-        Some(p) => p.clone(),
+    let player = match get_player(player_id) {
+        Some(p) => p,
         None => {
             log::error!("Player not found: {}", player_id);
             return false as jboolean;
         }
     };
-    drop(players); // 释放锁
     
-    // 在新线程中启动异步播放
-    let freq = frequency as u32;
+    if let Err(e) = start_playback(player_id, player, frequency as u32) {
+        log::error!("Failed to start playback for player {}: {}", player_id, e);
+        return false as jboolean;
+    }
     
-    std::thread::spawn(move || {
-        let rt = tokio::runtime::Builder::new_current_thread()
-            .enable_all()
-            .build()
-            .unwrap();
-        rt.block_on(async {
-            let result = {
-                let engine = player.lock().unwrap();
-                engine.play_with_callback(freq, move |left, right, frame| {
-                    call_java_frame_callback(player_id, &left, &right, frame);
+    log::info!("Started async playback for player {} at {}Hz", player_id, frequency);
+    true as jboolean
+}
+
+/// 在共享调度线程上启动异步播放，从引擎当前的帧开始；只有播放完成才回调 onComplete
+fn start_playback(player_id: jlong, player: Arc<NativePlayer>, freq: u32) -> Result<(), String> {
+    let signal = player.engine.emergency_signal();
+    let ring = player.frame_ring.lock().unwrap().clone();
+    
+    PLAYBACK_SCHEDULER.spawn(player_id as u64, move || {
+        Box::pin(async move {
+            // 播放期间不持有任何引擎锁：播放循环使用序列快照和原子控制状态
+            let result = if is_player_batch_listener(player_id) {
+                // 批量监听器：每批一次JNI调用
+                player.engine.play_batched_with_callback(
+                    freq,
+                    move |batch| call_java_batch_callback(player_id, batch),
+                    move |remaining| call_java_batch_cancelled_callback(player_id, remaining),
+                ).await
+            } else if let Some(ring) = ring {
+                // 帧环：播放线程直接写入共享内存，播放循环中没有JNI调用
+                player.engine.play_with_callback(freq, move |left, right, frame| {
+                    ring.push(left, right, frame);
+                }).await
+            } else {
+                player.engine.play_with_callback(freq, move |left, right, frame| {
+                    call_java_frame_callback(player_id, left, right, frame);
                 }).await
             };
             
             match result {
-                Ok(_) => {
+                Ok(PlaybackEnd::Completed) if !signal.is_requested() => {
                     call_java_complete_callback(player_id);
                     log::info!("Async playback completed for player {}", player_id);
                 }
+                Ok(PlaybackEnd::Completed) | Ok(PlaybackEnd::EmergencyStopped) => {
+                    // 急停结束的播放不回调完成（急停回调已在请求时发出）
+                    log::warn!("Async playback emergency stopped for player {}", player_id);
+                }
+                Ok(end) => {
+                    // 暂停/停止不是播放完成：暂停的播放由 nativeResume 重新启动
+                    log::info!("Async playback ended for player {}: {:?}", player_id, end);
+                }
                 Err(e) => {
                     call_java_error_callback(player_id, &e);
                     log::error!("Async playback failed for player {}: {}", player_id, e);
                 }
             }
-        });
-    });
-    
-    log::info!("Started async playback for player {} at {}Hz", player_id, frequency);
-    true as jboolean
+        })
+    })
 }
 
 #[no_mangle]
@@ -189,8 +255,8 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativePause(
     _class: JClass,
     player_id: jlong,
 ) {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        player.lock().unwrap().pause();
+    if let Some(player) = get_player(player_id) {
+        player.engine.pause();
     }
 }
 
@@ -200,8 +266,15 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeResume(
     _class: JClass,
     player_id: jlong,
 ) {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        player.lock().unwrap().resume();
+    if let Some(player) = get_player(player_id) {
+        // 暂停时播放循环已退出：恢复为可播放状态后以原频率重新启动，从暂停的帧继续
+        if player.engine.resume() {
+            let frequency = player.engine.get_frequency();
+            if let Err(e) = start_playback(player_id, player, frequency) {
+                log::error!("Failed to resume playback for player {}: {}", player_id, e);
+                call_java_error_callback(player_id, &e);
+            }
+        }
     }
 }
 
@@ -211,8 +284,8 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeStop(
     _class: JClass,
     player_id: jlong,
 ) {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        player.lock().unwrap().stop();
+    if let Some(player) = get_player(player_id) {
+        player.engine.stop();
     }
 }
 
@@ -222,10 +295,80 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeEmergencyS
     _class: JClass,
     player_id: jlong,
 ) {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        player.lock().unwrap().emergency_stop();
+    // 急停只设置信号，不等待播放循环：请求之后不再开始交付。播放循环在下一次被调度时响应，
+    // 最多延迟一个播放周期加上同一调度线程上其他播放器正在执行的回调耗时
+    if let Some(player) = get_player(player_id) {
+        player.engine.emergency_signal().request();
         call_java_emergency_stop_callback(player_id);
-        log::warn!("Emergency stop executed for player {}", player_id);
+        // 没有在播放时由这里完成重置；播放循环正在运行时由其在退出后处理（并记录急停延迟）。
+        // request与is_loop_active都是SeqCst：与循环退出时的写loop_active、读请求配对，两边至少有一方执行重置
+        if !player.engine.is_loop_active() {
+            player.engine.emergency_stop();
+        }
+        log::warn!("Emergency stop requested for player {}", player_id);
+    }
+}
+
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeSetFrameRing(
+    mut env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+    ring: JObject,
+    java_nanos: jlong,
+) -> jboolean {
+    let player = match get_player(player_id) {
+        Some(p) => p,
+        None => {
+            log::error!("Player not found: {}", player_id);
+            return false as jboolean;
+        }
+    };
+    // ring为null时移除，之后的播放回调Java监听器
+    if ring.is_null() {
+        *player.frame_ring.lock().unwrap() = None;
+        return false as jboolean;
+    }
+    let buffer = JByteBuffer::from(ring);
+    match FrameRingWriter::new(&mut env, &buffer, java_nanos) {
+        Ok(writer) => {
+            *player.frame_ring.lock().unwrap() = Some(Arc::new(writer));
+            log::info!("Frame ring attached for player {}", player_id);
+            true as jboolean
+        }
+        Err(e) => {
+            *player.frame_ring.lock().unwrap() = None;
+            log::error!("Failed to attach frame ring for player {}: {}", player_id, e);
+            false as jboolean
+        }
+    }
+}
+
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetEmergencyStopStats(
+    env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+) -> jlongArray {
+    let stats = match get_player(player_id) {
+        Some(player) => player.engine.emergency_signal().stats(),
+        None => return std::ptr::null_mut(),
+    };
+    // 顺序与Java端 EmergencyStopStats 一致：急停次数、最近一次延迟、最大延迟、最近一次响应、最大响应
+    let values = [
+        stats.stops as jlong,
+        stats.last_latency_nanos as jlong,
+        stats.max_latency_nanos as jlong,
+        stats.last_response_nanos as jlong,
+        stats.max_response_nanos as jlong,
+    ];
+    let array = match env.new_long_array(values.len() as i32) {
+        Ok(array) => array,
+        Err(_) => return std::ptr::null_mut(),
+    };
+    match env.set_long_array_region(&array, 0, &values) {
+        Ok(_) => array.into_raw(),
+        Err(_) => std::ptr::null_mut(),
     }
 }
 
@@ -236,8 +379,8 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeSeek(
     player_id: jlong,
     frame_index: jint,
 ) -> jboolean {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        match player.lock().unwrap().seek(frame_index as u32) {
+    if let Some(player) = get_player(player_id) {
+        match player.engine.seek(frame_index as u32) {
             Ok(_) => true as jboolean,
             Err(e) => {
                 log::error!("Seek failed: {}", e);
@@ -250,14 +393,94 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeSeek(
     }
 }
 
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeSetPlaybackSpeed(
+    _env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+    speed: jfloat,
+) -> jboolean {
+    if let Some(player) = get_player(player_id) {
+        match player.engine.set_speed(speed) {
+            Ok(_) => true as jboolean,
+            Err(e) => {
+                log::error!("Set playback speed failed: {}", e);
+                false as jboolean
+            }
+        }
+    } else {
+        false as jboolean
+    }
+}
+
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeSetOverrunPolicy(
+    _env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+    policy: jint,
+) -> jboolean {
+    let policy = match OverrunPolicy::from_i32(policy) {
+        Some(policy) => policy,
+        None => {
+            log::error!("Invalid overrun policy: {}", policy);
+            return false as jboolean;
+        }
+    };
+    if let Some(player) = get_player(player_id) {
+        player.engine.set_overrun_policy(policy);
+        true as jboolean
+    } else {
+        false as jboolean
+    }
+}
+
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetOverrunStats(
+    env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+) -> jlongArray {
+    let stats = match get_player(player_id) {
+        Some(player) => player.engine.overrun_stats(),
+        None => return std::ptr::null_mut(),
+    };
+    // 顺序与Java端 OverrunStats 一致：周期数、超时次数、丢帧数、最长回调耗时
+    let values = [
+        stats.ticks as jlong,
+        stats.overruns as jlong,
+        stats.dropped_frames as jlong,
+        stats.max_callback_nanos as jlong,
+    ];
+    let array = match env.new_long_array(values.len() as i32) {
+        Ok(array) => array,
+        Err(_) => return std::ptr::null_mut(),
+    };
+    match env.set_long_array_region(&array, 0, &values) {
+        Ok(_) => array.into_raw(),
+        Err(_) => std::ptr::null_mut(),
+    }
+}
+
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeResetOverrunStats(
+    _env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+) {
+    if let Some(player) = get_player(player_id) {
+        player.engine.reset_overrun_stats();
+    }
+}
+
 #[no_mangle]
 pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetCurrentFrame(
     _env: JNIEnv,
     _class: JClass,
     player_id: jlong,
 ) -> jint {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        player.lock().unwrap().get_current_frame() as jint
+    if let Some(player) = get_player(player_id) {
+        player.engine.get_current_frame() as jint
     } else {
         -1
     }
@@ -269,8 +492,8 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetTotalFr
     _class: JClass,
     player_id: jlong,
 ) -> jint {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        player.lock().unwrap().get_total_frames() as jint
+    if let Some(player) = get_player(player_id) {
+        player.engine.get_total_frames() as jint
     } else {
         0
     }
@@ -293,8 +516,8 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeSetRK3399B
     player_id: jlong,
     use_big_cores: jboolean,
 ) -> jboolean {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        player.lock().unwrap().set_use_big_cores(use_big_cores != 0);
+    if let Some(player) = get_player(player_id) {
+        player.engine.set_use_big_cores(use_big_cores != 0);
         log::info!("RK3399 big cores setting: {}", use_big_cores != 0);
         true as jboolean
     } else {
@@ -308,8 +531,8 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetRK3399S
     _class: JClass,
     player_id: jlong,
 ) -> jstring {
-    if let Some(player) = PLAYERS.lock().unwrap().get(&player_id) {
-        let stats = player.lock().unwrap().get_rk3399_stats();
+    if let Some(player) = get_player(player_id) {
+        let stats = player.engine.get_rk3399_stats();
         match env.new_string(&stats) {
             Ok(jstr) => jstr.into_raw(),
             Err(_) => std::ptr::null_mut(),
@@ -319,6 +542,33 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetRK3399S
     }
 }
 
+#[no_mangle]
+pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetCallbackStats(
+    env: JNIEnv,
+    _class: JClass,
+    player_id: jlong,
+) -> jlongArray {
+    // 统计保存在回调管理器中，不需要引擎锁，播放期间也可读取
+    let stats = match player_callback_stats(player_id) {
+        Some(stats) => stats,
+        None => return std::ptr::null_mut(),
+    };
+    // 顺序与Java端 NativeCallbackStats 一致：回调次数、总耗时、最大耗时
+    let values = [
+        stats.callbacks as jlong,
+        stats.total_nanos as jlong,
+        stats.max_nanos as jlong,
+    ];
+    let array = match env.new_long_array(values.len() as i32) {
+        Ok(array) => array,
+        Err(_) => return std::ptr::null_mut(),
+    };
+    match env.set_long_array_region(&array, 0, &values) {
+        Ok(_) => array.into_raw(),
+        Err(_) => std::ptr::null_mut(),
+    }
+}
+
 #[no_mangle]
 pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetPerformanceStats(
     env: JNIEnv,
@@ -327,7 +577,7 @@ pub extern "C" fn Java_com_evobot_sequence_EvoBotSequencePlayer_nativeGetPerform
     // 返回全局性能统计
     let stats = format!(
         "RK3399 Global Stats: players={}, cache_size={}",
-        PLAYERS.lock().unwrap().len(),
+        PLAYERS.len(),
         CACHE_MANAGER.size()
     );
     
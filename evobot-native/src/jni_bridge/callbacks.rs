@@ -1,41 +1,92 @@
-use jni::{JNIEnv, JavaVM, objects::{JObject, JValue, GlobalRef}};
-use std::sync::{Arc, Mutex};
-use std::collections::HashMap;
+use jni::{JNIEnv, JavaVM, objects::{JObject, JValue, GlobalRef, JIntArray, JLongArray, JMethodID}};
+use jni::signature::{Primitive, ReturnType};
+use jni::sys::jvalue;
+use std::sync::{Arc, Mutex, RwLock, atomic::{AtomicU64, AtomicUsize, Ordering}};
+use std::time::Instant;
+use crate::playback::FrameBatch;
+use crate::jni_bridge::registry::PlayerRegistry;
 
 // 全局回调管理器
 lazy_static::lazy_static! {
-    static ref CALLBACK_MANAGER: Arc<Mutex<CallbackManager>> = 
-        Arc::new(Mutex::new(CallbackManager::new()));
+    static ref CALLBACK_MANAGER: CallbackManager = CallbackManager::new();
 }
 
 /// 回调管理器，负责管理Java回调对象和方法
+/// 监听器按播放器句柄分片登记，分片锁只在注册/注销和查找监听器时持有，回调Java期间不持有：
+/// 不同播放器的回调、注册和急停回调互不等待，一个播放器的回调耗时也不会阻塞其他播放器
 pub struct CallbackManager {
-    java_vm: Option<JavaVM>,
-    listeners: HashMap<i64, CallbackInfo>,
+    java_vm: RwLock<Option<Arc<JavaVM>>>,
+    listeners: PlayerRegistry<CallbackInfo>,
 }
 
-/// 回调信息结构 - 使用String存储方法签名而不是原始指针
+/// 每臂关节数，与Java端 SequenceData.JOINTS_PER_ARM 一致
+const JOINTS_PER_ARM: i32 = 10;
+// 交付数组长度必须与播放循环渲染的每臂关节数一致，否则 set_int_array_region 越界
+const _: () = assert!(JOINTS_PER_ARM as usize == crate::sequence::SequenceData::JOINTS_PER_ARM);
+
+/// 回调信息结构
 struct CallbackInfo {
     listener_ref: GlobalRef,
+    /// 注册时按监听器的类解析的方法ID，回调时不再按名称和签名查找
+    methods: ListenerMethods,
+    /// 预分配的交付缓冲区（左臂, 右臂），两组交替使用，见Java端 FrameBufferListener 的所有权约定
+    frame_buffers: [(GlobalRef, GlobalRef); 2],
+    next_buffer: AtomicUsize,
+    /// 批量监听器（FrameBatchListener）的预分配批次缓冲区，两组交替使用；逐帧监听器为None
+    batch_buffers: Option<[BatchBuffers; 2]>,
+    /// 时钟对齐：注册时的 System.nanoTime() 与对应的 Instant，用于换算计划输出时间
+    clock_base: (Instant, i64),
+    /// 时间戳换算的临时缓冲区
+    timestamp_scratch: Mutex<Vec<i64>>,
+    /// 帧回调耗时统计（含JNI调用和监听器执行），注册后从零开始
+    stat_callbacks: AtomicU64,
+    stat_callback_nanos: AtomicU64,
+    stat_max_callback_nanos: AtomicU64,
+}
+
+/// 监听器方法ID：逐帧监听器有 on_frame_buffer，批量监听器有 on_frame_batch 和 on_batch_cancelled
+struct ListenerMethods {
+    on_frame_buffer: Option<JMethodID>,
+    on_frame_batch: Option<JMethodID>,
+    on_batch_cancelled: Option<JMethodID>,
+    on_complete: JMethodID,
+    on_error: JMethodID,
+    on_emergency_stop: JMethodID,
+}
+
+/// 一组批次缓冲区：左臂 int[n*10]、右臂 int[n*10]、帧索引 int[n]、时间戳 long[n]
+struct BatchBuffers {
+    left: GlobalRef,
+    right: GlobalRef,
+    frame_indices: GlobalRef,
+    timestamps: GlobalRef,
+}
+
+/// 帧回调耗时统计快照
+#[derive(Debug, Clone, Copy, Default)]
+pub struct CallbackStats {
+    pub callbacks: u64,
+    pub total_nanos: u64,
+    pub max_nanos: u64,
 }
 
 impl CallbackManager {
     pub fn new() -> Self {
         Self {
-            java_vm: None,
-            listeners: HashMap::new(),
+            java_vm: RwLock::new(None),
+            listeners: PlayerRegistry::new(),
         }
     }
-    
+
     /// 初始化JavaVM引用
-    pub fn init_java_vm(&mut self, java_vm: JavaVM) {
-        self.java_vm = Some(java_vm);
+    pub fn init_java_vm(&self, java_vm: JavaVM) {
+        *self.java_vm.write().unwrap() = Some(Arc::new(java_vm));
         log::info!("CallbackManager initialized with JavaVM");
     }
-    
+
     /// 注册回调监听器
     pub fn register_listener(
-        &mut self,
+        &self,
         player_id: i64,
         env: &mut JNIEnv,
         listener: &JObject,
@@ -43,170 +94,344 @@ impl CallbackManager {
         // 创建全局引用
         let listener_ref = env.new_global_ref(listener)
             .map_err(|e| format!("Failed to create global ref: {}", e))?;
-        
+        let methods = ListenerMethods::resolve(env, listener, false)?;
+
+        // 预分配交付缓冲区，播放时每帧只写入数组内容，不再创建Java对象
+        let frame_buffers = [
+            (Self::new_buffer(env)?, Self::new_buffer(env)?),
+            (Self::new_buffer(env)?, Self::new_buffer(env)?),
+        ];
+
         // 存储回调信息
-        let callback_info = CallbackInfo {
+        let callback_info = CallbackInfo::new(
             listener_ref,
-        };
-        
-        self.listeners.insert(player_id, callback_info);
+            methods,
+            frame_buffers,
+            None,
+            Self::clock_base(env)?,
+            Vec::new(),
+        );
+
+        self.listeners.insert_with_id(player_id, callback_info);
         log::info!("Registered callback listener for player {}", player_id);
         Ok(())
     }
-    
-    /// 注销回调监听器
-    pub fn unregister_listener(&mut self, player_id: i64) {
-        if self.listeners.remove(&player_id).is_some() {
+
+    /// 注册批量回调监听器（FrameBatchListener），每批至多 batch_size 帧
+    pub fn register_batch_listener(
+        &self,
+        player_id: i64,
+        env: &mut JNIEnv,
+        listener: &JObject,
+        batch_size: usize,
+    ) -> Result<(), String> {
+        let listener_ref = env.new_global_ref(listener)
+            .map_err(|e| format!("Failed to create global ref: {}", e))?;
+        let methods = ListenerMethods::resolve(env, listener, true)?;
+
+        // 逐帧缓冲区在批量模式下不使用，仍然分配以保持结构一致
+        let frame_buffers = [
+            (Self::new_buffer(env)?, Self::new_buffer(env)?),
+            (Self::new_buffer(env)?, Self::new_buffer(env)?),
+        ];
+        let batch_buffers = [
+            Self::new_batch_buffers(env, batch_size)?,
+            Self::new_batch_buffers(env, batch_size)?,
+        ];
+
+        let callback_info = CallbackInfo::new(
+            listener_ref,
+            methods,
+            frame_buffers,
+            Some(batch_buffers),
+            Self::clock_base(env)?,
+            Vec::with_capacity(batch_size),
+        );
+
+        self.listeners.insert_with_id(player_id, callback_info);
+        log::info!("Registered batch listener for player {}, batch size {}", player_id, batch_size);
+        Ok(())
+    }
+
+    fn new_buffer(env: &mut JNIEnv) -> Result<GlobalRef, String> {
+        let array = env.new_int_array(JOINTS_PER_ARM)
+            .map_err(|e| format!("Failed to create frame buffer: {}", e))?;
+        env.new_global_ref(&array)
+            .map_err(|e| format!("Failed to create frame buffer ref: {}", e))
+    }
+
+    fn new_batch_buffers(env: &mut JNIEnv, batch_size: usize) -> Result<BatchBuffers, String> {
+        let frames = batch_size as i32;
+        let left = env.new_int_array(frames * JOINTS_PER_ARM)
+            .map_err(|e| format!("Failed to create batch buffer: {}", e))?;
+        let right = env.new_int_array(frames * JOINTS_PER_ARM)
+            .map_err(|e| format!("Failed to create batch buffer: {}", e))?;
+        let frame_indices = env.new_int_array(frames)
+            .map_err(|e| format!("Failed to create batch buffer: {}", e))?;
+        let timestamps = env.new_long_array(frames)
+            .map_err(|e| format!("Failed to create batch buffer: {}", e))?;
+        let ref_error = |e: jni::errors::Error| format!("Failed to create batch buffer ref: {}", e);
+        Ok(BatchBuffers {
+            left: env.new_global_ref(&left).map_err(ref_error)?,
+            right: env.new_global_ref(&right).map_err(ref_error)?,
+            frame_indices: env.new_global_ref(&frame_indices).map_err(ref_error)?,
+            timestamps: env.new_global_ref(&timestamps).map_err(ref_error)?,
+        })
+    }
+
+    /// 记录 System.nanoTime() 与 Instant 的对应关系（两者在Android上都基于单调时钟）
+    fn clock_base(env: &mut JNIEnv) -> Result<(Instant, i64), String> {
+        let java_nanos = env.call_static_method("java/lang/System", "nanoTime", "()J", &[])
+            .and_then(|value| value.j())
+            .map_err(|e| format!("Failed to read System.nanoTime: {}", e))?;
+        Ok((Instant::now(), java_nanos))
+    }
+
+    /// 是否为批量回调监听器
+    pub fn is_batch_listener(&self, player_id: i64) -> bool {
+        self.listeners.get(player_id)
+            .map(|info| info.batch_buffers.is_some())
+            .unwrap_or(false)
+    }
+
+    /// 注销回调监听器（正在进行的回调持有自己的引用，结束后释放）
+    pub fn unregister_listener(&self, player_id: i64) {
+        if self.listeners.remove(player_id).is_some() {
             log::info!("Unregistered callback listener for player {}", player_id);
         }
     }
-    
+
+    /// 帧回调耗时统计
+    pub fn callback_stats(&self, player_id: i64) -> Option<CallbackStats> {
+        self.listeners.get(player_id).map(|info| info.stats())
+    }
+
+    /// 查找回调目标，返回时已释放分片锁
+    fn target(&self, player_id: i64) -> Result<(Arc<JavaVM>, Arc<CallbackInfo>), String> {
+        let java_vm = self.java_vm.read().unwrap().clone()
+            .ok_or("JavaVM not initialized")?;
+        let callback_info = self.listeners.get(player_id)
+            .ok_or("Listener not found")?;
+        Ok((java_vm, callback_info))
+    }
+}
+
+impl ListenerMethods {
+    /// 按监听器实际的类解析方法ID（注册时在Java线程调用一次）
+    fn resolve(env: &mut JNIEnv, listener: &JObject, batch: bool) -> Result<Self, String> {
+        let class = env.get_object_class(listener)
+            .map_err(|e| format!("Failed to get listener class: {}", e))?;
+        let mut method = |name: &str, sig: &str| {
+            env.get_method_id(&class, name, sig)
+                .map_err(|e| format!("Failed to resolve {}{}: {}", name, sig, e))
+        };
+        let methods = if batch {
+            Self {
+                on_frame_buffer: None,
+                on_frame_batch: Some(method("onFrameBatch", "([I[I[I[JI)V")?),
+                on_batch_cancelled: Some(method("onBatchCancelled", "(I)V")?),
+                on_complete: method("onComplete", "()V")?,
+                on_error: method("onError", "(Ljava/lang/String;)V")?,
+                on_emergency_stop: method("onEmergencyStop", "()V")?,
+            }
+        } else {
+            Self {
+                on_frame_buffer: Some(method("onFrameBuffer", "([I[II)V")?),
+                on_frame_batch: None,
+                on_batch_cancelled: None,
+                on_complete: method("onComplete", "()V")?,
+                on_error: method("onError", "(Ljava/lang/String;)V")?,
+                on_emergency_stop: method("onEmergencyStop", "()V")?,
+            }
+        };
+        env.delete_local_ref(class).ok();
+        Ok(methods)
+    }
+}
+
+impl CallbackInfo {
+    fn new(
+        listener_ref: GlobalRef,
+        methods: ListenerMethods,
+        frame_buffers: [(GlobalRef, GlobalRef); 2],
+        batch_buffers: Option<[BatchBuffers; 2]>,
+        clock_base: (Instant, i64),
+        timestamp_scratch: Vec<i64>,
+    ) -> Self {
+        Self {
+            listener_ref,
+            methods,
+            frame_buffers,
+            next_buffer: AtomicUsize::new(0),
+            batch_buffers,
+            clock_base,
+            timestamp_scratch: Mutex::new(timestamp_scratch),
+            stat_callbacks: AtomicU64::new(0),
+            stat_callback_nanos: AtomicU64::new(0),
+            stat_max_callback_nanos: AtomicU64::new(0),
+        }
+    }
+
+    /// 以缓存的方法ID调用无返回值的监听器方法，并检查Java异常
+    /// 播放线程保持附加，不会退出本地帧，因此这里不创建本地引用
+    fn call_void(&self, env: &mut JNIEnv, method: JMethodID, name: &str, args: &[jvalue]) -> Result<(), String> {
+        // 安全：方法ID在注册时按该监听器的类解析，参数与注册时的签名一致
+        let result = unsafe {
+            env.call_method_unchecked(&self.listener_ref, method, ReturnType::Primitive(Primitive::Void), args)
+        };
+
+        // 检查Java异常
+        if env.exception_check().unwrap_or(false) {
+            env.exception_describe().ok();
+            env.exception_clear().ok();
+            return Err(format!("Java exception in {} callback", name));
+        }
+
+        result.map(|_| ()).map_err(|e| format!("Failed to call {}: {}", name, e))
+    }
+
     /// 调用帧数据回调
-    pub fn call_frame_callback(
+    fn call_frame(
         &self,
-        player_id: i64,
+        env: &mut JNIEnv,
         left_arm: &[i32],
         right_arm: &[i32],
         frame_index: u32,
     ) -> Result<(), String> {
-        let java_vm = self.java_vm.as_ref()
-            .ok_or("JavaVM not initialized")?;
-        
-        let callback_info = self.listeners.get(&player_id)
-            .ok_or("Listener not found")?;
-        
-        // 获取JNI环境
-        let mut env = java_vm.attach_current_thread()
-            .map_err(|e| format!("Failed to attach thread: {}", e))?;
-        
-        // 创建Java数组
-        let left_array = env.new_int_array(left_arm.len() as i32)
-            .map_err(|e| format!("Failed to create left array: {}", e))?;
-        let right_array = env.new_int_array(right_arm.len() as i32)
-            .map_err(|e| format!("Failed to create right array: {}", e))?;
-        
+        let method = self.methods.on_frame_buffer
+            .ok_or("Listener is not a frame listener")?;
+
+        // 交替选择预分配的缓冲区
+        let index = self.next_buffer.fetch_xor(1, Ordering::Relaxed);
+        let (left_ref, right_ref) = &self.frame_buffers[index];
+        let left_array: &JIntArray = left_ref.as_obj().into();
+        let right_array: &JIntArray = right_ref.as_obj().into();
+
         // 填充数组数据
-        env.set_int_array_region(&left_array, 0, left_arm)
+        env.set_int_array_region(left_array, 0, left_arm)
             .map_err(|e| format!("Failed to set left array: {}", e))?;
-        env.set_int_array_region(&right_array, 0, right_arm)
+        env.set_int_array_region(right_array, 0, right_arm)
             .map_err(|e| format!("Failed to set right array: {}", e))?;
-        
-        // 调用Java方法
-        env.call_method(
-            &callback_info.listener_ref,
-            "onFrameData",
-            "([I[II)V",
-            &[
-                JValue::Object(&left_array.into()),
-                JValue::Object(&right_array.into()),
-                JValue::Int(frame_index as i32),
-            ],
-        ).map_err(|e| format!("Failed to call onFrameData: {}", e))?;
-        
-        // 检查Java异常
-        if env.exception_check().unwrap_or(false) {
-            env.exception_describe().ok();
-            env.exception_clear().ok();
-            return Err("Java exception in onFrameData callback".to_string());
-        }
-        
-        Ok(())
+
+        self.call_void(env, method, "onFrameBuffer", &[
+            JValue::Object(left_ref.as_obj()).as_jni(),
+            JValue::Object(right_ref.as_obj()).as_jni(),
+            JValue::Int(frame_index as i32).as_jni(),
+        ])
     }
-    
-    /// 调用完成回调
-    pub fn call_complete_callback(&self, player_id: i64) -> Result<(), String> {
-        let java_vm = self.java_vm.as_ref()
-            .ok_or("JavaVM not initialized")?;
-        
-        let callback_info = self.listeners.get(&player_id)
-            .ok_or("Listener not found")?;
-        
-        let mut env = java_vm.attach_current_thread()
-            .map_err(|e| format!("Failed to attach thread: {}", e))?;
-        
-        env.call_method(
-            &callback_info.listener_ref,
-            "onComplete",
-            "()V",
-            &[],
-        ).map_err(|e| format!("Failed to call onComplete: {}", e))?;
-        
-        if env.exception_check().unwrap_or(false) {
-            env.exception_describe().ok();
-            env.exception_clear().ok();
-            return Err("Java exception in onComplete callback".to_string());
-        }
-        
-        log::info!("Called onComplete callback for player {}", player_id);
-        Ok(())
+
+    /// 调用批量帧回调：一次JNI调用交付整批帧
+    fn call_batch(&self, env: &mut JNIEnv, batch: &FrameBatch) -> Result<(), String> {
+        let method = self.methods.on_frame_batch
+            .ok_or("Listener is not a batch listener")?;
+        let batch_buffers = self.batch_buffers.as_ref()
+            .ok_or("Listener is not a batch listener")?;
+
+        let index = self.next_buffer.fetch_xor(1, Ordering::Relaxed);
+        let buffers = &batch_buffers[index];
+        let left_array: &JIntArray = buffers.left.as_obj().into();
+        let right_array: &JIntArray = buffers.right.as_obj().into();
+        let index_array: &JIntArray = buffers.frame_indices.as_obj().into();
+        let timestamp_array: &JLongArray = buffers.timestamps.as_obj().into();
+
+        // 计划输出时间换算为 System.nanoTime() 时间基准
+        let (base_instant, base_nanos) = self.clock_base;
+        let start_nanos = base_nanos
+            + batch.start.saturating_duration_since(base_instant).as_nanos() as i64;
+        let period_nanos = batch.period.as_nanos() as i64;
+        let mut timestamps = self.timestamp_scratch.lock().unwrap();
+        timestamps.clear();
+        timestamps.extend((0..batch.len() as i64).map(|i| start_nanos + i * period_nanos));
+
+        env.set_int_array_region(left_array, 0, &batch.left)
+            .map_err(|e| format!("Failed to set left batch: {}", e))?;
+        env.set_int_array_region(right_array, 0, &batch.right)
+            .map_err(|e| format!("Failed to set right batch: {}", e))?;
+        env.set_int_array_region(index_array, 0, &batch.frame_indices)
+            .map_err(|e| format!("Failed to set frame indices: {}", e))?;
+        env.set_long_array_region(timestamp_array, 0, &timestamps)
+            .map_err(|e| format!("Failed to set timestamps: {}", e))?;
+
+        self.call_void(env, method, "onFrameBatch", &[
+            JValue::Object(buffers.left.as_obj()).as_jni(),
+            JValue::Object(buffers.right.as_obj()).as_jni(),
+            JValue::Object(buffers.frame_indices.as_obj()).as_jni(),
+            JValue::Object(buffers.timestamps.as_obj()).as_jni(),
+            JValue::Int(batch.len() as i32).as_jni(),
+        ])
+    }
+
+    /// 调用批次取消回调
+    fn call_batch_cancelled(&self, env: &mut JNIEnv, remaining_frames: usize) -> Result<(), String> {
+        let method = self.methods.on_batch_cancelled
+            .ok_or("Listener is not a batch listener")?;
+        self.call_void(env, method, "onBatchCancelled", &[JValue::Int(remaining_frames as i32).as_jni()])
     }
-    
+
     /// 调用错误回调
-    pub fn call_error_callback(&self, player_id: i64, error: &str) -> Result<(), String> {
-        let java_vm = self.java_vm.as_ref()
-            .ok_or("JavaVM not initialized")?;
-        
-        let callback_info = self.listeners.get(&player_id)
-            .ok_or("Listener not found")?;
-        
-        let mut env = java_vm.attach_current_thread()
-            .map_err(|e| format!("Failed to attach thread: {}", e))?;
-        
-        let error_string = env.new_string(error)
-            .map_err(|e| format!("Failed to create error string: {}", e))?;
-        
-        env.call_method(
-            &callback_info.listener_ref,
-            "onError",
-            "(Ljava/lang/String;)V",
-            &[JValue::Object(&error_string.into())],
-        ).map_err(|e| format!("Failed to call onError: {}", e))?;
-        
-        if env.exception_check().unwrap_or(false) {
-            env.exception_describe().ok();
-            env.exception_clear().ok();
-            return Err("Java exception in onError callback".to_string());
-        }
-        
-        log::error!("Called onError callback for player {}: {}", player_id, error);
-        Ok(())
+    fn call_error(&self, env: &mut JNIEnv, error: &str) -> Result<(), String> {
+        let error_string = JObject::from(env.new_string(error)
+            .map_err(|e| format!("Failed to create error string: {}", e))?);
+        let result = self.call_void(env, self.methods.on_error, "onError", &[
+            JValue::Object(&error_string).as_jni(),
+        ]);
+        // 附加的播放线程没有本地帧可退出，手动释放
+        env.delete_local_ref(error_string).ok();
+        result
     }
-    
-    /// 调用急停回调
-    pub fn call_emergency_stop_callback(&self, player_id: i64) -> Result<(), String> {
-        let java_vm = self.java_vm.as_ref()
-            .ok_or("JavaVM not initialized")?;
-        
-        let callback_info = self.listeners.get(&player_id)
-            .ok_or("Listener not found")?;
-        
-        let mut env = java_vm.attach_current_thread()
-            .map_err(|e| format!("Failed to attach thread: {}", e))?;
-        
-        env.call_method(
-            &callback_info.listener_ref,
-            "onEmergencyStop",
-            "()V",
-            &[],
-        ).map_err(|e| format!("Failed to call onEmergencyStop: {}", e))?;
-        
-        if env.exception_check().unwrap_or(false) {
-            env.exception_describe().ok();
-            env.exception_clear().ok();
-            return Err("Java exception in onEmergencyStop callback".to_string());
+
+    /// 记录一次帧回调的耗时
+    fn record_callback(&self, nanos: u64) {
+        self.stat_callbacks.fetch_add(1, Ordering::Relaxed);
+        self.stat_callback_nanos.fetch_add(nanos, Ordering::Relaxed);
+        self.stat_max_callback_nanos.fetch_max(nanos, Ordering::Relaxed);
+    }
+
+    fn stats(&self) -> CallbackStats {
+        CallbackStats {
+            callbacks: self.stat_callbacks.load(Ordering::Relaxed),
+            total_nanos: self.stat_callback_nanos.load(Ordering::Relaxed),
+            max_nanos: self.stat_max_callback_nanos.load(Ordering::Relaxed),
         }
-        
-        log::warn!("Called onEmergencyStop callback for player {}", player_id);
-        Ok(())
     }
 }
 
+/// 获取当前线程的JNI环境
+/// 常驻播放线程在第一次回调时以守护线程方式附加，之后一直保持附加直到线程退出，
+/// 每次回调不再附加/分离；已附加的线程（如调用急停的Java线程）直接返回其环境
+fn attach(java_vm: &JavaVM) -> Result<JNIEnv<'_>, String> {
+    java_vm.attach_current_thread_as_daemon()
+        .map_err(|e| format!("Failed to attach thread: {}", e))
+}
+
+/// 查找监听器并在当前线程回调，回调期间不持有任何锁
+fn with_listener<F>(player_id: i64, callback: F) -> Result<(), String>
+where
+    F: FnOnce(&mut JNIEnv, &CallbackInfo) -> Result<(), String>,
+{
+    let (java_vm, callback_info) = CALLBACK_MANAGER.target(player_id)?;
+    let mut env = attach(&java_vm)?;
+    callback(&mut env, &callback_info)
+}
+
+/// 回调并记录帧回调耗时
+fn with_listener_timed<F>(player_id: i64, callback: F) -> Result<(), String>
+where
+    F: FnOnce(&mut JNIEnv, &CallbackInfo) -> Result<(), String>,
+{
+    let start = Instant::now();
+    let (java_vm, callback_info) = CALLBACK_MANAGER.target(player_id)?;
+    let mut env = attach(&java_vm)?;
+    let result = callback(&mut env, &callback_info);
+    callback_info.record_callback(start.elapsed().as_nanos() as u64);
+    result
+}
+
 // 公共接口函数
 
 /// 初始化回调系统
 pub fn init_callback_system(java_vm: JavaVM) {
-    let mut manager = CALLBACK_MANAGER.lock().unwrap();
-    manager.init_java_vm(java_vm);
+    CALLBACK_MANAGER.init_java_vm(java_vm);
 }
 
 /// 注册播放器回调监听器
@@ -215,14 +440,32 @@ pub fn register_player_listener(
     env: &mut JNIEnv,
     listener: &JObject,
 ) -> Result<(), String> {
-    let mut manager = CALLBACK_MANAGER.lock().unwrap();
-    manager.register_listener(player_id, env, listener)
+    CALLBACK_MANAGER.register_listener(player_id, env, listener)
+}
+
+/// 注册播放器批量回调监听器
+pub fn register_player_batch_listener(
+    player_id: i64,
+    env: &mut JNIEnv,
+    listener: &JObject,
+    batch_size: usize,
+) -> Result<(), String> {
+    CALLBACK_MANAGER.register_batch_listener(player_id, env, listener, batch_size)
+}
+
+/// 播放器注册的是否为批量回调监听器
+pub fn is_player_batch_listener(player_id: i64) -> bool {
+    CALLBACK_MANAGER.is_batch_listener(player_id)
 }
 
 /// 注销播放器回调监听器
 pub fn unregister_player_listener(player_id: i64) {
-    let mut manager = CALLBACK_MANAGER.lock().unwrap();
-    manager.unregister_listener(player_id);
+    CALLBACK_MANAGER.unregister_listener(player_id);
+}
+
+/// 播放器的帧回调耗时统计
+pub fn player_callback_stats(player_id: i64) -> Option<CallbackStats> {
+    CALLBACK_MANAGER.callback_stats(player_id)
 }
 
 /// 调用Java帧数据回调
@@ -232,32 +475,57 @@ pub fn call_java_frame_callback(
     right_arm: &[i32],
     frame_index: u32,
 ) {
-    let manager = CALLBACK_MANAGER.lock().unwrap();
-    if let Err(e) = manager.call_frame_callback(player_id, left_arm, right_arm, frame_index) {
+    let result = with_listener_timed(player_id, |env, info| {
+        info.call_frame(env, left_arm, right_arm, frame_index)
+    });
+    if let Err(e) = result {
         log::error!("Frame callback failed for player {}: {}", player_id, e);
     }
 }
 
+/// 调用Java批量帧回调
+pub fn call_java_batch_callback(player_id: i64, batch: &FrameBatch) {
+    let result = with_listener_timed(player_id, |env, info| info.call_batch(env, batch));
+    if let Err(e) = result {
+        log::error!("Batch callback failed for player {}: {}", player_id, e);
+    }
+}
+
+/// 调用Java批次取消回调
+pub fn call_java_batch_cancelled_callback(player_id: i64, remaining_frames: usize) {
+    let result = with_listener(player_id, |env, info| info.call_batch_cancelled(env, remaining_frames));
+    if let Err(e) = result {
+        log::error!("Batch cancelled callback failed for player {}: {}", player_id, e);
+    }
+}
+
 /// 调用Java完成回调
 pub fn call_java_complete_callback(player_id: i64) {
-    let manager = CALLBACK_MANAGER.lock().unwrap();
-    if let Err(e) = manager.call_complete_callback(player_id) {
-        log::error!("Complete callback failed for player {}: {}", player_id, e);
+    let result = with_listener(player_id, |env, info| {
+        info.call_void(env, info.methods.on_complete, "onComplete", &[])
+    });
+    match result {
+        Ok(_) => log::info!("Called onComplete callback for player {}", player_id),
+        Err(e) => log::error!("Complete callback failed for player {}: {}", player_id, e),
     }
 }
 
 /// 调用Java错误回调
 pub fn call_java_error_callback(player_id: i64, error: &str) {
-    let manager = CALLBACK_MANAGER.lock().unwrap();
-    if let Err(e) = manager.call_error_callback(player_id, error) {
-        log::error!("Error callback failed for player {}: {}", player_id, e);
+    let result = with_listener(player_id, |env, info| info.call_error(env, error));
+    match result {
+        Ok(_) => log::error!("Called onError callback for player {}: {}", player_id, error),
+        Err(e) => log::error!("Error callback failed for player {}: {}", player_id, e),
     }
 }
 
 /// 调用Java急停回调
 pub fn call_java_emergency_stop_callback(player_id: i64) {
-    let manager = CALLBACK_MANAGER.lock().unwrap();
-    if let Err(e) = manager.call_emergency_stop_callback(player_id) {
-        log::error!("Emergency stop callback failed for player {}: {}", player_id, e);
+    let result = with_listener(player_id, |env, info| {
+        info.call_void(env, info.methods.on_emergency_stop, "onEmergencyStop", &[])
+    });
+    match result {
+        Ok(_) => log::warn!("Called onEmergencyStop callback for player {}", player_id),
+        Err(e) => log::error!("Emergency stop callback failed for player {}: {}", player_id, e),
     }
-}
\ No newline at end of file
+}
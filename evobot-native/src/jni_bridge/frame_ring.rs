@@ -0,0 +1,227 @@
+use jni::JNIEnv;
+use jni::objects::{GlobalRef, JByteBuffer};
+use std::sync::atomic::{fence, AtomicU64, Ordering};
+use std::time::Instant;
+
+// 内存布局与Java端 FrameRing 一致（本机字节序）
+const HEADER_SIZE: usize = 64;
+const SLOT_SIZE: usize = 64;
+const PUBLISHED_OFFSET: usize = 0;
+const CAPACITY_OFFSET: usize = 8;
+const SLOT_SIZE_OFFSET: usize = 12;
+const STAMP_OFFSET: usize = 0;
+const TIMESTAMP_OFFSET: usize = 8;
+const FRAME_INDEX_OFFSET: usize = 16;
+const JOINTS_OFFSET: usize = 24;
+const JOINTS_PER_ARM: usize = 10;
+
+// 布局在各目标ABI（含32位ARM）上不变：原子字段和槽位8字节对齐，各字段不重叠，关节值不越出槽位
+const _: () = assert!(std::mem::size_of::<AtomicU64>() == 8 && std::mem::align_of::<AtomicU64>() <= 8);
+const _: () = assert!(HEADER_SIZE % 8 == 0 && SLOT_SIZE % 8 == 0);
+const _: () = assert!(PUBLISHED_OFFSET % 8 == 0 && STAMP_OFFSET % 8 == 0 && TIMESTAMP_OFFSET % 8 == 0);
+const _: () = assert!(PUBLISHED_OFFSET + 8 <= CAPACITY_OFFSET && SLOT_SIZE_OFFSET + 4 <= HEADER_SIZE);
+const _: () = assert!(STAMP_OFFSET + 8 <= TIMESTAMP_OFFSET && TIMESTAMP_OFFSET + 8 <= FRAME_INDEX_OFFSET);
+const _: () = assert!(FRAME_INDEX_OFFSET + 4 <= JOINTS_OFFSET);
+const _: () = assert!(JOINTS_OFFSET + 2 * JOINTS_PER_ARM * std::mem::size_of::<i16>() <= SLOT_SIZE);
+
+/// 帧环写入端（单生产者）
+/// 播放线程把帧直接写入Java分配的直接内存，不经过JNI调用；Java端在自己的线程上读取。
+/// 每个槽位先把序号戳置为奇数、写入内容、再置为偶数，最后发布帧数，读取端据此丢弃读取期间被覆盖的帧。
+/// 从不等待读取端：环满时覆盖最旧的帧
+pub struct FrameRingWriter {
+    ring: RingMemory,
+    /// 时钟对齐：注册时的 System.nanoTime() 与对应的 Instant
+    clock_base: (Instant, i64),
+    /// 持有缓冲区的全局引用，保证直接内存在写入期间不被回收
+    _buffer: GlobalRef,
+}
+
+// 直接内存由 _buffer 保持有效；同一时间只有一个播放线程写入
+unsafe impl Send for FrameRingWriter {}
+unsafe impl Sync for FrameRingWriter {}
+
+impl FrameRingWriter {
+    /// 从Java端 FrameRing 的直接缓冲区创建写入端，校验头部记录的槽位数和槽位大小
+    pub fn new(env: &mut JNIEnv, buffer: &JByteBuffer, java_nanos: i64) -> Result<Self, String> {
+        let base = env.get_direct_buffer_address(buffer)
+            .map_err(|e| format!("Failed to get ring address: {}", e))?;
+        let length = env.get_direct_buffer_capacity(buffer)
+            .map_err(|e| format!("Failed to get ring capacity: {}", e))?;
+        // 安全：直接缓冲区的地址和长度由JVM给出，下面持有的全局引用保证其在写入端存活期间有效
+        let ring = unsafe { RingMemory::open(base, length)? };
+
+        let buffer_ref = env.new_global_ref(buffer)
+            .map_err(|e| format!("Failed to create ring ref: {}", e))?;
+        Ok(Self {
+            ring,
+            clock_base: (Instant::now(), java_nanos),
+            _buffer: buffer_ref,
+        })
+    }
+
+    /// 写入一帧并发布（播放线程调用）
+    pub fn push(&self, left_arm: &[i32], right_arm: &[i32], frame_index: u32) {
+        // 输出时间换算为 System.nanoTime() 时间基准
+        let (base_instant, base_nanos) = self.clock_base;
+        let timestamp = base_nanos + base_instant.elapsed().as_nanos() as i64;
+        self.ring.push(left_arm, right_arm, frame_index, timestamp);
+    }
+}
+
+/// 按帧环布局读写的一段内存，不涉及JNI（测试中可直接用普通内存验证布局）
+struct RingMemory {
+    base: *mut u8,
+    capacity: u64,
+}
+
+impl RingMemory {
+    /// 校验基址对齐和头部记录的槽位数、槽位大小
+    ///
+    /// 安全：base 必须指向至少 length 字节、在返回值使用期间一直有效的可写内存
+    unsafe fn open(base: *mut u8, length: usize) -> Result<Self, String> {
+        if base.is_null() || (base as usize) % 8 != 0 || length < HEADER_SIZE {
+            return Err("Invalid frame ring buffer".to_string());
+        }
+
+        // 头部在缓冲区范围内，由Java端在创建时写入
+        let capacity = (base.add(CAPACITY_OFFSET) as *const i32).read();
+        let slot_size = (base.add(SLOT_SIZE_OFFSET) as *const i32).read();
+        if capacity <= 0 || slot_size as usize != SLOT_SIZE
+            || length < HEADER_SIZE + capacity as usize * SLOT_SIZE {
+            return Err(format!("Frame ring layout mismatch: capacity={}, slot={}, length={}",
+                capacity, slot_size, length));
+        }
+        Ok(Self { base, capacity: capacity as u64 })
+    }
+
+    fn atomic(&self, offset: usize) -> &AtomicU64 {
+        // 安全：偏移在缓冲区范围内且8字节对齐（基址、头部和槽位大小均为8的倍数）
+        unsafe { &*(self.base.add(offset) as *const AtomicU64) }
+    }
+
+    /// 写入一帧并发布
+    fn push(&self, left_arm: &[i32], right_arm: &[i32], frame_index: u32, timestamp: i64) {
+        let published = self.atomic(PUBLISHED_OFFSET);
+        let sequence = published.load(Ordering::Relaxed);
+        let slot = HEADER_SIZE + (sequence % self.capacity) as usize * SLOT_SIZE;
+        let stamp = self.atomic(slot + STAMP_OFFSET);
+
+        stamp.store(sequence * 2 + 1, Ordering::Relaxed);
+        fence(Ordering::Release);
+        // 安全：槽位在缓冲区范围内；读取端通过序号戳检查并发覆盖
+        unsafe {
+            let slot_ptr = self.base.add(slot);
+            (slot_ptr.add(TIMESTAMP_OFFSET) as *mut i64).write_volatile(timestamp);
+            (slot_ptr.add(FRAME_INDEX_OFFSET) as *mut i32).write_volatile(frame_index as i32);
+            let joints = slot_ptr.add(JOINTS_OFFSET) as *mut i16;
+            for j in 0..JOINTS_PER_ARM {
+                joints.add(j).write_volatile(left_arm[j] as i16);
+                joints.add(JOINTS_PER_ARM + j).write_volatile(right_arm[j] as i16);
+            }
+        }
+        stamp.store(sequence * 2 + 2, Ordering::Release);
+        published.store(sequence + 1, Ordering::Release);
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    const CAPACITY: usize = 2;
+
+    /// Java端 FrameRing(2) 依次 publish 3帧后的整个缓冲区（小端，由 FrameRing.publish 生成）：
+    /// 第i帧帧索引为 100+i，输出时间为 1_000_000_000 + i * 10_000_000，
+    /// 左臂第j个关节为 i*100+j，右臂 j%3==0 时为-1（保持），否则为 2000+i*100+j。
+    /// 第0帧已被第2帧覆盖。FrameRingTest 用同一组字节验证Java读取端
+    const JAVA_RING_AFTER_3_FRAMES: [u8; HEADER_SIZE + CAPACITY * SLOT_SIZE] = [
+        0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x02, 0x00, 0x00, 0x00, 0x40, 0x00, 0x00, 0x00,
+        0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        0x06, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0xf7, 0xcb, 0x3c, 0x00, 0x00, 0x00, 0x00,
+        0x66, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0xc8, 0x00, 0xc9, 0x00, 0xca, 0x00, 0xcb, 0x00,
+        0xcc, 0x00, 0xcd, 0x00, 0xce, 0x00, 0xcf, 0x00, 0xd0, 0x00, 0xd1, 0x00, 0xff, 0xff, 0x99, 0x08,
+        0x9a, 0x08, 0xff, 0xff, 0x9c, 0x08, 0x9d, 0x08, 0xff, 0xff, 0x9f, 0x08, 0xa0, 0x08, 0xff, 0xff,
+        0x04, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x80, 0x60, 0x33, 0x3c, 0x00, 0x00, 0x00, 0x00,
+        0x65, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x64, 0x00, 0x65, 0x00, 0x66, 0x00, 0x67, 0x00,
+        0x68, 0x00, 0x69, 0x00, 0x6a, 0x00, 0x6b, 0x00, 0x6c, 0x00, 0x6d, 0x00, 0xff, 0xff, 0x35, 0x08,
+        0x36, 0x08, 0xff, 0xff, 0x38, 0x08, 0x39, 0x08, 0xff, 0xff, 0x3b, 0x08, 0x3c, 0x08, 0xff, 0xff,
+    ];
+
+    fn frame(i: i32) -> ([i32; JOINTS_PER_ARM], [i32; JOINTS_PER_ARM]) {
+        let mut left = [0; JOINTS_PER_ARM];
+        let mut right = [0; JOINTS_PER_ARM];
+        for j in 0..JOINTS_PER_ARM {
+            left[j] = i * 100 + j as i32;
+            right[j] = if j % 3 == 0 { -1 } else { 2000 + i * 100 + j as i32 };
+        }
+        (left, right)
+    }
+
+    /// 与Java端 FrameRing 构造函数相同：8字节对齐的缓冲区，头部写入槽位数和槽位大小
+    fn java_ring(capacity: usize, slot_size: i32) -> Vec<u64> {
+        let mut words = vec![0u64; (HEADER_SIZE + capacity * SLOT_SIZE) / 8];
+        let base = words.as_mut_ptr() as *mut u8;
+        unsafe {
+            (base.add(CAPACITY_OFFSET) as *mut i32).write(capacity as i32);
+            (base.add(SLOT_SIZE_OFFSET) as *mut i32).write(slot_size);
+        }
+        words
+    }
+
+    fn bytes(words: &[u64]) -> &[u8] {
+        unsafe { std::slice::from_raw_parts(words.as_ptr() as *const u8, words.len() * 8) }
+    }
+
+    #[test]
+    #[cfg(target_endian = "little")]
+    fn test_writer_matches_java_publish() {
+        let mut words = java_ring(CAPACITY, SLOT_SIZE as i32);
+        let length = words.len() * 8;
+        let ring = unsafe { RingMemory::open(words.as_mut_ptr() as *mut u8, length) }.unwrap();
+        for i in 0..3 {
+            let (left, right) = frame(i);
+            ring.push(&left, &right, 100 + i as u32, 1_000_000_000 + i as i64 * 10_000_000);
+        }
+        assert_eq!(bytes(&words), &JAVA_RING_AFTER_3_FRAMES[..]);
+    }
+
+    #[test]
+    fn test_writer_stamps_and_publishes_in_native_order() {
+        let mut words = java_ring(CAPACITY, SLOT_SIZE as i32);
+        let length = words.len() * 8;
+        let base = words.as_mut_ptr() as *mut u8;
+        let ring = unsafe { RingMemory::open(base, length) }.unwrap();
+        let (left, right) = frame(1);
+        ring.push(&left, &right, 7, 42);
+
+        // 按Java读取端的偏移和本机字节序读回
+        unsafe {
+            let slot = base.add(HEADER_SIZE);
+            assert_eq!((base.add(PUBLISHED_OFFSET) as *const u64).read(), 1);
+            assert_eq!((slot.add(STAMP_OFFSET) as *const u64).read(), 2);
+            assert_eq!((slot.add(TIMESTAMP_OFFSET) as *const i64).read(), 42);
+            assert_eq!((slot.add(FRAME_INDEX_OFFSET) as *const i32).read(), 7);
+            let joints = slot.add(JOINTS_OFFSET) as *const i16;
+            for j in 0..JOINTS_PER_ARM {
+                assert_eq!(joints.add(j).read() as i32, left[j]);
+                assert_eq!(joints.add(JOINTS_PER_ARM + j).read() as i32, right[j]);
+            }
+        }
+    }
+
+    #[test]
+    fn test_open_rejects_mismatched_layout() {
+        let mut words = java_ring(CAPACITY, 32);
+        let length = words.len() * 8;
+        let base = words.as_mut_ptr() as *mut u8;
+        assert!(unsafe { RingMemory::open(base, length) }.is_err(), "slot size mismatch");
+
+        let mut words = java_ring(CAPACITY, SLOT_SIZE as i32);
+        let base = words.as_mut_ptr() as *mut u8;
+        assert!(unsafe { RingMemory::open(base, length - 1) }.is_err(), "buffer too short");
+        assert!(unsafe { RingMemory::open(base.add(4), length - 8) }.is_err(), "misaligned base");
+        assert!(unsafe { RingMemory::open(base, length) }.is_ok());
+    }
+}
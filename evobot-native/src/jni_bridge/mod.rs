@@ -1,5 +1,7 @@
 pub mod bridge;
 pub mod callbacks;
+pub mod frame_ring;
+pub mod registry;
 
 pub use bridge::*;
 pub use callbacks::*;
\ No newline at end of file
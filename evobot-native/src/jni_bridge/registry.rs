@@ -0,0 +1,219 @@
+use jni::sys::jlong;
+use std::collections::HashMap;
+use std::sync::{Arc, RwLock, atomic::{AtomicI64, Ordering}};
+
+/// 分片数（2的幂）；句柄顺序分配，相邻创建的播放器落在不同分片
+pub const REGISTRY_SHARDS: usize = 16;
+
+/// 按句柄分片的并发注册表
+/// 每个分片一把读写锁，只在查找、插入和移除期间持有：不同分片上的操作互不等待，
+/// 同一播放器上的并发查找（UI轮询进度、控制调用、回调查找监听器）只取读锁，也不互相等待。
+/// 句柄由原子计数器分配，从1开始，不会重复使用
+pub struct PlayerRegistry<T> {
+    shards: Vec<RwLock<HashMap<jlong, Arc<T>>>>,
+    next_id: AtomicI64,
+}
+
+impl<T> PlayerRegistry<T> {
+    pub fn new() -> Self {
+        Self {
+            shards: (0..REGISTRY_SHARDS).map(|_| RwLock::new(HashMap::new())).collect(),
+            next_id: AtomicI64::new(1),
+        }
+    }
+
+    fn shard(&self, id: jlong) -> &RwLock<HashMap<jlong, Arc<T>>> {
+        &self.shards[(id as u64 as usize) & (REGISTRY_SHARDS - 1)]
+    }
+
+    /// 分配新句柄并登记
+    pub fn insert(&self, value: T) -> jlong {
+        let id = self.next_id.fetch_add(1, Ordering::Relaxed);
+        self.shard(id).write().unwrap().insert(id, Arc::new(value));
+        id
+    }
+
+    /// 以已有句柄登记（如播放器的回调监听器），替换同一句柄的旧值
+    pub fn insert_with_id(&self, id: jlong, value: T) {
+        self.shard(id).write().unwrap().insert(id, Arc::new(value));
+    }
+
+    /// 取出引用，返回后不再持有分片锁
+    pub fn get(&self, id: jlong) -> Option<Arc<T>> {
+        self.shard(id).read().unwrap().get(&id).cloned()
+    }
+
+    /// 移除登记；仍持有引用的调用方在用完后释放
+    pub fn remove(&self, id: jlong) -> Option<Arc<T>> {
+        self.shard(id).write().unwrap().remove(&id)
+    }
+
+    /// 已登记数量（逐个分片统计，并发修改时只是近似值）
+    pub fn len(&self) -> usize {
+        self.shards.iter().map(|shard| shard.read().unwrap().len()).sum()
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use std::sync::{mpsc, Barrier};
+    use std::thread;
+    use std::time::{Duration, Instant};
+
+    #[test]
+    fn test_registry_basic_operations() {
+        let registry = PlayerRegistry::new();
+
+        let a = registry.insert("a");
+        let b = registry.insert("b");
+        assert_ne!(a, b);
+        assert_eq!(registry.get(a).as_deref(), Some(&"a"));
+        assert_eq!(registry.len(), 2);
+
+        registry.insert_with_id(a, "c");
+        assert_eq!(registry.get(a).as_deref(), Some(&"c"));
+
+        assert!(registry.remove(a).is_some());
+        assert!(registry.get(a).is_none());
+        assert!(registry.remove(a).is_none());
+        assert_eq!(registry.len(), 1);
+    }
+
+    #[test]
+    fn test_registry_concurrent_access() {
+        let registry = Arc::new(PlayerRegistry::new());
+        let handles: Vec<_> = (0..8)
+            .map(|t| {
+                let registry = Arc::clone(&registry);
+                thread::spawn(move || {
+                    for i in 0..1000 {
+                        let id = registry.insert(t * 1000 + i);
+                        assert_eq!(registry.get(id).as_deref(), Some(&(t * 1000 + i)));
+                        if i % 2 == 0 {
+                            assert!(registry.remove(id).is_some());
+                        }
+                    }
+                })
+            })
+            .collect();
+        for handle in handles {
+            handle.join().unwrap();
+        }
+        assert_eq!(registry.len(), 8 * 500);
+    }
+
+    #[test]
+    fn test_registry_lookup_waits_only_for_writer_of_same_shard() {
+        let registry = Arc::new(PlayerRegistry::new());
+        let ids: Vec<jlong> = (0..=REGISTRY_SHARDS as i64).map(|i| registry.insert(i)).collect();
+        // ids[0] 与 ids[REGISTRY_SHARDS] 同分片，ids[1] 在另一个分片
+        let (same, other) = (ids[REGISTRY_SHARDS], ids[1]);
+        let lookup = |id: jlong| {
+            let registry = Arc::clone(&registry);
+            let (tx, rx) = mpsc::channel();
+            thread::spawn(move || tx.send(registry.get(id).map(|value| *value)).unwrap());
+            rx
+        };
+
+        // 同一分片上持有读锁时，其他线程的查找不等待
+        {
+            let _reader = registry.shard(ids[0]).read().unwrap();
+            assert_eq!(lookup(same).recv_timeout(Duration::from_secs(5)).unwrap(), Some(REGISTRY_SHARDS as i64));
+        }
+
+        // 写锁只阻塞同一分片上的查找
+        let writer = registry.shard(ids[0]).write().unwrap();
+        assert_eq!(lookup(other).recv_timeout(Duration::from_secs(5)).unwrap(), Some(1));
+        let blocked = lookup(same);
+        assert!(blocked.recv_timeout(Duration::from_millis(50)).is_err());
+        drop(writer);
+        assert_eq!(blocked.recv_timeout(Duration::from_secs(5)).unwrap(), Some(REGISTRY_SHARDS as i64));
+    }
+
+    const CONTENDED_PLAYERS: i64 = 16;
+    const CONTENDED_OPS: usize = 200_000;
+
+    /// 并发负载所需的注册表操作，用于同一负载下对比分片注册表和单锁注册表
+    trait Table: Send + Sync {
+        fn insert(&self, value: i64) -> jlong;
+        fn get(&self, id: jlong) -> Option<Arc<i64>>;
+        fn remove(&self, id: jlong) -> Option<Arc<i64>>;
+        fn len(&self) -> usize;
+    }
+
+    impl Table for PlayerRegistry<i64> {
+        fn insert(&self, value: i64) -> jlong { PlayerRegistry::insert(self, value) }
+        fn get(&self, id: jlong) -> Option<Arc<i64>> { PlayerRegistry::get(self, id) }
+        fn remove(&self, id: jlong) -> Option<Arc<i64>> { PlayerRegistry::remove(self, id) }
+        fn len(&self) -> usize { PlayerRegistry::len(self) }
+    }
+
+    /// 分片前的做法：整张表一把读写锁
+    struct SingleLockTable {
+        players: RwLock<HashMap<jlong, Arc<i64>>>,
+        next_id: AtomicI64,
+    }
+
+    impl Table for SingleLockTable {
+        fn insert(&self, value: i64) -> jlong {
+            let id = self.next_id.fetch_add(1, Ordering::Relaxed);
+            self.players.write().unwrap().insert(id, Arc::new(value));
+            id
+        }
+        fn get(&self, id: jlong) -> Option<Arc<i64>> { self.players.read().unwrap().get(&id).cloned() }
+        fn remove(&self, id: jlong) -> Option<Arc<i64>> { self.players.write().unwrap().remove(&id) }
+        fn len(&self) -> usize { self.players.read().unwrap().len() }
+    }
+
+    /// 控制路径的负载：每个线程反复查找自己的播放器（轮询进度、控制调用），每8次查找一次所有线程共用的
+    /// 热点播放器，每64次创建并释放一个临时播放器（句柄顺序分配，写锁落在各线程播放器所在的分片上）。
+    /// 检查每次查找的结果，返回全部线程完成的耗时
+    fn contend<T: Table + 'static>(table: Arc<T>, threads: usize) -> Duration {
+        let ids: Arc<Vec<jlong>> = Arc::new((0..CONTENDED_PLAYERS).map(|i| table.insert(i)).collect());
+        let barrier = Arc::new(Barrier::new(threads + 1));
+        let handles: Vec<_> = (0..threads)
+            .map(|t| {
+                let (table, ids, barrier) = (Arc::clone(&table), Arc::clone(&ids), Arc::clone(&barrier));
+                thread::spawn(move || {
+                    let own = (t as i64) % CONTENDED_PLAYERS;
+                    barrier.wait();
+                    for i in 0..CONTENDED_OPS {
+                        if i % 64 == 63 {
+                            let id = table.insert(-1 - t as i64);
+                            assert_eq!(table.get(id).as_deref(), Some(&(-1 - t as i64)));
+                            assert!(table.remove(id).is_some());
+                        } else if i % 8 == 0 {
+                            assert_eq!(table.get(ids[0]).as_deref(), Some(&0));
+                        } else {
+                            assert_eq!(table.get(ids[own as usize]).as_deref(), Some(&own));
+                        }
+                    }
+                })
+            })
+            .collect();
+        barrier.wait();
+        let start = Instant::now();
+        for handle in handles {
+            handle.join().unwrap();
+        }
+        let elapsed = start.elapsed();
+        assert_eq!(table.len(), CONTENDED_PLAYERS as usize);
+        elapsed
+    }
+
+    #[test]
+    fn test_registry_contention_against_single_lock() {
+        // 至少4个线程，核数更多时每核一个线程
+        let threads = thread::available_parallelism().map(|n| n.get()).unwrap_or(1).max(4);
+        let sharded = contend(Arc::new(PlayerRegistry::<i64>::new()), threads);
+        let single = contend(
+            Arc::new(SingleLockTable { players: RwLock::new(HashMap::new()), next_id: AtomicI64::new(1) }),
+            threads,
+        );
+        let ops = (threads * CONTENDED_OPS) as f64;
+        // 吞吐与核数有关，只输出对比，不设阈值
+        println!("{} threads: sharded registry {:.0} ops/s ({:?}), single lock {:.0} ops/s ({:?})",
+            threads, ops / sharded.as_secs_f64(), sharded, ops / single.as_secs_f64(), single);
+    }
+}
@@ -1,71 +1,443 @@
-use std::sync::{Arc, Mutex, atomic::{AtomicBool, AtomicU32, Ordering}};
+use std::sync::{Arc, Mutex, atomic::{AtomicBool, AtomicU32, AtomicU64, AtomicU8, AtomicUsize, Ordering}};
+use std::time::{Duration, Instant};
 use tokio::time::sleep;
 use crate::sequence::SequenceData;
 use crate::playback::{PlaybackState, PrecisionTimer};
 
+/// 批量交付的最大帧数，与Java端 FrameBatcher.MAX_BATCH_SIZE 一致
+pub const MAX_BATCH_SIZE: usize = 64;
+
+/// 一批待交付的帧：左右臂按帧连续存放，第i帧计划在 start + i * period 输出
+pub struct FrameBatch {
+    pub left: Vec<i32>,
+    pub right: Vec<i32>,
+    pub frame_indices: Vec<i32>,
+    pub start: Instant,
+    pub period: Duration,
+}
+
+impl FrameBatch {
+    fn with_capacity(capacity: usize, period: Duration) -> Self {
+        Self {
+            left: Vec::with_capacity(capacity * 10),
+            right: Vec::with_capacity(capacity * 10),
+            frame_indices: Vec::with_capacity(capacity),
+            start: Instant::now(),
+            period,
+        }
+    }
+    
+    fn clear(&mut self, start: Instant) {
+        self.left.clear();
+        self.right.clear();
+        self.frame_indices.clear();
+        self.start = start;
+    }
+    
+    fn push(&mut self, left: &[i32], right: &[i32], frame_index: u32) {
+        self.left.extend_from_slice(left);
+        self.right.extend_from_slice(right);
+        self.frame_indices.push(frame_index as i32);
+    }
+    
+    pub fn len(&self) -> usize {
+        self.frame_indices.len()
+    }
+}
+
+/// 回调超时处理策略，取值与Java端 OverrunPolicy 的序号一致
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub enum OverrunPolicy {
+    /// 不丢帧，序列被拉长（默认，沿用自适应延时）
+    Stretch = 0,
+    /// 跳过错过的帧，保持原时长
+    Drop = 1,
+    /// 不丢帧，连续补发直到回到原时间网格
+    CatchUp = 2,
+}
+
+impl OverrunPolicy {
+    pub fn from_i32(value: i32) -> Option<Self> {
+        match value {
+            0 => Some(OverrunPolicy::Stretch),
+            1 => Some(OverrunPolicy::Drop),
+            2 => Some(OverrunPolicy::CatchUp),
+            _ => None,
+        }
+    }
+}
+
+/// 播放循环结束的原因：只有 Completed 表示序列播放完成
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub enum PlaybackEnd {
+    /// 播放到最后一帧
+    Completed,
+    /// 暂停：进度保留，恢复后重新启动播放从暂停的帧继续
+    Paused,
+    /// 停止、加载新序列，或暂停后在循环退出前已恢复
+    Stopped,
+    /// 急停
+    EmergencyStopped,
+}
+
+/// 回调超时统计快照
+#[derive(Debug, Clone, Copy, Default)]
+pub struct OverrunStats {
+    pub ticks: u64,
+    pub overruns: u64,
+    pub dropped_frames: u64,
+    pub max_callback_nanos: u64,
+}
+
+/// 急停统计快照
+#[derive(Debug, Clone, Copy, Default)]
+pub struct EmergencyStopStats {
+    pub stops: u64,
+    /// 最近一次急停请求到最后一帧交付结束的时间（请求时没有正在交付的帧为0）
+    pub last_latency_nanos: u64,
+    pub max_latency_nanos: u64,
+    /// 最近一次急停请求到播放循环响应（停止交付、退出循环）的时间，
+    /// 包含同一调度线程上其他播放器回调造成的等待
+    pub last_response_nanos: u64,
+    pub max_response_nanos: u64,
+}
+
+/// 急停信号
+/// 急停请求只写原子变量，不获取播放期间被持有的引擎锁；播放循环在每次交付前检查，
+/// 请求之后不再开始交付，最后一帧最多是请求时正在交付的那一帧。
+/// 播放循环在下一次被调度时才响应：同一调度线程上其他播放器的回调正在执行时，响应要等它返回，
+/// 响应延迟的上界按调度线程计算，为一个播放周期加上同线程其他播放器最长的一次回调耗时
+pub struct EmergencyStopSignal {
+    epoch: Instant,
+    // 请求时间（相对epoch的纳秒数+1），0表示没有请求
+    requested_at: AtomicU64,
+    stops: AtomicU64,
+    last_latency_nanos: AtomicU64,
+    max_latency_nanos: AtomicU64,
+    last_response_nanos: AtomicU64,
+    max_response_nanos: AtomicU64,
+}
+
+impl EmergencyStopSignal {
+    pub fn new() -> Self {
+        Self {
+            epoch: Instant::now(),
+            requested_at: AtomicU64::new(0),
+            stops: AtomicU64::new(0),
+            last_latency_nanos: AtomicU64::new(0),
+            max_latency_nanos: AtomicU64::new(0),
+            last_response_nanos: AtomicU64::new(0),
+            max_response_nanos: AtomicU64::new(0),
+        }
+    }
+    
+    fn now_nanos(&self) -> u64 {
+        self.epoch.elapsed().as_nanos() as u64 + 1
+    }
+    
+    /// 请求急停（任意线程，无锁）
+    pub fn request(&self) {
+        self.last_latency_nanos.store(0, Ordering::Relaxed);
+        self.last_response_nanos.store(0, Ordering::Relaxed);
+        self.stops.fetch_add(1, Ordering::Relaxed);
+        // SeqCst：与播放循环的 loop_active 读写构成先写后读的握手，见 PlaybackEngine::run_playback
+        self.requested_at.store(self.now_nanos(), Ordering::SeqCst);
+    }
+    
+    pub fn is_requested(&self) -> bool {
+        self.requested_at.load(Ordering::SeqCst) != 0
+    }
+    
+    /// 清除请求（加载新序列时）
+    pub fn clear(&self) {
+        self.requested_at.store(0, Ordering::Release);
+    }
+    
+    /// 播放循环响应急停时记录延迟：last_emit_end 为最后一次交付结束的时间（now_nanos），0表示没有交付过；
+    /// 响应延迟记到此刻为止
+    fn record_latency(&self, last_emit_end: u64) {
+        let requested = self.requested_at.load(Ordering::Acquire);
+        let latency = last_emit_end.saturating_sub(requested);
+        self.last_latency_nanos.store(latency, Ordering::Relaxed);
+        self.max_latency_nanos.fetch_max(latency, Ordering::Relaxed);
+        let response = self.now_nanos().saturating_sub(requested);
+        self.last_response_nanos.store(response, Ordering::Relaxed);
+        self.max_response_nanos.fetch_max(response, Ordering::Relaxed);
+    }
+    
+    pub fn stats(&self) -> EmergencyStopStats {
+        EmergencyStopStats {
+            stops: self.stops.load(Ordering::Relaxed),
+            last_latency_nanos: self.last_latency_nanos.load(Ordering::Relaxed),
+            max_latency_nanos: self.max_latency_nanos.load(Ordering::Relaxed),
+            last_response_nanos: self.last_response_nanos.load(Ordering::Relaxed),
+            max_response_nanos: self.max_response_nanos.load(Ordering::Relaxed),
+        }
+    }
+}
+
+/// 播放引擎
+/// 所有方法只需要 &self：播放循环持有序列的 Arc 快照和原子控制状态，不持有引擎级的锁，
+/// 控制调用（暂停、跳转、读取进度）只修改原子量或短暂加锁，不会等待正在进行的播放
 pub struct PlaybackEngine {
-    sequence: Option<SequenceData>,
+    // 当前序列：加载时整体替换，播放循环和跳转各自取 Arc 快照
+    sequence: Mutex<Option<Arc<SequenceData>>>,
+    total_frames: AtomicU32,
+    // 播放循环是否在运行；同一时间只允许一个播放循环
+    loop_active: AtomicBool,
     state: Arc<Mutex<PlaybackState>>,
-    current_frame: AtomicU32,
+    // 播放位置：高32位为外部移动（跳转/停止/加载）的代数，低32位为当前帧。
+    // 播放循环只在代数未变时推进位置，回调期间的跳转/停止不会被本周期的推进覆盖
+    cursor: AtomicU64,
     is_playing: AtomicBool,
     timer: Arc<Mutex<PrecisionTimer>>,
-    last_valid_left: Arc<Mutex<Vec<i32>>>,
-    last_valid_right: Arc<Mutex<Vec<i32>>>,
+    // 每个关节的最后有效值（左臂0-9，右臂10-19），-1表示尚无有效值
+    last_valid: Mutex<[i32; 20]>,
     // RK3399优化：CPU亲和性控制
     use_big_cores: AtomicBool,
+    // 播放速度（f32位模式），输出频率不变，按速度推进分数帧游标
+    speed_bits: AtomicU32,
+    // 批量交付的每批帧数，1为逐帧交付
+    batch_size: AtomicUsize,
+    // 回调超时策略及统计
+    overrun_policy: AtomicU8,
+    stat_ticks: AtomicU64,
+    stat_overruns: AtomicU64,
+    stat_dropped_frames: AtomicU64,
+    stat_max_callback_nanos: AtomicU64,
+    // 急停信号，单独共享给JNI层的急停快速路径
+    emergency: Arc<EmergencyStopSignal>,
 }
 
 impl PlaybackEngine {
     pub fn new() -> Self {
         Self {
-            sequence: None,
+            sequence: Mutex::new(None),
+            total_frames: AtomicU32::new(0),
+            loop_active: AtomicBool::new(false),
             state: Arc::new(Mutex::new(PlaybackState::Idle)),
-            current_frame: AtomicU32::new(0),
+            cursor: AtomicU64::new(0),
             is_playing: AtomicBool::new(false),
             timer: Arc::new(Mutex::new(PrecisionTimer::new(40))), // 默认40Hz
-            last_valid_left: Arc::new(Mutex::new(vec![-1; 10])),
-            last_valid_right: Arc::new(Mutex::new(vec![-1; 10])),
+            last_valid: Mutex::new([-1; 20]),
             use_big_cores: AtomicBool::new(true), // 默认使用大核
+            speed_bits: AtomicU32::new(1.0f32.to_bits()),
+            batch_size: AtomicUsize::new(1),
+            overrun_policy: AtomicU8::new(OverrunPolicy::Stretch as u8),
+            stat_ticks: AtomicU64::new(0),
+            stat_overruns: AtomicU64::new(0),
+            stat_dropped_frames: AtomicU64::new(0),
+            stat_max_callback_nanos: AtomicU64::new(0),
+            emergency: Arc::new(EmergencyStopSignal::new()),
+        }
+    }
+    
+    /// 播放循环是否正在运行
+    pub fn is_loop_active(&self) -> bool {
+        self.loop_active.load(Ordering::SeqCst)
+    }
+    
+    /// 急停信号：持有后不需要查找播放器即可请求急停
+    pub fn emergency_signal(&self) -> Arc<EmergencyStopSignal> {
+        Arc::clone(&self.emergency)
+    }
+    
+    /// 设置批量交付的每批帧数，下次播放时生效
+    pub fn set_batch_size(&self, batch_size: usize) -> Result<(), String> {
+        if batch_size == 0 || batch_size > MAX_BATCH_SIZE {
+            return Err(format!("Invalid batch size: {}, range: 1-{}", batch_size, MAX_BATCH_SIZE));
+        }
+        self.batch_size.store(batch_size, Ordering::Relaxed);
+        Ok(())
+    }
+    
+    pub fn get_batch_size(&self) -> usize {
+        self.batch_size.load(Ordering::Relaxed)
+    }
+    
+    pub const MIN_SPEED: f32 = 0.1;
+    pub const MAX_SPEED: f32 = 4.0;
+    
+    /// 设置播放速度，播放中修改从下一帧生效
+    pub fn set_speed(&self, speed: f32) -> Result<(), String> {
+        if !(speed >= Self::MIN_SPEED && speed <= Self::MAX_SPEED) {
+            return Err(format!(
+                "Invalid playback speed: {}, range: {}-{}",
+                speed, Self::MIN_SPEED, Self::MAX_SPEED
+            ));
+        }
+        self.speed_bits.store(speed.to_bits(), Ordering::Relaxed);
+        log::info!("Playback speed set to {:.2}x", speed);
+        Ok(())
+    }
+    
+    pub fn get_speed(&self) -> f32 {
+        f32::from_bits(self.speed_bits.load(Ordering::Relaxed))
+    }
+    
+    /// 设置回调超时策略，播放中修改从下一帧生效
+    pub fn set_overrun_policy(&self, policy: OverrunPolicy) {
+        self.overrun_policy.store(policy as u8, Ordering::Relaxed);
+        log::info!("Overrun policy set to {:?}", policy);
+    }
+    
+    pub fn get_overrun_policy(&self) -> OverrunPolicy {
+        OverrunPolicy::from_i32(self.overrun_policy.load(Ordering::Relaxed) as i32)
+            .unwrap_or(OverrunPolicy::Stretch)
+    }
+    
+    pub fn overrun_stats(&self) -> OverrunStats {
+        OverrunStats {
+            ticks: self.stat_ticks.load(Ordering::Relaxed),
+            overruns: self.stat_overruns.load(Ordering::Relaxed),
+            dropped_frames: self.stat_dropped_frames.load(Ordering::Relaxed),
+            max_callback_nanos: self.stat_max_callback_nanos.load(Ordering::Relaxed),
         }
     }
     
+    pub fn reset_overrun_stats(&self) {
+        self.stat_ticks.store(0, Ordering::Relaxed);
+        self.stat_overruns.store(0, Ordering::Relaxed);
+        self.stat_dropped_frames.store(0, Ordering::Relaxed);
+        self.stat_max_callback_nanos.store(0, Ordering::Relaxed);
+    }
+    
+    /// 记录一个播放周期的处理耗时（含回调）
+    fn record_tick_duration(&self, elapsed: Duration, period: Duration) {
+        let nanos = elapsed.as_nanos() as u64;
+        self.stat_ticks.fetch_add(1, Ordering::Relaxed);
+        if elapsed > period {
+            self.stat_overruns.fetch_add(1, Ordering::Relaxed);
+        }
+        self.stat_max_callback_nanos.fetch_max(nanos, Ordering::Relaxed);
+    }
+    
     /// 设置是否使用RK3399的大核心(A72)进行播放
     pub fn set_use_big_cores(&self, use_big: bool) {
         self.use_big_cores.store(use_big, Ordering::Relaxed);
         log::info!("RK3399 CPU affinity: {} cores", if use_big { "A72 (big)" } else { "A53 (little)" });
     }
     
-    pub fn load_sequence(&mut self, sequence: SequenceData) -> Result<(), String> {
+    /// 加载序列：与调用方（如序列缓存）共用同一份帧数据，不复制。
+    /// 解析时已建立保持值检查点；缺少检查点时才复制一份补建
+    pub fn load_sequence(&self, mut sequence: Arc<SequenceData>) -> Result<(), String> {
         if !sequence.validate() {
             return Err("Invalid sequence data".to_string());
         }
         
+        if sequence.hold_checkpoints.is_empty() {
+            Arc::make_mut(&mut sequence).build_hold_checkpoints();
+        }
+        
+        // 加载新序列时结束正在进行的播放，旧的播放循环持有旧序列的快照，下一个周期退出
+        self.is_playing.store(false, Ordering::Relaxed);
         self.set_state(PlaybackState::Loading);
         
         // RK3399优化：根据序列复杂度选择核心
         let use_big_cores = sequence.total_frames > 1000 || sequence.sample_rate > 50.0;
         self.set_use_big_cores(use_big_cores);
         
-        self.sequence = Some(sequence);
-        self.current_frame.store(0, Ordering::Relaxed);
-        self.reset_last_valid_values();
+        self.total_frames.store(sequence.total_frames, Ordering::Relaxed);
+        *self.sequence.lock().unwrap() = Some(sequence);
+        self.reposition(0, [-1; 20]);
+        // 加载新序列即新的播放意图，清除此前的急停请求
+        self.emergency.clear();
         self.set_state(PlaybackState::Ready);
         
         log::info!("Sequence loaded successfully for RK3399");
         Ok(())
     }
     
-    pub async fn play_with_callback<F>(&self, frequency: u32, callback: F) -> Result<(), String>
+    pub async fn play_with_callback<F>(&self, frequency: u32, mut callback: F) -> Result<PlaybackEnd, String>
     where
-        F: FnMut(Vec<i32>, Vec<i32>, u32) + Send + 'static,
+        F: FnMut(&[i32], &[i32], u32) + Send + 'static,
     {
-        let sequence = self.sequence.as_ref().ok_or("No sequence loaded")?;
+        // 逐帧交付直接借用批次缓冲区，不复制
+        self.run_playback(
+            frequency,
+            1,
+            move |batch: &FrameBatch| {
+                callback(&batch.left, &batch.right, batch.frame_indices[0] as u32);
+            },
+            |_| {},
+        ).await
+    }
+    
+    /// 批量交付播放：每隔一批的周期数交付接下来一批帧，播放进度仍逐帧推进
+    /// 暂停/停止/跳转时上一批还有帧未到时间则回调 on_cancel(剩余帧数)
+    pub async fn play_batched_with_callback<F, C>(
+        &self,
+        frequency: u32,
+        on_batch: F,
+        on_cancel: C,
+    ) -> Result<PlaybackEnd, String>
+    where
+        F: FnMut(&FrameBatch) + Send + 'static,
+        C: FnMut(usize) + Send + 'static,
+    {
+        let batch_size = self.get_batch_size();
+        self.run_playback(frequency, batch_size, on_batch, on_cancel).await
+    }
+    
+    async fn run_playback<F, C>(
+        &self,
+        frequency: u32,
+        batch_size: usize,
+        mut on_batch: F,
+        mut on_cancel: C,
+    ) -> Result<PlaybackEnd, String>
+    where
+        F: FnMut(&FrameBatch),
+        C: FnMut(usize),
+    {
+        let sequence = self.sequence_snapshot().ok_or("No sequence loaded")?;
         
         if !self.get_state().can_play() {
             return Err("Invalid state for playback".to_string());
         }
         
-        self.set_state(PlaybackState::Playing);
+        // 暂停或加载后立即再次播放时，等待上一个播放循环在下一个周期退出。
+        // 与急停的握手：请求方先写请求再读 loop_active，这里先写 loop_active 再读请求，
+        // 两边都用SeqCst，保证至少一方看到对方的写入，急停不会两边都漏掉
+        while self.loop_active
+            .compare_exchange(false, true, Ordering::SeqCst, Ordering::Relaxed)
+            .is_err()
+        {
+            sleep(Duration::from_millis(1)).await;
+        }
+        let result = self.run_playback_loop(&sequence, frequency, batch_size, &mut on_batch, &mut on_cancel).await;
+        self.loop_active.store(false, Ordering::SeqCst);
+        
+        // 循环退出前后收到的急停：重置进度和状态（急停可重复执行）
+        if self.emergency.is_requested() {
+            self.emergency_stop();
+            return result.map(|_| PlaybackEnd::EmergencyStopped);
+        }
+        result
+    }
+    
+    async fn run_playback_loop<F, C>(
+        &self,
+        sequence: &SequenceData,
+        frequency: u32,
+        batch_size: usize,
+        on_batch: &mut F,
+        on_cancel: &mut C,
+    ) -> Result<PlaybackEnd, String>
+    where
+        F: FnMut(&FrameBatch),
+        C: FnMut(usize),
+    {
+        if self.emergency.is_requested() {
+            // 开始播放前已请求急停
+            self.emergency.record_latency(0);
+            return Ok(PlaybackEnd::EmergencyStopped);
+        }
+        
+        // 检查并进入播放状态在同一次加锁内完成，并发的播放请求只有一个成功
+        if !self.transition_state(PlaybackState::can_play, PlaybackState::Playing) {
+            return Err("Invalid state for playback".to_string());
+        }
         self.is_playing.store(true, Ordering::Relaxed);
         
         // 更新定时器频率
@@ -80,54 +452,202 @@ impl PlaybackEngine {
         }
         
         let total_frames = sequence.total_frames;
-        let sequence_clone = sequence.clone();
         
         log::info!(
-            "Starting RK3399 optimized playback: frames={}, frequency={}Hz, big_cores={}",
-            total_frames, frequency, self.use_big_cores.load(Ordering::Relaxed)
+            "Starting RK3399 optimized playback: frames={}, frequency={}Hz, big_cores={}, batch={}",
+            total_frames, frequency, self.use_big_cores.load(Ordering::Relaxed), batch_size
         );
         
         // RK3399优化：预热缓存
-        self.preheat_cache(&sequence_clone);
+        self.preheat_cache(sequence);
         
-        // 使用Arc<Mutex<F>>来允许在多线程中共享回调
-        let callback = Arc::new(Mutex::new(callback));
+        // 批量渲染会让保持状态超前于播放进度：从检查点恢复起始帧之前的状态。
+        // 与外部移动位置在同一把锁内，读到的位置和恢复的状态一致
+        let mut observed = {
+            let mut last_valid = self.last_valid.lock().unwrap();
+            let cursor = self.cursor.load(Ordering::Acquire);
+            if let Some(state) = sequence.resolve_hold_state(Self::cursor_frame(cursor) as usize) {
+                *last_valid = state;
+            }
+            cursor
+        };
+        // 分数帧游标：每帧按播放速度推进，小数部分在相邻两帧之间插值
+        let mut position = Self::cursor_frame(observed) as f64;
+        // 已折叠进最后有效值的帧数（倍速>1时跳过的帧也要折叠，保证-1填充正确）
+        let mut applied = Self::cursor_frame(observed) as usize;
         
-        while self.is_playing.load(Ordering::Relaxed) {
-            let current_frame = self.current_frame.load(Ordering::Relaxed);
-            
-            if current_frame >= total_frames {
-                self.set_state(PlaybackState::Stopped);
+        let period = Duration::from_nanos(1_000_000_000 / frequency as u64);
+        let period_nanos = period.as_nanos() as u64;
+        // 批次和单帧渲染缓冲区在播放开始时分配一次，播放循环中不再分配内存
+        let mut batch = FrameBatch::with_capacity(batch_size, period);
+        let mut frame = [-1i32; 20];
+        // DROP/CATCH_UP 使用的时间网格：第n帧的截止时间为 origin + n * period
+        let origin = Instant::now();
+        let mut tick_index: u64 = 0;
+        // 上一批中尚未到时间的帧数，以及渲染该批时的速度
+        let mut batch_remaining = 0usize;
+        let mut batch_speed = 1.0f64;
+        // 最后一次交付结束的时间，用于急停延迟统计
+        let mut last_emit_end = 0u64;
+        // 播放中被暂停/停止时按退出时的状态区分，播放完成和急停在退出处设置
+        let mut end = None;
+        
+        while self.is_playing.load(Ordering::Acquire) {
+            if self.emergency.is_requested() {
+                // 进度和状态的重置由 run_playback 在循环退出后完成
                 self.is_playing.store(false, Ordering::Relaxed);
-                log::info!("RK3399 playback completed");
+                self.emergency.record_latency(last_emit_end);
+                end = Some(PlaybackEnd::EmergencyStopped);
                 break;
             }
+            let tick_start = Instant::now();
+            let cursor = self.cursor.load(Ordering::Acquire);
+            if cursor != observed {
+                // 外部移动了位置（含回调期间的跳转）：移动方已恢复目标帧之前的保持状态
+                if batch_remaining > 0 {
+                    on_cancel(batch_remaining);
+                    batch_remaining = 0;
+                }
+                observed = cursor;
+                position = Self::cursor_frame(cursor) as f64;
+                applied = Self::cursor_frame(cursor) as usize;
+            }
+            let current_frame = Self::cursor_frame(observed);
             
-            if let Some((left_arm, right_arm)) = sequence_clone.get_frame_data(current_frame as usize) {
-                // RK3399优化：使用SIMD加速-1值填充
-                let processed_left = self.fill_minus_one_values_optimized(&left_arm, true);
-                let processed_right = self.fill_minus_one_values_optimized(&right_arm, false);
+            if batch_remaining == 0 {
+                if current_frame >= total_frames {
+                    self.set_state(PlaybackState::Stopped);
+                    self.is_playing.store(false, Ordering::Relaxed);
+                    log::info!("RK3399 playback completed");
+                    end = Some(PlaybackEnd::Completed);
+                    break;
+                }
                 
-                // 回调
-                {
-                    let mut cb = callback.lock().unwrap();
-                    cb(processed_left, processed_right, current_frame);
+                // 从当前位置渲染接下来一批帧，速度修改在批次之间生效
+                batch_speed = self.get_speed() as f64;
+                batch.clear(Instant::now());
+                let mut ahead = position;
+                while batch.len() < batch_size && (ahead as u32) < total_frames {
+                    if !self.render_frame(sequence, observed, ahead, &mut applied, &mut frame) {
+                        break;
+                    }
+                    let (left, right) = frame.split_at(SequenceData::JOINTS_PER_ARM);
+                    batch.push(left, right, ahead as u32);
+                    ahead += batch_speed;
                 }
                 
-                self.current_frame.fetch_add(1, Ordering::Relaxed);
+                if batch.len() > 0 {
+                    // 交付前最后一次检查急停：请求之后不再开始交付
+                    if self.emergency.is_requested() {
+                        continue;
+                    }
+                    on_batch(&batch);
+                    last_emit_end = self.emergency.now_nanos();
+                    batch_remaining = batch.len();
+                }
             }
             
-            // RK3399优化：自适应延时
-            let delay = {
+            if batch_remaining > 0 {
+                position += batch_speed;
+                self.advance_cursor(&mut observed, position as u32);
+                batch_remaining -= 1;
+            }
+            
+            self.record_tick_duration(tick_start.elapsed(), period);
+            
+            let policy = self.get_overrun_policy();
+            let delay = if policy == OverrunPolicy::Stretch {
+                // RK3399优化：自适应延时
                 let mut timer = self.timer.lock().unwrap();
                 timer.mark_tick();
                 timer.calculate_next_delay_rk3399()
+            } else {
+                tick_index += 1;
+                let now = Instant::now();
+                let behind = now.saturating_duration_since(origin).as_nanos() as u64;
+                let behind = behind.saturating_sub(tick_index * period_nanos);
+                if policy == OverrunPolicy::Drop && behind > period_nanos {
+                    let skipped = behind / period_nanos;
+                    tick_index += skipped;
+                    
+                    // 已交付批次中时间已过的帧不计为丢帧
+                    let mut remaining = skipped as usize;
+                    let consumed = remaining.min(batch_remaining);
+                    batch_remaining -= consumed;
+                    remaining -= consumed;
+                    let mut dropped = 0u64;
+                    let mut advance = consumed as f64;
+                    while remaining > 0 && ((position + (advance + 1.0) * batch_speed) as u32) < total_frames {
+                        advance += 1.0;
+                        remaining -= 1;
+                        dropped += 1;
+                    }
+                    if advance > 0.0 {
+                        // 跳过的帧在下次渲染时折叠保持值
+                        position += advance * batch_speed;
+                        self.advance_cursor(&mut observed, position as u32);
+                    }
+                    if dropped > 0 {
+                        self.stat_dropped_frames.fetch_add(dropped, Ordering::Relaxed);
+                        log::warn!("Callback overrun, dropped {} frames", dropped);
+                    }
+                }
+                // CATCH_UP 落后时不等待，连续补发
+                (origin + Duration::from_nanos(tick_index * period_nanos)).saturating_duration_since(now)
             };
             
             sleep(delay).await;
         }
         
-        Ok(())
+        // 暂停/停止时上一批还有帧未到时间
+        if batch_remaining > 0 {
+            on_cancel(batch_remaining);
+        }
+        
+        Ok(end.unwrap_or_else(|| match self.get_state() {
+            PlaybackState::Paused => PlaybackEnd::Paused,
+            _ => PlaybackEnd::Stopped,
+        }))
+    }
+    
+    /// 渲染游标位置的一帧到 out：折叠跳过帧的保持值、填充-1，游标位于两帧之间时向下一帧插值
+    /// 帧数据直接借用序列内存，不分配。位置在 observed 之后被外部移动时不渲染，返回false
+    fn render_frame(
+        &self,
+        sequence: &SequenceData,
+        observed: u64,
+        position: f64,
+        applied: &mut usize,
+        out: &mut [i32; 20],
+    ) -> bool {
+        let index = position as usize;
+        
+        {
+            let mut last_valid = self.last_valid.lock().unwrap();
+            // 保持状态已按新位置替换，不能再折叠旧位置的帧
+            if self.cursor.load(Ordering::Acquire) != observed {
+                return false;
+            }
+            // 跳过的帧只折叠保持值，不输出
+            while *applied < index {
+                sequence.apply_frame(*applied, &mut last_valid);
+                *applied += 1;
+            }
+            if !sequence.render_frame(index, &mut last_valid, out) {
+                return false;
+            }
+        }
+        *applied = index + 1;
+        
+        // 游标位于两帧之间时向下一帧插值
+        let fraction = (position - index as f64) as f32;
+        if fraction > 0.0 {
+            if let Some(next) = sequence.frame(index + 1) {
+                Self::interpolate_toward(out, next, fraction);
+            }
+        }
+        
+        true
     }
     
     /// RK3399优化：预热缓存以提高性能
@@ -135,83 +655,50 @@ impl PlaybackEngine {
         if sequence.total_frames > 0 {
             // 预读前几帧到缓存
             let preheat_frames = std::cmp::min(10, sequence.total_frames as usize);
+            let mut checksum = 0u32;
             for i in 0..preheat_frames {
-                let _ = sequence.get_frame_data(i);
+                if let Some(frame) = sequence.frame(i) {
+                    checksum = frame.iter().fold(checksum, |sum, &value| sum.wrapping_add(value as u32));
+                }
             }
-            log::debug!("RK3399: Preheated {} frames", preheat_frames);
+            log::debug!("RK3399: Preheated {} frames (checksum {})", preheat_frames, checksum);
         }
     }
     
-    /// RK3399优化：使用向量化操作加速-1值填充
-    fn fill_minus_one_values_optimized(&self, values: &[i32], is_left_arm: bool) -> Vec<i32> {
-        let last_valid = if is_left_arm {
-            &self.last_valid_left
-        } else {
-            &self.last_valid_right
-        };
-        
-        let mut last_valid_guard = last_valid.lock().unwrap();
-        let mut result = Vec::with_capacity(values.len());
-        
-        // RK3399 A72优化：展开循环以利用超标量执行
-        let mut i = 0;
-        while i + 3 < values.len() {
-            // 处理4个元素为一组
-            for j in 0..4 {
-                let idx = i + j;
-                let value = values[idx];
-                if value == -1 {
-                    if last_valid_guard[idx] != -1 {
-                        result.push(last_valid_guard[idx]);
-                    } else {
-                        result.push(-1);
-                    }
-                } else {
-                    last_valid_guard[idx] = value;
-                    result.push(value);
-                }
+    /// 将已填充的当前帧向下一帧插值
+    /// 下一帧的-1按当前值保持；当前值仍为-1（此前从未有效）时不插值
+    fn interpolate_toward(current: &mut [i32], next: &[u16], fraction: f32) {
+        for (value, &next_raw) in current.iter_mut().zip(next.iter()) {
+            if *value == -1 || next_raw == SequenceData::HOLD_SENTINEL {
+                continue;
             }
-            i += 4;
+            let next_value = next_raw as i32;
+            *value = (*value as f32 + (next_value - *value) as f32 * fraction).round() as i32;
         }
-        
-        // 处理剩余元素
-        while i < values.len() {
-            let value = values[i];
-            if value == -1 {
-                if last_valid_guard[i] != -1 {
-                    result.push(last_valid_guard[i]);
-                } else {
-                    result.push(-1);
-                }
-            } else {
-                last_valid_guard[i] = value;
-                result.push(value);
-            }
-            i += 1;
-        }
-        
-        result
     }
     
+    /// 暂停：播放循环在下一个周期退出并返回 PlaybackEnd::Paused，进度保留。
+    /// 先转换状态再通知循环，循环退出时读到的一定是暂停状态
     pub fn pause(&self) {
-        if self.get_state().can_pause() {
-            self.is_playing.store(false, Ordering::Relaxed);
-            self.set_state(PlaybackState::Paused);
-            log::info!("RK3399 playback paused at frame {}", self.current_frame.load(Ordering::Relaxed));
+        if self.transition_state(PlaybackState::can_pause, PlaybackState::Paused) {
+            self.is_playing.store(false, Ordering::Release);
+            log::info!("RK3399 playback paused at frame {}", self.get_current_frame());
         }
     }
     
-    pub fn resume(&self) {
-        if self.get_state().can_resume() {
-            self.set_state(PlaybackState::Ready);
-            log::info!("RK3399 playback ready to resume from frame {}", self.current_frame.load(Ordering::Relaxed));
+    /// 从暂停恢复为可播放状态，返回是否处于暂停。暂停时播放循环已退出，
+    /// 调用方随后以 get_frequency() 重新启动播放，从暂停的帧继续
+    pub fn resume(&self) -> bool {
+        if !self.transition_state(PlaybackState::can_resume, PlaybackState::Ready) {
+            return false;
         }
+        log::info!("RK3399 playback ready to resume from frame {}", self.get_current_frame());
+        true
     }
     
     pub fn stop(&self) {
         self.is_playing.store(false, Ordering::Relaxed);
-        self.current_frame.store(0, Ordering::Relaxed);
-        self.reset_last_valid_values();
+        self.reposition(0, [-1; 20]);
         self.set_state(PlaybackState::Stopped);
         
         // 重置定时器
@@ -227,8 +714,7 @@ impl PlaybackEngine {
         log::warn!("RK3399 emergency stop initiated");
         
         self.is_playing.store(false, Ordering::Relaxed);
-        self.current_frame.store(0, Ordering::Relaxed);
-        self.reset_last_valid_values();
+        self.reposition(0, [-1; 20]);
         self.set_state(PlaybackState::Stopped);
         
         // 重置定时器
@@ -241,7 +727,7 @@ impl PlaybackEngine {
     }
     
     pub fn seek(&self, frame_index: u32) -> Result<(), String> {
-        let sequence = self.sequence.as_ref().ok_or("No sequence loaded")?;
+        let sequence = self.sequence_snapshot().ok_or("No sequence loaded")?;
         
         if frame_index >= sequence.total_frames {
             return Err(format!(
@@ -250,17 +736,47 @@ impl PlaybackEngine {
             ));
         }
         
-        self.current_frame.store(frame_index, Ordering::Relaxed);
+        // 从检查点恢复目标帧之前的保持状态，保证跳转后的-1填充与顺序播放一致
+        let state = sequence.resolve_hold_state(frame_index as usize).unwrap_or([-1; 20]);
+        self.reposition(frame_index, state);
         log::info!("RK3399 seeked to frame {}/{}", frame_index, sequence.total_frames);
         Ok(())
     }
     
     pub fn get_current_frame(&self) -> u32 {
-        self.current_frame.load(Ordering::Relaxed)
+        Self::cursor_frame(self.cursor.load(Ordering::Relaxed))
+    }
+    
+    fn cursor_frame(cursor: u64) -> u32 {
+        cursor as u32
+    }
+    
+    /// 外部移动播放位置（跳转/停止/加载）：在保持状态锁内替换保持状态并使位置代数加一，
+    /// 播放循环据此放弃本周期对位置的推进和尚未渲染的帧
+    fn reposition(&self, frame: u32, hold_state: [i32; 20]) {
+        let mut last_valid = self.last_valid.lock().unwrap();
+        *last_valid = hold_state;
+        let _ = self.cursor.fetch_update(Ordering::AcqRel, Ordering::Relaxed, |cursor| {
+            Some((((cursor >> 32) + 1) << 32) | frame as u64)
+        });
+    }
+    
+    /// 播放循环推进位置：只有位置自 observed 之后没有被外部移动时才写入，
+    /// 否则放弃这次推进，下个周期从外部设置的位置继续
+    fn advance_cursor(&self, observed: &mut u64, frame: u32) {
+        let next = (*observed & !(u32::MAX as u64)) | frame as u64;
+        if self.cursor.compare_exchange(*observed, next, Ordering::AcqRel, Ordering::Acquire).is_ok() {
+            *observed = next;
+        }
+    }
+    
+    /// 最近一次播放的频率（未播放过时为默认的40Hz）
+    pub fn get_frequency(&self) -> u32 {
+        self.timer.lock().unwrap().get_frequency()
     }
     
     pub fn get_total_frames(&self) -> u32 {
-        self.sequence.as_ref().map(|s| s.total_frames).unwrap_or(0)
+        self.total_frames.load(Ordering::Relaxed)
     }
     
     pub fn get_progress(&self) -> f32 {
@@ -285,6 +801,22 @@ impl PlaybackEngine {
         )
     }
     
+    /// 当前序列的快照（只在取出时短暂加锁）
+    fn sequence_snapshot(&self) -> Option<Arc<SequenceData>> {
+        self.sequence.lock().unwrap().clone()
+    }
+    
+    /// 当前状态满足条件时转换为新状态，检查与转换在同一次加锁内完成
+    fn transition_state(&self, allowed: fn(&PlaybackState) -> bool, new_state: PlaybackState) -> bool {
+        let mut state = self.state.lock().unwrap();
+        if !allowed(&state) {
+            return false;
+        }
+        log::debug!("RK3399 state change: {:?} -> {:?}", *state, new_state);
+        *state = new_state;
+        true
+    }
+    
     fn set_state(&self, new_state: PlaybackState) {
         let mut state = self.state.lock().unwrap();
         if *state != new_state {
@@ -292,10 +824,215 @@ impl PlaybackEngine {
             *state = new_state;
         }
     }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use std::thread;
+    
+    const FREQUENCY: u32 = 200;
+    const PERIOD: Duration = Duration::from_millis(5);
+    const HOLD: u16 = SequenceData::HOLD_SENTINEL;
+    
+    /// 100帧序列：关节0为帧索引；关节1只在第0帧（111）和第40帧（444）有效，其余帧保持
+    fn engine() -> Arc<PlaybackEngine> {
+        engine_with_frames(100)
+    }
+    
+    fn engine_with_frames(count: usize) -> Arc<PlaybackEngine> {
+        let frames: Vec<[u16; 20]> = (0..count)
+            .map(|frame| {
+                let mut values = [HOLD; 20];
+                values[0] = frame as u16;
+                values[1] = match frame {
+                    0 => 111,
+                    40 => 444,
+                    _ => HOLD,
+                };
+                values
+            })
+            .collect();
+        let engine = Arc::new(PlaybackEngine::new());
+        engine.load_sequence(Arc::new(SequenceData::from_frames(&frames))).unwrap();
+        engine
+    }
+    
+    /// 在当前线程的运行时上播放，每帧回调 on_frame(引擎, 帧索引)，
+    /// 返回交付的（帧索引, 关节0, 关节1）和播放结束的原因
+    fn play<F>(engine: &Arc<PlaybackEngine>, on_frame: F) -> (Vec<(u32, i32, i32)>, PlaybackEnd)
+    where
+        F: Fn(&PlaybackEngine, u32) + Send + 'static,
+    {
+        let delivered = Arc::new(Mutex::new(Vec::new()));
+        let frames = Arc::clone(&delivered);
+        let control = Arc::clone(engine);
+        let runtime = tokio::runtime::Builder::new_current_thread()
+            .enable_time()
+            .build()
+            .unwrap();
+        let end = runtime.block_on(engine.play_with_callback(FREQUENCY, move |left, _, frame| {
+            frames.lock().unwrap().push((frame, left[0], left[1]));
+            on_frame(&*control, frame);
+        })).unwrap();
+        let delivered = delivered.lock().unwrap().clone();
+        (delivered, end)
+    }
+    
+    fn frame_indices(delivered: &[(u32, i32, i32)]) -> Vec<u32> {
+        delivered.iter().map(|&(frame, _, _)| frame).collect()
+    }
+    
+    /// 关节0与帧索引一致，关节1的保持值正确
+    fn assert_frame_values(delivered: &[(u32, i32, i32)]) {
+        for &(frame, joint0, joint1) in delivered {
+            assert_eq!(joint0, frame as i32);
+            assert_eq!(joint1, if frame < 40 { 111 } else { 444 }, "frame {}", frame);
+        }
+    }
     
-    fn reset_last_valid_values(&self) {
-        *self.last_valid_left.lock().unwrap() = vec![-1; 10];
-        *self.last_valid_right.lock().unwrap() = vec![-1; 10];
-        log::debug!("RK3399 reset last valid values cache");
+    #[test]
+    fn test_seek_during_callback_is_not_overwritten() {
+        let engine = engine();
+        let (delivered, end) = play(&engine, |engine, frame| match frame {
+            10 => engine.seek(50).unwrap(),
+            55 => engine.stop(),
+            _ => {}
+        });
+        
+        // 回调中跳转后下一帧就是目标帧，不会被这一周期的推进覆盖回第11帧
+        let expected: Vec<u32> = (0..=10).chain(50..=55).collect();
+        assert_eq!(frame_indices(&delivered), expected);
+        // 跳转后从检查点恢复到第40帧的保持值
+        assert_frame_values(&delivered);
+        assert_eq!(end, PlaybackEnd::Stopped);
     }
-}
\ No newline at end of file
+    
+    #[test]
+    fn test_stop_during_callback_resets_progress() {
+        let engine = engine();
+        let (delivered, end) = play(&engine, |engine, frame| {
+            if frame == 5 {
+                engine.stop();
+            }
+        });
+        
+        assert_eq!(delivered.len(), 6);
+        // 停止在回调中重置的进度不会被这一周期的推进改回第6帧
+        assert_eq!(engine.get_current_frame(), 0);
+        assert_eq!(engine.get_state(), PlaybackState::Stopped);
+        // 停止不是播放完成
+        assert_eq!(end, PlaybackEnd::Stopped);
+    }
+    
+    #[test]
+    fn test_seek_to_next_frame_during_callback_keeps_sequence() {
+        let engine = engine();
+        // 跳转目标恰好是推进后的帧：按位置代数而不是帧号识别外部移动，不重复、不跳过帧
+        let (delivered, _) = play(&engine, |engine, frame| match frame {
+            45 => engine.seek(46).unwrap(),
+            50 => engine.stop(),
+            _ => {}
+        });
+        
+        let expected: Vec<u32> = (0..=50).collect();
+        assert_eq!(frame_indices(&delivered), expected);
+        assert_frame_values(&delivered);
+        assert_eq!(engine.get_current_frame(), 0);
+    }
+    
+    #[test]
+    fn test_pause_resume_completes_once_without_skipping() {
+        let engine = engine();
+        let (mut delivered, end) = play(&engine, |engine, frame| {
+            if frame == 45 {
+                engine.pause();
+            }
+        });
+        // 暂停结束播放循环但不是播放完成，进度保留
+        assert_eq!(end, PlaybackEnd::Paused);
+        assert_eq!(engine.get_state(), PlaybackState::Paused);
+        assert_eq!(engine.get_current_frame(), 46);
+        
+        // 恢复后重新启动播放（与 nativeResume 相同），从暂停的帧继续到完成
+        assert!(engine.resume());
+        assert!(!engine.resume());
+        assert_eq!(engine.get_frequency(), FREQUENCY);
+        let (rest, end) = play(&engine, |_, _| {});
+        assert_eq!(end, PlaybackEnd::Completed);
+        assert_eq!(engine.get_state(), PlaybackState::Stopped);
+        
+        // 每帧恰好交付一次，恢复后的保持值从检查点恢复
+        delivered.extend(rest);
+        let expected: Vec<u32> = (0..100).collect();
+        assert_eq!(frame_indices(&delivered), expected);
+        assert_frame_values(&delivered);
+    }
+    
+    #[test]
+    fn test_controls_from_another_thread_return_within_a_tick() {
+        // 1000帧（5秒），每次帧回调耗时2ms，控制调用在另一个线程上进行
+        let engine = engine_with_frames(1000);
+        let frames = Arc::new(AtomicU32::new(0));
+        let player = {
+            let engine = Arc::clone(&engine);
+            let frames = Arc::clone(&frames);
+            thread::spawn(move || {
+                play(&engine, move |_, _| {
+                    frames.fetch_add(1, Ordering::SeqCst);
+                    thread::sleep(Duration::from_millis(2));
+                })
+            })
+        };
+        let deadline = Instant::now() + Duration::from_secs(5);
+        while frames.load(Ordering::SeqCst) < 5 {
+            assert!(Instant::now() < deadline, "playback did not start");
+            thread::sleep(Duration::from_millis(1));
+        }
+        
+        let mut max_get = Duration::ZERO;
+        let mut max_seek = Duration::ZERO;
+        for i in 0..50u32 {
+            let start = Instant::now();
+            let frame = engine.get_current_frame();
+            max_get = max_get.max(start.elapsed());
+            assert!(frame < 1000);
+            
+            let start = Instant::now();
+            engine.seek(i * 7 % 500).unwrap();
+            max_seek = max_seek.max(start.elapsed());
+            thread::sleep(Duration::from_millis(1));
+        }
+        let start = Instant::now();
+        engine.pause();
+        let pause = start.elapsed();
+        let (_, end) = player.join().unwrap();
+        
+        println!("controls during playback: get_current_frame max {:?}, seek max {:?}, pause {:?} (period {:?})",
+            max_get, max_seek, pause, PERIOD);
+        assert!(max_get < PERIOD, "get_current_frame took {:?}", max_get);
+        assert!(max_seek < PERIOD, "seek took {:?}", max_seek);
+        assert!(pause < PERIOD, "pause took {:?}", pause);
+        // 暂停后播放循环退出，进度停在跳转到的前半段
+        assert_eq!(end, PlaybackEnd::Paused);
+        let paused_at = engine.get_current_frame();
+        assert!(paused_at < 600, "paused at {}", paused_at);
+        thread::sleep(PERIOD * 3);
+        assert_eq!(engine.get_current_frame(), paused_at);
+    }
+    
+    #[test]
+    fn test_load_sequence_shares_cached_sequence() {
+        let cache = crate::cache::CacheManager::new(1);
+        let sequence = Arc::new(SequenceData::from_frames(&[[HOLD; 20]; 4]));
+        cache.put("shared".to_string(), Arc::clone(&sequence));
+        
+        let engine = PlaybackEngine::new();
+        engine.load_sequence(Arc::clone(&sequence)).unwrap();
+        
+        // 缓存和播放器持有同一份序列，帧数据没有复制
+        let loaded = engine.sequence.lock().unwrap().clone().unwrap();
+        assert!(Arc::ptr_eq(&loaded, &sequence));
+        assert!(Arc::ptr_eq(&cache.get("shared").unwrap(), &sequence));
+    }
+}
@@ -1,7 +1,9 @@
 pub mod engine;
+pub mod scheduler;
 pub mod state;
 pub mod timer;
 
 pub use engine::*;
+pub use scheduler::*;
 pub use state::*;
 pub use timer::*;
\ No newline at end of file
@@ -0,0 +1,207 @@
+use std::future::Future;
+use std::pin::Pin;
+use tokio::sync::mpsc;
+
+/// 播放任务：在调度线程中创建播放future（future只在该线程上轮询，不要求Send）
+pub type PlaybackJob = Box<dyn FnOnce() -> Pin<Box<dyn Future<Output = ()>>> + Send>;
+
+/// 共享调度线程数，播放器按ID分配到固定线程（ID % 线程数）
+pub const PLAYBACK_THREADS: usize = 2;
+
+/// 共享播放调度器
+/// 所有播放器的播放循环复用少量常驻线程，每个线程运行一个current_thread tokio运行时，
+/// 各播放循环的帧间延时由运行时的分层时间轮统一管理：同一毫秒槽内到期的唤醒在一次轮询中处理，
+/// 每个播放器仍按自己的频率计算延时。不再为每次播放创建线程和运行时。
+///
+/// 播放循环在所在的调度线程上同步调用帧回调（监听器模式下即JNI回调Java）。一次回调耗时过长时，
+/// 同一线程上的其他播放器在此期间都不会运行：它们的帧、DROP/CATCH_UP 时间网格和急停检查都被推迟，
+/// 推迟量最多为这次回调的耗时（见 tests 中的测量）；其他线程上的播放器不受影响。
+/// 急停请求之后这些播放器仍不会开始新的交付，被推迟的是播放循环的响应（退出和重置），
+/// 因此急停响应的上界按调度线程计算（EmergencyStopStats 的 response 统计包含这部分等待）。
+/// 监听器回调应尽快返回，需要与其他播放器隔离的播放器应使用帧环（播放循环中没有JNI调用）。
+pub struct SharedPlaybackScheduler {
+    workers: Vec<mpsc::UnboundedSender<PlaybackJob>>,
+}
+
+impl SharedPlaybackScheduler {
+    pub fn new(threads: usize) -> Self {
+        let workers = (0..threads.max(1))
+            .map(|index| {
+                let (sender, mut receiver) = mpsc::unbounded_channel::<PlaybackJob>();
+                std::thread::Builder::new()
+                    .name(format!("EvoBotPlayback-{}", index))
+                    .spawn(move || {
+                        let runtime = tokio::runtime::Builder::new_current_thread()
+                            .enable_all()
+                            .build()
+                            .expect("Failed to build playback runtime");
+                        let local = tokio::task::LocalSet::new();
+                        local.block_on(&runtime, async move {
+                            while let Some(job) = receiver.recv().await {
+                                tokio::task::spawn_local(job());
+                            }
+                        });
+                    })
+                    .expect("Failed to spawn playback thread");
+                sender
+            })
+            .collect();
+        
+        log::info!("Shared playback scheduler started with {} threads", threads.max(1));
+        Self { workers }
+    }
+    
+    /// 在key对应的调度线程上启动播放任务
+    pub fn spawn<F>(&self, key: u64, job: F) -> Result<(), String>
+    where
+        F: FnOnce() -> Pin<Box<dyn Future<Output = ()>>> + Send + 'static,
+    {
+        let worker = &self.workers[(key % self.workers.len() as u64) as usize];
+        worker
+            .send(Box::new(job))
+            .map_err(|_| "Playback scheduler thread exited".to_string())
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::playback::{EmergencyStopStats, PlaybackEngine, PlaybackState};
+    use crate::sequence::SequenceData;
+    use std::sync::{Arc, Mutex};
+    use std::time::{Duration, Instant};
+    
+    const FREQUENCY: u32 = 100;
+    const PERIOD: Duration = Duration::from_millis(10);
+    const SLOW_CALLBACK: Duration = Duration::from_millis(30);
+    
+    /// 加载了 frames 帧序列的引擎：关节0为帧索引，其余关节保持
+    fn engine_with_frames(frames: usize) -> Arc<PlaybackEngine> {
+        let data: Vec<[u16; 20]> = (0..frames)
+            .map(|frame| {
+                let mut values = [SequenceData::HOLD_SENTINEL; 20];
+                values[0] = frame as u16;
+                values
+            })
+            .collect();
+        let engine = Arc::new(PlaybackEngine::new());
+        engine.load_sequence(Arc::new(SequenceData::from_frames(&data))).unwrap();
+        engine
+    }
+    
+    /// 在调度线程上播放，记录每次帧回调开始的时间；回调耗时 callback_cost
+    fn play_on(
+        scheduler: &SharedPlaybackScheduler,
+        key: u64,
+        engine: &Arc<PlaybackEngine>,
+        callback_cost: Duration,
+    ) -> (Arc<Mutex<Vec<Instant>>>, std::sync::mpsc::Receiver<()>) {
+        let emitted = Arc::new(Mutex::new(Vec::new()));
+        let (done_sender, done) = std::sync::mpsc::channel();
+        let engine = Arc::clone(engine);
+        let frames = Arc::clone(&emitted);
+        scheduler.spawn(key, move || {
+            Box::pin(async move {
+                engine.play_with_callback(FREQUENCY, move |_, _, _| {
+                    frames.lock().unwrap().push(Instant::now());
+                    if !callback_cost.is_zero() {
+                        std::thread::sleep(callback_cost);
+                    }
+                }).await.unwrap();
+                done_sender.send(()).ok();
+            })
+        }).unwrap();
+        (emitted, done)
+    }
+    
+    fn max_gap(emitted: &[Instant]) -> Duration {
+        emitted.windows(2)
+            .map(|pair| pair[1].duration_since(pair[0]))
+            .max()
+            .unwrap_or_default()
+    }
+    
+    /// 测量一个慢监听器对其他播放器的影响：慢播放器与正常播放器在同一线程 / 不同线程上
+    fn measure_fast_player_gap(threads: usize) -> Duration {
+        let scheduler = SharedPlaybackScheduler::new(threads);
+        let slow = engine_with_frames(10);
+        let fast = engine_with_frames(60);
+        let (_, slow_done) = play_on(&scheduler, 0, &slow, SLOW_CALLBACK);
+        let (emitted, fast_done) = play_on(&scheduler, 1, &fast, Duration::ZERO);
+        slow_done.recv_timeout(Duration::from_secs(5)).unwrap();
+        fast_done.recv_timeout(Duration::from_secs(5)).unwrap();
+        
+        let emitted = emitted.lock().unwrap();
+        assert_eq!(emitted.len(), 60);
+        max_gap(&emitted)
+    }
+    
+    /// 在慢播放器的一次回调刚开始时急停另一个播放器，返回被急停播放器的统计
+    fn measure_emergency_stop(threads: usize) -> EmergencyStopStats {
+        let scheduler = SharedPlaybackScheduler::new(threads);
+        let slow = engine_with_frames(20);
+        let fast = engine_with_frames(200);
+        let (fast_emitted, fast_done) = play_on(&scheduler, 1, &fast, Duration::ZERO);
+        let (slow_emitted, slow_done) = play_on(&scheduler, 0, &slow, SLOW_CALLBACK);
+        
+        // 慢播放器记录第二帧的开始时间后立即急停，此时它的回调刚开始执行
+        let deadline = Instant::now() + Duration::from_secs(5);
+        while slow_emitted.lock().unwrap().len() < 2 {
+            assert!(Instant::now() < deadline, "slow player did not start");
+            std::thread::yield_now();
+        }
+        let requested = Instant::now();
+        fast.emergency_signal().request();
+        fast_done.recv_timeout(Duration::from_secs(5)).unwrap();
+        slow_done.recv_timeout(Duration::from_secs(5)).unwrap();
+        
+        // 急停之后没有开始新的交付，播放循环退出后完成了重置
+        let emitted = fast_emitted.lock().unwrap();
+        assert!(!emitted.is_empty());
+        assert!(emitted.iter().all(|&start| start < requested), "frame emitted after emergency stop");
+        assert_eq!(fast.get_state(), PlaybackState::Stopped);
+        fast.emergency_signal().stats()
+    }
+    
+    #[test]
+    fn test_emergency_stop_response_waits_for_callbacks_on_same_thread() {
+        let stats = measure_emergency_stop(1);
+        println!("same thread: emergency stop latency {}ns, response {}ns (period {:?}, slow callback {:?})",
+            stats.last_latency_nanos, stats.last_response_nanos, PERIOD, SLOW_CALLBACK);
+        // 请求时被急停的播放器没有在交付：没有在途的帧
+        assert_eq!(stats.last_latency_nanos, 0);
+        // 响应要等同线程上慢回调返回：上界为一个周期加上这次慢回调的耗时（另留调度抖动余量）
+        let response = Duration::from_nanos(stats.last_response_nanos);
+        assert!(response >= SLOW_CALLBACK / 2, "response {:?}", response);
+        assert!(response < SLOW_CALLBACK + PERIOD * 3, "response {:?}", response);
+    }
+    
+    #[test]
+    fn test_emergency_stop_response_on_separate_thread() {
+        let stats = measure_emergency_stop(2);
+        println!("separate threads: emergency stop latency {}ns, response {}ns (period {:?}, slow callback {:?})",
+            stats.last_latency_nanos, stats.last_response_nanos, PERIOD, SLOW_CALLBACK);
+        // 不同线程：响应不受慢回调影响，不超过一个周期（另留调度抖动余量）
+        let response = Duration::from_nanos(stats.last_response_nanos);
+        assert!(response < PERIOD * 2, "response {:?}", response);
+    }
+    
+    #[test]
+    fn test_slow_listener_delays_players_on_same_thread() {
+        let gap = measure_fast_player_gap(1);
+        println!("same thread: fast player max frame gap {:?} (period {:?}, slow callback {:?})",
+            gap, PERIOD, SLOW_CALLBACK);
+        // 同一线程：慢回调期间正常播放器不运行，帧间隔被拉长到至少一次慢回调的耗时，
+        // 但不超过慢回调耗时加一个周期（另留调度抖动余量）
+        assert!(gap >= SLOW_CALLBACK, "gap {:?}", gap);
+        assert!(gap < SLOW_CALLBACK + PERIOD * 3, "gap {:?}", gap);
+    }
+    
+    #[test]
+    fn test_slow_listener_does_not_delay_players_on_other_threads() {
+        let gap = measure_fast_player_gap(2);
+        println!("separate threads: fast player max frame gap {:?} (period {:?}, slow callback {:?})",
+            gap, PERIOD, SLOW_CALLBACK);
+        assert!(gap < SLOW_CALLBACK, "gap {:?}", gap);
+    }
+}
@@ -136,12 +136,11 @@ impl PrecisionTimer {
     
     /// RK3399优化：记录性能样本用于自适应调整
     fn record_performance_sample(&mut self, sample: u64) {
-        self.performance_samples.push(sample);
-        
-        // 保持样本数量在合理范围内
-        if self.performance_samples.len() > 100 {
+        // 保持样本数量在合理范围内：先移除最旧的样本再追加，不超过预分配的容量
+        if self.performance_samples.len() >= 100 {
             self.performance_samples.remove(0);
         }
+        self.performance_samples.push(sample);
     }
     
     /// RK3399优化：计算自适应补偿
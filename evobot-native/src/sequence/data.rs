@@ -7,13 +7,20 @@ pub struct SequenceData {
     pub total_duration: f32,
     pub total_frames: u32,
     pub compiled_at: u32,
-    pub left_arm_sequence: Vec<Vec<i32>>,  // [frame][joint]
-    pub right_arm_sequence: Vec<Vec<i32>>, // [frame][joint]
+    /// 帧数据：按帧连续存放，每帧 JOINTS_PER_FRAME 个原始位置（左臂0-9，右臂10-19），
+    /// HOLD_SENTINEL 表示保持上一有效值。整个序列只占一块内存，按帧访问返回切片，不复制
+    pub frames: Vec<u16>,
+    /// 保持值检查点：第k项为进入第 k * HOLD_CHECKPOINT_INTERVAL 帧之前每个关节的最后有效值
+    /// （左臂0-9，右臂10-19，-1表示尚无有效值），用于seek时恢复-1填充状态
+    #[serde(skip)]
+    pub hold_checkpoints: Vec<[i32; 20]>,
 }
 
 impl SequenceData {
     pub const JOINTS_PER_ARM: usize = 10;
+    pub const JOINTS_PER_FRAME: usize = 20;
     pub const HOLD_SENTINEL: u16 = 0xFFFF;
+    pub const HOLD_CHECKPOINT_INTERVAL: usize = 256;
     
     pub fn new() -> Self {
         Self {
@@ -22,29 +29,95 @@ impl SequenceData {
             total_duration: 0.0,
             total_frames: 0,
             compiled_at: 0,
-            left_arm_sequence: Vec::new(),
-            right_arm_sequence: Vec::new(),
+            frames: Vec::new(),
+            hold_checkpoints: Vec::new(),
         }
     }
     
     pub fn validate(&self) -> bool {
         self.total_frames > 0 
             && self.sample_rate > 0.0 
-            && self.left_arm_sequence.len() == self.total_frames as usize
-            && self.right_arm_sequence.len() == self.total_frames as usize
-            && self.left_arm_sequence.iter().all(|frame| frame.len() == Self::JOINTS_PER_ARM)
-            && self.right_arm_sequence.iter().all(|frame| frame.len() == Self::JOINTS_PER_ARM)
+            && self.frames.len() == self.total_frames as usize * Self::JOINTS_PER_FRAME
     }
     
-    pub fn get_frame_data(&self, frame_index: usize) -> Option<(Vec<i32>, Vec<i32>)> {
-        if frame_index >= self.total_frames as usize {
+    /// 原始位置转换为关节值：HOLD_SENTINEL 为-1（保持）
+    #[inline]
+    pub fn position(raw: u16) -> i32 {
+        if raw == Self::HOLD_SENTINEL {
+            -1
+        } else {
+            raw as i32
+        }
+    }
+    
+    /// 一帧的原始位置（左臂0-9，右臂10-19），借用序列内存
+    #[inline]
+    pub fn frame(&self, frame_index: usize) -> Option<&[u16]> {
+        let start = frame_index.checked_mul(Self::JOINTS_PER_FRAME)?;
+        self.frames.get(start..start + Self::JOINTS_PER_FRAME)
+    }
+    
+    /// 渲染一帧到 out：-1（保持）按 last_valid 填充，有效值同时更新 last_valid
+    /// 不分配内存；帧索引越界时返回false
+    pub fn render_frame(&self, frame_index: usize, last_valid: &mut [i32; 20], out: &mut [i32; 20]) -> bool {
+        let frame = match self.frame(frame_index) {
+            Some(frame) => frame,
+            None => return false,
+        };
+        for joint in 0..Self::JOINTS_PER_FRAME {
+            let raw = frame[joint];
+            if raw != Self::HOLD_SENTINEL {
+                last_valid[joint] = raw as i32;
+            }
+            out[joint] = last_valid[joint];
+        }
+        true
+    }
+    
+    /// 建立保持值检查点，加载完成后调用一次
+    pub fn build_hold_checkpoints(&mut self) {
+        let frame_count = self.total_frames as usize;
+        let mut checkpoints = Vec::with_capacity(
+            (frame_count + Self::HOLD_CHECKPOINT_INTERVAL - 1) / Self::HOLD_CHECKPOINT_INTERVAL,
+        );
+        let mut state = [-1i32; 20];
+        for frame in 0..frame_count {
+            if frame % Self::HOLD_CHECKPOINT_INTERVAL == 0 {
+                checkpoints.push(state);
+            }
+            self.apply_frame(frame, &mut state);
+        }
+        self.hold_checkpoints = checkpoints;
+    }
+    
+    /// 恢复进入指定帧之前的保持状态（左臂、右臂最后有效值）
+    /// 从最近的检查点开始最多扫描 HOLD_CHECKPOINT_INTERVAL - 1 帧；未建立检查点时从第0帧扫描
+    pub fn resolve_hold_state(&self, frame_index: usize) -> Option<[i32; 20]> {
+        if frame_index > self.total_frames as usize {
             return None;
         }
         
-        Some((
-            self.left_arm_sequence[frame_index].clone(),
-            self.right_arm_sequence[frame_index].clone(),
-        ))
+        let checkpoint = frame_index / Self::HOLD_CHECKPOINT_INTERVAL;
+        let (mut state, start) = match self.hold_checkpoints.get(checkpoint) {
+            Some(saved) => (*saved, checkpoint * Self::HOLD_CHECKPOINT_INTERVAL),
+            None => ([-1i32; 20], 0),
+        };
+        for frame in start..frame_index {
+            self.apply_frame(frame, &mut state);
+        }
+        
+        Some(state)
+    }
+    
+    /// 只把一帧的有效值折叠进保持状态，不输出（跳过的帧）
+    pub fn apply_frame(&self, frame_index: usize, state: &mut [i32; 20]) {
+        if let Some(frame) = self.frame(frame_index) {
+            for joint in 0..Self::JOINTS_PER_FRAME {
+                if frame[joint] != Self::HOLD_SENTINEL {
+                    state[joint] = frame[joint] as i32;
+                }
+            }
+        }
     }
     
     pub fn get_info(&self) -> String {
@@ -53,4 +126,63 @@ impl SequenceData {
             self.name, self.total_frames, self.sample_rate, self.total_duration
         )
     }
-}
\ No newline at end of file
+}
+
+#[cfg(test)]
+impl SequenceData {
+    /// 由原始帧构造40Hz的测试序列（已建立检查点）
+    pub(crate) fn from_frames(frames: &[[u16; 20]]) -> Self {
+        let mut sequence = SequenceData::new();
+        sequence.sample_rate = 40.0;
+        sequence.total_duration = frames.len() as f32 / 40.0;
+        sequence.total_frames = frames.len() as u32;
+        sequence.frames = frames.iter().flat_map(|frame| frame.iter().copied()).collect();
+        sequence.build_hold_checkpoints();
+        sequence
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    
+    #[test]
+    fn test_render_frame_fills_holds() {
+        let hold = SequenceData::HOLD_SENTINEL;
+        let mut first = [hold; 20];
+        first[0] = 100;
+        first[10] = 200;
+        let mut second = [hold; 20];
+        second[1] = 300;
+        let sequence = SequenceData::from_frames(&[first, second]);
+        assert!(sequence.validate());
+        
+        let mut last_valid = [-1i32; 20];
+        let mut out = [0i32; 20];
+        assert!(sequence.render_frame(0, &mut last_valid, &mut out));
+        assert_eq!(out[0], 100);
+        assert_eq!(out[1], -1);
+        assert_eq!(out[10], 200);
+        
+        assert!(sequence.render_frame(1, &mut last_valid, &mut out));
+        assert_eq!(out[0], 100);
+        assert_eq!(out[1], 300);
+        assert_eq!(out[10], 200);
+        
+        assert!(!sequence.render_frame(2, &mut last_valid, &mut out));
+        assert_eq!(sequence.resolve_hold_state(2), Some(last_valid));
+    }
+    
+    #[test]
+    fn test_frame_slices_borrow_contiguous_data() {
+        let mut frame = [SequenceData::HOLD_SENTINEL; 20];
+        frame[19] = 4095;
+        let sequence = SequenceData::from_frames(&[frame; 3]);
+        
+        let slice = sequence.frame(2).unwrap();
+        assert_eq!(slice.len(), SequenceData::JOINTS_PER_FRAME);
+        assert_eq!(SequenceData::position(slice[19]), 4095);
+        assert_eq!(SequenceData::position(slice[0]), -1);
+        assert!(sequence.frame(3).is_none());
+    }
+}
@@ -13,6 +13,8 @@ pub enum ParseError {
     InvalidSampleRate(f32),
     #[error("Invalid duration: {0}")]
     InvalidDuration(f32),
+    #[error("Invalid EBS2 payload: {0}")]
+    InvalidPayload(String),
     #[error("IO error: {0}")]
     IoError(#[from] std::io::Error),
 }
@@ -21,6 +23,9 @@ pub struct SequenceParser;
 
 impl SequenceParser {
     const MAGIC_NUMBER: &'static str = "EBS1";
+    const MAGIC_NUMBER_EBS2: &'static str = "EBS2";
+    const EBS2_BLOCK_FRAMES: usize = 256;
+    const EBS2_MAX_CODE: i32 = 4096;
     const HEADER_SIZE: usize = 96;
     const FRAME_SIZE: usize = 40;  // 20 joints × 2 bytes
     const NAME_SIZE: usize = 64;
@@ -37,8 +42,12 @@ impl SequenceParser {
         // 解析文件头
         let header = Self::parse_header(&mut cursor)?;
         
-        // 验证数据区大小
-        let expected_data_size = header.frame_count as usize * Self::FRAME_SIZE;
+        // 验证数据区大小（EBS2取文件头中记录的数据区长度）
+        let expected_data_size = if header.compressed {
+            header.payload_length as usize
+        } else {
+            header.frame_count as usize * Self::FRAME_SIZE
+        };
         let remaining_bytes = data.len() - Self::HEADER_SIZE;
         if remaining_bytes < expected_data_size {
             return Err(ParseError::IoError(
@@ -46,18 +55,26 @@ impl SequenceParser {
             ));
         }
         
-        // 解析帧数据
-        let (left_arm_sequence, right_arm_sequence) = Self::parse_frames(&mut cursor, header.frame_count)?;
+        // 解析帧数据到一块连续内存
+        let payload = &data[Self::HEADER_SIZE..Self::HEADER_SIZE + expected_data_size];
+        let frames = if header.compressed {
+            Self::parse_frames_ebs2(payload, header.frame_count)?
+        } else {
+            Self::parse_frames(payload, header.frame_count)
+        };
         
-        Ok(SequenceData {
+        let mut sequence = SequenceData {
             name: header.name,
             sample_rate: header.sample_rate,
             total_duration: header.total_duration,
             total_frames: header.frame_count,
             compiled_at: header.compiled_at,
-            left_arm_sequence,
-            right_arm_sequence,
-        })
+            frames,
+            hold_checkpoints: Vec::new(),
+        };
+        sequence.build_hold_checkpoints();
+        
+        Ok(sequence)
     }
     
     fn parse_header(cursor: &mut Cursor<&[u8]>) -> Result<HeaderData, ParseError> {
@@ -65,7 +82,8 @@ impl SequenceParser {
         let mut magic = [0u8; 4];
         cursor.read_exact(&mut magic)?;
         let magic_str = String::from_utf8_lossy(&magic);
-        if magic_str != Self::MAGIC_NUMBER {
+        let compressed = magic_str == Self::MAGIC_NUMBER_EBS2;
+        if magic_str != Self::MAGIC_NUMBER && !compressed {
             return Err(ParseError::InvalidMagic(magic_str.to_string()));
         }
         
@@ -87,8 +105,9 @@ impl SequenceParser {
         
         let compiled_at = cursor.read_u32::<LittleEndian>()?;
         
-        // 跳过保留字段 (12 bytes)
-        cursor.set_position(cursor.position() + 12);
+        // 保留字段 (12 bytes)：EBS2前4字节为数据区字节数
+        let payload_length = cursor.read_u32::<LittleEndian>()?;
+        cursor.set_position(cursor.position() + 8);
         
         // 读取名称 (64 bytes, UTF-8)
         let mut name_bytes = [0u8; Self::NAME_SIZE];
@@ -103,6 +122,8 @@ impl SequenceParser {
         );
         
         Ok(HeaderData {
+            compressed,
+            payload_length,
             frame_count,
             sample_rate,
             total_duration,
@@ -111,45 +132,225 @@ impl SequenceParser {
         })
     }
     
-    fn parse_frames(cursor: &mut Cursor<&[u8]>, frame_count: u32) -> Result<(Vec<Vec<i32>>, Vec<Vec<i32>>), ParseError> {
-        let mut left_arm_sequence = Vec::with_capacity(frame_count as usize);
-        let mut right_arm_sequence = Vec::with_capacity(frame_count as usize);
+    /// 解析EBS1数据区：每帧20个小端u16，按原样转换为本机字节序存入一块连续内存
+    fn parse_frames(payload: &[u8], frame_count: u32) -> Vec<u16> {
+        let frames: Vec<u16> = payload
+            .chunks_exact(2)
+            .map(|bytes| u16::from_le_bytes([bytes[0], bytes[1]]))
+            .collect();
+        
+        log::debug!("Parsed {} frames successfully", frame_count);
+        frames
+    }
+    
+    /// 解析EBS2压缩数据区（格式与Java端SequenceEncoder一致）
+    /// 
+    /// 数据区按256帧分块，每块前缀varint块字节数，块内按关节主序存储；
+    /// 编码值：保持为0，位置p为p+1；奇数令牌为差值0的游程，偶数令牌为zigzag差值
+    fn parse_frames_ebs2(payload: &[u8], frame_count: u32) -> Result<Vec<u16>, ParseError> {
+        let frame_count = frame_count as usize;
+        let joints = SequenceData::JOINTS_PER_FRAME;
+        let mut values = vec![SequenceData::HOLD_SENTINEL; frame_count * joints];
+        let mut prev = [0i32; 20];
+        let mut pos = 0usize;
         
-        for _ in 0..frame_count {
-            let mut left_arm = Vec::with_capacity(SequenceData::JOINTS_PER_ARM);
-            let mut right_arm = Vec::with_capacity(SequenceData::JOINTS_PER_ARM);
+        let mut first = 0usize;
+        while first < frame_count {
+            let frames = Self::EBS2_BLOCK_FRAMES.min(frame_count - first);
+            let block_length = Self::read_varint(payload, &mut pos, payload.len())? as usize;
+            let block_end = pos + block_length;
+            if block_length == 0 || block_end > payload.len() {
+                return Err(ParseError::InvalidPayload(format!("block length {}", block_length)));
+            }
             
-            // 读取20个关节数据
-            for joint in 0..20 {
-                let pos = cursor.read_u16::<LittleEndian>()?;
-                let value = if pos == SequenceData::HOLD_SENTINEL { 
-                    -1 
-                } else { 
-                    pos as i32 
-                };
-                
-                if joint < SequenceData::JOINTS_PER_ARM {
-                    // 左臂关节 0-9
-                    left_arm.push(value);
-                } else {
-                    // 右臂关节 0-9
-                    right_arm.push(value);
+            for joint in 0..joints {
+                let mut code = prev[joint];
+                let mut index = first * joints + joint;
+                let mut remaining = frames;
+                while remaining > 0 {
+                    let token = Self::read_varint(payload, &mut pos, block_end)?;
+                    if token & 1 != 0 {
+                        // 差值为0的游程
+                        let run = (token >> 1) as usize;
+                        if run == 0 || run > remaining {
+                            return Err(ParseError::InvalidPayload(format!("run length {}", run)));
+                        }
+                        for _ in 0..run {
+                            values[index] = Self::decode_position(code);
+                            index += joints;
+                        }
+                        remaining -= run;
+                    } else {
+                        let zigzag = token >> 1;
+                        code += ((zigzag >> 1) as i32) ^ -((zigzag & 1) as i32);
+                        if code < 0 || code > Self::EBS2_MAX_CODE {
+                            return Err(ParseError::InvalidPayload(format!("position {}", code - 1)));
+                        }
+                        values[index] = Self::decode_position(code);
+                        index += joints;
+                        remaining -= 1;
+                    }
                 }
+                prev[joint] = code;
             }
             
-            left_arm_sequence.push(left_arm);
-            right_arm_sequence.push(right_arm);
+            if pos != block_end {
+                return Err(ParseError::InvalidPayload("block length mismatch".to_string()));
+            }
+            first += frames;
         }
         
-        log::debug!("Parsed {} frames successfully", frame_count);
-        Ok((left_arm_sequence, right_arm_sequence))
+        if pos != payload.len() {
+            return Err(ParseError::InvalidPayload("payload length mismatch".to_string()));
+        }
+        
+        log::debug!("Parsed {} EBS2 frames from {} bytes", frame_count, payload.len());
+        Ok(values)
+    }
+    
+    /// 编码值0解码为保持（与EBS1的HOLD_SENTINEL一致），位置p编码为p+1
+    #[inline]
+    fn decode_position(code: i32) -> u16 {
+        if code == 0 {
+            SequenceData::HOLD_SENTINEL
+        } else {
+            (code - 1) as u16
+        }
+    }
+    
+    /// 读取无符号LEB128 varint
+    fn read_varint(data: &[u8], pos: &mut usize, end: usize) -> Result<u32, ParseError> {
+        let mut value = 0u32;
+        let mut shift = 0u32;
+        while shift < 32 {
+            if *pos >= end {
+                return Err(ParseError::InvalidPayload("truncated varint".to_string()));
+            }
+            let b = data[*pos];
+            *pos += 1;
+            value |= ((b & 0x7F) as u32) << shift;
+            if b & 0x80 == 0 {
+                return Ok(value);
+            }
+            shift += 7;
+        }
+        Err(ParseError::InvalidPayload("varint too long".to_string()))
     }
 }
 
 struct HeaderData {
+    compressed: bool,
+    payload_length: u32,
     frame_count: u32,
     sample_rate: f32,
     total_duration: f32,
     compiled_at: u32,
     name: String,
-}
\ No newline at end of file
+}
+#[cfg(test)]
+mod tests {
+    use super::*;
+    
+    /// Java端 SequenceEncoder.encodeEbs2 对 golden_value 描述的300帧序列的编码结果（数据区，跨两个块）
+    const GOLDEN_EBS2_PAYLOAD: [u8; 122] = [
+        0x5C, 0xA4, 0x1F, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F,
+        0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F, 0x04, 0x1F,
+        0x04, 0x1F, 0xC4, 0x3E, 0x63, 0xC2, 0x3E, 0x63, 0xC4, 0x3E, 0x63, 0xC2, 0x3E, 0x63, 0xC4, 0x3E,
+        0x63, 0xC2, 0x3E, 0x0B, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04,
+        0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x81, 0x04,
+        0x81, 0x04, 0x81, 0x04, 0x81, 0x04, 0x80, 0x80, 0x01, 0xFE, 0x7F, 0xFD, 0x03, 0x1C, 0x04, 0x1F,
+        0x04, 0x1F, 0x04, 0x17, 0x59, 0x59, 0x59, 0x59, 0x59, 0x59, 0x59, 0x59, 0x59, 0x59, 0x59, 0x59,
+        0x59, 0x59, 0x59, 0x59, 0x59, 0x59, 0x57, 0x80, 0x80, 0x01,
+    ];
+    const GOLDEN_FRAMES: u32 = 300;
+    
+    /// 金标准序列：关节0每16帧加1，关节1每100帧中前50帧为2000其余保持，关节19只在首尾两帧为4095
+    fn golden_value(frame: usize, joint: usize) -> u16 {
+        match joint {
+            0 => 1000 + (frame / 16) as u16,
+            1 if frame % 100 < 50 => 2000,
+            19 if frame == 0 || frame == GOLDEN_FRAMES as usize - 1 => 4095,
+            _ => SequenceData::HOLD_SENTINEL,
+        }
+    }
+    
+    fn header(magic: &[u8; 4], frame_count: u32, payload_length: u32) -> Vec<u8> {
+        let mut bytes = Vec::with_capacity(SequenceParser::HEADER_SIZE);
+        bytes.extend_from_slice(magic);
+        bytes.extend_from_slice(&frame_count.to_le_bytes());
+        bytes.extend_from_slice(&40.0f32.to_le_bytes());
+        bytes.extend_from_slice(&(frame_count as f32 / 40.0).to_le_bytes());
+        bytes.extend_from_slice(&0u32.to_le_bytes());
+        bytes.extend_from_slice(&payload_length.to_le_bytes());
+        bytes.extend_from_slice(&[0u8; 8]);
+        let mut name = [0u8; SequenceParser::NAME_SIZE];
+        name[..6].copy_from_slice(b"golden");
+        bytes.extend_from_slice(&name);
+        bytes
+    }
+    
+    fn assert_golden(sequence: &SequenceData) {
+        assert_eq!(sequence.name, "golden");
+        assert_eq!(sequence.total_frames, GOLDEN_FRAMES);
+        assert!(sequence.validate());
+        for frame in 0..GOLDEN_FRAMES as usize {
+            let values = sequence.frame(frame).unwrap();
+            for joint in 0..SequenceData::JOINTS_PER_FRAME {
+                assert_eq!(values[joint], golden_value(frame, joint), "frame {} joint {}", frame, joint);
+            }
+        }
+    }
+    
+    #[test]
+    fn test_parse_ebs1() {
+        let frame_count = GOLDEN_FRAMES as usize;
+        let mut bytes = header(b"EBS1", GOLDEN_FRAMES, 0);
+        for frame in 0..frame_count {
+            for joint in 0..SequenceData::JOINTS_PER_FRAME {
+                bytes.extend_from_slice(&golden_value(frame, joint).to_le_bytes());
+            }
+        }
+        
+        let sequence = SequenceParser::parse_from_bytes(&bytes).unwrap();
+        assert_golden(&sequence);
+        assert_eq!(sequence.hold_checkpoints.len(), 2);
+    }
+    
+    #[test]
+    fn test_parse_ebs2_matches_java_encoder() {
+        let mut bytes = header(b"EBS2", GOLDEN_FRAMES, GOLDEN_EBS2_PAYLOAD.len() as u32);
+        bytes.extend_from_slice(&GOLDEN_EBS2_PAYLOAD);
+        
+        let sequence = SequenceParser::parse_from_bytes(&bytes).unwrap();
+        assert_golden(&sequence);
+        
+        // 第二块的保持状态从检查点恢复：关节19在第0帧之后一直保持4095
+        let state = sequence.resolve_hold_state(298).unwrap();
+        assert_eq!(state[0], 1000 + 297 / 16);
+        assert_eq!(state[1], 2000);
+        assert_eq!(state[19], 4095);
+    }
+    
+    #[test]
+    fn test_parse_ebs2_rejects_truncated_payload() {
+        let truncated = &GOLDEN_EBS2_PAYLOAD[..GOLDEN_EBS2_PAYLOAD.len() - 1];
+        let mut bytes = header(b"EBS2", GOLDEN_FRAMES, truncated.len() as u32);
+        bytes.extend_from_slice(truncated);
+        
+        assert!(matches!(
+            SequenceParser::parse_from_bytes(&bytes),
+            Err(ParseError::InvalidPayload(_))
+        ));
+    }
+    
+    #[test]
+    fn test_parse_rejects_bad_magic() {
+        let mut bytes = header(b"EBSX", 1, 0);
+        bytes.extend_from_slice(&[0u8; SequenceParser::FRAME_SIZE]);
+        
+        assert!(matches!(
+            SequenceParser::parse_from_bytes(&bytes),
+            Err(ParseError::InvalidMagic(_))
+        ));
+    }
+}